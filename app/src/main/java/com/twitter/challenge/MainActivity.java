@@ -65,6 +65,9 @@ public class MainActivity extends AppCompatActivity implements WeatherView, View
 
         progressWheel = (ProgressWheel) findViewById(R.id.progressWheel);
 
+        // Debug builds - Settings for the next cold start, such as SDK warm-up
+        TweatherApplication.updateDebugSettings(this, getIntent());
+
         // Initialize the Presenter
         if (savedInstanceState == null) {
             presenter = new WeatherPresenterImpl(this);
@@ -200,6 +203,7 @@ public class MainActivity extends AppCompatActivity implements WeatherView, View
             temperatureView.setText(getString(R.string.temperature,
                     temperatureInCelcius,
                     TemperatureConverter.celsiusToFahrenheit(temperatureInCelcius)));
+            TweatherApplication.markStartupMilestone(TweatherApplication.MILESTONE_FIRST_TEMPERATURE);
             windInformationView.setText(getString(R.string.wind_information,
                     weatherData.getWind().getSpeed(), weatherData.getWind().getDeg()));
 
@@ -76,7 +76,7 @@ public class NetworkStateReceiver extends BroadcastReceiver {
                 Log.i(TAG, "onReceive - Just got network connectivity");
 
                 // This is why I like my design - there are no interfaces or callbacks involved. I can
-                // fire a request to get current weather data, and because of EventBus, once
+                // fire a request to get current weather data, and because of TweatherEvents, once
                 // the response is received, weather data will be directly published and
                 // Presenter will receive it. Presenter will then update the UI :)
                 //
@@ -0,0 +1,131 @@
+package com.twitter.challenge;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+import com.twitter.challenge.utils.StartupTimer;
+import com.twitter.tweathersdk.core.TweatherConfig;
+import com.twitter.tweathersdk.core.TweatherFuture;
+import com.twitter.tweathersdk.core.TweatherSdk;
+
+import java.io.File;
+
+/**
+ * Application class - Configures the SDK once per process,
+ * before any Activity makes a request, and warms it up off the
+ * main thread
+ *
+ * Startup milestones are measured from here, so time to first
+ * temperature can be compared with and without warm-up. Warm-up is
+ * on by default (BuildConfig.WARM_UP_SDK), and debug builds can turn
+ * it off without a rebuild, for the next cold start:
+ *
+ * adb shell am start -n com.twitter.challenge/.MainActivity --ez warm_up_sdk false
+ *
+ */
+
+public class TweatherApplication extends Application {
+    // Log Tag
+    private static final String TAG = TweatherApplication.class.getSimpleName();
+
+    // HTTP cache directory name and size
+    private static final String HTTP_CACHE_DIRECTORY = "tweather-http-cache";
+    private static final long HTTP_CACHE_SIZE_IN_BYTES = 2 * 1024 * 1024; // 2 MB
+
+    // Snapshot of last known weather data, shown right away on a cold start
+    private static final String SNAPSHOT_FILE = "tweather-snapshot.bin";
+
+    // Debug setting to warm up the SDK and pre-open a connection at startup,
+    // set with an Intent extra and read on the next cold start
+    public static final String EXTRA_WARM_UP_SDK = "warm_up_sdk";
+    private static final String DEBUG_SETTINGS = "tweather_debug_settings";
+
+    // Whether the SDK is warmed up in this process
+    private static boolean warmUpSdk;
+
+    // Startup milestones
+    public static final String MILESTONE_FIRST_TEMPERATURE = "first_temperature";
+
+    // Startup timer - Started when the process is created
+    private static final StartupTimer startupTimer = new StartupTimer();
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        Log.d(TAG, "onCreate - Configure TweatherSdk");
+        TweatherSdk.configure(new TweatherConfig.Builder()
+                .httpCache(new File(getCacheDir(), HTTP_CACHE_DIRECTORY), HTTP_CACHE_SIZE_IN_BYTES)
+                .snapshot(new File(getFilesDir(), SNAPSHOT_FILE))
+                .build());
+
+        warmUpSdk = isWarmUpEnabled(this);
+        if (warmUpSdk) {
+            TweatherSdk.warmUp(true).addListener(new TweatherFuture.Listener<Long>() {
+                @Override
+                public void onSuccess(Long warmUpMillis) {
+                    Log.i(TAG, "onCreate - TweatherSdk warm-up took " + warmUpMillis + " ms");
+                }
+
+                @Override
+                public void onFailure(Throwable error) {
+                    Log.w(TAG, "onCreate - TweatherSdk warm-up failed. " + error);
+                }
+            });
+        }
+    }
+
+    /**
+     * Method to record a startup milestone, and log time
+     * since process start the first time it is reached
+     *
+     * @param milestone - Name of the milestone
+     */
+    public static void markStartupMilestone(final String milestone) {
+        final Long elapsedMillis = startupTimer.markOnce(milestone);
+
+        if (elapsedMillis != null) {
+            Log.i(TAG, "markStartupMilestone - " + milestone + " after " + elapsedMillis +
+                    " ms (SDK warm-up " + (warmUpSdk ? "on" : "off") + ")");
+        }
+    }
+
+    /**
+     * Method to update debug settings from the extras of an
+     * Intent, in debug builds only. Settings take effect on the
+     * next cold start
+     *
+     * @param context - Context
+     * @param intent - Intent that started an Activity, can be null
+     */
+    public static void updateDebugSettings(final Context context, final Intent intent) {
+        if (!BuildConfig.DEBUG || intent == null || !intent.hasExtra(EXTRA_WARM_UP_SDK)) {
+            return;
+        }
+
+        final boolean warmUp = intent.getBooleanExtra(EXTRA_WARM_UP_SDK, BuildConfig.WARM_UP_SDK);
+        context.getSharedPreferences(DEBUG_SETTINGS, Context.MODE_PRIVATE).edit()
+                .putBoolean(EXTRA_WARM_UP_SDK, warmUp)
+                .apply();
+        Log.i(TAG, "updateDebugSettings - SDK warm-up " + (warmUp ? "on" : "off") + " from next cold start");
+    }
+
+    /**
+     * Helper method to check whether the SDK is warmed up at
+     * startup. Release builds use BuildConfig.WARM_UP_SDK, debug
+     * builds the debug setting if it is set
+     *
+     * @param context - Context
+     * @return true to warm up the SDK
+     */
+    private static boolean isWarmUpEnabled(final Context context) {
+        if (!BuildConfig.DEBUG) {
+            return BuildConfig.WARM_UP_SDK;
+        }
+
+        return context.getSharedPreferences(DEBUG_SETTINGS, Context.MODE_PRIVATE)
+                .getBoolean(EXTRA_WARM_UP_SDK, BuildConfig.WARM_UP_SDK);
+    }
+}
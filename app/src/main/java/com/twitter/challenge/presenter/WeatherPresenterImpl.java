@@ -5,17 +5,18 @@ import android.util.Log;
 import com.twitter.challenge.R;
 import com.twitter.challenge.utils.StandardDeviationCalculator;
 import com.twitter.challenge.WeatherView;
+import com.twitter.tweathersdk.core.ForecastProgress;
+import com.twitter.tweathersdk.core.RunningStatistics;
+import com.twitter.tweathersdk.core.TweatherEventListener;
+import com.twitter.tweathersdk.core.TweatherEvents;
 import com.twitter.tweathersdk.core.TweatherSdk;
 import com.twitter.tweathersdk.core.events.CurrentWeatherEvent;
 import com.twitter.tweathersdk.core.events.FutureWeatherEvent;
+import com.twitter.tweathersdk.core.events.FutureWeatherProgressEvent;
 import com.twitter.tweathersdk.model.WeatherDataPojo;
 
-import org.greenrobot.eventbus.EventBus;
-import org.greenrobot.eventbus.Subscribe;
-import org.greenrobot.eventbus.ThreadMode;
-
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by anuj on 3/3/18.
@@ -29,6 +30,9 @@ public class WeatherPresenterImpl implements WeatherPresenter {
     // Log Tag
     private final static String TAG = WeatherPresenterImpl.class.getSimpleName();
 
+    // Age of replayed current weather that is shown without checking the SDK cache
+    private final static long CURRENT_WEATHER_MAX_AGE_IN_MINUTES = 10;
+
     // WeatherView for the Presenter
     private WeatherView weatherView;
 
@@ -38,6 +42,30 @@ public class WeatherPresenterImpl implements WeatherPresenter {
     // Standard Deviation
     private Double standardDeviation = null;
 
+    // Listener for current weather, called on the main thread
+    private final TweatherEventListener<CurrentWeatherEvent> currentWeatherListener = new TweatherEventListener<CurrentWeatherEvent>() {
+        @Override
+        public void onEvent(CurrentWeatherEvent event) {
+            onCurrentWeatherEvent(event);
+        }
+    };
+
+    // Listener for partial future weather, called on the main thread
+    private final TweatherEventListener<FutureWeatherProgressEvent> futureWeatherProgressListener = new TweatherEventListener<FutureWeatherProgressEvent>() {
+        @Override
+        public void onEvent(FutureWeatherProgressEvent event) {
+            onFutureWeatherProgressEvent(event);
+        }
+    };
+
+    // Listener for future weather, called on the main thread
+    private final TweatherEventListener<FutureWeatherEvent> futureWeatherListener = new TweatherEventListener<FutureWeatherEvent>() {
+        @Override
+        public void onEvent(FutureWeatherEvent event) {
+            onFutureWeatherEvent(event);
+        }
+    };
+
     /**
      * Constructor for Weather Presenter
      * @param weatherView - Weather View
@@ -74,21 +102,37 @@ public class WeatherPresenterImpl implements WeatherPresenter {
     /**
      * Implementation of Presenter start
      *
-     * Subscribe to the EventBus
+     * Register listeners for SDK events
      *
      */
     @Override
     public void start() {
-        Log.d(TAG, "start called - Register EventBus");
-        EventBus.getDefault().register(this);
-
-        // If we do not have data for temperature yet,
-        // make a request
-        if (currentWeather == null) {
-            Log.i(TAG, "start - Current weather is null, request current weather from SDK");
-            TweatherSdk.getTweatherSdkInstance().requestCurrentWeatherData();
+        Log.d(TAG, "start called - Register event listeners");
+        final TweatherEvents events = TweatherEvents.getDefault();
+        events.registerOnMainThread(FutureWeatherProgressEvent.class, futureWeatherProgressListener);
+        events.registerOnMainThread(FutureWeatherEvent.class, futureWeatherListener);
+
+        // SDK replays the latest current weather it has published, for
+        // example for another screen, right away. If it was published
+        // recently, there is nothing else to do
+        final boolean hadCurrentWeather = currentWeather != null;
+        final boolean recentWeatherReplayed = events.registerOnMainThread(CurrentWeatherEvent.class,
+                currentWeatherListener, CURRENT_WEATHER_MAX_AGE_IN_MINUTES, TimeUnit.MINUTES);
+
+        // If we do not have recent data for temperature yet, get
+        // it from SDK cache. SDK revalidates in background if
+        // cached data is stale or missing, and publishes an event
+        // when the data changes
+        if (!hadCurrentWeather && !recentWeatherReplayed) {
+            Log.i(TAG, "start - No recent current weather, get current weather from SDK");
+            final WeatherDataPojo cachedWeather = TweatherSdk.getTweatherSdkInstance().getCurrentWeatherData();
+
+            if (currentWeather == null) {
+                currentWeather = cachedWeather;
+            }
         }
-        else if (weatherView != null) {
+
+        if (currentWeather != null && weatherView != null) {
             Log.i(TAG, "start - Current weather is not null, update the UI with weather data");
             weatherView.updateCurrentWeather(currentWeather);
 
@@ -111,6 +155,13 @@ public class WeatherPresenterImpl implements WeatherPresenter {
         // the data when app is running, if we have already have
         // standard deviation calculated, we will not make a new
         // network request, and directly update the UI
+        //
+        // SDK may also have future weather data cached already, in which
+        // case standard deviation can be calculated without waiting for network
+        if (standardDeviation == null) {
+            standardDeviation = calculateStandardDeviation(TweatherSdk.getTweatherSdkInstance().getFutureWeatherData());
+        }
+
         if (standardDeviation != null &&
                 weatherView != null) {
             Log.i(TAG, "onStandardDeviationButtonClicked - Standard deviation is cached, update the View");
@@ -132,12 +183,15 @@ public class WeatherPresenterImpl implements WeatherPresenter {
     /**
      * Implementation of Presenter stop
      *
-     * Un-subscribe to the EventBus
+     * Unregister listeners for SDK events
      */
     @Override
     public void stop() {
-        Log.d(TAG, "stop called - Unregister EventBus");
-        EventBus.getDefault().unregister(this);
+        Log.d(TAG, "stop called - Unregister event listeners");
+        final TweatherEvents events = TweatherEvents.getDefault();
+        events.unregister(CurrentWeatherEvent.class, currentWeatherListener);
+        events.unregister(FutureWeatherProgressEvent.class, futureWeatherProgressListener);
+        events.unregister(FutureWeatherEvent.class, futureWeatherListener);
     }
 
     /**
@@ -161,72 +215,138 @@ public class WeatherPresenterImpl implements WeatherPresenter {
     }
 
     /**
-     * Method that is invoked when EventBus publishes
-     * an event in response to one of the requests
+     * Method that is invoked when the SDK publishes
+     * current weather data
      *
-     * @param event - Event that is published
+     * @param event - CurrentWeatherEvent
      *
      */
-    @Subscribe(threadMode = ThreadMode.MAIN)
-    public void onMessageEvent(Object event) {
-        Log.d(TAG, "onMessageEvent called for class " + event.getClass().getSimpleName());
-
-        if (event instanceof CurrentWeatherEvent) {
-            WeatherDataPojo newWeatherData = ((CurrentWeatherEvent) event).getCurrentWeatherData();
-
-            if (newWeatherData != null &&
-                    newWeatherData.getWeather() != null &&
-                    newWeatherData.getWeather().getTemp() != null) {
-                this.currentWeather = newWeatherData;
-                if (weatherView != null) {
-                    Log.d(TAG, "onMessageEvent - Update UI with current weather information");
-                    weatherView.updateCurrentWeather(currentWeather);
-                } else {
-                    Log.w(TAG, "onMessageEvent - Cannot update UI with current weather information");
-                }
+    private void onCurrentWeatherEvent(final CurrentWeatherEvent event) {
+        Log.d(TAG, "onCurrentWeatherEvent called");
+
+        WeatherDataPojo newWeatherData = event.getCurrentWeatherData();
+
+        if (newWeatherData != null &&
+                newWeatherData.getWeather() != null &&
+                newWeatherData.getWeather().getTemp() != null) {
+            this.currentWeather = newWeatherData;
+            if (weatherView != null) {
+                Log.d(TAG, "onCurrentWeatherEvent - Update UI with current weather information");
+                weatherView.updateCurrentWeather(currentWeather);
+            } else {
+                Log.w(TAG, "onCurrentWeatherEvent - Cannot update UI with current weather information");
             }
         }
-        else if (event instanceof FutureWeatherEvent) {
-            if (weatherView != null) {
-                weatherView.hideProgress();
-
-                FutureWeatherEvent futureWeatherEvent = (FutureWeatherEvent) event;
-                List<WeatherDataPojo> futureWeatherList = futureWeatherEvent.getFutureWeatherData();
-
-                if (futureWeatherList != null &&
-                        futureWeatherList.size() == 5) {
-                    final List<Double> futureTemperatureList = new ArrayList<>();
-
-                    for (WeatherDataPojo weatherData : futureWeatherList) {
-                        // Show error and return in case there is something wrong with the data
-                        if (weatherData == null ||
-                                weatherData.getWeather() == null ||
-                                weatherData.getWeather().getTemp() == null) {
-                            Log.w(TAG, "onMessageEvent - Future weather data has one item null or invalid, cannot find standard deviation");
-
-                            weatherView.showError(R.string.standard_deviation_error);
-                            return;
-                        }
-
-                        // Add to the list
-                        futureTemperatureList.add(weatherData.getWeather().getTemp());
-                    }
-
-                    // Calculate standard deviation
-                    Log.d(TAG, "onMessageEvent - Calculate standard deviation and update the UI");
-                    standardDeviation = StandardDeviationCalculator.calculateStandardDeviation(futureTemperatureList);
-                    weatherView.updateStandardDeviation(standardDeviation);
-                }
-                else {
-                    Log.w(TAG, "onMessageEvent - Did not get complete future weather data, cannot find standard deviation");
-
-                    // Show an error using Toast
-                    weatherView.showError(R.string.standard_deviation_error);
-                }
+    }
+
+    /**
+     * Method that is invoked when the SDK publishes
+     * a day of future weather data
+     *
+     * Shows partial standard deviation while the remaining days
+     * are received. Final value is set by FutureWeatherEvent
+     *
+     * @param event - FutureWeatherProgressEvent
+     *
+     */
+    private void onFutureWeatherProgressEvent(final FutureWeatherProgressEvent event) {
+        final ForecastProgress progress = event.getProgress();
+
+        if (weatherView != null &&
+                !progress.isComplete() &&
+                progress.getNumberOfTemperatures() > 1) {
+            Log.d(TAG, "onFutureWeatherProgressEvent - Update the UI with partial standard deviation of " +
+                    progress.getNumberOfTemperatures() + " days");
+            weatherView.updateStandardDeviation(progress.getTemperatureStandardDeviation());
+        }
+    }
+
+    /**
+     * Method that is invoked when the SDK publishes
+     * future weather data
+     *
+     * @param event - FutureWeatherEvent
+     *
+     */
+    private void onFutureWeatherEvent(final FutureWeatherEvent event) {
+        Log.d(TAG, "onFutureWeatherEvent called");
+
+        if (weatherView != null) {
+            weatherView.hideProgress();
+
+            final Double newStandardDeviation = getStandardDeviation(event);
+
+            if (newStandardDeviation != null) {
+                Log.d(TAG, "onFutureWeatherEvent - Update the UI with standard deviation");
+                standardDeviation = newStandardDeviation;
+                weatherView.updateStandardDeviation(standardDeviation);
             }
             else {
-                Log.w(TAG, "onMessageEvent - Cannot update UI with standard deviation");
+                Log.w(TAG, "onFutureWeatherEvent - Did not get complete future weather data, cannot find standard deviation");
+
+                // Show an error using Toast
+                weatherView.showError(R.string.standard_deviation_error);
+            }
+        }
+        else {
+            Log.w(TAG, "onFutureWeatherEvent - Cannot update UI with standard deviation");
+        }
+    }
+
+    /**
+     * Helper method to get standard deviation of temperature
+     * for future weather data of an event
+     *
+     * SDK updates running statistics of temperature as each day is
+     * received, so when every day has a temperature, standard deviation
+     * is ready without another pass over the data
+     *
+     * @param event - FutureWeatherEvent
+     * @return Standard deviation, or null if future weather data is incomplete or invalid
+     */
+    private static Double getStandardDeviation(final FutureWeatherEvent event) {
+        final List<WeatherDataPojo> futureWeatherList = event.getFutureWeatherData();
+        final RunningStatistics statistics = event.getTemperatureStatistics();
+
+        if (futureWeatherList != null &&
+                !futureWeatherList.isEmpty() &&
+                statistics.getCount() == futureWeatherList.size()) {
+            return statistics.getStandardDeviation();
+        }
+
+        return calculateStandardDeviation(futureWeatherList);
+    }
+
+    /**
+     * Helper method to calculate standard deviation of
+     * temperature for future weather data
+     *
+     * @param futureWeatherList - Future weather data
+     * @return Standard deviation, or null if future weather data is incomplete or invalid
+     */
+    private static Double calculateStandardDeviation(final List<WeatherDataPojo> futureWeatherList) {
+        if (futureWeatherList == null ||
+                futureWeatherList.isEmpty()) {
+            return null;
+        }
+
+        // Primitive array, so temperatures are not boxed again
+        final double[] futureTemperatures = new double[futureWeatherList.size()];
+        int numberOfTemperatures = 0;
+
+        for (WeatherDataPojo weatherData : futureWeatherList) {
+            // Cannot calculate in case there is something wrong with the data
+            if (weatherData == null ||
+                    weatherData.getWeather() == null ||
+                    weatherData.getWeather().getTemp() == null) {
+                Log.w(TAG, "calculateStandardDeviation - Future weather data has one item null or invalid, cannot find standard deviation");
+                return null;
             }
+
+            // Add to the array
+            futureTemperatures[numberOfTemperatures++] = weatherData.getWeather().getTemp();
         }
+
+        return StandardDeviationCalculator.calculateStandardDeviation(futureTemperatures);
     }
 }
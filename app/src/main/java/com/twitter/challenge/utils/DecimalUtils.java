@@ -10,6 +10,16 @@ import java.text.DecimalFormat;
  */
 
 public class DecimalUtils {
+    // Formatter per thread - DecimalFormat is not thread safe, and
+    // creating one (pattern parsing, symbols lookup) per call costs
+    // many times the allocations of formatting a value
+    private static final ThreadLocal<DecimalFormat> DECIMAL_FORMATTER = new ThreadLocal<DecimalFormat>() {
+        @Override
+        protected DecimalFormat initialValue() {
+            return new DecimalFormat("0.0000");
+        }
+    };
+
     /**
      * Helper method to reduce the number of decimals
      * in a double
@@ -18,8 +28,7 @@ public class DecimalUtils {
      * @return Display String with less precision
      */
     public static String getDecimalDisplayString(final double value) {
-        final DecimalFormat decimalFormatter = new DecimalFormat("0.0000");
-        return decimalFormatter.format(value);
+        return DECIMAL_FORMATTER.get().format(value);
     }
 
     /**
@@ -30,7 +39,6 @@ public class DecimalUtils {
      * @return Display String with less precision
      */
     public static String getDecimalDisplayString(final float value) {
-        final DecimalFormat decimalFormatter = new DecimalFormat("0.0000");
-        return decimalFormatter.format(value);
+        return DECIMAL_FORMATTER.get().format(value);
     }
 }
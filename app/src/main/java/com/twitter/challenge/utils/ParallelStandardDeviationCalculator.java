@@ -0,0 +1,275 @@
+package com.twitter.challenge.utils;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class that has method to calculate standard deviation of
+ * long series, such as years of hourly temperatures, on several
+ * threads.
+ *
+ * The series is split into chunks. Each chunk gets its own mean and
+ * sum of squared deviations (M2) with the sequential kernels of
+ * StandardDeviationCalculator, and chunk results are merged with Chan's
+ * parallel formula, so the result matches the sequential one to
+ * rounding. Series shorter than SEQUENTIAL_THRESHOLD are not split, the
+ * handoff to other threads costs more than it saves.
+ *
+ * Workers and the calling thread claim chunks from a shared counter,
+ * and the calling thread only waits for chunks claimed by running
+ * threads. So the calculation finishes even if every thread of the
+ * executor is busy, including when it is called from one of them.
+ *
+ */
+
+public class ParallelStandardDeviationCalculator {
+    // Series shorter than this are calculated on the calling thread
+    public static final int SEQUENTIAL_THRESHOLD = 1 << 16;
+
+    // Min number of values per chunk
+    private static final int MIN_CHUNK_SIZE = 1 << 13;
+
+    // Chunks per thread, so a slow thread doesn't hold up the result
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    // Shared executor threads, they exit when idle
+    private static final String THREAD_NAME_PREFIX = "StandardDeviation-";
+    private static final long KEEP_ALIVE_IN_SECONDS = 30;
+
+    /**
+     * Lazy holder of the shared executor, threads are only
+     * started on the first long series
+     *
+     */
+    private static final class ExecutorHolder {
+        private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+        private static final ExecutorService EXECUTOR = createExecutor(PARALLELISM);
+    }
+
+    /**
+     * This method calculates and returns standard deviation
+     * of an array of values, on all available processors
+     *
+     * @param values - Values
+     * @return Standard Deviation, 0 for a single value
+     * @throws IllegalArgumentException - If the input array is empty or null
+     */
+    public static double calculateStandardDeviation(@NonNull final double[] values) throws IllegalArgumentException {
+        if (values == null) {
+            return StandardDeviationCalculator.calculateStandardDeviation((double[]) null);
+        }
+
+        return calculateStandardDeviation(values, 0, values.length);
+    }
+
+    /**
+     * This method calculates and returns standard deviation
+     * of a slice of an array of values, on all available processors
+     *
+     * @param values - Values
+     * @param offset - Index of the first value of the slice
+     * @param length - Number of values in the slice
+     * @return Standard Deviation, 0 for a single value
+     * @throws IllegalArgumentException - If the input array is null or the slice is empty
+     * @throws IndexOutOfBoundsException - If the slice is not within the array
+     */
+    public static double calculateStandardDeviation(@NonNull final double[] values,
+                                                    final int offset,
+                                                    final int length) throws IllegalArgumentException {
+        if (length < SEQUENTIAL_THRESHOLD) {
+            return StandardDeviationCalculator.calculateStandardDeviation(values, offset, length);
+        }
+
+        return calculateStandardDeviation(values, offset, length,
+                ExecutorHolder.EXECUTOR, ExecutorHolder.PARALLELISM);
+    }
+
+    /**
+     * This method calculates and returns standard deviation
+     * of a slice of an array of values, with up to parallelism
+     * threads: the calling thread and parallelism - 1 tasks of
+     * the executor
+     *
+     * @param values - Values
+     * @param offset - Index of the first value of the slice
+     * @param length - Number of values in the slice
+     * @param executor - Executor for the tasks
+     * @param parallelism - Max number of threads, 1 to calculate on the calling thread
+     * @return Standard Deviation, 0 for a single value
+     * @throws IllegalArgumentException - If the input array is null, the slice is empty,
+     * executor is null or parallelism is less than 1
+     * @throws IndexOutOfBoundsException - If the slice is not within the array
+     */
+    public static double calculateStandardDeviation(@NonNull final double[] values,
+                                                    final int offset,
+                                                    final int length,
+                                                    @NonNull final ExecutorService executor,
+                                                    final int parallelism) throws IllegalArgumentException {
+        if (executor == null || parallelism < 1) {
+            throw new IllegalArgumentException("Executor is null or parallelism " + parallelism + " is less than 1");
+        }
+
+        StandardDeviationCalculator.checkSlice(values == null ? -1 : values.length, offset, length);
+
+        final int numberOfChunks = Math.min(parallelism * CHUNKS_PER_THREAD, length / MIN_CHUNK_SIZE);
+        if (parallelism == 1 || length < SEQUENTIAL_THRESHOLD || numberOfChunks < 2) {
+            return StandardDeviationCalculator.calculateStandardDeviation(values, offset, length);
+        }
+
+        final ChunkTask task = new ChunkTask(values, offset, length, numberOfChunks);
+        final Future<?>[] futures = new Future<?>[Math.min(parallelism, numberOfChunks) - 1];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = executor.submit(task);
+        }
+
+        task.run();
+
+        // All chunks are claimed, drop tasks that haven't started
+        // and wait for the chunks still being calculated
+        for (Future<?> future : futures) {
+            future.cancel(false);
+        }
+
+        return task.merge();
+    }
+
+    /**
+     * Helper method to create the shared executor. Its threads
+     * exit when idle, long series are rare
+     *
+     * @param parallelism - Number of threads
+     * @return ExecutorService
+     */
+    private static ExecutorService createExecutor(final int parallelism) {
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism,
+                KEEP_ALIVE_IN_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        final Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Task that claims chunks of the series and calculates
+     * their mean and M2, until no chunk is left. The same task
+     * runs on every thread
+     *
+     */
+    private static final class ChunkTask implements Runnable {
+        // Slice of the series and number of chunks it is split into
+        private final double[] values;
+        private final int offset;
+        private final int length;
+        private final int numberOfChunks;
+
+        // Index of the next chunk to claim
+        private final AtomicInteger nextChunk = new AtomicInteger();
+
+        // Mean and M2 of each chunk, written by the thread that claimed it
+        private final double[] means;
+        private final double[] m2s;
+
+        // Counted down when a chunk is calculated or failed
+        private final CountDownLatch remainingChunks;
+
+        // First failure of a chunk, if any
+        private volatile RuntimeException failure;
+
+        ChunkTask(final double[] values, final int offset, final int length, final int numberOfChunks) {
+            this.values = values;
+            this.offset = offset;
+            this.length = length;
+            this.numberOfChunks = numberOfChunks;
+            this.means = new double[numberOfChunks];
+            this.m2s = new double[numberOfChunks];
+            this.remainingChunks = new CountDownLatch(numberOfChunks);
+        }
+
+        @Override
+        public void run() {
+            int chunk;
+            while ((chunk = nextChunk.getAndIncrement()) < numberOfChunks) {
+                final int chunkOffset = chunkStart(chunk);
+                final int chunkLength = chunkStart(chunk + 1) - chunkOffset;
+
+                try {
+                    final double mean = StandardDeviationCalculator.sum(values, chunkOffset, chunkLength) / chunkLength;
+                    means[chunk] = mean;
+                    m2s[chunk] = StandardDeviationCalculator.sumOfSquaredDeviations(values,
+                            chunkOffset, chunkLength, mean);
+                }
+                catch (RuntimeException e) {
+                    failure = e;
+                }
+                finally {
+                    remainingChunks.countDown();
+                }
+            }
+        }
+
+        /**
+         * Helper method to wait for every chunk and merge chunk
+         * results with Chan's formula. Only chunks claimed by running
+         * threads are waited for, tasks that start later find none left
+         *
+         * @return Standard Deviation
+         */
+        double merge() {
+            try {
+                remainingChunks.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for standard deviation chunks", e);
+            }
+
+            if (failure != null) {
+                throw new IllegalStateException("Standard deviation chunk failed", failure);
+            }
+
+            long count = chunkStart(1) - offset;
+            double mean = means[0];
+            double m2 = m2s[0];
+
+            for (int chunk = 1; chunk < numberOfChunks; chunk++) {
+                final long chunkCount = chunkStart(chunk + 1) - chunkStart(chunk);
+                final long newCount = count + chunkCount;
+                final double delta = means[chunk] - mean;
+
+                mean += delta * chunkCount / newCount;
+                m2 += m2s[chunk] + delta * delta * count / newCount * chunkCount;
+                count = newCount;
+            }
+
+            return StandardDeviationCalculator.standardDeviation(m2, length);
+        }
+
+        /**
+         * Helper method to get index of the first value of a chunk,
+         * chunks differ in size by at most one value
+         *
+         * @param chunk - Index of the chunk, numberOfChunks for the end of the slice
+         * @return Index in the array
+         */
+        private int chunkStart(final int chunk) {
+            return offset + (int) ((long) length * chunk / numberOfChunks);
+        }
+    }
+}
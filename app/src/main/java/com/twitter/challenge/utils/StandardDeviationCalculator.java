@@ -2,6 +2,7 @@ package com.twitter.challenge.utils;
 
 import android.support.annotation.NonNull;
 
+import java.nio.DoubleBuffer;
 import java.util.List;
 
 /**
@@ -20,9 +21,30 @@ import java.util.List;
  * source code unless there is a compelling reason to refactor the
  * existing code.
  *
+ * Primitive overloads take double[], float[], slices of them and
+ * DoubleBuffer (heap or direct), for long series such as historical
+ * temperatures, without boxing every value into a List. Values are
+ * summed in blocks, with loops unrolled by 4 into independent
+ * accumulators so the JIT can keep several additions in flight, and
+ * block sums are added with Kahan (compensated) summation, so rounding
+ * errors are bounded by the block size, not by the length of the series.
+ * The second pass also sums the deviations, to correct for the rounding
+ * error of the mean (corrected two-pass). float[] values have their own
+ * loops, in the same order as the double[] ones, and direct buffer values
+ * are copied one block at a time into a scratch double[] for the double[]
+ * loops, so every input type gives the same result for the same values.
+ *
  */
 
 public class StandardDeviationCalculator {
+    // Number of values summed with plain accumulators before the
+    // block sum is added to the compensated total
+    private static final int BLOCK_SIZE = 1024;
+
+    // Error message for an empty or null input
+    private static final String INVALID_INPUT_MESSAGE =
+            "Invalid input size. Please make sure input list is valid and has at least one value";
+
     /**
      * This method calculates and returns standard deviation
      * for a given list of float values.
@@ -36,7 +58,7 @@ public class StandardDeviationCalculator {
      */
     public static double calculateStandardDeviation(@NonNull final List<Double> values) throws IllegalArgumentException {
         if (values == null || values.size() == 0) {
-            throw new IllegalArgumentException("Invalid input size. Please make sure input list is valid and has at least one value");
+            throw new IllegalArgumentException(INVALID_INPUT_MESSAGE);
         }
 
         if (values.size() == 1) {
@@ -60,9 +82,416 @@ public class StandardDeviationCalculator {
         sum = 0.0d; // Reset the sum to calculate summation
 
         for (double value: values) {
-            sum += Math.pow(value - mean, 2);
+            final double deviation = value - mean;
+            sum += deviation * deviation;
         }
 
         return Math.sqrt(sum / (values.size() - 1));
     }
+
+    /**
+     * This method calculates and returns standard deviation
+     * of an array of values
+     *
+     * @param values - Values
+     * @return Standard Deviation, 0 for a single value
+     * @throws IllegalArgumentException - If the input array is empty or null
+     */
+    public static double calculateStandardDeviation(@NonNull final double[] values) throws IllegalArgumentException {
+        if (values == null) {
+            throw new IllegalArgumentException(INVALID_INPUT_MESSAGE);
+        }
+
+        return calculateStandardDeviation(values, 0, values.length);
+    }
+
+    /**
+     * This method calculates and returns standard deviation
+     * of a slice of an array of values
+     *
+     * @param values - Values
+     * @param offset - Index of the first value of the slice
+     * @param length - Number of values in the slice
+     * @return Standard Deviation, 0 for a single value
+     * @throws IllegalArgumentException - If the input array is null or the slice is empty
+     * @throws IndexOutOfBoundsException - If the slice is not within the array
+     */
+    public static double calculateStandardDeviation(@NonNull final double[] values,
+                                                    final int offset,
+                                                    final int length) throws IllegalArgumentException {
+        checkSlice(values == null ? -1 : values.length, offset, length);
+
+        if (length == 1) {
+            return 0.0d;
+        }
+
+        final double mean = sum(values, offset, length) / length;
+        return standardDeviation(sumOfSquaredDeviations(values, offset, length, mean), length);
+    }
+
+    /**
+     * This method calculates and returns standard deviation
+     * of an array of float values. Sums are kept in double
+     *
+     * @param values - Values
+     * @return Standard Deviation, 0 for a single value
+     * @throws IllegalArgumentException - If the input array is empty or null
+     */
+    public static double calculateStandardDeviation(@NonNull final float[] values) throws IllegalArgumentException {
+        if (values == null) {
+            throw new IllegalArgumentException(INVALID_INPUT_MESSAGE);
+        }
+
+        return calculateStandardDeviation(values, 0, values.length);
+    }
+
+    /**
+     * This method calculates and returns standard deviation
+     * of a slice of an array of float values. Sums are kept in double
+     *
+     * @param values - Values
+     * @param offset - Index of the first value of the slice
+     * @param length - Number of values in the slice
+     * @return Standard Deviation, 0 for a single value
+     * @throws IllegalArgumentException - If the input array is null or the slice is empty
+     * @throws IndexOutOfBoundsException - If the slice is not within the array
+     */
+    public static double calculateStandardDeviation(@NonNull final float[] values,
+                                                    final int offset,
+                                                    final int length) throws IllegalArgumentException {
+        checkSlice(values == null ? -1 : values.length, offset, length);
+
+        if (length == 1) {
+            return 0.0d;
+        }
+
+        final double mean = sum(values, offset, length) / length;
+        return standardDeviation(sumOfSquaredDeviations(values, offset, length, mean), length);
+    }
+
+    /**
+     * This method calculates and returns standard deviation
+     * of the remaining values of a buffer, from its position to its
+     * limit. The position of the buffer is not changed
+     *
+     * Heap buffers are read in place through their backing array.
+     * Direct (off-heap) buffers are copied one block at a time, with
+     * bulk gets, into a scratch array of BLOCK_SIZE values.
+     *
+     * @param values - Buffer of values
+     * @return Standard Deviation, 0 for a single value
+     * @throws IllegalArgumentException - If the buffer is null or has no remaining value
+     */
+    public static double calculateStandardDeviation(@NonNull final DoubleBuffer values) throws IllegalArgumentException {
+        if (values == null || !values.hasRemaining()) {
+            throw new IllegalArgumentException(INVALID_INPUT_MESSAGE);
+        }
+
+        final int offset = values.position();
+        final int length = values.remaining();
+
+        if (values.hasArray()) {
+            return calculateStandardDeviation(values.array(), values.arrayOffset() + offset, length);
+        }
+
+        if (length == 1) {
+            return 0.0d;
+        }
+
+        // Blocks are copied with bulk gets on a duplicate, so the
+        // position of the caller's buffer is not changed
+        final DoubleBuffer buffer = values.duplicate();
+        final double[] scratch = new double[Math.min(length, BLOCK_SIZE)];
+        final double mean = sum(scratch, offset, length, buffer) / length;
+        return standardDeviation(sumOfSquaredDeviations(scratch, offset, length, mean, buffer), length);
+    }
+
+    /**
+     * Helper method to check a slice of an array
+     *
+     * @param arrayLength - Length of the array, -1 if the array is null
+     * @param offset - Index of the first value of the slice
+     * @param length - Number of values in the slice
+     */
+    static void checkSlice(final int arrayLength, final int offset, final int length) {
+        if (arrayLength < 0 || length <= 0) {
+            throw new IllegalArgumentException(INVALID_INPUT_MESSAGE);
+        }
+
+        if (offset < 0 || offset > arrayLength - length) {
+            throw new IndexOutOfBoundsException("Slice [" + offset + ", " + offset + " + " + length +
+                    ") is not within array of length " + arrayLength);
+        }
+    }
+
+    /**
+     * Helper method to get sample standard deviation from the
+     * corrected sum of squared deviations
+     *
+     * @param sumOfSquaredDeviations - Sum of squared deviations from the mean
+     * @param length - Number of values, more than 1
+     * @return Standard Deviation
+     */
+    static double standardDeviation(final double sumOfSquaredDeviations, final int length) {
+        return Math.sqrt(Math.max(0.0d, sumOfSquaredDeviations) / (length - 1));
+    }
+
+    /**
+     * Helper method to sum a slice of values, with 4
+     * accumulators per block and Kahan compensated sum of blocks
+     *
+     * @param values - Values
+     * @param offset - Index of the first value
+     * @param length - Number of values
+     * @return Sum
+     */
+    static double sum(final double[] values, final int offset, final int length) {
+        return sum(values, offset, length, null);
+    }
+
+    /**
+     * Helper method to get the sum of squared deviations of
+     * a slice of values from their mean, corrected for the
+     * rounding error of the mean, with 4 accumulators per block and
+     * Kahan compensated sum of blocks
+     *
+     * @param values - Values
+     * @param offset - Index of the first value
+     * @param length - Number of values
+     * @param mean - Mean of the values
+     * @return Sum of squared deviations
+     */
+    static double sumOfSquaredDeviations(final double[] values,
+                                         final int offset,
+                                         final int length,
+                                         final double mean) {
+        return sumOfSquaredDeviations(values, offset, length, mean, null);
+    }
+
+    /**
+     * Helper method to sum a slice of values, one block at a time.
+     * With a source buffer, each block is first copied from the
+     * buffer to the start of values
+     *
+     * @param values - Values, or block of BLOCK_SIZE values with a source buffer
+     * @param offset - Index of the first value, in values or in the source buffer
+     * @param length - Number of values
+     * @param source - Buffer to copy blocks from, whose position is moved, null to read values in place
+     * @return Sum
+     */
+    private static double sum(final double[] values,
+                              final int offset,
+                              final int length,
+                              final DoubleBuffer source) {
+        double sum = 0.0d;
+        double error = 0.0d;
+
+        final int end = offset + length;
+        for (int blockStart = offset; blockStart < end; blockStart += BLOCK_SIZE) {
+            final int blockLength = Math.min(BLOCK_SIZE, end - blockStart);
+            final int from = source == null ? blockStart : readBlock(source, blockStart, blockLength, values);
+            final int blockEnd = from + blockLength;
+            final int unrolledEnd = from + (blockLength & ~3);
+            double sum0 = 0.0d, sum1 = 0.0d, sum2 = 0.0d, sum3 = 0.0d;
+            int i = from;
+
+            for (; i < unrolledEnd; i += 4) {
+                sum0 += values[i];
+                sum1 += values[i + 1];
+                sum2 += values[i + 2];
+                sum3 += values[i + 3];
+            }
+
+            for (; i < blockEnd; i++) {
+                sum0 += values[i];
+            }
+
+            // Kahan summation of block sums
+            final double y = ((sum0 + sum1) + (sum2 + sum3)) - error;
+            final double t = sum + y;
+            error = (t - sum) - y;
+            sum = t;
+        }
+
+        return sum;
+    }
+
+    /**
+     * Helper method to get the sum of squared deviations of a
+     * slice of values, one block at a time. With a source buffer,
+     * each block is first copied from the buffer to the start of values
+     *
+     * @param values - Values, or block of BLOCK_SIZE values with a source buffer
+     * @param offset - Index of the first value, in values or in the source buffer
+     * @param length - Number of values
+     * @param mean - Mean of the values
+     * @param source - Buffer to copy blocks from, whose position is moved, null to read values in place
+     * @return Sum of squared deviations
+     */
+    private static double sumOfSquaredDeviations(final double[] values,
+                                                 final int offset,
+                                                 final int length,
+                                                 final double mean,
+                                                 final DoubleBuffer source) {
+        double sum = 0.0d;
+        double error = 0.0d;
+        double deviationSum = 0.0d;
+
+        final int end = offset + length;
+        for (int blockStart = offset; blockStart < end; blockStart += BLOCK_SIZE) {
+            final int blockLength = Math.min(BLOCK_SIZE, end - blockStart);
+            final int from = source == null ? blockStart : readBlock(source, blockStart, blockLength, values);
+            final int blockEnd = from + blockLength;
+            final int unrolledEnd = from + (blockLength & ~3);
+            double sum0 = 0.0d, sum1 = 0.0d, sum2 = 0.0d, sum3 = 0.0d;
+            double deviationSum0 = 0.0d, deviationSum1 = 0.0d;
+            int i = from;
+
+            for (; i < unrolledEnd; i += 4) {
+                final double d0 = values[i] - mean;
+                final double d1 = values[i + 1] - mean;
+                final double d2 = values[i + 2] - mean;
+                final double d3 = values[i + 3] - mean;
+                sum0 += d0 * d0;
+                sum1 += d1 * d1;
+                sum2 += d2 * d2;
+                sum3 += d3 * d3;
+                deviationSum0 += d0 + d1;
+                deviationSum1 += d2 + d3;
+            }
+
+            for (; i < blockEnd; i++) {
+                final double d0 = values[i] - mean;
+                sum0 += d0 * d0;
+                deviationSum0 += d0;
+            }
+
+            // Kahan summation of block sums
+            final double y = ((sum0 + sum1) + (sum2 + sum3)) - error;
+            final double t = sum + y;
+            error = (t - sum) - y;
+            sum = t;
+            deviationSum += deviationSum0 + deviationSum1;
+        }
+
+        return sum - deviationSum * deviationSum / length;
+    }
+
+    /**
+     * Helper method to sum a slice of float values, in the same
+     * order as the double[] kernel so results match it exactly.
+     * Each value is widened to double as it is read
+     *
+     * @param values - Values
+     * @param offset - Index of the first value
+     * @param length - Number of values
+     * @return Sum
+     */
+    private static double sum(final float[] values, final int offset, final int length) {
+        double sum = 0.0d;
+        double error = 0.0d;
+
+        final int end = offset + length;
+        for (int blockStart = offset; blockStart < end; blockStart += BLOCK_SIZE) {
+            final int blockEnd = Math.min(blockStart + BLOCK_SIZE, end);
+            final int unrolledEnd = blockStart + ((blockEnd - blockStart) & ~3);
+            double sum0 = 0.0d, sum1 = 0.0d, sum2 = 0.0d, sum3 = 0.0d;
+            int i = blockStart;
+
+            for (; i < unrolledEnd; i += 4) {
+                sum0 += values[i];
+                sum1 += values[i + 1];
+                sum2 += values[i + 2];
+                sum3 += values[i + 3];
+            }
+
+            for (; i < blockEnd; i++) {
+                sum0 += values[i];
+            }
+
+            // Kahan summation of block sums
+            final double y = ((sum0 + sum1) + (sum2 + sum3)) - error;
+            final double t = sum + y;
+            error = (t - sum) - y;
+            sum = t;
+        }
+
+        return sum;
+    }
+
+    /**
+     * Helper method to get the sum of squared deviations of a
+     * slice of float values, in the same order as the double[] kernel
+     * so results match it exactly. Deviations are calculated in double
+     *
+     * @param values - Values
+     * @param offset - Index of the first value
+     * @param length - Number of values
+     * @param mean - Mean of the values
+     * @return Sum of squared deviations
+     */
+    private static double sumOfSquaredDeviations(final float[] values,
+                                                 final int offset,
+                                                 final int length,
+                                                 final double mean) {
+        double sum = 0.0d;
+        double error = 0.0d;
+        double deviationSum = 0.0d;
+
+        final int end = offset + length;
+        for (int blockStart = offset; blockStart < end; blockStart += BLOCK_SIZE) {
+            final int blockEnd = Math.min(blockStart + BLOCK_SIZE, end);
+            final int unrolledEnd = blockStart + ((blockEnd - blockStart) & ~3);
+            double sum0 = 0.0d, sum1 = 0.0d, sum2 = 0.0d, sum3 = 0.0d;
+            double deviationSum0 = 0.0d, deviationSum1 = 0.0d;
+            int i = blockStart;
+
+            for (; i < unrolledEnd; i += 4) {
+                final double d0 = values[i] - mean;
+                final double d1 = values[i + 1] - mean;
+                final double d2 = values[i + 2] - mean;
+                final double d3 = values[i + 3] - mean;
+                sum0 += d0 * d0;
+                sum1 += d1 * d1;
+                sum2 += d2 * d2;
+                sum3 += d3 * d3;
+                deviationSum0 += d0 + d1;
+                deviationSum1 += d2 + d3;
+            }
+
+            for (; i < blockEnd; i++) {
+                final double d0 = values[i] - mean;
+                sum0 += d0 * d0;
+                deviationSum0 += d0;
+            }
+
+            // Kahan summation of block sums
+            final double y = ((sum0 + sum1) + (sum2 + sum3)) - error;
+            final double t = sum + y;
+            error = (t - sum) - y;
+            sum = t;
+            deviationSum += deviationSum0 + deviationSum1;
+        }
+
+        return sum - deviationSum * deviationSum / length;
+    }
+
+    /**
+     * Helper method to copy a block of a buffer to the start
+     * of a scratch array, with a bulk get
+     *
+     * @param source - Buffer of values, whose position is moved
+     * @param blockStart - Index of the first value of the block in the buffer
+     * @param blockLength - Number of values in the block, at most BLOCK_SIZE
+     * @param scratch - Block of BLOCK_SIZE values
+     * @return Index of the first value of the block in scratch, always 0
+     */
+    private static int readBlock(final DoubleBuffer source,
+                                 final int blockStart,
+                                 final int blockLength,
+                                 final double[] scratch) {
+        source.position(blockStart);
+        source.get(scratch, 0, blockLength);
+        return 0;
+    }
 }
@@ -0,0 +1,58 @@
+package com.twitter.challenge.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class to measure app startup milestones, for example time
+ * to first temperature on screen, from process start
+ *
+ * Each milestone is recorded only once, the first time it is
+ * reached, so later updates don't overwrite startup timings.
+ *
+ */
+
+public class StartupTimer {
+    // Start time from System.nanoTime()
+    private final long startNanos;
+
+    // Elapsed milliseconds per milestone, in the order they were reached
+    private final Map<String, Long> milestones = new LinkedHashMap<>();
+
+    /**
+     * Constructor - Starts the timer
+     *
+     */
+    public StartupTimer() {
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Method to record a milestone, if it has not been
+     * reached already
+     *
+     * @param milestone - Name of the milestone
+     * @return Elapsed milliseconds since start if this is the first time
+     * the milestone is reached, null otherwise
+     */
+    public synchronized Long markOnce(final String milestone) {
+        if (milestones.containsKey(milestone)) {
+            return null;
+        }
+
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        milestones.put(milestone, elapsedMillis);
+        return elapsedMillis;
+    }
+
+    /**
+     * Method to get elapsed time of a milestone
+     *
+     * @param milestone - Name of the milestone
+     * @return Elapsed milliseconds since start, or null if the milestone is not reached yet
+     */
+    public synchronized Long getElapsedMillis(final String milestone) {
+        return milestones.get(milestone);
+    }
+}
@@ -0,0 +1,105 @@
+package com.twitter.challenge;
+
+import com.twitter.challenge.utils.DecimalUtils;
+import com.twitter.challenge.utils.StandardDeviationCalculator;
+import com.twitter.tweathersdk.testing.AllocationMeter;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Allocation regression tests for app hot paths, run every time
+ * forecast data is received. Each test fails when a path allocates
+ * more bytes per operation than its budget in allocation-budgets.properties
+ *
+ * When a change needs more memory on one of these paths, raise its
+ * budget in the same change, so the cost is reviewed.
+ *
+ */
+
+public class AllocationBudgetTests {
+    // 5 day forecast temperatures
+    private static final List<Double> TEMPERATURES = Arrays.asList(56.27d, 64.71d, 58.54d, 52.00d, 67.15d);
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue("Allocated bytes are not counted by this JVM", AllocationMeter.isSupported());
+    }
+
+    /**
+     * Test case to verify allocations of standard deviation
+     * of a 5 day forecast
+     *
+     */
+    @Test
+    public void testStandardDeviation() throws Exception {
+        final long bytesPerOperation = AllocationMeter.bytesPerOperation(new AllocationMeter.Operation() {
+            @Override
+            public void run() {
+                StandardDeviationCalculator.calculateStandardDeviation(TEMPERATURES);
+            }
+        });
+
+        assertWithinBudget("standardDeviation", bytesPerOperation);
+    }
+
+    /**
+     * Test case to verify that standard deviation of a
+     * primitive array allocates nothing
+     *
+     */
+    @Test
+    public void testPrimitiveStandardDeviation() throws Exception {
+        final double[] temperatures = {56.27d, 64.71d, 58.54d, 52.00d, 67.15d};
+
+        final long bytesPerOperation = AllocationMeter.bytesPerOperation(new AllocationMeter.Operation() {
+            @Override
+            public void run() {
+                StandardDeviationCalculator.calculateStandardDeviation(temperatures);
+            }
+        });
+
+        assertWithinBudget("standardDeviation.primitive", bytesPerOperation);
+    }
+
+    /**
+     * Test case to verify allocations of formatting a
+     * value for display
+     *
+     */
+    @Test
+    public void testDisplayFormatting() throws Exception {
+        assertThat(DecimalUtils.getDecimalDisplayString(6.18336d)).isEqualTo("6.1834");
+
+        final long bytesPerOperation = AllocationMeter.bytesPerOperation(new AllocationMeter.Operation() {
+            @Override
+            public void run() {
+                DecimalUtils.getDecimalDisplayString(6.18336d);
+                DecimalUtils.getDecimalDisplayString(14.77f);
+            }
+        });
+
+        assertWithinBudget("displayFormatting", bytesPerOperation);
+    }
+
+    /**
+     * Helper method to check allocations of a path against
+     * its budget
+     *
+     * @param name - Name of the path in the budgets file
+     * @param bytesPerOperation - Measured bytes per operation
+     */
+    private static void assertWithinBudget(final String name, final long bytesPerOperation) throws Exception {
+        final long budget = AllocationMeter.budget(name);
+        assertThat(bytesPerOperation)
+                .overridingErrorMessage("%s allocates %d bytes/op, over its budget of %d bytes/op",
+                        name, bytesPerOperation, budget)
+                .isLessThanOrEqualTo(budget);
+    }
+}
@@ -0,0 +1,247 @@
+package com.twitter.challenge;
+
+import com.twitter.challenge.utils.ParallelStandardDeviationCalculator;
+import com.twitter.challenge.utils.StandardDeviationCalculator;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.within;
+
+/**
+ * Unit tests for ParallelStandardDeviationCalculator class
+ *
+ */
+
+public class ParallelStandardDeviationCalculatorTests {
+    // Threads of the executor shared by the tests
+    private static final int NUMBER_OF_THREADS = 4;
+
+    // Max relative difference from the sequential result
+    private static final double RELATIVE_TOLERANCE = 1e-12;
+
+    // Executor shared by the tests
+    private static ExecutorService executor;
+
+    @BeforeClass
+    public static void setUp() {
+        executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Test case to verify that the result matches the sequential
+     * one for sizes around the threshold and any parallelism
+     *
+     */
+    @Test
+    public void testMatchesSequential() {
+        final int threshold = ParallelStandardDeviationCalculator.SEQUENTIAL_THRESHOLD;
+        final int[] sizes = {1, 2, threshold - 1, threshold, threshold + 1, 3 * threshold + 7, 1000003};
+
+        for (int size : sizes) {
+            final double[] values = temperatures(size, 60.0d);
+            final double expected = StandardDeviationCalculator.calculateStandardDeviation(values);
+
+            for (int parallelism = 1; parallelism <= 2 * NUMBER_OF_THREADS; parallelism++) {
+                final double actual = ParallelStandardDeviationCalculator.calculateStandardDeviation(values,
+                        0, size, executor, parallelism);
+
+                assertThat(actual).isCloseTo(expected, within(expected * RELATIVE_TOLERANCE));
+            }
+
+            assertThat(ParallelStandardDeviationCalculator.calculateStandardDeviation(values))
+                    .isCloseTo(expected, within(expected * RELATIVE_TOLERANCE));
+        }
+    }
+
+    /**
+     * Test case to verify slices and values far from zero,
+     * where merging chunk results must not lose digits
+     *
+     */
+    @Test
+    public void testSliceWithLargeOffset() {
+        final double[] values = temperatures(500000, 1e9);
+        final double expected = StandardDeviationCalculator.calculateStandardDeviation(values, 12345, 400000);
+        final double actual = ParallelStandardDeviationCalculator.calculateStandardDeviation(values,
+                12345, 400000, executor, NUMBER_OF_THREADS);
+
+        assertThat(actual).isCloseTo(expected, within(expected * 1e-9));
+        assertThat(actual).isCloseTo(15.0d, within(0.1d));
+    }
+
+    /**
+     * Test case to verify that short series and parallelism 1
+     * are calculated on the calling thread, and long series use
+     * at most parallelism - 1 tasks
+     *
+     */
+    @Test
+    public void testTasks() {
+        final CountingExecutor countingExecutor = new CountingExecutor();
+        final double[] values = temperatures(4 * ParallelStandardDeviationCalculator.SEQUENTIAL_THRESHOLD, 60.0d);
+
+        ParallelStandardDeviationCalculator.calculateStandardDeviation(values,
+                0, ParallelStandardDeviationCalculator.SEQUENTIAL_THRESHOLD - 1, countingExecutor, 8);
+        ParallelStandardDeviationCalculator.calculateStandardDeviation(values,
+                0, values.length, countingExecutor, 1);
+        assertThat(countingExecutor.tasks.get()).isEqualTo(0);
+
+        ParallelStandardDeviationCalculator.calculateStandardDeviation(values,
+                0, values.length, countingExecutor, 4);
+        assertThat(countingExecutor.tasks.get()).isEqualTo(3);
+    }
+
+    /**
+     * Test case to verify that the calculation finishes when
+     * every thread of the executor is busy
+     *
+     */
+    @Test
+    public void testBusyExecutor() throws Exception {
+        final ExecutorService busyExecutor = Executors.newSingleThreadExecutor();
+        final CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            busyExecutor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        release.await();
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+
+            final double[] values = temperatures(1000000, 60.0d);
+            final double expected = StandardDeviationCalculator.calculateStandardDeviation(values);
+            final double actual = ParallelStandardDeviationCalculator.calculateStandardDeviation(values,
+                    0, values.length, busyExecutor, 8);
+
+            assertThat(actual).isCloseTo(expected, within(expected * RELATIVE_TOLERANCE));
+        }
+        finally {
+            release.countDown();
+            busyExecutor.shutdown();
+            assertThat(busyExecutor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    /**
+     * Test case to verify that invalid inputs are rejected
+     *
+     */
+    @Test
+    public void testInvalidInput() {
+        final double[] values = temperatures(ParallelStandardDeviationCalculator.SEQUENTIAL_THRESHOLD, 60.0d);
+
+        assertThrows(IllegalArgumentException.class, null, 0, values.length, executor, 4);
+        assertThrows(IllegalArgumentException.class, values, 0, 0, executor, 4);
+        assertThrows(IllegalArgumentException.class, values, 0, values.length, null, 4);
+        assertThrows(IllegalArgumentException.class, values, 0, values.length, executor, 0);
+        assertThrows(IndexOutOfBoundsException.class, values, 1, values.length, executor, 4);
+        assertThrows(IndexOutOfBoundsException.class, values, -1, values.length, executor, 4);
+    }
+
+    /**
+     * Helper method to check that an exception is thrown
+     *
+     * @param exceptionType - Type of the expected exception
+     * @param values - Values
+     * @param offset - Index of the first value of the slice
+     * @param length - Number of values in the slice
+     * @param executorService - Executor for the tasks
+     * @param parallelism - Max number of threads
+     */
+    private static void assertThrows(final Class<? extends RuntimeException> exceptionType,
+                                     final double[] values,
+                                     final int offset,
+                                     final int length,
+                                     final ExecutorService executorService,
+                                     final int parallelism) {
+        try {
+            ParallelStandardDeviationCalculator.calculateStandardDeviation(values,
+                    offset, length, executorService, parallelism);
+            throw new AssertionError("Expected " + exceptionType.getSimpleName());
+        }
+        catch (RuntimeException e) {
+            assertThat(e).isInstanceOf(exceptionType);
+        }
+    }
+
+    /**
+     * Helper method to create a series of temperatures
+     *
+     * @param size - Number of values
+     * @param mean - Mean of the values
+     * @return Values
+     */
+    private static double[] temperatures(final int size, final double mean) {
+        final Random random = new Random(42);
+        final double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = mean + random.nextGaussian() * 15.0d;
+        }
+
+        return values;
+    }
+
+    /**
+     * Executor that counts tasks and runs them on the
+     * submitting thread
+     *
+     */
+    private static final class CountingExecutor extends AbstractExecutorService {
+        // Number of submitted tasks
+        private final AtomicInteger tasks = new AtomicInteger();
+
+        @Override
+        public void execute(Runnable runnable) {
+            tasks.incrementAndGet();
+            runnable.run();
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return false;
+        }
+    }
+}
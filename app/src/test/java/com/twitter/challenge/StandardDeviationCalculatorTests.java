@@ -1,6 +1,7 @@
 package com.twitter.challenge;
 
 import com.twitter.challenge.utils.StandardDeviationCalculator;
+import com.twitter.tweathersdk.core.RunningStatistics;
 
 import org.assertj.core.data.Offset;
 import org.junit.Test;
@@ -9,8 +10,14 @@ import static org.assertj.core.api.Java6Assertions.assertThat;
 import static org.assertj.core.api.Java6Assertions.within;
 import static org.junit.Assert.*;
 
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 /**
  * Created by anuj on 3/2/18.
@@ -27,7 +34,7 @@ public class StandardDeviationCalculatorTests {
      */
     @Test (expected = IllegalArgumentException.class)
     public void testStandardDeviationForNullInput() {
-        StandardDeviationCalculator.calculateStandardDeviation(null);
+        StandardDeviationCalculator.calculateStandardDeviation((List<Double>) null);
     }
 
     /**
@@ -124,4 +131,249 @@ public class StandardDeviationCalculatorTests {
         final double expectedStandardDeviation = 5.81;
         assertThat(StandardDeviationCalculator.calculateStandardDeviation(inputList)).isEqualTo(expectedStandardDeviation, precision);
     }
+
+    /**
+     * Test case to verify that running statistics, updated one
+     * value at a time as forecasts arrive, match the two-pass
+     * standard deviation of the test lists above
+     *
+     */
+    @Test
+    public void testRunningStatisticsMatchTwoPass() {
+        assertRunningStatisticsMatchTwoPass(Arrays.asList(14.2d));
+        assertRunningStatisticsMatchTwoPass(Arrays.asList(56.27d, 64.71d, 58.54d, 52.00d, 67.15d));
+        assertRunningStatisticsMatchTwoPass(Arrays.asList(-3.65d, -2.13d, -0.76d, -3.61d, -1.95d));
+        assertRunningStatisticsMatchTwoPass(Arrays.asList(5.39d, -2.56d, -7.54d, 6.00d, 3.31d));
+    }
+
+    /**
+     * Test case to verify that running statistics match the
+     * two-pass standard deviation of long series, including a
+     * series far from zero
+     *
+     */
+    @Test
+    public void testRunningStatisticsMatchTwoPassForLongSeries() {
+        final Random random = new Random(7);
+
+        for (double offset : new double[] {0.0d, 1e6d}) {
+            final List<Double> inputList = new ArrayList<>();
+            for (int i = 0; i < 10000; i++) {
+                inputList.add(offset + 50.0d + random.nextGaussian() * 20.0d);
+            }
+
+            assertRunningStatisticsMatchTwoPass(inputList);
+        }
+    }
+
+    /**
+     * Helper method to check that running statistics of a list
+     * match its two-pass standard deviation
+     *
+     * @param inputList - Values
+     */
+    private static void assertRunningStatisticsMatchTwoPass(final List<Double> inputList) {
+        RunningStatistics statistics = RunningStatistics.EMPTY;
+        for (double value : inputList) {
+            statistics = statistics.plus(value);
+        }
+
+        final double twoPassStandardDeviation = StandardDeviationCalculator.calculateStandardDeviation(inputList);
+        assertThat(statistics.getCount()).isEqualTo(inputList.size());
+        assertThat(statistics.getStandardDeviation())
+                .isCloseTo(twoPassStandardDeviation, within(Math.max(1e-12d, twoPassStandardDeviation * 1e-9d)));
+    }
+
+    /**
+     * Test case to verify that primitive overloads match the
+     * list method for the test lists above, for every length
+     * around the unrolled loop
+     *
+     */
+    @Test
+    public void testPrimitiveOverloadsMatchList() {
+        final double[] values = {56.27d, 64.71d, 58.54d, 52.00d, 67.15d, -3.65d, -2.13d, -0.76d, -3.61d, -1.95d,
+                5.39d, -2.56d, -7.54d, 6.00d, 3.31d};
+        final Offset<Double> precision = within(1e-12d);
+
+        for (int length = 1; length <= values.length; length++) {
+            final List<Double> inputList = new ArrayList<>();
+            final float[] floatValues = new float[length];
+            for (int i = 0; i < length; i++) {
+                inputList.add(values[i]);
+                floatValues[i] = (float) values[i];
+            }
+
+            final double expectedStandardDeviation = StandardDeviationCalculator.calculateStandardDeviation(inputList);
+            final double[] slice = Arrays.copyOf(values, length);
+
+            assertThat(StandardDeviationCalculator.calculateStandardDeviation(slice))
+                    .isEqualTo(expectedStandardDeviation, precision);
+            assertThat(StandardDeviationCalculator.calculateStandardDeviation(values, 0, length))
+                    .isEqualTo(expectedStandardDeviation, precision);
+            assertThat(StandardDeviationCalculator.calculateStandardDeviation(DoubleBuffer.wrap(slice)))
+                    .isEqualTo(expectedStandardDeviation, precision);
+            assertThat(StandardDeviationCalculator.calculateStandardDeviation(directBuffer(slice)))
+                    .isEqualTo(expectedStandardDeviation, precision);
+
+            // Floats lose digits of the values, not of the sums
+            assertThat(StandardDeviationCalculator.calculateStandardDeviation(floatValues))
+                    .isEqualTo(expectedStandardDeviation, within(1e-4d));
+        }
+    }
+
+    /**
+     * Test case to verify slices of arrays and buffers, and
+     * that the position of a buffer is not changed
+     *
+     */
+    @Test
+    public void testSlices() {
+        final double[] values = {1000.0d, 56.27d, 64.71d, 58.54d, 52.00d, 67.15d, -1000.0d};
+        final Offset<Double> precision = within(0.01d);
+
+        assertThat(StandardDeviationCalculator.calculateStandardDeviation(values, 1, 5)).isEqualTo(6.18d, precision);
+        assertThat(StandardDeviationCalculator.calculateStandardDeviation(
+                new float[] {0.0f, 56.27f, 64.71f, 58.54f, 52.00f, 67.15f}, 1, 5)).isEqualTo(6.18d, precision);
+
+        // Slice of a heap buffer, and a buffer with a position
+        final DoubleBuffer heapBuffer = DoubleBuffer.wrap(values, 1, 5).slice();
+        assertThat(StandardDeviationCalculator.calculateStandardDeviation(heapBuffer)).isEqualTo(6.18d, precision);
+
+        final DoubleBuffer directBuffer = directBuffer(values);
+        directBuffer.position(1);
+        directBuffer.limit(6);
+        assertThat(StandardDeviationCalculator.calculateStandardDeviation(directBuffer)).isEqualTo(6.18d, precision);
+        assertThat(directBuffer.position()).isEqualTo(1);
+
+        assertThat(StandardDeviationCalculator.calculateStandardDeviation(values, 6, 1)).isEqualTo(0.0d);
+    }
+
+    /**
+     * Test case to verify that invalid primitive inputs are
+     * rejected
+     *
+     */
+    @Test
+    public void testInvalidPrimitiveInputs() {
+        try {
+            StandardDeviationCalculator.calculateStandardDeviation((double[]) null);
+            fail("Null array should be rejected");
+        }
+        catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        try {
+            StandardDeviationCalculator.calculateStandardDeviation(new float[0]);
+            fail("Empty array should be rejected");
+        }
+        catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        try {
+            StandardDeviationCalculator.calculateStandardDeviation(DoubleBuffer.allocate(0));
+            fail("Empty buffer should be rejected");
+        }
+        catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        try {
+            StandardDeviationCalculator.calculateStandardDeviation(new double[4], 2, 3);
+            fail("Slice out of the array should be rejected");
+        }
+        catch (IndexOutOfBoundsException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * Test case to verify accuracy of primitive overloads for a
+     * long series far from zero, against an exact reference
+     *
+     */
+    @Test
+    public void testPrimitiveAccuracyForLongSeries() {
+        final Random random = new Random(11);
+        final double[] values = new double[100000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1e8d + 50.0d + random.nextGaussian() * 20.0d;
+        }
+
+        final double expectedStandardDeviation = exactStandardDeviation(values);
+        final Offset<Double> precision = within(expectedStandardDeviation * 1e-12d);
+
+        assertThat(StandardDeviationCalculator.calculateStandardDeviation(values))
+                .isEqualTo(expectedStandardDeviation, precision);
+        assertThat(StandardDeviationCalculator.calculateStandardDeviation(directBuffer(values)))
+                .isEqualTo(expectedStandardDeviation, precision);
+    }
+
+    /**
+     * Test case to verify that float[] and direct buffer values,
+     * which are copied block by block, give exactly the double[]
+     * result for a series of several blocks and a partial last block
+     *
+     */
+    @Test
+    public void testBlockCopiesMatchDoubleArray() {
+        final Random random = new Random(7);
+        final float[] floatValues = new float[3 * 1024 + 5];
+        final double[] values = new double[floatValues.length];
+        for (int i = 0; i < values.length; i++) {
+            floatValues[i] = (float) (60.0d + random.nextGaussian() * 15.0d);
+            values[i] = floatValues[i];
+        }
+
+        final double expectedStandardDeviation = StandardDeviationCalculator.calculateStandardDeviation(values, 3, 3000);
+
+        assertThat(StandardDeviationCalculator.calculateStandardDeviation(floatValues, 3, 3000))
+                .isEqualTo(expectedStandardDeviation);
+
+        final DoubleBuffer buffer = directBuffer(values);
+        buffer.position(3);
+        buffer.limit(3003);
+        assertThat(StandardDeviationCalculator.calculateStandardDeviation(buffer)).isEqualTo(expectedStandardDeviation);
+        assertThat(buffer.position()).isEqualTo(3);
+    }
+
+    /**
+     * Helper method to copy values to a direct (off-heap) buffer
+     *
+     * @param values - Values
+     * @return Direct DoubleBuffer with the values
+     */
+    private static DoubleBuffer directBuffer(final double[] values) {
+        final DoubleBuffer buffer = ByteBuffer.allocateDirect(values.length * 8).asDoubleBuffer();
+        buffer.put(values);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Helper method to calculate sample standard deviation with
+     * exact decimal arithmetic, as a reference
+     *
+     * @param values - Values
+     * @return Standard deviation, rounded once to double
+     */
+    private static double exactStandardDeviation(final double[] values) {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (double value : values) {
+            sum = sum.add(new BigDecimal(value));
+        }
+
+        final BigDecimal count = BigDecimal.valueOf(values.length);
+        final BigDecimal mean = sum.divide(count, MathContext.DECIMAL128);
+
+        BigDecimal sumOfSquares = BigDecimal.ZERO;
+        for (double value : values) {
+            final BigDecimal deviation = new BigDecimal(value).subtract(mean);
+            sumOfSquares = sumOfSquares.add(deviation.multiply(deviation));
+        }
+
+        return Math.sqrt(sumOfSquares.divide(count.subtract(BigDecimal.ONE), MathContext.DECIMAL128).doubleValue());
+    }
 }
@@ -0,0 +1,28 @@
+package com.twitter.challenge;
+
+import com.twitter.challenge.utils.StartupTimer;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Unit tests for StartupTimer class
+ *
+ */
+
+public class StartupTimerTests {
+    @Test
+    public void testMilestoneIsRecordedOnce() throws InterruptedException {
+        final StartupTimer startupTimer = new StartupTimer();
+        assertThat(startupTimer.getElapsedMillis("first_temperature")).isNull();
+
+        Thread.sleep(20);
+        final Long elapsedMillis = startupTimer.markOnce("first_temperature");
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(20L);
+
+        Thread.sleep(20);
+        assertThat(startupTimer.markOnce("first_temperature")).isNull();
+        assertThat(startupTimer.getElapsedMillis("first_temperature")).isEqualTo(elapsedMillis);
+    }
+}
@@ -0,0 +1,75 @@
+package com.twitter.challenge.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Standard deviation of a long temperature series, sequential
+ * StandardDeviationCalculator vs ParallelStandardDeviationCalculator
+ * with 1 to 8 threads
+ *
+ * Compare parallel with sequential at the same size to get the
+ * speedup for each number of threads. Results above the number of
+ * cores of the machine show the cost of oversubscription.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ParallelStandardDeviationBenchmark {
+    // Number of values in the series
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    // Max number of threads, including the calling thread
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private double[] values;
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = 60.0d + random.nextGaussian() * 15.0d;
+        }
+
+        executor = Executors.newFixedThreadPool(Math.max(1, parallelism - 1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public double sequential() {
+        return StandardDeviationCalculator.calculateStandardDeviation(values);
+    }
+
+    @Benchmark
+    public double parallel() {
+        return ParallelStandardDeviationCalculator.calculateStandardDeviation(values,
+                0, values.length, executor, parallelism);
+    }
+}
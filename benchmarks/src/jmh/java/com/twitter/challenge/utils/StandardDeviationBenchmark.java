@@ -0,0 +1,136 @@
+package com.twitter.challenge.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Standard deviation of a temperature series, list method vs
+ * the primitive overloads of StandardDeviationCalculator
+ *
+ * listMathPow is the list method as it was before the primitive
+ * overloads, with Math.pow(x, 2) in the inner loop. listBoxing also
+ * boxes the series into an ArrayList<Double> first, the way callers had
+ * to. Sizes are a 5 day forecast, ~27 years of daily values, and a
+ * long hourly multi-station history.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class StandardDeviationBenchmark {
+    // Number of values in the series
+    @Param({"5", "10000", "1000000"})
+    public int size;
+
+    private double[] values;
+    private float[] floatValues;
+    private List<Double> valueList;
+    private DoubleBuffer heapBuffer;
+    private DoubleBuffer directBuffer;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        values = new double[size];
+        floatValues = new float[size];
+        valueList = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            values[i] = 60.0d + random.nextGaussian() * 15.0d;
+            floatValues[i] = (float) values[i];
+            valueList.add(values[i]);
+        }
+
+        heapBuffer = DoubleBuffer.wrap(values);
+        directBuffer = ByteBuffer.allocateDirect(size * 8).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        directBuffer.put(values);
+        directBuffer.flip();
+    }
+
+    @Benchmark
+    public double listMathPow() {
+        return mathPowStandardDeviation(valueList);
+    }
+
+    @Benchmark
+    public double listBoxing() {
+        final List<Double> boxedValues = new ArrayList<>(values.length);
+        for (double value : values) {
+            boxedValues.add(value);
+        }
+
+        return StandardDeviationCalculator.calculateStandardDeviation(boxedValues);
+    }
+
+    @Benchmark
+    public double list() {
+        return StandardDeviationCalculator.calculateStandardDeviation(valueList);
+    }
+
+    @Benchmark
+    public double doubleArray() {
+        return StandardDeviationCalculator.calculateStandardDeviation(values);
+    }
+
+    @Benchmark
+    public double floatArray() {
+        return StandardDeviationCalculator.calculateStandardDeviation(floatValues);
+    }
+
+    @Benchmark
+    public double heapBuffer() {
+        return StandardDeviationCalculator.calculateStandardDeviation(heapBuffer);
+    }
+
+    @Benchmark
+    public double directBuffer() {
+        return StandardDeviationCalculator.calculateStandardDeviation(directBuffer);
+    }
+
+    /**
+     * Helper method with the list method as it was before
+     * the primitive overloads, as the baseline
+     *
+     * @param values - List of values
+     * @return Standard Deviation
+     */
+    private static double mathPowStandardDeviation(final List<Double> values) {
+        if (values.size() == 1) {
+            return 0.0d;
+        }
+
+        double sum = 0.0d;
+        for (double value : values) {
+            sum += value;
+        }
+
+        final double mean = sum / values.size();
+        sum = 0.0d;
+
+        for (double value : values) {
+            sum += Math.pow(value - mean, 2);
+        }
+
+        return Math.sqrt(sum / (values.size() - 1));
+    }
+}
@@ -0,0 +1,113 @@
+package com.twitter.tweathersdk.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of a TweatherSdk.bulkCurrentWeather() cycle against a local
+ * stub serving synthetic payloads, with the results streamed out
+ *
+ * A tenth of the requested locations are exact duplicates and a tenth
+ * are within the cache grid of another location, so de-duplication is
+ * part of the cycle. Freshness TTL is 0, so every cycle fetches every
+ * unique location. Memory is the allocated bytes per cycle reported by
+ * the GC profiler; the location cache holds every location, so it is
+ * at its full size after the first cycle. TweatherSdk is a singleton,
+ * so every parameter combination runs in its own fork.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class BulkWeatherBenchmark {
+    // Cache grid, in degrees
+    private static final double PRECISION_IN_DEGREES = 0.01;
+
+    // Number of locations requested per cycle
+    @Param({"1000", "10000"})
+    public int locations;
+
+    // Max bulk requests in flight
+    @Param({"4", "32"})
+    public int concurrency;
+
+    private WeatherStubServer server;
+    private TweatherSdk tweatherSdk;
+    private List<WeatherLocation> requestedLocations;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = WeatherStubServer.start();
+
+        TweatherSdk.configure(new TweatherConfig.Builder()
+                .baseUrl(server.getBaseUrl())
+                .bulkConcurrency(concurrency)
+                .maxRequests(Math.max(TweatherConfig.DEFAULT_MAX_REQUESTS, concurrency), Math.max(2, concurrency))
+                .locationCache(locations, PRECISION_IN_DEGREES)
+                .freshnessTtl(0, TimeUnit.MILLISECONDS)
+                .build());
+        tweatherSdk = TweatherSdk.getTweatherSdkInstance();
+
+        final Random random = new Random(42);
+        requestedLocations = new ArrayList<>(locations);
+        for (int i = 0; i < locations; i++) {
+            final int kind = random.nextInt(10);
+            if (kind == 0 && !requestedLocations.isEmpty()) {
+                // Duplicate
+                requestedLocations.add(requestedLocations.get(random.nextInt(requestedLocations.size())));
+            }
+            else if (kind == 1 && !requestedLocations.isEmpty()) {
+                // Nearby, same cell of the grid most of the time
+                final WeatherLocation location = requestedLocations.get(random.nextInt(requestedLocations.size()));
+                requestedLocations.add(location.getCityName() != null ? location :
+                        WeatherLocation.of(location.getLatitude() + PRECISION_IN_DEGREES / 10,
+                                location.getLongitude()));
+            }
+            else if (kind == 2) {
+                requestedLocations.add(WeatherLocation.of("City " + i));
+            }
+            else {
+                requestedLocations.add(WeatherLocation.of(random.nextDouble() * 180 - 90,
+                        random.nextDouble() * 360 - 180));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    public int bulkCurrentWeather(final Blackhole blackhole) throws InterruptedException {
+        final BulkWeatherResults results = tweatherSdk.bulkCurrentWeather(requestedLocations);
+
+        int numberOfResults = 0;
+        while (results.hasNext()) {
+            blackhole.consume(results.next());
+            numberOfResults++;
+        }
+
+        return numberOfResults;
+    }
+}
@@ -0,0 +1,196 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.core.events.CurrentWeatherEvent;
+import com.twitter.tweathersdk.core.events.FutureWeatherEvent;
+import com.twitter.tweathersdk.core.events.FutureWeatherProgressEvent;
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import org.greenrobot.eventbus.EventBus;
+import org.greenrobot.eventbus.Subscribe;
+import org.greenrobot.eventbus.ThreadMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the presenter's event subscription, TweatherEvents vs
+ * GreenRobot's EventBus which the SDK used before
+ *
+ * register* benchmarks register and unregister a presenter for the
+ * three SDK event types, like WeatherPresenterImpl does in every
+ * start() and stop(). post* benchmarks deliver a CurrentWeatherEvent
+ * to a registered presenter, with a FutureWeatherEvent subscriber also
+ * registered. EventBus finds subscriber methods by reflection (cached
+ * after the first class) and delivers through one method taking Object,
+ * like the presenter did. Delivery is on the posting thread for both, as
+ * there is no main Looper on the JVM; on a device main thread delivery
+ * adds the same Handler post to both.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class EventDispatchBenchmark {
+    private TweatherEvents tweatherEvents;
+    private TypedPresenter typedPresenter;
+    private EventBus eventBus;
+    private EventBusPresenter eventBusPresenter;
+    private CurrentWeatherEvent currentWeatherEvent;
+
+    // Presenters registered for the post benchmarks
+    private TypedPresenter registeredTypedPresenter;
+    private EventBusPresenter registeredEventBusPresenter;
+
+    /**
+     * Presenter with one typed listener per event type
+     *
+     */
+    static final class TypedPresenter {
+        // Consumer of received events
+        private final Blackhole blackhole;
+
+        final TweatherEventListener<CurrentWeatherEvent> currentWeatherListener = new TweatherEventListener<CurrentWeatherEvent>() {
+            @Override
+            public void onEvent(CurrentWeatherEvent event) {
+                blackhole.consume(event.getCurrentWeatherData());
+            }
+        };
+
+        final TweatherEventListener<FutureWeatherProgressEvent> futureWeatherProgressListener = new TweatherEventListener<FutureWeatherProgressEvent>() {
+            @Override
+            public void onEvent(FutureWeatherProgressEvent event) {
+                blackhole.consume(event.getProgress());
+            }
+        };
+
+        final TweatherEventListener<FutureWeatherEvent> futureWeatherListener = new TweatherEventListener<FutureWeatherEvent>() {
+            @Override
+            public void onEvent(FutureWeatherEvent event) {
+                blackhole.consume(event.getFutureWeatherData());
+            }
+        };
+
+        TypedPresenter(final Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        void register(final TweatherEvents events) {
+            events.register(CurrentWeatherEvent.class, currentWeatherListener);
+            events.register(FutureWeatherProgressEvent.class, futureWeatherProgressListener);
+            events.register(FutureWeatherEvent.class, futureWeatherListener);
+        }
+
+        void unregister(final TweatherEvents events) {
+            events.unregister(CurrentWeatherEvent.class, currentWeatherListener);
+            events.unregister(FutureWeatherProgressEvent.class, futureWeatherProgressListener);
+            events.unregister(FutureWeatherEvent.class, futureWeatherListener);
+        }
+    }
+
+    /**
+     * Presenter subscribed the way WeatherPresenterImpl was,
+     * one method for every event type
+     *
+     */
+    public static final class EventBusPresenter {
+        // Consumer of received events
+        private final Blackhole blackhole;
+
+        EventBusPresenter(final Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Subscribe(threadMode = ThreadMode.POSTING)
+        public void onMessageEvent(Object event) {
+            if (event instanceof CurrentWeatherEvent) {
+                blackhole.consume(((CurrentWeatherEvent) event).getCurrentWeatherData());
+            }
+            else if (event instanceof FutureWeatherProgressEvent) {
+                blackhole.consume(((FutureWeatherProgressEvent) event).getProgress());
+            }
+            else if (event instanceof FutureWeatherEvent) {
+                blackhole.consume(((FutureWeatherEvent) event).getFutureWeatherData());
+            }
+        }
+    }
+
+    /**
+     * Subscriber of future weather only, so the event
+     * type has another subscriber
+     *
+     */
+    public static final class FutureWeatherSubscriber {
+        @Subscribe(threadMode = ThreadMode.POSTING)
+        public void onFutureWeatherEvent(FutureWeatherEvent event) {
+            // Nothing to do
+        }
+    }
+
+    @Setup
+    public void setUp(final Blackhole blackhole) {
+        tweatherEvents = new TweatherEvents((Executor) null);
+        typedPresenter = new TypedPresenter(blackhole);
+        registeredTypedPresenter = new TypedPresenter(blackhole);
+        registeredTypedPresenter.register(tweatherEvents);
+        tweatherEvents.register(FutureWeatherEvent.class, new TweatherEventListener<FutureWeatherEvent>() {
+            @Override
+            public void onEvent(FutureWeatherEvent event) {
+                // Nothing to do
+            }
+        });
+
+        eventBus = EventBus.builder()
+                .logNoSubscriberMessages(false)
+                .sendNoSubscriberEvent(false)
+                .build();
+        eventBusPresenter = new EventBusPresenter(blackhole);
+        registeredEventBusPresenter = new EventBusPresenter(blackhole);
+        eventBus.register(registeredEventBusPresenter);
+        eventBus.register(new FutureWeatherSubscriber());
+
+        currentWeatherEvent = new CurrentWeatherEvent(new WeatherDataPojo());
+    }
+
+    @TearDown
+    public void tearDown() {
+        registeredTypedPresenter.unregister(tweatherEvents);
+        eventBus.unregister(registeredEventBusPresenter);
+    }
+
+    @Benchmark
+    public void registerTweatherEvents() {
+        typedPresenter.register(tweatherEvents);
+        typedPresenter.unregister(tweatherEvents);
+    }
+
+    @Benchmark
+    public void registerEventBus() {
+        eventBus.register(eventBusPresenter);
+        eventBus.unregister(eventBusPresenter);
+    }
+
+    @Benchmark
+    public void postTweatherEvents() {
+        tweatherEvents.post(currentWeatherEvent);
+    }
+
+    @Benchmark
+    public void postEventBus() {
+        eventBus.post(currentWeatherEvent);
+    }
+}
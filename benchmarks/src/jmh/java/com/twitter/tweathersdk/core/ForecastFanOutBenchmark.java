@@ -0,0 +1,76 @@
+package com.twitter.tweathersdk.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of TweatherSdk forecast fan-outs against a local stand-in
+ * for the weather API, for horizons of 5, 30 and 365 days
+ *
+ * Every operation is a complete forecast: freshness TTL is 0, so no
+ * day is served from memory and every day is requested. TweatherSdk is
+ * a singleton configured once per process, so every parameter
+ * combination runs in its own fork; forks must not be set to 0.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ForecastFanOutBenchmark {
+    // Forecast horizon in days
+    @Param({"5", "30", "365"})
+    public int days;
+
+    // Max forecast requests in flight, per host cap has one more
+    // slot, which TweatherConfig keeps for current weather
+    @Param({"4", "16"})
+    public int concurrency;
+
+    private WeatherStubServer server;
+    private TweatherSdk tweatherSdk;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = WeatherStubServer.start();
+
+        TweatherSdk.configure(new TweatherConfig.Builder()
+                .baseUrl(server.getBaseUrl())
+                .forecast(days, TweatherConfig.DEFAULT_FORECAST_ENDPOINT_TEMPLATE)
+                .forecastConcurrency(concurrency)
+                .maxRequests(TweatherConfig.DEFAULT_MAX_REQUESTS, concurrency + 1)
+                .freshnessTtl(0, TimeUnit.MILLISECONDS)
+                .build());
+        tweatherSdk = TweatherSdk.getTweatherSdkInstance();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    public Forecast forecast() throws Exception {
+        final Forecast forecast = tweatherSdk.forecast(days).get(1, TimeUnit.MINUTES);
+        if (!forecast.isComplete()) {
+            throw new IllegalStateException("Forecast is not complete");
+        }
+
+        return forecast;
+    }
+}
@@ -0,0 +1,83 @@
+package com.twitter.tweathersdk.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of a 5 day forecast fan-out against a local
+ * server that injects latency: every response is delayed, and 5% of
+ * them 40 times more, so about 1 in 4 fan-outs waits on a slow response
+ *
+ * Compares no hedging with hedging at the 90th latency percentile,
+ * and with a 100 ms batch deadline on top. Sample mode reports the
+ * percentiles of fan-out time (p50, p90, p99...) in the results. The
+ * latency tracker learns the percentile during warm-up.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ForecastTailLatencyBenchmark {
+    // Forecast horizon in days
+    private static final int DAYS = 5;
+
+    // Injected latency
+    private static final long FAST_MILLIS = 5;
+    private static final double SLOW_PROBABILITY = 0.05;
+    private static final long SLOW_MILLIS = 200;
+
+    // Mode - "plain", "hedged", or "hedged-deadline"
+    @Param({"plain", "hedged", "hedged-deadline"})
+    public String mode;
+
+    private WeatherStubServer server;
+    private TweatherSdk tweatherSdk;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = WeatherStubServer.start(FAST_MILLIS, SLOW_PROBABILITY, SLOW_MILLIS);
+
+        final TweatherConfig.Builder builder = new TweatherConfig.Builder()
+                .baseUrl(server.getBaseUrl())
+                .forecast(DAYS, TweatherConfig.DEFAULT_FORECAST_ENDPOINT_TEMPLATE)
+                .forecastConcurrency(DAYS)
+                .maxRequests(TweatherConfig.DEFAULT_MAX_REQUESTS, 2 * DAYS)
+                .freshnessTtl(0, TimeUnit.MILLISECONDS);
+
+        if (!"plain".equals(mode)) {
+            builder.hedgeAtPercentile(90);
+        }
+        if ("hedged-deadline".equals(mode)) {
+            builder.batchDeadline(100, TimeUnit.MILLISECONDS);
+        }
+
+        TweatherSdk.configure(builder.build());
+        tweatherSdk = TweatherSdk.getTweatherSdkInstance();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    public Forecast forecast() throws Exception {
+        return tweatherSdk.forecast(DAYS).get(1, TimeUnit.MINUTES);
+    }
+}
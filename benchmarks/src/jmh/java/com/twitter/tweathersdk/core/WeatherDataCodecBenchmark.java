@@ -0,0 +1,110 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode time of WeatherDataCodec compared to JSON
+ * through the Stag generated Gson adapters
+ *
+ * Encode benchmarks measure throughput, and count the bytes they
+ * encode in the "encodedBytes" secondary result, so the size of a
+ * record is encodedBytes / score (both are per microsecond). Android
+ * Parcel cannot run on the JVM (the mockable android.jar only has
+ * stubs), so the Parcel comparison has to be run on a device.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class WeatherDataCodecBenchmark {
+    // UTF-8 charset, for the size of JSON
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private WeatherDataPojo weatherData;
+    private String json;
+    private byte[] encoded;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setUp() throws IOException {
+        weatherData = WeatherDataDecoder.fromJson(WeatherStubServer.CURRENT_WEATHER_JSON);
+        json = WeatherDataDecoder.toJson(weatherData);
+        encoded = WeatherDataCodec.encode(weatherData);
+        buffer = ByteBuffer.allocate(WeatherDataCodec.encodedSize(weatherData));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ByteBuffer codecEncode(final EncodedSize encodedSize) {
+        buffer.clear();
+        WeatherDataCodec.encode(weatherData, buffer);
+        encodedSize.encodedBytes += buffer.position();
+        return buffer;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public byte[] codecEncodeToArray(final EncodedSize encodedSize) {
+        final byte[] bytes = WeatherDataCodec.encode(weatherData);
+        encodedSize.encodedBytes += bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public byte[] jsonEncode(final EncodedSize encodedSize) {
+        final byte[] bytes = WeatherDataDecoder.toJson(weatherData).getBytes(UTF_8);
+        encodedSize.encodedBytes += bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public WeatherDataPojo codecDecode() throws IOException {
+        return WeatherDataCodec.decode(ByteBuffer.wrap(encoded));
+    }
+
+    @Benchmark
+    public WeatherDataPojo jsonDecode() throws IOException {
+        return WeatherDataDecoder.fromJson(json);
+    }
+
+    /**
+     * Bytes encoded, reported with the results of the
+     * encode benchmarks
+     *
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class EncodedSize {
+        public long encodedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            encodedBytes = 0;
+        }
+    }
+}
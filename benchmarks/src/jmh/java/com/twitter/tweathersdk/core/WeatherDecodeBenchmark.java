@@ -0,0 +1,76 @@
+package com.twitter.tweathersdk.core;
+
+import com.google.gson.Gson;
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+
+/**
+ * Steady state decode time of a WeatherDataPojo payload
+ *
+ * stagDecode uses the shared Gson with the Stag generated adapters,
+ * reflectiveDecode a plain Gson, which decodes by reflection as the
+ * SDK did before the generated adapters. streamDecode decodes from a
+ * ResponseBody the way response callbacks do. First (cold) decode
+ * times are measured by WeatherDecodeColdStartBenchmark.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class WeatherDecodeBenchmark {
+    // Media type of the response body
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+    // Payload - "sample" is the API's current weather, "synthetic" a generated one
+    @Param({"sample", "synthetic"})
+    public String payload;
+
+    private String json;
+    private byte[] jsonBytes;
+    private Gson reflectiveGson;
+
+    @Setup
+    public void setUp() {
+        json = "sample".equals(payload) ?
+                WeatherStubServer.CURRENT_WEATHER_JSON : WeatherStubServer.syntheticWeatherJson(new Random(42));
+        jsonBytes = json.getBytes(Charset.forName("UTF-8"));
+        reflectiveGson = new Gson();
+    }
+
+    @Benchmark
+    public WeatherDataPojo stagDecode() throws IOException {
+        return WeatherDataDecoder.fromJson(json);
+    }
+
+    @Benchmark
+    public WeatherDataPojo reflectiveDecode() {
+        return reflectiveGson.fromJson(json, WeatherDataPojo.class);
+    }
+
+    @Benchmark
+    public WeatherDataPojo streamDecode() throws IOException {
+        return WeatherDataDecoder.decode(ResponseBody.create(JSON, jsonBytes));
+    }
+}
@@ -0,0 +1,42 @@
+package com.twitter.tweathersdk.core;
+
+import com.google.gson.Gson;
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of the first decode of a WeatherDataPojo payload after
+ * process start, the parse on the critical path of the first request
+ *
+ * Every measurement is a single decode in a new JVM, so it includes
+ * creating Gson and loading (or reflectively building) the model
+ * adapters. Many forks are needed for a stable distribution.
+ */
+
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class WeatherDecodeColdStartBenchmark {
+
+    @Benchmark
+    public WeatherDataPojo stagFirstDecode() throws IOException {
+        return WeatherDataDecoder.fromJson(WeatherStubServer.CURRENT_WEATHER_JSON);
+    }
+
+    @Benchmark
+    public WeatherDataPojo reflectiveFirstDecode() {
+        return new Gson().fromJson(WeatherStubServer.CURRENT_WEATHER_JSON, WeatherDataPojo.class);
+    }
+}
@@ -0,0 +1,96 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Time WeatherResponseCallback.onResponse() takes on an OkHttp
+ * thread for a forecast response, from the received response to the
+ * completed future: decode, metrics and close
+ *
+ * The response is built in memory, so no network time is included.
+ * With the "metrics" recorder the body is read through the byte
+ * counting source of TweatherMetrics, which shows the metrics overhead.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class WeatherResponseCallbackBenchmark {
+    // Media type of the response body
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+    // Metrics recorder - "none" or "metrics" for TweatherMetrics
+    @Param({"none", "metrics"})
+    public String recorder;
+
+    private MetricsRecorder metricsRecorder;
+    private Request request;
+    private byte[] jsonBytes;
+
+    @Setup
+    public void setUp() {
+        metricsRecorder = "none".equals(recorder) ? MetricsRecorder.NONE : new TweatherMetrics();
+        request = new Request.Builder().url("http://localhost/future_1.json").build();
+        jsonBytes = WeatherStubServer.CURRENT_WEATHER_JSON.getBytes(Charset.forName("UTF-8"));
+    }
+
+    @Benchmark
+    public WeatherDataPojo onResponse() throws Exception {
+        final Response response = new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(JSON, jsonBytes))
+                .build();
+
+        final TweatherFuture<WeatherDataPojo> future = new TweatherFuture<>();
+        new WeatherResponseCallback(future, HttpWeatherSource.TWEATHER_ADAPTER, metricsRecorder,
+                "http://localhost/future_1.json").onResponse(null, response);
+
+        return getNow(future);
+    }
+
+    /**
+     * Helper method to get the result of a future that
+     * onResponse() has completed
+     *
+     * @param future - Completed future
+     * @return Result
+     * @throws ExecutionException - If the response failed
+     * @throws InterruptedException - Never, the future is complete
+     */
+    private static WeatherDataPojo getNow(final TweatherFuture<WeatherDataPojo> future)
+            throws ExecutionException, InterruptedException {
+        if (!future.isDone()) {
+            throw new IllegalStateException("onResponse didn't complete the future");
+        }
+
+        return future.get();
+    }
+}
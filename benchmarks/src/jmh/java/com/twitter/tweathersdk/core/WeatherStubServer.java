@@ -0,0 +1,220 @@
+package com.twitter.tweathersdk.core;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ServerSocketFactory;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Local stand-in for the weather API, used by the benchmarks
+ *
+ * Every request, whatever its path or query, is answered with one of
+ * a fixed set of synthetic weather payloads, picked by the request's
+ * path so the same URL always gets the same payload. Latency can be
+ * injected: a response is delayed by fastMillis, or by slowMillis with
+ * a given probability, to model a tail of slow responses. Delays are
+ * MockWebServer body delays, so on top of them is the time the server
+ * takes to handle the request.
+ *
+ * Accepted sockets have Nagle's algorithm disabled, like production
+ * HTTP servers. MockWebServer writes headers and body separately, and
+ * with Nagle on, the body waits for the client's delayed ACK, adding
+ * about 40 ms to every response.
+ */
+
+final class WeatherStubServer {
+    // Payload of the current weather sample of the API
+    static final String CURRENT_WEATHER_JSON = "{\"coord\":{\"lon\":-122.42,\"lat\":37.77}," +
+            "\"weather\":{\"temp\":14.77,\"pressure\":1007,\"humidity\":85},\"wind\":{\"speed\":0.51,\"deg\":284}," +
+            "\"rain\":{\"3h\":1},\"clouds\":{\"cloudiness\":65},\"name\":\"San Francisco\"}";
+
+    // Number of distinct synthetic payloads served
+    private static final int NUMBER_OF_PAYLOADS = 64;
+
+    // City names of the synthetic payloads
+    private static final String[] NAMES = {"San Francisco", "London", "Paris", "Rome", "Tokyo", "New York",
+            "Sao Paulo", "Bengaluru", "Sydney", "Cape Town"};
+
+    private final MockWebServer server = new MockWebServer();
+
+    /**
+     * Constructor
+     *
+     * @param fastMillis - Delay of a response
+     * @param slowProbability - Probability of a slow response, 0 for none
+     * @param slowMillis - Delay of a slow response
+     */
+    private WeatherStubServer(final long fastMillis, final double slowProbability, final long slowMillis) {
+        server.setDispatcher(new WeatherDispatcher(fastMillis, slowProbability, slowMillis));
+        server.setServerSocketFactory(new NoDelayServerSocketFactory());
+    }
+
+    /**
+     * Method to start a stub server that responds without delay
+     *
+     * @return Started WeatherStubServer
+     * @throws IOException - If the server cannot be started
+     */
+    static WeatherStubServer start() throws IOException {
+        return start(0, 0, 0);
+    }
+
+    /**
+     * Method to start a stub server that injects latency
+     *
+     * @param fastMillis - Delay of a response
+     * @param slowProbability - Probability of a slow response, 0 for none
+     * @param slowMillis - Delay of a slow response
+     * @return Started WeatherStubServer
+     * @throws IOException - If the server cannot be started
+     */
+    static WeatherStubServer start(final long fastMillis,
+                                   final double slowProbability,
+                                   final long slowMillis) throws IOException {
+        final WeatherStubServer stubServer = new WeatherStubServer(fastMillis, slowProbability, slowMillis);
+        stubServer.server.start();
+        return stubServer;
+    }
+
+    /**
+     * Method to get Base URL of the server
+     *
+     * @return Base URL, ending with /
+     */
+    String getBaseUrl() {
+        return server.url("/").toString();
+    }
+
+    /**
+     * Method to get number of requests served
+     *
+     * @return Number of requests
+     */
+    int getRequestCount() {
+        return server.getRequestCount();
+    }
+
+    /**
+     * Method to shut the server down
+     *
+     * @throws IOException - If the server cannot be shut down
+     */
+    void shutdown() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * Method to create a synthetic weather payload, shaped
+     * like the responses of the API
+     *
+     * @param random - Random source of the values
+     * @return JSON payload
+     */
+    static String syntheticWeatherJson(final Random random) {
+        return String.format(Locale.US, "{\"coord\":{\"lon\":%.2f,\"lat\":%.2f}," +
+                        "\"weather\":{\"temp\":%.2f,\"pressure\":%d,\"humidity\":%d}," +
+                        "\"wind\":{\"speed\":%.2f,\"deg\":%d},\"rain\":{\"3h\":%d}," +
+                        "\"clouds\":{\"cloudiness\":%d},\"name\":\"%s\"}",
+                random.nextDouble() * 360 - 180, random.nextDouble() * 180 - 90,
+                random.nextDouble() * 50 - 10, 950 + random.nextInt(100), random.nextInt(101),
+                random.nextDouble() * 20, random.nextInt(360), random.nextInt(10),
+                random.nextInt(101), NAMES[random.nextInt(NAMES.length)]);
+    }
+
+    /**
+     * Dispatcher that serves synthetic payloads, with
+     * injected latency
+     *
+     */
+    private static final class WeatherDispatcher extends Dispatcher {
+        // Payloads, picked by the path of the request
+        private final List<String> payloads = new ArrayList<>(NUMBER_OF_PAYLOADS);
+
+        // Latency
+        private final long fastMillis;
+        private final double slowProbability;
+        private final long slowMillis;
+
+        // Source of slow responses, seeded so runs are comparable - Guarded by this
+        private final Random random = new Random(42);
+
+        /**
+         * Constructor
+         *
+         * @param fastMillis - Delay of a response
+         * @param slowProbability - Probability of a slow response
+         * @param slowMillis - Delay of a slow response
+         */
+        WeatherDispatcher(final long fastMillis, final double slowProbability, final long slowMillis) {
+            this.fastMillis = fastMillis;
+            this.slowProbability = slowProbability;
+            this.slowMillis = slowMillis;
+
+            final Random payloadRandom = new Random(7);
+            for (int i = 0; i < NUMBER_OF_PAYLOADS; i++) {
+                payloads.add(syntheticWeatherJson(payloadRandom));
+            }
+        }
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            final boolean slow;
+            synchronized (this) {
+                slow = slowProbability > 0 && random.nextDouble() < slowProbability;
+            }
+
+            final int payloadIndex = (request.getPath().hashCode() & Integer.MAX_VALUE) % payloads.size();
+            return new MockResponse()
+                    .setBody(payloads.get(payloadIndex))
+                    .setBodyDelay(slow ? slowMillis : fastMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * ServerSocketFactory of server sockets that disable
+     * Nagle's algorithm on accepted sockets. MockWebServer only
+     * uses createServerSocket() and binds the socket itself
+     *
+     */
+    private static final class NoDelayServerSocketFactory extends ServerSocketFactory {
+
+        @Override
+        public ServerSocket createServerSocket() throws IOException {
+            return new ServerSocket() {
+                @Override
+                public Socket accept() throws IOException {
+                    final Socket socket = super.accept();
+                    socket.setTcpNoDelay(true);
+                    return socket;
+                }
+            };
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port) throws IOException {
+            throw new UnsupportedOperationException("Use createServerSocket()");
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+            throw new UnsupportedOperationException("Use createServerSocket()");
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog, InetAddress ifAddress) throws IOException {
+            throw new UnsupportedOperationException("Use createServerSocket()");
+        }
+    }
+}
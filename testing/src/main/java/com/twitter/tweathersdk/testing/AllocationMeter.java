@@ -0,0 +1,138 @@
+package com.twitter.tweathersdk.testing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+
+/**
+ * Measures bytes allocated per operation by the current thread,
+ * with the allocated bytes counter of HotSpot's ThreadMXBean
+ *
+ * Operations are warmed up first, so the JIT has compiled (and
+ * escape analysis has removed what it can from) the measured code,
+ * like a long running process. Budgets of the measured paths are
+ * checked in to allocation-budgets.properties in test resources of
+ * each module.
+ *
+ * Test fixture shared by the unit tests of tweathersdk and app, which
+ * both depend on the testing module with testCompile.
+ */
+
+public final class AllocationMeter {
+    // Budgets file, in test resources
+    private static final String BUDGETS_RESOURCE = "/allocation-budgets.properties";
+
+    // Iterations before and during measurement
+    private static final int WARM_UP_ITERATIONS = 20000;
+    private static final int MEASURED_ITERATIONS = 10000;
+
+    /**
+     * Operation to measure
+     *
+     */
+    public interface Operation {
+        void run() throws Exception;
+    }
+
+    /**
+     * Private constructor - Utility class
+     *
+     */
+    private AllocationMeter() {
+        // Nothing to do
+    }
+
+    /**
+     * Method to check whether the JVM counts allocated bytes
+     * per thread
+     *
+     * @return true if allocations can be measured
+     */
+    public static boolean isSupported() {
+        return threadMXBean() != null;
+    }
+
+    /**
+     * Method to measure average bytes an operation allocates
+     * on the current thread
+     *
+     * @param operation - Operation to measure, must run on the calling thread
+     * @return Allocated bytes per operation
+     * @throws Exception - If the operation fails
+     */
+    public static long bytesPerOperation(final Operation operation) throws Exception {
+        final com.sun.management.ThreadMXBean threadMXBean = threadMXBean();
+        if (threadMXBean == null) {
+            throw new IllegalStateException("Allocated bytes are not counted by this JVM");
+        }
+
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            operation.run();
+        }
+
+        final long threadId = Thread.currentThread().getId();
+        final long allocatedBytesBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            operation.run();
+        }
+
+        return (threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBytesBefore) / MEASURED_ITERATIONS;
+    }
+
+    /**
+     * Method to get the checked in budget of a path
+     *
+     * @param name - Name of the path in the budgets file
+     * @return Budget in bytes per operation
+     * @throws IOException - If the budgets file cannot be read
+     * @throws IllegalArgumentException - If the path has no budget
+     */
+    public static long budget(final String name) throws IOException {
+        final Properties budgets = new Properties();
+        final InputStream inputStream = AllocationMeter.class.getResourceAsStream(BUDGETS_RESOURCE);
+        if (inputStream == null) {
+            throw new IOException("Missing " + BUDGETS_RESOURCE);
+        }
+
+        try {
+            budgets.load(inputStream);
+        }
+        finally {
+            inputStream.close();
+        }
+
+        final String budget = budgets.getProperty(name);
+        if (budget == null) {
+            throw new IllegalArgumentException("No allocation budget for " + name);
+        }
+
+        return Long.parseLong(budget.trim());
+    }
+
+    /**
+     * Helper method to get HotSpot's ThreadMXBean with
+     * allocation counters enabled
+     *
+     * @return ThreadMXBean, or null if allocations are not counted
+     */
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        try {
+            final java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+                return null;
+            }
+
+            final com.sun.management.ThreadMXBean hotSpotThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (!hotSpotThreadMXBean.isThreadAllocatedMemorySupported()) {
+                return null;
+            }
+
+            hotSpotThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+            return hotSpotThreadMXBean;
+        }
+        catch (LinkageError | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.twitter.tweathersdk.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non-negative long values, such as
+ * latencies in nanoseconds or sizes in bytes
+ *
+ * Values 0 to 7 have a bucket each. Above that, every power of two
+ * is split into 8 buckets, so a bucket is at most 12.5% wide relative to
+ * its values, and the whole long range fits in 488 buckets. Recording is
+ * an increment of one bucket plus the sum and max, without locks or
+ * allocation, so it is cheap enough for every request.
+ */
+
+final class AtomicHistogram {
+    // Sub-buckets per power of two
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // Number of buckets to cover values up to Long.MAX_VALUE
+    static final int NUMBER_OF_BUCKETS = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    // Counts per bucket
+    private final AtomicLongArray counts = new AtomicLongArray(NUMBER_OF_BUCKETS);
+
+    // Sum and max of recorded values
+    private final AtomicLong sum = new AtomicLong(0);
+    private final AtomicLong max = new AtomicLong(0);
+
+    /**
+     * Record a value
+     *
+     * @param value - Value, negative values are recorded as 0
+     */
+    void record(final long value) {
+        final long clampedValue = Math.max(0, value);
+
+        counts.incrementAndGet(bucketIndex(clampedValue));
+        sum.addAndGet(clampedValue);
+
+        long currentMax = max.get();
+        while (clampedValue > currentMax && !max.compareAndSet(currentMax, clampedValue)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * Method to get a snapshot of the histogram. Values recorded
+     * while the snapshot is taken may or may not be in it
+     *
+     * @return MetricsSnapshot.Histogram
+     */
+    MetricsSnapshot.Histogram snapshot() {
+        final long[] bucketCounts = new long[NUMBER_OF_BUCKETS];
+        for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+            bucketCounts[i] = counts.get(i);
+        }
+
+        return new MetricsSnapshot.Histogram(bucketCounts, sum.get(), max.get());
+    }
+
+    /**
+     * Method to get the bucket of a value
+     *
+     * @param value - Non-negative value
+     * @return Index of the bucket
+     */
+    static int bucketIndex(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Method to get the highest value of a bucket
+     *
+     * @param index - Index of the bucket
+     * @return Highest value that is recorded in the bucket
+     */
+    static long bucketUpperBound(final int index) {
+        return index + 1 < NUMBER_OF_BUCKETS ? bucketLowerBound(index + 1) - 1 : Long.MAX_VALUE;
+    }
+
+    /**
+     * Helper method to get the lowest value of a bucket
+     *
+     * @param index - Index of the bucket
+     * @return Lowest value that is recorded in the bucket
+     */
+    private static long bucketLowerBound(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        final int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final long subBucket = index % SUB_BUCKETS;
+        return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+}
@@ -0,0 +1,259 @@
+package com.twitter.tweathersdk.core;
+
+import android.util.Log;
+
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One bulk weather request for many locations
+ *
+ * Requested locations are normalized and de-duplicated, so every
+ * unique location is fetched once. Locations with fresh cached data are
+ * served from LocationWeatherCache; the rest are fetched from the
+ * WeatherSource with at most the configured number of requests in flight.
+ * As each request completes, the next location is requested, the same
+ * sliding window as FutureWeatherBatch.
+ *
+ * Requests for a location that is already being fetched, by another bulk
+ * request, are attached to that request instead (SingleFlight). A failed
+ * request falls back to stale cached data, if there is any.
+ *
+ * Cache lookups, and the time until the last location is received,
+ * are recorded by the MetricsRecorder.
+ */
+
+final class BulkWeatherFetch {
+    // Log Tag
+    private final static String TAG = BulkWeatherFetch.class.getSimpleName();
+
+    // Source, cache and flights shared by all bulk requests
+    private final WeatherSource weatherSource;
+    private final LocationWeatherCache cache;
+    private final SingleFlight<WeatherDataPojo> flights;
+
+    // Metrics recorder
+    private final MetricsRecorder metricsRecorder;
+
+    // Unique normalized locations, and the requested locations of each one
+    private final List<WeatherLocation> locations;
+    private final List<List<WeatherLocation>> requestedLocations;
+
+    // Max requests in flight
+    private final int concurrency;
+
+    // Streaming results
+    private final BulkWeatherResults results;
+
+    // Number of pending dispatches - Only the thread that
+    // takes it from 0 runs the dispatch loop
+    private final AtomicInteger pendingDispatches = new AtomicInteger(0);
+
+    // Index of the next location to dispatch - Only used in the dispatch loop
+    private int nextIndex = 0;
+
+    // Time the fetch was started, from System.nanoTime()
+    private long startNanos;
+
+    /**
+     * Constructor
+     *
+     * @param weatherSource - Source to fetch from
+     * @param cache - Cache of location weather data
+     * @param flights - Flights of location weather requests in progress
+     * @param metricsRecorder - Metrics recorder
+     * @param requested - Requested locations
+     * @param precisionInDegrees - Grid size that coordinates are snapped to
+     * @param concurrency - Max requests in flight, at least 1
+     * @throws IllegalArgumentException - If a requested location is null
+     */
+    BulkWeatherFetch(final WeatherSource weatherSource,
+                     final LocationWeatherCache cache,
+                     final SingleFlight<WeatherDataPojo> flights,
+                     final MetricsRecorder metricsRecorder,
+                     final Collection<WeatherLocation> requested,
+                     final double precisionInDegrees,
+                     final int concurrency) {
+        this.weatherSource = weatherSource;
+        this.cache = cache;
+        this.flights = flights;
+        this.metricsRecorder = metricsRecorder;
+        this.concurrency = concurrency;
+
+        // De-duplicate by normalized key, keeping the requested order
+        final Map<String, List<WeatherLocation>> groups = new LinkedHashMap<>();
+        final Map<String, WeatherLocation> normalizedLocations = new LinkedHashMap<>();
+
+        for (WeatherLocation location : requested) {
+            if (location == null) {
+                throw new IllegalArgumentException("Location cannot be null");
+            }
+
+            final WeatherLocation normalized = location.normalize(precisionInDegrees);
+            List<WeatherLocation> group = groups.get(normalized.getKey());
+
+            if (group == null) {
+                group = new ArrayList<>(1);
+                groups.put(normalized.getKey(), group);
+                normalizedLocations.put(normalized.getKey(), normalized);
+            }
+
+            group.add(location);
+        }
+
+        this.locations = new ArrayList<>(normalizedLocations.values());
+        this.requestedLocations = new ArrayList<>(groups.size());
+        for (List<WeatherLocation> group : groups.values()) {
+            requestedLocations.add(Collections.unmodifiableList(group));
+        }
+
+        this.results = new BulkWeatherResults(requested.size(), locations.size());
+    }
+
+    /**
+     * Start fetching, with up to the max requests in flight
+     *
+     * @return Streaming results
+     */
+    BulkWeatherResults start() {
+        Log.d(TAG, "start - " + results.getNumberOfRequestedLocations() + " locations, " +
+                locations.size() + " unique");
+
+        startNanos = System.nanoTime();
+        dispatch(concurrency);
+        return results;
+    }
+
+    /**
+     * Helper method to dispatch requests for the next locations
+     *
+     * Dispatch is re-entered when a request completes right away
+     * (for example a WeatherSource that answers from memory). The loop
+     * below runs on one thread at a time and picks up dispatches
+     * added meanwhile, so the stack doesn't grow with the number
+     * of locations
+     *
+     * @param numberOfRequests - Number of requests to dispatch
+     */
+    private void dispatch(final int numberOfRequests) {
+        if (pendingDispatches.getAndAdd(numberOfRequests) != 0) {
+            // Another thread is in the loop and will pick these up
+            return;
+        }
+
+        int dispatches = numberOfRequests;
+        while (dispatches != 0) {
+            for (int i = 0; i < dispatches; i++) {
+                dispatchNext();
+            }
+
+            dispatches = pendingDispatches.addAndGet(-dispatches);
+        }
+    }
+
+    /**
+     * Helper method to request the next location that isn't
+     * fresh in cache. Fresh locations on the way are delivered
+     * right away
+     *
+     */
+    private void dispatchNext() {
+        while (nextIndex < locations.size() && !results.isCancelled()) {
+            final int index = nextIndex++;
+            final WeatherCache.Entry entry = cache.get(locations.get(index).getKey());
+            final boolean fresh = cache.isFresh(entry);
+            metricsRecorder.cacheLookup(fresh ? MetricsRecorder.CACHE_FRESH :
+                    entry != null ? MetricsRecorder.CACHE_STALE : MetricsRecorder.CACHE_MISS);
+
+            if (fresh) {
+                deliver(index, entry.weatherData, true);
+            }
+            else {
+                request(index);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Helper method to request weather data for a location, or
+     * attach to the request in progress for it
+     *
+     * @param index - Index of the location
+     */
+    private void request(final int index) {
+        final WeatherLocation location = locations.get(index);
+
+        final boolean newFlight = flights.join(location.getKey(), new SingleFlight.Listener<WeatherDataPojo>() {
+            @Override
+            public void onComplete(WeatherDataPojo weatherData) {
+                if (weatherData != null) {
+                    deliver(index, weatherData, false);
+                }
+                else {
+                    // Request failed - Fall back to stale data
+                    final WeatherCache.Entry entry = cache.get(location.getKey());
+                    deliver(index, entry == null ? null : entry.weatherData, entry != null);
+                }
+
+                // Keep the window full
+                dispatch(1);
+            }
+        }, false);
+
+        if (!newFlight) {
+            return;
+        }
+
+        weatherSource.currentWeather(location).addListener(new TweatherFuture.Listener<WeatherDataPojo>() {
+            @Override
+            public void onSuccess(WeatherDataPojo weatherData) {
+                requestComplete(location, weatherData);
+            }
+
+            @Override
+            public void onFailure(Throwable error) {
+                Log.w(TAG, "request - Request for " + location + " failed. " + error);
+                requestComplete(location, null);
+            }
+        });
+    }
+
+    /**
+     * Helper method to cache the result of a request, and
+     * deliver it to every request attached to it
+     *
+     * @param location - Location
+     * @param weatherData - WeatherDataPojo, null if request failed
+     */
+    private void requestComplete(final WeatherLocation location, final WeatherDataPojo weatherData) {
+        if (weatherData != null) {
+            cache.put(location.getKey(), weatherData);
+        }
+
+        final SingleFlight.Flight<WeatherDataPojo> flight = flights.finish(location.getKey());
+        if (flight != null) {
+            flight.deliver(weatherData);
+        }
+    }
+
+    /**
+     * Helper method to add the result of a location
+     *
+     * @param index - Index of the location
+     * @param weatherData - WeatherDataPojo, null if request failed
+     * @param fromCache - true if served from cache
+     */
+    private void deliver(final int index, final WeatherDataPojo weatherData, final boolean fromCache) {
+        if (results.add(new LocationWeather(locations.get(index), requestedLocations.get(index), weatherData, fromCache))) {
+            metricsRecorder.fanOutCompleted(MetricsRecorder.FAN_OUT_BULK, locations.size(), System.nanoTime() - startNanos);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.twitter.tweathersdk.core;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streaming result set of a bulk weather request, returned
+ * by TweatherSdk.bulkCurrentWeather()
+ *
+ * Results are returned in the order they are received, as soon as they
+ * are received, so the caller can process the first locations while the
+ * rest are still being fetched. There is one result per unique location.
+ *
+ * Typical use:
+ *
+ *   while (results.hasNext()) {
+ *       LocationWeather locationWeather = results.next();
+ *       ...
+ *   }
+ */
+
+public final class BulkWeatherResults {
+    // Marker that wakes up waiting consumers when the request is cancelled
+    private static final LocationWeather CANCELLED = new LocationWeather(null, null, null, false);
+
+    // Results received but not consumed yet
+    private final BlockingQueue<LocationWeather> results = new LinkedBlockingQueue<>();
+
+    // Number of requested and unique locations
+    private final int numberOfRequestedLocations;
+    private final int numberOfLocations;
+
+    // Number of results received and consumed
+    private final AtomicInteger numberOfResultsReceived = new AtomicInteger(0);
+    private final AtomicInteger numberOfResultsConsumed = new AtomicInteger(0);
+
+    // true once cancelled
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+    /**
+     * Constructor
+     *
+     * @param numberOfRequestedLocations - Number of requested locations
+     * @param numberOfLocations - Number of unique locations
+     */
+    BulkWeatherResults(final int numberOfRequestedLocations, final int numberOfLocations) {
+        this.numberOfRequestedLocations = numberOfRequestedLocations;
+        this.numberOfLocations = numberOfLocations;
+    }
+
+    /**
+     * Method to get number of requested locations
+     *
+     * @return Number of requested locations, including duplicates
+     */
+    public int getNumberOfRequestedLocations() {
+        return numberOfRequestedLocations;
+    }
+
+    /**
+     * Method to get number of unique locations, that is
+     * the number of results
+     *
+     * @return Number of unique locations
+     */
+    public int getNumberOfLocations() {
+        return numberOfLocations;
+    }
+
+    /**
+     * Method to get number of results received so far
+     *
+     * @return Number of results received
+     */
+    public int getNumberOfResultsReceived() {
+        return numberOfResultsReceived.get();
+    }
+
+    /**
+     * Method to check whether there are more results to consume
+     *
+     * @return true if next() will return a result
+     */
+    public boolean hasNext() {
+        return !cancelled.get() && numberOfResultsConsumed.get() < numberOfLocations;
+    }
+
+    /**
+     * Method to get the next result, waiting until it
+     * is received
+     *
+     * @return LocationWeather
+     * @throws InterruptedException - If interrupted while waiting
+     * @throws NoSuchElementException - If every result has been consumed
+     * @throws CancellationException - If the request has been cancelled
+     */
+    public LocationWeather next() throws InterruptedException {
+        if (!hasNext()) {
+            throwIfCancelled();
+            throw new NoSuchElementException("Every result has been consumed");
+        }
+
+        return consume(results.take());
+    }
+
+    /**
+     * Method to get the next result, waiting up to the given
+     * time until it is received
+     *
+     * @param timeout - Max time to wait
+     * @param unit - Unit of timeout
+     * @return LocationWeather, or null if it is not received in time
+     * or every result has been consumed
+     * @throws InterruptedException - If interrupted while waiting
+     * @throws CancellationException - If the request has been cancelled
+     */
+    public LocationWeather poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+        if (!hasNext()) {
+            throwIfCancelled();
+            return null;
+        }
+
+        final LocationWeather locationWeather = results.poll(timeout, unit);
+        return locationWeather == null ? null : consume(locationWeather);
+    }
+
+    /**
+     * Cancel the request. Locations that haven't been requested
+     * yet are not requested, and no more results are returned.
+     * Requests already in flight still complete and are cached
+     *
+     */
+    public void cancel() {
+        if (cancelled.compareAndSet(false, true)) {
+            results.offer(CANCELLED);
+        }
+    }
+
+    /**
+     * Method to check whether the request has been cancelled
+     *
+     * @return true if cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * Add a received result
+     *
+     * @param locationWeather - LocationWeather
+     * @return true if it is the result of the last location
+     */
+    boolean add(final LocationWeather locationWeather) {
+        final int received = numberOfResultsReceived.incrementAndGet();
+        results.offer(locationWeather);
+        return received == numberOfLocations;
+    }
+
+    /**
+     * Helper method to consume a result taken from the queue
+     *
+     * @param locationWeather - Result taken from the queue
+     * @return locationWeather
+     * @throws CancellationException - If it is the cancellation marker
+     */
+    private LocationWeather consume(final LocationWeather locationWeather) {
+        if (locationWeather == CANCELLED) {
+            // Leave the marker for other waiting consumers
+            results.offer(CANCELLED);
+            throw new CancellationException("Bulk request has been cancelled");
+        }
+
+        numberOfResultsConsumed.incrementAndGet();
+        return locationWeather;
+    }
+
+    /**
+     * Helper method to throw if the request has been cancelled
+     *
+     * @throws CancellationException - If the request has been cancelled
+     */
+    private void throwIfCancelled() {
+        if (cancelled.get()) {
+            throw new CancellationException("Bulk request has been cancelled");
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.twitter.tweathersdk.core;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Timeline of one HTTP call - when it started and ended, and the
+ * network phases it went through: DNS, connect, TLS, request write,
+ * time to first byte and response read
+ *
+ * Traces are recorded by the SDK's OkHttpClient (see CallTracer) and
+ * attached to the results it publishes, CurrentWeatherEvent,
+ * FutureWeatherEvent and Forecast. A phase can appear more than once,
+ * for example when a call is retried, and DNS and connect are missing
+ * when a pooled connection is reused.
+ *
+ * Times are System.nanoTime() values, so they can only be compared
+ * with each other. toChromeTrace() exports traces in the Chrome trace
+ * event format, which can be opened in chrome://tracing or Perfetto to
+ * see a forecast fan-out as a timeline.
+ */
+
+public final class CallTrace {
+    // Phases
+    public static final String PHASE_DNS = "dns";
+    public static final String PHASE_CONNECT = "connect";
+    public static final String PHASE_TLS = "tls";
+    public static final String PHASE_REQUEST_HEADERS = "request_headers";
+    public static final String PHASE_REQUEST_BODY = "request_body";
+    public static final String PHASE_TIME_TO_FIRST_BYTE = "ttfb";
+    public static final String PHASE_RESPONSE_HEADERS = "response_headers";
+    public static final String PHASE_RESPONSE_BODY = "response_body";
+
+    // Microseconds per nanosecond, for the Chrome trace
+    private static final double MICROS_PER_NANO = 0.001d;
+
+    // Request
+    private final String method;
+    private final String url;
+
+    // Start time of the call
+    private final long startNanos;
+
+    // End time of the call, -1 while in flight - Guarded by this
+    private long endNanos = -1;
+
+    // Failure of the call, null if it hasn't failed - Guarded by this
+    private String failure = null;
+
+    // Phases in the order they started - Guarded by this
+    private final List<Phase> phases = new ArrayList<>();
+
+    /**
+     * Constructor
+     *
+     * @param method - HTTP method
+     * @param url - URL of the request
+     * @param startNanos - Start time of the call
+     */
+    CallTrace(final String method, final String url, final long startNanos) {
+        this.method = method;
+        this.url = url;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Method to get HTTP method of the call
+     *
+     * @return HTTP method
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Method to get URL of the call
+     *
+     * @return URL
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Method to get start time of the call
+     *
+     * @return System.nanoTime() when the call started
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Method to get duration of the call
+     *
+     * @return Duration in nanoseconds, or -1 if the call is in flight
+     */
+    public synchronized long getDurationNanos() {
+        return endNanos < 0 ? -1 : endNanos - startNanos;
+    }
+
+    /**
+     * Method to check whether the call has failed or
+     * was cancelled
+     *
+     * @return true if the call has failed
+     */
+    public synchronized boolean isFailed() {
+        return failure != null;
+    }
+
+    /**
+     * Method to get phases of the call
+     *
+     * @return Immutable copy of the phases, in the order they started
+     */
+    public synchronized List<Phase> getPhases() {
+        return Collections.unmodifiableList(new ArrayList<>(phases));
+    }
+
+    /**
+     * Method to get duration of the first occurrence
+     * of a phase
+     *
+     * @param name - Name of the phase, for example PHASE_TIME_TO_FIRST_BYTE
+     * @return Duration in nanoseconds, or -1 if the phase hasn't completed
+     */
+    public synchronized long getPhaseDurationNanos(final String name) {
+        for (Phase phase : phases) {
+            if (phase.name.equals(name)) {
+                return phase.getDurationNanos();
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Start a phase
+     *
+     * @param name - Name of the phase
+     * @param nanos - Start time
+     */
+    synchronized void begin(final String name, final long nanos) {
+        phases.add(new Phase(name, nanos));
+    }
+
+    /**
+     * End the last started phase with a name, if it is
+     * still open
+     *
+     * @param name - Name of the phase
+     * @param nanos - End time
+     */
+    synchronized void end(final String name, final long nanos) {
+        for (int i = phases.size() - 1; i >= 0; i--) {
+            final Phase phase = phases.get(i);
+            if (phase.name.equals(name)) {
+                if (phase.endNanos < 0) {
+                    phase.endNanos = nanos;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * End the call. Phases that are still open, such as the
+     * response body of a cancelled call, end with it
+     *
+     * @param nanos - End time
+     * @param failure - Failure, null if the call succeeded
+     */
+    synchronized void finish(final long nanos, final String failure) {
+        if (endNanos >= 0) {
+            return;
+        }
+
+        endNanos = nanos;
+        this.failure = failure;
+
+        for (Phase phase : phases) {
+            if (phase.endNanos < 0) {
+                phase.endNanos = nanos;
+            }
+        }
+    }
+
+    /**
+     * Method to export traces in the Chrome trace event format
+     *
+     * Every call is one row, named after its URL, with the call as a
+     * complete ("X") event and its phases nested under it. Times start
+     * at 0 for the earliest call. Calls and phases still in flight end
+     * at the time of the export, and have "incomplete" in their args.
+     *
+     * @param traces - Traces to export
+     * @return JSON of the trace, {"traceEvents": [...]}
+     */
+    public static String toChromeTrace(final List<CallTrace> traces) {
+        final long exportNanos = System.nanoTime();
+        long originNanos = Long.MAX_VALUE;
+        for (CallTrace trace : traces) {
+            originNanos = Math.min(originNanos, trace.startNanos);
+        }
+
+        final StringWriter json = new StringWriter();
+        final JsonWriter writer = new JsonWriter(json);
+
+        try {
+            writer.beginObject();
+            writer.name("displayTimeUnit").value("ms");
+            writer.name("traceEvents").beginArray();
+
+            for (int i = 0; i < traces.size(); i++) {
+                final CallTrace trace = traces.get(i);
+                final int threadId = i + 1;
+
+                synchronized (trace) {
+                    // Name the row after the call
+                    writer.beginObject();
+                    writer.name("name").value("thread_name");
+                    writer.name("ph").value("M");
+                    writer.name("pid").value(1);
+                    writer.name("tid").value(threadId);
+                    writer.name("args").beginObject().name("name").value(trace.method + " " + trace.url).endObject();
+                    writer.endObject();
+
+                    writeEvent(writer, trace.method + " " + trace.url, "call", threadId,
+                            trace.startNanos, trace.endNanos, originNanos, exportNanos, trace.failure);
+
+                    for (Phase phase : trace.phases) {
+                        writeEvent(writer, phase.name, "phase", threadId,
+                                phase.startNanos, phase.endNanos, originNanos, exportNanos, null);
+                    }
+                }
+            }
+
+            writer.endArray();
+            writer.endObject();
+            writer.close();
+        }
+        catch (IOException e) {
+            // Never happens, output is in memory
+            throw new IllegalStateException(e);
+        }
+
+        return json.toString();
+    }
+
+    /**
+     * Helper method to write a complete event of the Chrome
+     * trace event format
+     *
+     * @param writer - JsonWriter
+     * @param name - Name of the event
+     * @param category - Category of the event
+     * @param threadId - Row of the event
+     * @param startNanos - Start time
+     * @param endNanos - End time, -1 if not ended
+     * @param originNanos - Time that is 0 in the trace
+     * @param exportNanos - Time of the export, the end of events not ended
+     * @param failure - Failure, can be null
+     * @throws IOException - If writing fails
+     */
+    private static void writeEvent(final JsonWriter writer,
+                                   final String name,
+                                   final String category,
+                                   final int threadId,
+                                   final long startNanos,
+                                   final long endNanos,
+                                   final long originNanos,
+                                   final long exportNanos,
+                                   final String failure) throws IOException {
+        writer.beginObject();
+        writer.name("name").value(name);
+        writer.name("cat").value(category);
+        writer.name("ph").value("X");
+        writer.name("pid").value(1);
+        writer.name("tid").value(threadId);
+        writer.name("ts").value((startNanos - originNanos) * MICROS_PER_NANO);
+        writer.name("dur").value(((endNanos < 0 ? exportNanos : endNanos) - startNanos) * MICROS_PER_NANO);
+
+        if (endNanos < 0 || failure != null) {
+            writer.name("args").beginObject();
+            if (endNanos < 0) {
+                writer.name("incomplete").value(true);
+            }
+            if (failure != null) {
+                writer.name("failure").value(failure);
+            }
+            writer.endObject();
+        }
+
+        writer.endObject();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "CallTrace{" +
+                "method=" + method +
+                ", url=" + url +
+                ", durationNanos=" + getDurationNanos() +
+                ", failure=" + failure +
+                ", phases=" + phases +
+                '}';
+    }
+
+    /**
+     * One phase of a call
+     *
+     */
+    public static final class Phase {
+        // Name of the phase
+        private final String name;
+
+        // Start and end time, end is -1 while the phase is open
+        private final long startNanos;
+        private volatile long endNanos = -1;
+
+        /**
+         * Constructor
+         *
+         * @param name - Name of the phase
+         * @param startNanos - Start time
+         */
+        Phase(final String name, final long startNanos) {
+            this.name = name;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Method to get name of the phase
+         *
+         * @return Name, one of the PHASE_ constants
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Method to get start time of the phase
+         *
+         * @return System.nanoTime() when the phase started
+         */
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        /**
+         * Method to get duration of the phase
+         *
+         * @return Duration in nanoseconds, or -1 if the phase is open
+         */
+        public long getDurationNanos() {
+            final long end = endNanos;
+            return end < 0 ? -1 : end - startNanos;
+        }
+
+        @Override
+        public String toString() {
+            return name + "=" + getDurationNanos();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.twitter.tweathersdk.core;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * OkHttp EventListener.Factory that records a CallTrace for
+ * every call of the client it is installed in
+ *
+ * The most recent traces are kept in a fixed size ring, so memory
+ * doesn't grow with the number of calls. Traces are added when calls
+ * start, and completed by their listener as OkHttp reports events, so
+ * TweatherSdk can pick the traces of a request when it publishes it.
+ */
+
+final class CallTracer implements EventListener.Factory {
+    // Orders traces by start time
+    private static final Comparator<CallTrace> BY_START = new Comparator<CallTrace>() {
+        @Override
+        public int compare(CallTrace first, CallTrace second) {
+            return first.getStartNanos() < second.getStartNanos() ? -1 :
+                    first.getStartNanos() == second.getStartNanos() ? 0 : 1;
+        }
+    };
+
+    // Ring of recent traces
+    private final AtomicReferenceArray<CallTrace> traces;
+
+    // Total number of traces added, the next slot is this modulo capacity
+    private final AtomicLong numberOfTraces = new AtomicLong(0);
+
+    /**
+     * Constructor
+     *
+     * @param capacity - Number of recent traces to keep, at least 1
+     */
+    CallTracer(final int capacity) {
+        this.traces = new AtomicReferenceArray<>(capacity);
+    }
+
+    @Override
+    public EventListener create(final Call call) {
+        final Request request = call.request();
+        final CallTrace trace = new CallTrace(request.method(), request.url().toString(), System.nanoTime());
+
+        traces.set((int) (numberOfTraces.getAndIncrement() % traces.length()), trace);
+        return new Listener(trace);
+    }
+
+    /**
+     * Method to get recent traces
+     *
+     * @return Traces ordered by start time
+     */
+    List<CallTrace> getRecentTraces() {
+        return getTraces(null, Long.MIN_VALUE);
+    }
+
+    /**
+     * Method to get recent traces of calls to some URLs
+     *
+     * @param urls - URLs, null for every URL
+     * @param sinceNanos - Only traces of calls started at or after this System.nanoTime(),
+     *                     Long.MIN_VALUE for every call
+     * @return Traces ordered by start time
+     */
+    List<CallTrace> getTraces(final Collection<String> urls, final long sinceNanos) {
+        final List<CallTrace> matchingTraces = new ArrayList<>();
+
+        for (int i = 0; i < traces.length(); i++) {
+            final CallTrace trace = traces.get(i);
+            // nanoTime() values are compared by their difference, as they can overflow
+            if (trace != null && (sinceNanos == Long.MIN_VALUE || trace.getStartNanos() - sinceNanos >= 0) &&
+                    (urls == null || urls.contains(trace.getUrl()))) {
+                matchingTraces.add(trace);
+            }
+        }
+
+        Collections.sort(matchingTraces, BY_START);
+        return matchingTraces;
+    }
+
+    /**
+     * Listener of one call, that records its events into
+     * its trace
+     *
+     */
+    private static final class Listener extends EventListener {
+        // Trace of the call
+        private final CallTrace trace;
+
+        /**
+         * Constructor
+         *
+         * @param trace - Trace of the call
+         */
+        Listener(final CallTrace trace) {
+            this.trace = trace;
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            trace.begin(CallTrace.PHASE_DNS, System.nanoTime());
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            trace.end(CallTrace.PHASE_DNS, System.nanoTime());
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            trace.begin(CallTrace.PHASE_CONNECT, System.nanoTime());
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            trace.begin(CallTrace.PHASE_TLS, System.nanoTime());
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            trace.end(CallTrace.PHASE_TLS, System.nanoTime());
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            trace.end(CallTrace.PHASE_CONNECT, System.nanoTime());
+        }
+
+        @Override
+        public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+                                  Protocol protocol, IOException ioe) {
+            final long nanos = System.nanoTime();
+            trace.end(CallTrace.PHASE_TLS, nanos);
+            trace.end(CallTrace.PHASE_CONNECT, nanos);
+        }
+
+        @Override
+        public void requestHeadersStart(Call call) {
+            trace.begin(CallTrace.PHASE_REQUEST_HEADERS, System.nanoTime());
+        }
+
+        @Override
+        public void requestHeadersEnd(Call call, Request request) {
+            final long nanos = System.nanoTime();
+            trace.end(CallTrace.PHASE_REQUEST_HEADERS, nanos);
+
+            // With a body, time to first byte starts once the body is written
+            if (request.body() == null) {
+                trace.begin(CallTrace.PHASE_TIME_TO_FIRST_BYTE, nanos);
+            }
+        }
+
+        @Override
+        public void requestBodyStart(Call call) {
+            trace.begin(CallTrace.PHASE_REQUEST_BODY, System.nanoTime());
+        }
+
+        @Override
+        public void requestBodyEnd(Call call, long byteCount) {
+            final long nanos = System.nanoTime();
+            trace.end(CallTrace.PHASE_REQUEST_BODY, nanos);
+            trace.begin(CallTrace.PHASE_TIME_TO_FIRST_BYTE, nanos);
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            final long nanos = System.nanoTime();
+            trace.end(CallTrace.PHASE_TIME_TO_FIRST_BYTE, nanos);
+            trace.begin(CallTrace.PHASE_RESPONSE_HEADERS, nanos);
+        }
+
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            trace.end(CallTrace.PHASE_RESPONSE_HEADERS, System.nanoTime());
+        }
+
+        @Override
+        public void responseBodyStart(Call call) {
+            trace.begin(CallTrace.PHASE_RESPONSE_BODY, System.nanoTime());
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            trace.end(CallTrace.PHASE_RESPONSE_BODY, System.nanoTime());
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            trace.finish(System.nanoTime(), null);
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            trace.finish(System.nanoTime(), String.valueOf(ioe));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.twitter.tweathersdk.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker for one endpoint
+ *
+ * CLOSED: Requests go through. After a number of consecutive
+ * failures the circuit opens.
+ * OPEN: Requests fail fast without touching the network. After
+ * the open duration one probe request is let through (HALF_OPEN).
+ * HALF_OPEN: If the probe succeeds the circuit closes, otherwise
+ * it opens again for another open duration.
+ */
+
+final class CircuitBreaker {
+    // States
+    static final int STATE_CLOSED = 0;
+    static final int STATE_OPEN = 1;
+    static final int STATE_HALF_OPEN = 2;
+
+    // Consecutive failures that open the circuit
+    private final int failureThreshold;
+
+    // How long the circuit stays open before a probe
+    private final long openDurationInNanos;
+
+    // Guarded by this
+    private int state = STATE_CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAtNanos = 0;
+
+    /**
+     * Constructor
+     *
+     * @param failureThreshold - Consecutive failures that open the circuit
+     * @param openDurationInMillis - How long the circuit stays open before a probe
+     */
+    CircuitBreaker(final int failureThreshold, final long openDurationInMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationInNanos = TimeUnit.MILLISECONDS.toNanos(openDurationInMillis);
+    }
+
+    /**
+     * Method to check whether a request can go through. If the
+     * circuit has been open for the open duration, this lets one
+     * probe request through
+     *
+     * @return true if request can be made, false if it should fail fast
+     */
+    synchronized boolean allowRequest() {
+        switch (state) {
+            case STATE_CLOSED:
+                return true;
+
+            case STATE_OPEN:
+                if (System.nanoTime() - openedAtNanos >= openDurationInNanos) {
+                    state = STATE_HALF_OPEN;
+                    return true;
+                }
+                return false;
+
+            default:
+                // Probe is already in flight
+                return false;
+        }
+    }
+
+    /**
+     * Record a successful request. Closes the circuit
+     *
+     */
+    synchronized void recordSuccess() {
+        state = STATE_CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    /**
+     * Record a failed request. Opens the circuit if the probe
+     * failed or there are too many consecutive failures
+     *
+     */
+    synchronized void recordFailure() {
+        consecutiveFailures++;
+
+        if (state == STATE_HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = STATE_OPEN;
+            openedAtNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Release the probe of a half open circuit without an
+     * outcome, for example when the request was cancelled. The
+     * next request is let through as a new probe
+     *
+     */
+    synchronized void releaseProbe() {
+        if (state == STATE_HALF_OPEN) {
+            state = STATE_OPEN;
+            openedAtNanos = System.nanoTime() - openDurationInNanos;
+        }
+    }
+
+    /**
+     * Method to get state of the circuit
+     *
+     * @return STATE_CLOSED, STATE_OPEN or STATE_HALF_OPEN
+     */
+    synchronized int getState() {
+        return state;
+    }
+}
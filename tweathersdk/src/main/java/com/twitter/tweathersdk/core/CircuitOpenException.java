@@ -0,0 +1,23 @@
+package com.twitter.tweathersdk.core;
+
+import java.io.IOException;
+
+/**
+ * Exception thrown when a request fails fast because
+ * the circuit breaker of its endpoint is open
+ *
+ */
+
+public class CircuitOpenException extends IOException {
+    // Serialization version
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor
+     *
+     * @param endpoint - Endpoint whose circuit is open
+     */
+    public CircuitOpenException(final String endpoint) {
+        super("Circuit is open for " + endpoint);
+    }
+}
@@ -0,0 +1,161 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Future weather data for a number of days, as returned
+ * by TweatherSdk.forecast()
+ *
+ * Days are ordered, index 0 is day 1. A day whose request failed
+ * and that has no cached data is null.
+ *
+ * In latency SLO mode (see TweatherConfig.Builder.batchDeadline() and
+ * hedgeAtPercentile()) the forecast also reports which days were
+ * hedged and which timed out.
+ */
+
+public final class Forecast {
+    // Weather data per day - Immutable
+    private final List<WeatherDataPojo> days;
+
+    // Generation of the request batch that produced this data
+    private final long generation;
+
+    // Whether request for each day was hedged / timed out
+    private final boolean[] hedgedDays;
+    private final boolean[] timedOutDays;
+
+    // Traces of the HTTP calls made by the request batch - Immutable
+    private final List<CallTrace> callTraces;
+
+    /**
+     * Constructor
+     *
+     * @param days - Weather data per day, ordered by day
+     * @param generation - Generation of the request batch
+     */
+    Forecast(final List<WeatherDataPojo> days, final long generation) {
+        this(days, generation, new boolean[days.size()], new boolean[days.size()],
+                Collections.<CallTrace>emptyList());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param days - Weather data per day, ordered by day
+     * @param generation - Generation of the request batch
+     * @param hedgedDays - true for days whose request was hedged
+     * @param timedOutDays - true for days that timed out
+     * @param callTraces - Traces of the HTTP calls made by the request batch
+     */
+    Forecast(final List<WeatherDataPojo> days,
+             final long generation,
+             final boolean[] hedgedDays,
+             final boolean[] timedOutDays,
+             final List<CallTrace> callTraces) {
+        this.days = Collections.unmodifiableList(new ArrayList<>(days));
+        this.generation = generation;
+        this.hedgedDays = Arrays.copyOf(hedgedDays, days.size());
+        this.timedOutDays = Arrays.copyOf(timedOutDays, days.size());
+        this.callTraces = Collections.unmodifiableList(callTraces);
+    }
+
+    /**
+     * Method to get weather data of all days
+     *
+     * @return Immutable list of WeatherDataPojo ordered by day, null for missing days
+     */
+    public List<WeatherDataPojo> getDays() {
+        return days;
+    }
+
+    /**
+     * Method to get weather data of a day
+     *
+     * @param dayIndex - Index of the day, 0 for day 1
+     * @return WeatherDataPojo, or null if data for the day is missing
+     */
+    public WeatherDataPojo getDay(final int dayIndex) {
+        return days.get(dayIndex);
+    }
+
+    /**
+     * Method to get number of days in the forecast
+     *
+     * @return Number of days
+     */
+    public int getNumberOfDays() {
+        return days.size();
+    }
+
+    /**
+     * Method to check whether data for every day is available
+     *
+     * @return true if no day is missing
+     */
+    public boolean isComplete() {
+        return !days.contains(null);
+    }
+
+    /**
+     * Method to get generation of the request batch that
+     * produced this data
+     *
+     * @return Generation
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Method to check whether a hedged duplicate request
+     * was fired for a day
+     *
+     * @param dayIndex - Index of the day, 0 for day 1
+     * @return true if request for the day was hedged
+     */
+    public boolean isHedged(final int dayIndex) {
+        return hedgedDays[dayIndex];
+    }
+
+    /**
+     * Method to check whether a day was not received by the
+     * batch deadline, in which case its data can be null
+     *
+     * @param dayIndex - Index of the day, 0 for day 1
+     * @return true if the day timed out
+     */
+    public boolean isTimedOut(final int dayIndex) {
+        return timedOutDays[dayIndex];
+    }
+
+    /**
+     * Method to get traces of the HTTP calls made by the
+     * request batch, including hedged requests and retries
+     *
+     * @return Immutable list of CallTrace ordered by start, empty if
+     * call tracing is disabled or data is from cache
+     */
+    public List<CallTrace> getCallTraces() {
+        return callTraces;
+    }
+
+    /**
+     * Method to get a forecast for the first days of this one
+     *
+     * @param numberOfDays - Number of days
+     * @return Forecast, this one if it already has numberOfDays days
+     */
+    Forecast firstDays(final int numberOfDays) {
+        if (numberOfDays >= days.size()) {
+            return this;
+        }
+
+        return new Forecast(days.subList(0, numberOfDays), generation, hedgedDays, timedOutDays, callTraces);
+    }
+}
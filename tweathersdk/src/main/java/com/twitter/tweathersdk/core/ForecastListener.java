@@ -0,0 +1,24 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+/**
+ * Listener for streaming future weather data, registered
+ * with TweatherSdk.addForecastListener()
+ *
+ * It is called for each day as soon as its response is decoded,
+ * on an OkHttp Dispatcher thread, so it should not block. Days of one
+ * batch can arrive in any order; use ForecastProgress.getGeneration()
+ * to tell batches apart.
+ */
+
+public interface ForecastListener {
+    /**
+     * Called when data for a day has been received
+     *
+     * @param dayIndex - Index of the day, 0 for day 1
+     * @param weatherData - WeatherDataPojo, null if request for the day failed
+     * @param progress - Progress of the batch, with running statistics
+     */
+    void onDayReceived(int dayIndex, WeatherDataPojo weatherData, ForecastProgress progress);
+}
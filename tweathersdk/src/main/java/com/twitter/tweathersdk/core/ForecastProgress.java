@@ -0,0 +1,187 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import java.util.List;
+
+/**
+ * Progress of a future weather batch, with running
+ * temperature statistics of the days received so far
+ *
+ * Statistics only include days that have a temperature, and are
+ * refined as the remaining days arrive. Standard deviation is the
+ * sample standard deviation (N - 1), and 0 for a single day. A batch
+ * updates them as each day is received, so they are not computed
+ * again from the days.
+ */
+
+public final class ForecastProgress {
+    // Generation of the request batch
+    private final long generation;
+
+    // Number of days in the batch
+    private final int numberOfDays;
+
+    // Number of days received so far, including failed days
+    private final int numberOfDaysReceived;
+
+    // Running statistics of the days with a temperature
+    private final RunningStatistics temperatureStatistics;
+
+    /**
+     * Constructor
+     *
+     * @param generation - Generation of the request batch
+     * @param numberOfDays - Number of days in the batch
+     * @param numberOfDaysReceived - Number of days received so far
+     * @param temperatureStatistics - Running statistics of the days with a temperature
+     */
+    private ForecastProgress(final long generation,
+                             final int numberOfDays,
+                             final int numberOfDaysReceived,
+                             final RunningStatistics temperatureStatistics) {
+        this.generation = generation;
+        this.numberOfDays = numberOfDays;
+        this.numberOfDaysReceived = numberOfDaysReceived;
+        this.temperatureStatistics = temperatureStatistics;
+    }
+
+    /**
+     * Create progress from running statistics that a batch
+     * updates as its days are received, with no pass over the days
+     *
+     * @param generation - Generation of the request batch
+     * @param numberOfDays - Number of days in the batch
+     * @param numberOfDaysReceived - Number of days received so far
+     * @param temperatureStatistics - Running statistics of the days with a temperature
+     * @return ForecastProgress
+     */
+    static ForecastProgress fromStatistics(final long generation,
+                                           final int numberOfDays,
+                                           final int numberOfDaysReceived,
+                                           final RunningStatistics temperatureStatistics) {
+        return new ForecastProgress(generation, numberOfDays, numberOfDaysReceived, temperatureStatistics);
+    }
+
+    /**
+     * Create progress from a snapshot of a batch
+     *
+     * @param generation - Generation of the request batch
+     * @param snapshot - Weather data ordered by day, null for days that failed or are pending
+     * @param numberOfDaysReceived - Number of days received so far
+     * @return ForecastProgress
+     */
+    static ForecastProgress fromSnapshot(final long generation,
+                                         final List<WeatherDataPojo> snapshot,
+                                         final int numberOfDaysReceived) {
+        return new ForecastProgress(generation, snapshot.size(), numberOfDaysReceived,
+                temperatureStatistics(snapshot));
+    }
+
+    /**
+     * Method to get running statistics of temperature of
+     * weather data, in one pass
+     *
+     * @param weatherDataList - Weather data, null for days that failed or are pending
+     * @return RunningStatistics of the days with a temperature
+     */
+    static RunningStatistics temperatureStatistics(final List<WeatherDataPojo> weatherDataList) {
+        RunningStatistics statistics = RunningStatistics.EMPTY;
+        for (WeatherDataPojo weatherData : weatherDataList) {
+            final Double temperature = getTemperature(weatherData);
+            if (temperature != null) {
+                statistics = statistics.plus(temperature);
+            }
+        }
+
+        return statistics;
+    }
+
+    /**
+     * Method to get generation of the request batch
+     *
+     * @return Generation
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Method to get number of days in the batch
+     *
+     * @return Number of days
+     */
+    public int getNumberOfDays() {
+        return numberOfDays;
+    }
+
+    /**
+     * Method to get number of days received so far,
+     * including days whose request failed
+     *
+     * @return Number of days received
+     */
+    public int getNumberOfDaysReceived() {
+        return numberOfDaysReceived;
+    }
+
+    /**
+     * Method to check whether every day has been received
+     *
+     * @return true if batch is complete
+     */
+    public boolean isComplete() {
+        return numberOfDaysReceived == numberOfDays;
+    }
+
+    /**
+     * Method to get number of days included in the statistics
+     *
+     * @return Number of days with a temperature
+     */
+    public int getNumberOfTemperatures() {
+        return (int) temperatureStatistics.getCount();
+    }
+
+    /**
+     * Method to get running mean temperature
+     *
+     * @return Mean temperature, or null if there is no temperature yet
+     */
+    public Double getMeanTemperature() {
+        return temperatureStatistics.getCount() == 0 ? null : temperatureStatistics.getMean();
+    }
+
+    /**
+     * Method to get running standard deviation of temperature
+     *
+     * @return Standard deviation, or null if there is no temperature yet
+     */
+    public Double getTemperatureStandardDeviation() {
+        return temperatureStatistics.getCount() == 0 ? null : temperatureStatistics.getStandardDeviation();
+    }
+
+    /**
+     * Method to get running statistics of temperature, with
+     * min and max
+     *
+     * @return RunningStatistics of the days with a temperature
+     */
+    public RunningStatistics getTemperatureStatistics() {
+        return temperatureStatistics;
+    }
+
+    /**
+     * Helper method to get temperature of weather data
+     *
+     * @param weatherData - WeatherDataPojo, can be null
+     * @return Temperature, or null if not available
+     */
+    static Double getTemperature(final WeatherDataPojo weatherData) {
+        if (weatherData == null || weatherData.getWeather() == null) {
+            return null;
+        }
+
+        return weatherData.getWeather().getTemp();
+    }
+}
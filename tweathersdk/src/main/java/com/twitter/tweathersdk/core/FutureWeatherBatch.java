@@ -0,0 +1,397 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * One fan-out of future weather data requests
+ *
+ * Each batch is self-contained: it has its own generation number, one
+ * result slot per day, and its own completion counter. A late response
+ * can only land in the batch that made the request, so overlapping
+ * batches never see each other's results.
+ *
+ * Completion is lock-free. Each day's slot can be completed exactly once
+ * (first result wins), and the thread that completes the last slot gets
+ * BATCH_COMPLETE from complete() and is responsible for publishing the result.
+ * Running temperature statistics are updated as each slot is completed,
+ * before the slot is counted, so they include every day by the time the
+ * last slot is completed.
+ *
+ * Days are handed out for dispatch one at a time with nextDayIndex(),
+ * so the SDK can keep a bounded number of requests in flight and
+ * dispatch the next day as an earlier one completes.
+ *
+ * In latency SLO mode a day can have a hedged duplicate request, and
+ * the batch can expire at a deadline. The batch keeps track of the calls
+ * of each day, so the losing or timed out calls can be cancelled.
+ */
+
+final class FutureWeatherBatch {
+    // Slot states
+    private static final int SLOT_PENDING = 0;
+    private static final int SLOT_COMPLETE = 1;
+
+    // Outcomes of complete()
+    static final int DAY_ALREADY_COMPLETE = 0;
+    static final int DAY_COMPLETE = 1;
+    static final int BATCH_COMPLETE = 2;
+
+    // Day flags
+    private static final int FLAG_HEDGED = 1;
+    private static final int FLAG_TIMED_OUT = 2;
+
+    // Calls per day - Primary and hedged
+    private static final int CALLS_PER_DAY = 2;
+
+    // Generation of this batch - Batches started later have a higher generation
+    private final long generation;
+
+    // Result slot per day, index 0 is day 1
+    private final AtomicReferenceArray<WeatherDataPojo> results;
+    private final AtomicIntegerArray slotStates;
+
+    // Running statistics of the days with a temperature
+    private final AtomicReference<RunningStatistics> temperatureStatistics =
+            new AtomicReference<>(RunningStatistics.EMPTY);
+
+    // Number of days still pending
+    private final AtomicInteger remaining;
+
+    // Next day to be dispatched
+    private final AtomicInteger nextDayToDispatch = new AtomicInteger(0);
+
+    // Whether any response was different from cached data
+    private final AtomicBoolean dataChanged = new AtomicBoolean(false);
+
+    // Hedged / timed out flags per day
+    private final AtomicIntegerArray dayFlags;
+
+    // Calls per day, and number of calls per day still in flight
+    private final AtomicReferenceArray<Future<?>> calls;
+    private final AtomicIntegerArray callsInFlight;
+
+    // Whether the batch deadline has expired
+    private final AtomicBoolean expired = new AtomicBoolean(false);
+
+    // Timer for the batch deadline, null if there is no deadline
+    private volatile ScheduledFuture<?> deadlineTimer;
+
+    // Time the batch was created, from System.nanoTime()
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Constructor
+     *
+     * @param generation - Generation of this batch
+     * @param numberOfDays - Number of days in the batch
+     */
+    FutureWeatherBatch(final long generation, final int numberOfDays) {
+        this.generation = generation;
+        this.results = new AtomicReferenceArray<>(numberOfDays);
+        this.slotStates = new AtomicIntegerArray(numberOfDays);
+        this.remaining = new AtomicInteger(numberOfDays);
+        this.dayFlags = new AtomicIntegerArray(numberOfDays);
+        this.calls = new AtomicReferenceArray<>(numberOfDays * CALLS_PER_DAY);
+        this.callsInFlight = new AtomicIntegerArray(numberOfDays);
+    }
+
+    /**
+     * Method to get time the batch was created
+     *
+     * @return System.nanoTime() when the batch was created
+     */
+    long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Method to get time elapsed since the batch was created
+     *
+     * @return Elapsed nanoseconds
+     */
+    long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Method to get generation of this batch
+     *
+     * @return Generation
+     */
+    long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Method to get number of days in this batch
+     *
+     * @return Number of days
+     */
+    int getNumberOfDays() {
+        return results.length();
+    }
+
+    /**
+     * Method to get the next day to dispatch a request for
+     *
+     * @return Index of the day, 0 for day 1, or -1 if every day has been
+     * dispatched or the batch has expired
+     */
+    int nextDayIndex() {
+        if (expired.get()) {
+            return -1;
+        }
+
+        final int dayIndex = nextDayToDispatch.getAndIncrement();
+        return dayIndex < results.length() ? dayIndex : -1;
+    }
+
+    /**
+     * Complete the slot for a day. Only the first result for
+     * a day is kept
+     *
+     * @param dayIndex - Index of the day, 0 for day 1
+     * @param weatherData - WeatherDataPojo, null if request failed
+     * @return BATCH_COMPLETE if this call completed the last pending slot,
+     * DAY_COMPLETE if it completed the day, DAY_ALREADY_COMPLETE otherwise
+     */
+    int complete(final int dayIndex, final WeatherDataPojo weatherData) {
+        if (!slotStates.compareAndSet(dayIndex, SLOT_PENDING, SLOT_COMPLETE)) {
+            // Day was already completed
+            return DAY_ALREADY_COMPLETE;
+        }
+
+        results.set(dayIndex, weatherData);
+
+        final Double temperature = ForecastProgress.getTemperature(weatherData);
+        if (temperature != null) {
+            while (true) {
+                final RunningStatistics statistics = temperatureStatistics.get();
+                if (temperatureStatistics.compareAndSet(statistics, statistics.plus(temperature))) {
+                    break;
+                }
+            }
+        }
+
+        return remaining.decrementAndGet() == 0 ? BATCH_COMPLETE : DAY_COMPLETE;
+    }
+
+    /**
+     * Method to get running statistics of temperature of the
+     * days completed so far
+     *
+     * @return RunningStatistics of the days with a temperature
+     */
+    RunningStatistics getTemperatureStatistics() {
+        return temperatureStatistics.get();
+    }
+
+    /**
+     * Method to check whether a day has been completed
+     *
+     * @param dayIndex - Index of the day, 0 for day 1
+     * @return true if day is complete
+     */
+    boolean isDayComplete(final int dayIndex) {
+        return slotStates.get(dayIndex) == SLOT_COMPLETE;
+    }
+
+    /**
+     * Register a call for a day before it is enqueued
+     *
+     * @param dayIndex - Index of the day, 0 for day 1
+     * @param call - Future of the call for the day, cancelling it cancels the call
+     * @param hedged - true if call is a hedged duplicate
+     */
+    void callStarted(final int dayIndex, final Future<?> call, final boolean hedged) {
+        calls.set(dayIndex * CALLS_PER_DAY + (hedged ? 1 : 0), call);
+        callsInFlight.incrementAndGet(dayIndex);
+    }
+
+    /**
+     * Unregister a call for a day once its response or
+     * failure is received
+     *
+     * @param dayIndex - Index of the day, 0 for day 1
+     * @return Number of calls for the day still in flight
+     */
+    int callFinished(final int dayIndex) {
+        return callsInFlight.decrementAndGet(dayIndex);
+    }
+
+    /**
+     * Cancel every call for a day. Calls that are already
+     * finished are not affected
+     *
+     * @param dayIndex - Index of the day, 0 for day 1
+     */
+    void cancelCalls(final int dayIndex) {
+        for (int i = dayIndex * CALLS_PER_DAY; i < (dayIndex + 1) * CALLS_PER_DAY; i++) {
+            final Future<?> call = calls.get(i);
+            if (call != null) {
+                call.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Mark a day as hedged
+     *
+     * @param dayIndex - Index of the day, 0 for day 1
+     * @return true if day was marked by this call, false if it was already hedged
+     */
+    boolean markHedged(final int dayIndex) {
+        return setFlag(dayIndex, FLAG_HEDGED);
+    }
+
+    /**
+     * Mark a day as timed out
+     *
+     * @param dayIndex - Index of the day, 0 for day 1
+     */
+    void markTimedOut(final int dayIndex) {
+        setFlag(dayIndex, FLAG_TIMED_OUT);
+    }
+
+    /**
+     * Method to get hedged flag of every day
+     *
+     * @return Array with true for days that were hedged
+     */
+    boolean[] getHedgedDays() {
+        return getFlags(FLAG_HEDGED);
+    }
+
+    /**
+     * Method to get timed out flag of every day
+     *
+     * @return Array with true for days that timed out
+     */
+    boolean[] getTimedOutDays() {
+        return getFlags(FLAG_TIMED_OUT);
+    }
+
+    /**
+     * Expire the batch at its deadline. No more days are
+     * dispatched after this
+     *
+     * @return true if batch was expired by this call
+     */
+    boolean expire() {
+        return expired.compareAndSet(false, true);
+    }
+
+    /**
+     * Set the timer for the batch deadline
+     *
+     * @param deadlineTimer - Timer
+     */
+    void setDeadlineTimer(final ScheduledFuture<?> deadlineTimer) {
+        this.deadlineTimer = deadlineTimer;
+    }
+
+    /**
+     * Cancel the timer for the batch deadline, if any
+     *
+     */
+    void cancelDeadlineTimer() {
+        TweatherExecutors.cancelTimer(deadlineTimer);
+    }
+
+    /**
+     * Method to check whether every day has been completed
+     *
+     * @return true if batch is complete
+     */
+    boolean isComplete() {
+        return remaining.get() == 0;
+    }
+
+    /**
+     * Method to get number of days that have been completed
+     *
+     * @return Number of days completed, including failed days
+     */
+    int getNumberOfDaysCompleted() {
+        return results.length() - remaining.get();
+    }
+
+    /**
+     * Mark that a response in this batch was different from cached data
+     *
+     */
+    void markDataChanged() {
+        dataChanged.set(true);
+    }
+
+    /**
+     * Method to check whether any response in this batch was
+     * different from cached data
+     *
+     * @return true if data has changed
+     */
+    boolean isDataChanged() {
+        return dataChanged.get();
+    }
+
+    /**
+     * Method to get an immutable snapshot of the results,
+     * ordered by day
+     *
+     * @return List of WeatherDataPojo, null for days that failed or are pending
+     */
+    List<WeatherDataPojo> snapshot() {
+        final WeatherDataPojo[] snapshot = new WeatherDataPojo[results.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = results.get(i);
+        }
+
+        return Collections.unmodifiableList(Arrays.asList(snapshot));
+    }
+
+    /**
+     * Helper method to set a flag for a day
+     *
+     * @param dayIndex - Index of the day, 0 for day 1
+     * @param flag - Flag
+     * @return true if flag was set by this call
+     */
+    private boolean setFlag(final int dayIndex, final int flag) {
+        while (true) {
+            final int flags = dayFlags.get(dayIndex);
+            if ((flags & flag) != 0) {
+                return false;
+            }
+
+            if (dayFlags.compareAndSet(dayIndex, flags, flags | flag)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Helper method to get a flag of every day
+     *
+     * @param flag - Flag
+     * @return Array with true for days that have the flag
+     */
+    private boolean[] getFlags(final int flag) {
+        final boolean[] flags = new boolean[dayFlags.length()];
+        for (int i = 0; i < flags.length; i++) {
+            flags[i] = (dayFlags.get(i) & flag) != 0;
+        }
+
+        return flags;
+    }
+}
@@ -0,0 +1,200 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+
+import okhttp3.Call;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+
+/**
+ * WeatherSource backed by an HTTP weather API
+ *
+ * Current weather is fetched from Base URL + current endpoint, and
+ * future weather from Base URL + forecast endpoint template with %d
+ * replaced by the day. Current weather for a location adds the query
+ * parameters "lat" and "lon", or "q" for a city name, to the current
+ * endpoint (OpenWeatherMap style). Response bodies are adapted into the
+ * common model by the source's WeatherDataAdapter.
+ *
+ * Requests use the SDK's shared OkHttpClient, so they get its disk
+ * cache, retries and circuit breakers, and are recorded by the SDK's
+ * MetricsRecorder under their URL without query parameters.
+ */
+
+public final class HttpWeatherSource implements WeatherSource {
+    /**
+     * Adapter for the Twitter Weather API, whose response
+     * format is the common model
+     *
+     */
+    public static final WeatherDataAdapter TWEATHER_ADAPTER = new WeatherDataAdapter() {
+        @Override
+        public WeatherDataPojo adapt(ResponseBody body) throws IOException {
+            return WeatherDataDecoder.decode(body);
+        }
+    };
+
+    // Name of the source
+    private final String name;
+
+    // Endpoints
+    private final String baseUrl;
+    private final String currentEndpoint;
+    private final String forecastEndpointTemplate;
+
+    // Adapter for response bodies
+    private final WeatherDataAdapter adapter;
+
+    // HTTP client - null to use the SDK's shared client
+    private final OkHttpClient httpClient;
+
+    // Metrics recorder - null to use the SDK's recorder
+    private final MetricsRecorder metricsRecorder;
+
+    /**
+     * Constructor
+     *
+     * @param name - Name of the source
+     * @param baseUrl - Base URL of the API
+     * @param currentEndpoint - Current weather endpoint relative to Base URL
+     * @param forecastEndpointTemplate - Forecast endpoint template relative to Base URL, where %d is the day
+     * @param adapter - Adapter for response bodies
+     * @throws IllegalArgumentException - If any value is invalid
+     */
+    public HttpWeatherSource(final String name,
+                             final String baseUrl,
+                             final String currentEndpoint,
+                             final String forecastEndpointTemplate,
+                             final WeatherDataAdapter adapter) {
+        this(name, baseUrl, currentEndpoint, forecastEndpointTemplate, adapter, null, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param name - Name of the source
+     * @param baseUrl - Base URL of the API
+     * @param currentEndpoint - Current weather endpoint relative to Base URL
+     * @param forecastEndpointTemplate - Forecast endpoint template relative to Base URL, where %d is the day
+     * @param adapter - Adapter for response bodies
+     * @param httpClient - HTTP client, null to use the SDK's shared client
+     * @param metricsRecorder - Metrics recorder, null to use the SDK's recorder
+     * @throws IllegalArgumentException - If any value is invalid
+     */
+    HttpWeatherSource(final String name,
+                      final String baseUrl,
+                      final String currentEndpoint,
+                      final String forecastEndpointTemplate,
+                      final WeatherDataAdapter adapter,
+                      final OkHttpClient httpClient,
+                      final MetricsRecorder metricsRecorder) {
+        if (name == null || baseUrl == null || currentEndpoint == null || adapter == null ||
+                forecastEndpointTemplate == null || !forecastEndpointTemplate.contains("%d")) {
+            throw new IllegalArgumentException("Invalid weather source");
+        }
+
+        this.name = name;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        this.currentEndpoint = currentEndpoint;
+        this.forecastEndpointTemplate = forecastEndpointTemplate;
+        this.adapter = adapter;
+        this.httpClient = httpClient;
+        this.metricsRecorder = metricsRecorder;
+    }
+
+    /**
+     * Method to create the source for the Twitter Weather API
+     * as configured in the SDK configuration
+     *
+     * @param tweatherConfig - SDK configuration
+     * @return HttpWeatherSource
+     */
+    static HttpWeatherSource fromConfig(final TweatherConfig tweatherConfig) {
+        return new HttpWeatherSource("tweather",
+                tweatherConfig.getBaseUrl(),
+                TweatherConfig.DEFAULT_CURRENT_WEATHER_ENDPOINT,
+                tweatherConfig.getForecastEndpointTemplate(),
+                TWEATHER_ADAPTER);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public TweatherFuture<WeatherDataPojo> currentWeather() {
+        return fetch(baseUrl + currentEndpoint, baseUrl + currentEndpoint);
+    }
+
+    @Override
+    public TweatherFuture<WeatherDataPojo> currentWeather(final WeatherLocation location) {
+        final HttpUrl currentUrl = HttpUrl.parse(baseUrl + currentEndpoint);
+        if (currentUrl == null) {
+            return TweatherFuture.failed(new IllegalStateException("Invalid URL " + baseUrl + currentEndpoint));
+        }
+
+        final HttpUrl.Builder url = currentUrl.newBuilder();
+        if (location.isCity()) {
+            url.addQueryParameter("q", location.getCityName());
+        }
+        else {
+            url.addQueryParameter("lat", String.valueOf(location.getLatitude()))
+                    .addQueryParameter("lon", String.valueOf(location.getLongitude()));
+        }
+
+        return fetch(url.build().toString(), baseUrl + currentEndpoint);
+    }
+
+    @Override
+    public TweatherFuture<WeatherDataPojo> futureWeather(final int day) {
+        final String url = baseUrl + String.format(Locale.US, forecastEndpointTemplate, day);
+        return fetch(url, url);
+    }
+
+    /**
+     * Helper method to fetch weather data from a URL
+     *
+     * @param url - URL
+     * @param endpoint - URL without query parameters, for metrics
+     * @return TweatherFuture of WeatherDataPojo
+     */
+    private TweatherFuture<WeatherDataPojo> fetch(final String url, final String endpoint) {
+        final OkHttpClient client = httpClient != null ? httpClient : OkHttpFactory.getOkHttpClient();
+        final MetricsRecorder metrics = metricsRecorder != null ? metricsRecorder : TweatherSdk.getMetricsRecorder();
+        final Call call = client.newCall(new Request.Builder().url(url).build());
+        final TweatherFuture<WeatherDataPojo> future = new TweatherFuture<>();
+
+        final long startNanos = System.nanoTime();
+        metrics.requestStarted(endpoint);
+
+        // Cancelling the future cancels the request
+        future.addListener(new TweatherFuture.Listener<WeatherDataPojo>() {
+            @Override
+            public void onSuccess(WeatherDataPojo value) {
+                metrics.requestFinished(endpoint, System.nanoTime() - startNanos, MetricsRecorder.REQUEST_SUCCEEDED);
+            }
+
+            @Override
+            public void onFailure(Throwable error) {
+                if (error instanceof CancellationException) {
+                    call.cancel();
+                    metrics.requestFinished(endpoint, System.nanoTime() - startNanos, MetricsRecorder.REQUEST_CANCELLED);
+                }
+                else {
+                    metrics.requestFinished(endpoint, System.nanoTime() - startNanos, MetricsRecorder.REQUEST_FAILED);
+                }
+            }
+        });
+
+        // Make a asynchronous request using OkHttpClient
+        call.enqueue(new WeatherResponseCallback(future, adapter, metrics, endpoint));
+        return future;
+    }
+}
@@ -0,0 +1,64 @@
+package com.twitter.tweathersdk.core;
+
+import java.util.Arrays;
+
+/**
+ * Tracks recent request latencies in a fixed size ring
+ * buffer, to find the latency percentile for hedged requests
+ *
+ * Percentiles are only reported once there are enough samples,
+ * so a few early requests don't trigger aggressive hedging.
+ */
+
+final class LatencyTracker {
+    // Min samples before a percentile is reported
+    static final int MIN_SAMPLES = 10;
+
+    // Ring buffer of latencies in milliseconds - Guarded by this
+    private final long[] samples;
+    private int numberOfSamples = 0;
+    private int nextSample = 0;
+
+    /**
+     * Constructor
+     *
+     * @param capacity - Number of recent latencies to keep
+     */
+    LatencyTracker(final int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    /**
+     * Record latency of a request
+     *
+     * @param latencyInMillis - Latency in milliseconds
+     */
+    synchronized void record(final long latencyInMillis) {
+        samples[nextSample] = latencyInMillis;
+        nextSample = (nextSample + 1) % samples.length;
+        numberOfSamples = Math.min(numberOfSamples + 1, samples.length);
+    }
+
+    /**
+     * Method to get a percentile of recent latencies
+     *
+     * @param percentile - Percentile, for example 95
+     * @return Latency in milliseconds, or -1 if there are not enough samples
+     */
+    long percentile(final double percentile) {
+        final long[] sortedSamples;
+        synchronized (this) {
+            if (numberOfSamples < MIN_SAMPLES) {
+                return -1;
+            }
+
+            sortedSamples = Arrays.copyOf(samples, numberOfSamples);
+        }
+
+        Arrays.sort(sortedSamples);
+
+        // Nearest rank
+        final int rank = (int) Math.ceil(percentile / 100.0d * sortedSamples.length);
+        return sortedSamples[Math.max(0, Math.min(rank, sortedSamples.length) - 1)];
+    }
+}
@@ -0,0 +1,91 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import java.util.List;
+
+/**
+ * Weather data for one location of a bulk request
+ *
+ * Requested locations that share a normalized key (duplicates, or
+ * coordinates close to each other) are fetched once, and reported as
+ * one LocationWeather with all of them in getRequestedLocations().
+ */
+
+public final class LocationWeather {
+    // Normalized location that was fetched
+    private final WeatherLocation location;
+
+    // Requested locations this result is for
+    private final List<WeatherLocation> requestedLocations;
+
+    // Weather data, null if request failed
+    private final WeatherDataPojo weatherData;
+
+    // true if served from cache without a request
+    private final boolean fromCache;
+
+    /**
+     * Constructor
+     *
+     * @param location - Normalized location that was fetched
+     * @param requestedLocations - Immutable list of requested locations this result is for
+     * @param weatherData - Weather data, null if request failed
+     * @param fromCache - true if served from cache
+     */
+    LocationWeather(final WeatherLocation location,
+                    final List<WeatherLocation> requestedLocations,
+                    final WeatherDataPojo weatherData,
+                    final boolean fromCache) {
+        this.location = location;
+        this.requestedLocations = requestedLocations;
+        this.weatherData = weatherData;
+        this.fromCache = fromCache;
+    }
+
+    /**
+     * Method to get the normalized location that was fetched
+     *
+     * @return WeatherLocation
+     */
+    public WeatherLocation getLocation() {
+        return location;
+    }
+
+    /**
+     * Method to get the requested locations this result is for
+     *
+     * @return Immutable list of WeatherLocation, in the order they were requested
+     */
+    public List<WeatherLocation> getRequestedLocations() {
+        return requestedLocations;
+    }
+
+    /**
+     * Method to get weather data
+     *
+     * @return WeatherDataPojo, null if request failed
+     */
+    public WeatherDataPojo getWeatherData() {
+        return weatherData;
+    }
+
+    /**
+     * Method to check whether request was successful
+     *
+     * @return true if weather data is available
+     */
+    public boolean isSuccessful() {
+        return weatherData != null;
+    }
+
+    /**
+     * Method to check whether weather data was served from
+     * cache, without a request
+     *
+     * @return true if served from cache
+     */
+    public boolean isFromCache() {
+        return fromCache;
+    }
+}
@@ -0,0 +1,136 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded in-memory cache of weather data for bulk requests,
+ * keyed by WeatherLocation key
+ *
+ * Bulk requests can cover tens of thousands of locations, so unlike
+ * WeatherCache this cache is bounded: the least recently used entries
+ * are evicted. The cache is split into shards, each one an LRU map with
+ * its own lock, so concurrent responses for different locations rarely
+ * contend for the same lock.
+ *
+ * Freshness works like WeatherCache - stale entries are still returned.
+ */
+
+final class LocationWeatherCache {
+    // Number of shards - Power of 2, so shard index is a mask of the hash
+    static final int NUMBER_OF_SHARDS = 16;
+
+    /**
+     * One shard - An access ordered map that evicts its
+     * eldest entry when full. Guarded by the shard itself
+     *
+     */
+    private static final class Shard extends LinkedHashMap<String, WeatherCache.Entry> {
+        // Serialization version
+        private static final long serialVersionUID = 1L;
+
+        // Max number of entries in the shard
+        private final int maxEntries;
+
+        private Shard(final int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, WeatherCache.Entry> eldest) {
+            return size() > maxEntries;
+        }
+    }
+
+    // Shards
+    private final Shard[] shards;
+
+    // Freshness TTL
+    private final long freshnessTtlInMillis;
+
+    /**
+     * Constructor
+     *
+     * @param maxEntries - Max number of entries, spread evenly over the shards
+     * @param freshnessTtlInMillis - How long an entry is fresh after it is fetched
+     */
+    LocationWeatherCache(final int maxEntries, final long freshnessTtlInMillis) {
+        final int maxEntriesPerShard = Math.max(1, (maxEntries + NUMBER_OF_SHARDS - 1) / NUMBER_OF_SHARDS);
+
+        this.shards = new Shard[NUMBER_OF_SHARDS];
+        for (int i = 0; i < NUMBER_OF_SHARDS; i++) {
+            shards[i] = new Shard(maxEntriesPerShard);
+        }
+
+        this.freshnessTtlInMillis = freshnessTtlInMillis;
+    }
+
+    /**
+     * Method to get cached entry for a location
+     *
+     * @param key - WeatherLocation key
+     * @return Entry, fresh or stale, null if nothing is cached
+     */
+    WeatherCache.Entry get(final String key) {
+        final Shard shard = shardFor(key);
+        synchronized (shard) {
+            return shard.get(key);
+        }
+    }
+
+    /**
+     * Method to check whether an entry is still fresh
+     *
+     * @param entry - Cached entry, can be null
+     * @return true if entry is not null and within freshness TTL
+     */
+    boolean isFresh(final WeatherCache.Entry entry) {
+        return entry != null &&
+                System.currentTimeMillis() - entry.fetchedAtMillis < freshnessTtlInMillis;
+    }
+
+    /**
+     * Method to cache weather data fetched for a location
+     *
+     * @param key - WeatherLocation key
+     * @param weatherData - Weather data fetched for the location
+     */
+    void put(final String key, final WeatherDataPojo weatherData) {
+        final WeatherCache.Entry entry = new WeatherCache.Entry(weatherData, System.currentTimeMillis());
+        final Shard shard = shardFor(key);
+        synchronized (shard) {
+            shard.put(key, entry);
+        }
+    }
+
+    /**
+     * Method to get number of cached entries
+     *
+     * @return Number of entries
+     */
+    int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.size();
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Helper method to get the shard of a key. High bits of
+     * the hash are mixed into the low bits, like HashMap does
+     *
+     * @param key - WeatherLocation key
+     * @return Shard
+     */
+    private Shard shardFor(final String key) {
+        final int hash = key.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & (NUMBER_OF_SHARDS - 1)];
+    }
+}
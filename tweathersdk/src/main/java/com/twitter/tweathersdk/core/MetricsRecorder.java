@@ -0,0 +1,105 @@
+package com.twitter.tweathersdk.core;
+
+/**
+ * Recorder of SDK metrics - request latency, response bytes,
+ * decode time, requests in flight, fan-out completion time and
+ * cache outcomes
+ *
+ * The SDK records into the recorder set with
+ * TweatherConfig.Builder.metricsRecorder(), TweatherMetrics by default.
+ * Methods are called on network and caller threads, often at the same
+ * time, so implementations must be thread safe and must not block.
+ *
+ * Endpoints are request URLs without query parameters, so requests
+ * for many locations share one endpoint.
+ */
+
+public interface MetricsRecorder {
+    // Outcomes of a request
+    int REQUEST_SUCCEEDED = 0;
+    int REQUEST_FAILED = 1;
+    int REQUEST_CANCELLED = 2;
+
+    // Outcomes of a cache lookup
+    int CACHE_FRESH = 0;
+    int CACHE_STALE = 1;
+    int CACHE_MISS = 2;
+
+    // Fan-outs
+    String FAN_OUT_FORECAST = "forecast";
+    String FAN_OUT_BULK = "bulk";
+
+    /**
+     * Recorder that records nothing, to turn metrics off
+     *
+     */
+    MetricsRecorder NONE = new MetricsRecorder() {
+        @Override
+        public void requestStarted(String endpoint) {
+            // Nothing to do
+        }
+
+        @Override
+        public void requestFinished(String endpoint, long latencyInNanos, int outcome) {
+            // Nothing to do
+        }
+
+        @Override
+        public void responseDecoded(String endpoint, long bytes, long decodeTimeInNanos) {
+            // Nothing to do
+        }
+
+        @Override
+        public void fanOutCompleted(String fanOut, int numberOfRequests, long durationInNanos) {
+            // Nothing to do
+        }
+
+        @Override
+        public void cacheLookup(int outcome) {
+            // Nothing to do
+        }
+    };
+
+    /**
+     * Called when a request to an endpoint is sent
+     *
+     * @param endpoint - Endpoint
+     */
+    void requestStarted(String endpoint);
+
+    /**
+     * Called when a request to an endpoint is finished,
+     * including retries
+     *
+     * @param endpoint - Endpoint
+     * @param latencyInNanos - Time from requestStarted() until the result
+     * @param outcome - REQUEST_SUCCEEDED, REQUEST_FAILED or REQUEST_CANCELLED
+     */
+    void requestFinished(String endpoint, long latencyInNanos, int outcome);
+
+    /**
+     * Called when a response body has been decoded. The body is
+     * streamed into the decoder, so decode time includes reading it
+     *
+     * @param endpoint - Endpoint
+     * @param bytes - Bytes of the response body
+     * @param decodeTimeInNanos - Time to read and decode the body
+     */
+    void responseDecoded(String endpoint, long bytes, long decodeTimeInNanos);
+
+    /**
+     * Called when all requests of a fan-out are complete
+     *
+     * @param fanOut - FAN_OUT_FORECAST or FAN_OUT_BULK
+     * @param numberOfRequests - Number of days or locations
+     * @param durationInNanos - Time from the start of the fan-out until its last result
+     */
+    void fanOutCompleted(String fanOut, int numberOfRequests, long durationInNanos);
+
+    /**
+     * Called when cached weather data is looked up
+     *
+     * @param outcome - CACHE_FRESH, CACHE_STALE or CACHE_MISS
+     */
+    void cacheLookup(int outcome);
+}
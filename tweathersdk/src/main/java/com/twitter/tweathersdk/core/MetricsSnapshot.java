@@ -0,0 +1,337 @@
+package com.twitter.tweathersdk.core;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Point in time copy of the metrics of TweatherMetrics
+ *
+ * A snapshot is immutable and can be read, logged or uploaded on
+ * any thread while the SDK keeps recording. Counters are read one at
+ * a time, so a snapshot taken under load may be off by the requests
+ * that finished while it was taken.
+ */
+
+public final class MetricsSnapshot {
+    // Metrics per endpoint
+    private final Map<String, Endpoint> endpoints;
+
+    // Completion time per fan-out
+    private final Map<String, Histogram> fanOuts;
+
+    // Cache lookups
+    private final long cacheFresh;
+    private final long cacheStale;
+    private final long cacheMisses;
+
+    /**
+     * Constructor
+     *
+     * @param endpoints - Metrics per endpoint
+     * @param fanOuts - Completion time per fan-out
+     * @param cacheFresh - Number of fresh cache lookups
+     * @param cacheStale - Number of stale cache lookups
+     * @param cacheMisses - Number of cache misses
+     */
+    MetricsSnapshot(final Map<String, Endpoint> endpoints,
+                    final Map<String, Histogram> fanOuts,
+                    final long cacheFresh,
+                    final long cacheStale,
+                    final long cacheMisses) {
+        this.endpoints = Collections.unmodifiableMap(endpoints);
+        this.fanOuts = Collections.unmodifiableMap(fanOuts);
+        this.cacheFresh = cacheFresh;
+        this.cacheStale = cacheStale;
+        this.cacheMisses = cacheMisses;
+    }
+
+    /**
+     * Method to get metrics per endpoint
+     *
+     * @return Immutable map of endpoint metrics, keyed by endpoint
+     */
+    public Map<String, Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Method to get completion time of fan-outs, in nanoseconds
+     *
+     * @return Immutable map of histograms, keyed by MetricsRecorder.FAN_OUT_FORECAST
+     * or MetricsRecorder.FAN_OUT_BULK
+     */
+    public Map<String, Histogram> getFanOuts() {
+        return fanOuts;
+    }
+
+    /**
+     * Method to get number of cache lookups that found fresh data
+     *
+     * @return Number of lookups
+     */
+    public long getCacheFresh() {
+        return cacheFresh;
+    }
+
+    /**
+     * Method to get number of cache lookups that found stale data
+     *
+     * @return Number of lookups
+     */
+    public long getCacheStale() {
+        return cacheStale;
+    }
+
+    /**
+     * Method to get number of cache lookups that found no data
+     *
+     * @return Number of lookups
+     */
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsSnapshot{" +
+                "endpoints=" + endpoints +
+                ", fanOuts=" + fanOuts +
+                ", cacheFresh=" + cacheFresh +
+                ", cacheStale=" + cacheStale +
+                ", cacheMisses=" + cacheMisses +
+                '}';
+    }
+
+    /**
+     * Metrics of one endpoint
+     *
+     */
+    public static final class Endpoint {
+        // Request counts
+        private final long requests;
+        private final long inFlight;
+        private final long errors;
+        private final long cancelled;
+
+        // Histograms
+        private final Histogram latency;
+        private final Histogram responseBytes;
+        private final Histogram decodeTime;
+
+        /**
+         * Constructor
+         *
+         * @param requests - Number of requests started
+         * @param inFlight - Number of requests in flight
+         * @param errors - Number of failed requests
+         * @param cancelled - Number of cancelled requests
+         * @param latency - Latency of finished requests, in nanoseconds
+         * @param responseBytes - Size of decoded response bodies
+         * @param decodeTime - Decode time of response bodies, in nanoseconds
+         */
+        Endpoint(final long requests,
+                 final long inFlight,
+                 final long errors,
+                 final long cancelled,
+                 final Histogram latency,
+                 final Histogram responseBytes,
+                 final Histogram decodeTime) {
+            this.requests = requests;
+            this.inFlight = inFlight;
+            this.errors = errors;
+            this.cancelled = cancelled;
+            this.latency = latency;
+            this.responseBytes = responseBytes;
+            this.decodeTime = decodeTime;
+        }
+
+        /**
+         * Method to get number of requests started
+         *
+         * @return Number of requests
+         */
+        public long getRequests() {
+            return requests;
+        }
+
+        /**
+         * Method to get number of requests in flight
+         *
+         * @return Number of requests
+         */
+        public long getInFlight() {
+            return inFlight;
+        }
+
+        /**
+         * Method to get number of failed requests
+         *
+         * @return Number of requests
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * Method to get number of cancelled requests, for
+         * example hedge losers
+         *
+         * @return Number of requests
+         */
+        public long getCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Method to get latency of succeeded and failed
+         * requests, in nanoseconds
+         *
+         * @return Histogram
+         */
+        public Histogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * Method to get size of decoded response bodies
+         *
+         * @return Histogram of bytes
+         */
+        public Histogram getResponseBytes() {
+            return responseBytes;
+        }
+
+        /**
+         * Method to get time to read and decode response
+         * bodies, in nanoseconds
+         *
+         * @return Histogram
+         */
+        public Histogram getDecodeTime() {
+            return decodeTime;
+        }
+
+        @Override
+        public String toString() {
+            return "Endpoint{" +
+                    "requests=" + requests +
+                    ", inFlight=" + inFlight +
+                    ", errors=" + errors +
+                    ", cancelled=" + cancelled +
+                    ", latency=" + latency +
+                    ", responseBytes=" + responseBytes +
+                    ", decodeTime=" + decodeTime +
+                    '}';
+        }
+    }
+
+    /**
+     * Histogram of recorded values
+     *
+     * Percentiles are accurate to 12.5% of the value (see
+     * AtomicHistogram), and never higher than the max.
+     */
+    public static final class Histogram {
+        // Counts per bucket
+        private final long[] counts;
+
+        // Number, sum and max of values
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        /**
+         * Constructor
+         *
+         * @param counts - Counts per bucket of AtomicHistogram
+         * @param sum - Sum of values
+         * @param max - Max value
+         */
+        Histogram(final long[] counts, final long sum, final long max) {
+            long count = 0;
+            for (long bucketCount : counts) {
+                count += bucketCount;
+            }
+
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * Method to get number of values
+         *
+         * @return Number of values
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Method to get sum of values
+         *
+         * @return Sum
+         */
+        public long getSum() {
+            return sum;
+        }
+
+        /**
+         * Method to get max value
+         *
+         * @return Max, 0 if there are no values
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Method to get mean of values
+         *
+         * @return Mean, 0 if there are no values
+         */
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Method to get a percentile of values
+         *
+         * @param percentile - Percentile, 0 to 100
+         * @return Value at the percentile (nearest rank), 0 if there are no values
+         * @throws IllegalArgumentException - If percentile is out of range
+         */
+        public long getPercentile(final double percentile) {
+            if (!(percentile >= 0 && percentile <= 100)) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100");
+            }
+
+            if (count == 0) {
+                return 0;
+            }
+
+            final long rank = Math.max(1, (long) Math.ceil(percentile / 100.0d * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(AtomicHistogram.bucketUpperBound(i), max);
+                }
+            }
+
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return "Histogram{" +
+                    "count=" + count +
+                    ", mean=" + (long) getMean() +
+                    ", p50=" + getPercentile(50) +
+                    ", p99=" + getPercentile(99) +
+                    ", max=" + max +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.twitter.tweathersdk.core;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * OkHttp application interceptor that serves a stale response from
+ * the HTTP disk cache when the network request fails, for example
+ * when the device is offline.
+ *
+ * The cached response is used only if it is not older than
+ * the configured max stale; otherwise the original network
+ * exception is thrown.
+ */
+
+class OfflineCacheInterceptor implements Interceptor {
+    // Log Tag
+    private final static String TAG = OfflineCacheInterceptor.class.getSimpleName();
+
+    // HTTP code returned by OkHttp when only-if-cached cannot be satisfied
+    private static final int HTTP_GATEWAY_TIMEOUT = 504;
+
+    // Cache Control used when network is not available
+    private final CacheControl offlineCacheControl;
+
+    /**
+     * Constructor
+     *
+     * @param maxStaleInSeconds - Max stale of a response served offline
+     */
+    OfflineCacheInterceptor(final long maxStaleInSeconds) {
+        this.offlineCacheControl = new CacheControl.Builder()
+                .onlyIfCached()
+                .maxStale((int) Math.min(maxStaleInSeconds, Integer.MAX_VALUE), TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        final Request request = chain.request();
+
+        try {
+            return chain.proceed(request);
+        }
+        catch (IOException networkException) {
+            Log.w(TAG, "intercept - Network request failed, try cache. " + networkException);
+
+            final Request offlineRequest = request.newBuilder()
+                    .cacheControl(offlineCacheControl)
+                    .build();
+            final Response cachedResponse = chain.proceed(offlineRequest);
+
+            if (cachedResponse.code() == HTTP_GATEWAY_TIMEOUT) {
+                // Nothing usable in the cache
+                cachedResponse.close();
+                throw networkException;
+            }
+
+            Log.i(TAG, "intercept - Serving stale response from cache for " + request.url());
+            return cachedResponse;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.twitter.tweathersdk.core;
 
 import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 
 /**
@@ -12,12 +15,29 @@ import okhttp3.OkHttpClient;
  * and it's in fact recommended by OkHttp
  *
  * Source: https://square.github.io/okhttp/3.x/okhttp/okhttp3/OkHttpClient.html
+ *
+ * If the SDK is configured with an HTTP cache directory, the client
+ * gets a size bounded disk Cache. OkHttp revalidates stale cached
+ * responses with If-None-Match / If-Modified-Since, so unchanged
+ * weather data comes back as a 304 instead of a full body.
+ *
+ * Failed requests are retried by ResilienceInterceptor (with its own
+ * bounded, jittered policy) instead of OkHttp's silent connection retry.
+ *
+ * Unless call tracing is disabled, the singleton client records a
+ * CallTrace of network phases for every call, with a CallTracer.
  */
 
 class OkHttpFactory {
     // Singleton OkHttpClient Object
     private static OkHttpClient okHttpClient = null;
 
+    // Call tracer of the singleton client, null if tracing is disabled
+    private static CallTracer callTracer = null;
+
+    // Configuration used to build the client
+    private static TweatherConfig config = TweatherConfig.defaultConfig();
+
     // Timeout - Used mainly for slower connections; we don't
     // want the users to wait for a long time when in spotty
     // network conditions
@@ -45,6 +65,22 @@ class OkHttpFactory {
         throw new CloneNotSupportedException("Cannot clone a singleton object");
     }
 
+    /**
+     * Method to set the configuration used to build the
+     * singleton OkHttpClient object
+     *
+     * @param tweatherConfig - SDK configuration
+     * @return true if configuration is applied, false if client is already built
+     */
+    static synchronized boolean configure(final TweatherConfig tweatherConfig) {
+        if (okHttpClient != null) {
+            return false;
+        }
+
+        config = tweatherConfig;
+        return true;
+    }
+
     /**
      * Method to get instance of singleton OkHttpClient
      * object
@@ -53,13 +89,71 @@ class OkHttpFactory {
      */
     static synchronized OkHttpClient getOkHttpClient() {
         if (okHttpClient == null) {
-            okHttpClient = new OkHttpClient.Builder()
-                    .connectTimeout(OkHttpFactory.CONNECTION_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)
-                    .readTimeout(OkHttpFactory.READ_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)
-                    .retryOnConnectionFailure(false) // Do not retry on connection time out
-                    .build();
+            callTracer = config.getCallTraceCapacity() > 0 ? new CallTracer(config.getCallTraceCapacity()) : null;
+            okHttpClient = newOkHttpClient(config, callTracer);
         }
 
         return okHttpClient;
     }
+
+    /**
+     * Method to get the call tracer of the singleton
+     * OkHttpClient object
+     *
+     * @return CallTracer, or null if tracing is disabled or the client is not built yet
+     */
+    static synchronized CallTracer getCallTracer() {
+        return callTracer;
+    }
+
+    /**
+     * Method to build a new OkHttpClient for the given
+     * configuration
+     *
+     * @param tweatherConfig - SDK configuration
+     * @return OkHttpClient - New HTTP Client Object
+     */
+    static OkHttpClient newOkHttpClient(final TweatherConfig tweatherConfig) {
+        return newOkHttpClient(tweatherConfig, null);
+    }
+
+    /**
+     * Method to build a new OkHttpClient for the given
+     * configuration, that traces its calls
+     *
+     * @param tweatherConfig - SDK configuration
+     * @param tracer - Call tracer, null to not trace calls
+     * @return OkHttpClient - New HTTP Client Object
+     */
+    static OkHttpClient newOkHttpClient(final TweatherConfig tweatherConfig, final CallTracer tracer) {
+        final OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectTimeout(OkHttpFactory.CONNECTION_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)
+                .readTimeout(OkHttpFactory.READ_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)
+                .retryOnConnectionFailure(false); // Retries are done by ResilienceInterceptor
+
+        // Cap requests in flight, in total and per host
+        final Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(tweatherConfig.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(tweatherConfig.getMaxRequestsPerHost());
+        builder.dispatcher(dispatcher);
+
+        if (tweatherConfig.getHttpCacheDirectory() != null) {
+            builder.cache(new Cache(tweatherConfig.getHttpCacheDirectory(), tweatherConfig.getHttpCacheSizeInBytes()));
+
+            // Serve stale cached responses when network is not available
+            if (tweatherConfig.getMaxStaleInSeconds() > 0) {
+                builder.addInterceptor(new OfflineCacheInterceptor(tweatherConfig.getMaxStaleInSeconds()));
+            }
+        }
+
+        // Retry and circuit breaker - Added after OfflineCacheInterceptor, so
+        // cache is only tried once retries are exhausted or the circuit is open
+        builder.addInterceptor(new ResilienceInterceptor(tweatherConfig));
+
+        if (tracer != null) {
+            builder.eventListenerFactory(tracer);
+        }
+
+        return builder.build();
+    }
 }
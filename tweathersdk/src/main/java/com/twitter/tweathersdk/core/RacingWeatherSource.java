@@ -0,0 +1,348 @@
+package com.twitter.tweathersdk.core;
+
+import android.util.Log;
+
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * WeatherSource that races two or more sources
+ *
+ * Every request goes to the fastest sources at once (race width),
+ * ranked by their recent latency. The first valid response wins and
+ * the other requests are cancelled. If a raced source fails or returns
+ * invalid data, the next source in the ranking is tried, until one
+ * succeeds or every source has failed.
+ *
+ * Latency of each source is an exponentially weighted moving average
+ * of its successful responses. A loser's time until it was cancelled is
+ * only a lower bound of its latency, so it can raise the average but never
+ * lower it. A failure counts as a latency penalty, so slow and unhealthy
+ * sources drop in the ranking. Sources that have never been
+ * measured rank first, so every source gets measured.
+ */
+
+public final class RacingWeatherSource implements WeatherSource {
+    // Log Tag
+    private final static String TAG = RacingWeatherSource.class.getSimpleName();
+
+    // Default number of sources raced at once
+    public static final int DEFAULT_RACE_WIDTH = 2;
+
+    // Latency recorded for a failed request
+    private static final long FAILURE_PENALTY_IN_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    // Weight of a new latency sample in the moving average - 1/8
+    private static final int LATENCY_SAMPLE_WEIGHT_SHIFT = 3;
+
+    /**
+     * Request made to one source
+     *
+     */
+    private interface SourceRequest {
+        TweatherFuture<WeatherDataPojo> fetch(WeatherSource source);
+    }
+
+    // Sources to race
+    private final List<WeatherSource> sources;
+
+    // Number of sources raced at once
+    private final int raceWidth;
+
+    // Moving average latency per source, 0 if never measured
+    private final AtomicLongArray latencyInNanos;
+
+    /**
+     * Constructor
+     *
+     * @param sources - Sources to race, at least 2
+     * @param raceWidth - Number of sources raced at once, at least 1
+     * @throws IllegalArgumentException - If values are invalid
+     */
+    public RacingWeatherSource(final List<WeatherSource> sources, final int raceWidth) {
+        if (sources == null || sources.size() < 2 || sources.contains(null) || raceWidth < 1) {
+            throw new IllegalArgumentException("Racing needs at least 2 sources and a race width of at least 1");
+        }
+
+        this.sources = Collections.unmodifiableList(new ArrayList<>(sources));
+        this.raceWidth = Math.min(raceWidth, sources.size());
+        this.latencyInNanos = new AtomicLongArray(sources.size());
+    }
+
+    /**
+     * Constructor with default race width
+     *
+     * @param sources - Sources to race, at least 2
+     * @throws IllegalArgumentException - If sources are invalid
+     */
+    public RacingWeatherSource(final WeatherSource... sources) {
+        this(sources == null ? null : Arrays.asList(sources), DEFAULT_RACE_WIDTH);
+    }
+
+    @Override
+    public String getName() {
+        final StringBuilder name = new StringBuilder("race(");
+        for (int i = 0; i < sources.size(); i++) {
+            name.append(i == 0 ? "" : ", ").append(sources.get(i).getName());
+        }
+
+        return name.append(")").toString();
+    }
+
+    @Override
+    public TweatherFuture<WeatherDataPojo> currentWeather() {
+        return race(new SourceRequest() {
+            @Override
+            public TweatherFuture<WeatherDataPojo> fetch(WeatherSource source) {
+                return source.currentWeather();
+            }
+        });
+    }
+
+    @Override
+    public TweatherFuture<WeatherDataPojo> currentWeather(final WeatherLocation location) {
+        return race(new SourceRequest() {
+            @Override
+            public TweatherFuture<WeatherDataPojo> fetch(WeatherSource source) {
+                return source.currentWeather(location);
+            }
+        });
+    }
+
+    @Override
+    public TweatherFuture<WeatherDataPojo> futureWeather(final int day) {
+        return race(new SourceRequest() {
+            @Override
+            public TweatherFuture<WeatherDataPojo> fetch(WeatherSource source) {
+                return source.futureWeather(day);
+            }
+        });
+    }
+
+    /**
+     * Method to get indexes of sources ranked by latency,
+     * fastest first
+     *
+     * @return Ranked source indexes
+     */
+    List<Integer> rankSources() {
+        final List<Integer> ranking = new ArrayList<>(sources.size());
+        final long[] latencies = new long[sources.size()];
+        for (int i = 0; i < latencies.length; i++) {
+            ranking.add(i);
+            latencies[i] = latencyInNanos.get(i);
+        }
+
+        // Sort is stable, so sources with the same latency keep their order
+        Collections.sort(ranking, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer first, Integer second) {
+                final long firstLatency = latencies[first];
+                final long secondLatency = latencies[second];
+                return firstLatency < secondLatency ? -1 : (firstLatency == secondLatency ? 0 : 1);
+            }
+        });
+
+        return ranking;
+    }
+
+    /**
+     * Method to get moving average latency of a source
+     *
+     * @param sourceIndex - Index of the source
+     * @return Latency in nanoseconds, 0 if never measured
+     */
+    long getLatencyInNanos(final int sourceIndex) {
+        return latencyInNanos.get(sourceIndex);
+    }
+
+    /**
+     * Helper method to race a request across the sources
+     *
+     * @param request - Request to make to each source
+     * @return TweatherFuture with the first valid result
+     */
+    private TweatherFuture<WeatherDataPojo> race(final SourceRequest request) {
+        final Race race = new Race(rankSources(), request);
+        race.start();
+        return race.result;
+    }
+
+    /**
+     * Helper method to record latency of a source
+     *
+     * @param sourceIndex - Index of the source
+     * @param sampleInNanos - Latency sample
+     * @param lowerBound - true if the latency is at least the sample, for a cancelled loser
+     */
+    private void recordLatency(final int sourceIndex, final long sampleInNanos, final boolean lowerBound) {
+        while (true) {
+            final long average = latencyInNanos.get(sourceIndex);
+            final long sample = lowerBound ? Math.max(sampleInNanos, average) : sampleInNanos;
+            final long newAverage = average == 0 ? sample :
+                    average + ((sample - average) >> LATENCY_SAMPLE_WEIGHT_SHIFT);
+
+            if (latencyInNanos.compareAndSet(sourceIndex, average, Math.max(1, newAverage))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Helper method to check whether weather data is valid
+     *
+     * @param weatherData - WeatherDataPojo
+     * @return true if it has a temperature
+     */
+    private static boolean isValid(final WeatherDataPojo weatherData) {
+        return weatherData != null &&
+                weatherData.getWeather() != null &&
+                weatherData.getWeather().getTemp() != null;
+    }
+
+    /**
+     * One race of a request across the ranked sources
+     *
+     */
+    private final class Race {
+        // Result of the race
+        private final TweatherFuture<WeatherDataPojo> result = new TweatherFuture<>();
+
+        // Source indexes ranked by latency, and the request
+        private final List<Integer> ranking;
+        private final SourceRequest request;
+
+        // Guarded by this
+        private final List<TweatherFuture<WeatherDataPojo>> requestsInFlight = new ArrayList<>();
+        private int nextRank = 0;
+        private int numberOfRequestsInFlight = 0;
+
+        /**
+         * Constructor
+         *
+         * @param ranking - Source indexes ranked by latency
+         * @param request - Request to make to each source
+         */
+        private Race(final List<Integer> ranking, final SourceRequest request) {
+            this.ranking = ranking;
+            this.request = request;
+        }
+
+        /**
+         * Start the race with the fastest sources, and cancel
+         * every request if the caller cancels the result
+         *
+         */
+        private void start() {
+            result.addListener(new TweatherFuture.Listener<WeatherDataPojo>() {
+                @Override
+                public void onSuccess(WeatherDataPojo value) {
+                    cancelRequestsInFlight();
+                }
+
+                @Override
+                public void onFailure(Throwable error) {
+                    cancelRequestsInFlight();
+                }
+            });
+
+            // A source that fails right away is replaced in sourceLost(),
+            // so count requests in flight, not sources started
+            synchronized (this) {
+                while (numberOfRequestsInFlight < raceWidth && nextRank < ranking.size() && !result.isDone()) {
+                    startNextSource();
+                }
+            }
+        }
+
+        /**
+         * Helper method to start request to the next source in
+         * the ranking. Must be called holding the lock
+         *
+         */
+        private void startNextSource() {
+            if (nextRank >= ranking.size() || result.isDone()) {
+                return;
+            }
+
+            final int sourceIndex = ranking.get(nextRank++);
+            final WeatherSource source = sources.get(sourceIndex);
+            final long startNanos = System.nanoTime();
+
+            final TweatherFuture<WeatherDataPojo> sourceFuture = request.fetch(source);
+            requestsInFlight.add(sourceFuture);
+            numberOfRequestsInFlight++;
+
+            sourceFuture.addListener(new TweatherFuture.Listener<WeatherDataPojo>() {
+                @Override
+                public void onSuccess(WeatherDataPojo weatherData) {
+                    if (isValid(weatherData)) {
+                        recordLatency(sourceIndex, System.nanoTime() - startNanos, false);
+                        if (result.complete(weatherData)) {
+                            Log.d(TAG, "Race won by " + source.getName());
+                        }
+                    }
+                    else {
+                        Log.w(TAG, "Invalid weather data from " + source.getName());
+                        recordLatency(sourceIndex, FAILURE_PENALTY_IN_NANOS, false);
+                        sourceLost();
+                    }
+                }
+
+                @Override
+                public void onFailure(Throwable error) {
+                    if (result.isDone()) {
+                        // Loser cancelled by the race - Its latency is at least the time so far
+                        recordLatency(sourceIndex, System.nanoTime() - startNanos, true);
+                    }
+                    else {
+                        Log.w(TAG, "Request to " + source.getName() + " failed. " + error);
+                        recordLatency(sourceIndex, FAILURE_PENALTY_IN_NANOS, false);
+                    }
+                    sourceLost();
+                }
+            });
+        }
+
+        /**
+         * Helper method to fall back to the next source when a
+         * source fails, and fail the race when every source has failed
+         *
+         */
+        private synchronized void sourceLost() {
+            numberOfRequestsInFlight--;
+            if (result.isDone()) {
+                return;
+            }
+
+            startNextSource();
+
+            if (numberOfRequestsInFlight == 0) {
+                result.completeExceptionally(new IOException("Every weather source failed: " + getName()));
+            }
+        }
+
+        /**
+         * Helper method to cancel every request in flight
+         *
+         */
+        private void cancelRequestsInFlight() {
+            final List<TweatherFuture<WeatherDataPojo>> requestsToCancel;
+            synchronized (this) {
+                requestsToCancel = new ArrayList<>(requestsInFlight);
+            }
+
+            for (TweatherFuture<WeatherDataPojo> sourceFuture : requestsToCancel) {
+                sourceFuture.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.twitter.tweathersdk.core;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * OkHttp application interceptor that retries failed requests
+ * and fails fast while an endpoint is unhealthy
+ *
+ * Connection failures, 5xx and 429 responses are retried up to the
+ * configured max retries. Delays use decorrelated jitter, so thousands
+ * of devices that fail at the same time don't retry in lock step.
+ *
+ * Every endpoint has a CircuitBreaker. While it is open, requests
+ * fail with CircuitOpenException without touching the network (and
+ * OfflineCacheInterceptor can still serve a cached response).
+ *
+ * Requests cancelled by the SDK (hedge losers, batch deadline) are
+ * neither retried nor counted against the endpoint. The delay between
+ * retries is waited in short steps, so a request cancelled during its
+ * delay ends within a step and frees its Dispatcher thread.
+ *
+ * Note: An interceptor must return the response of its call, so the
+ * delay is waited on the Dispatcher thread of the call, which also
+ * keeps its slot of max requests per host. Other requests to the host,
+ * such as days of a forecast, queue behind a call that is waiting to
+ * retry. So the total delay per call is capped by the retry budget
+ * (TweatherConfig.Builder.retryMaxTotalDelay(), 1 second by default),
+ * and a retry that would go over it is not made.
+ */
+
+final class ResilienceInterceptor implements Interceptor {
+    // Log Tag
+    private final static String TAG = ResilienceInterceptor.class.getSimpleName();
+
+    // HTTP codes that are retried
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_SERVER_ERROR = 500;
+
+    // Max time between checks for cancellation while waiting to retry
+    private static final long RETRY_WAIT_STEP_IN_MILLIS = 50;
+
+    // Retry policy
+    private final int maxRetries;
+    private final long baseDelayInMillis;
+    private final long maxDelayInMillis;
+    private final long maxTotalDelayInMillis;
+
+    // Circuit breaker policy
+    private final int failureThreshold;
+    private final long openDurationInMillis;
+
+    // Random for jitter - Thread safe
+    private final Random random;
+
+    // Circuit breaker per endpoint
+    private final ConcurrentHashMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param tweatherConfig - SDK configuration
+     */
+    ResilienceInterceptor(final TweatherConfig tweatherConfig) {
+        this(tweatherConfig, new Random());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param tweatherConfig - SDK configuration
+     * @param random - Random for jitter
+     */
+    ResilienceInterceptor(final TweatherConfig tweatherConfig, final Random random) {
+        this.maxRetries = tweatherConfig.getMaxRetries();
+        this.baseDelayInMillis = tweatherConfig.getRetryBaseDelayInMillis();
+        this.maxDelayInMillis = tweatherConfig.getRetryMaxDelayInMillis();
+        this.maxTotalDelayInMillis = tweatherConfig.getRetryMaxTotalDelayInMillis();
+        this.failureThreshold = tweatherConfig.getCircuitFailureThreshold();
+        this.openDurationInMillis = tweatherConfig.getCircuitOpenDurationInMillis();
+        this.random = random;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        final Request request = chain.request();
+
+        // Requests served only from cache never touch the network,
+        // and only idempotent requests are retried
+        if (request.cacheControl().onlyIfCached() || !"GET".equals(request.method())) {
+            return chain.proceed(request);
+        }
+
+        final String endpoint = getEndpoint(request.url());
+        final CircuitBreaker circuitBreaker = getCircuitBreaker(endpoint);
+        long delayInMillis = baseDelayInMillis;
+        long totalDelayInMillis = 0;
+
+        for (int retry = 0; ; retry++) {
+            if (chain.call().isCanceled()) {
+                throw new IOException("Canceled");
+            }
+
+            if (!circuitBreaker.allowRequest()) {
+                Log.w(TAG, "intercept - Circuit is open, fail fast for " + endpoint);
+                throw new CircuitOpenException(endpoint);
+            }
+
+            Response response = null;
+            IOException failure = null;
+            try {
+                response = chain.proceed(request);
+            }
+            catch (IOException e) {
+                failure = e;
+            }
+            catch (RuntimeException e) {
+                circuitBreaker.recordFailure();
+                throw e;
+            }
+
+            if (chain.call().isCanceled()) {
+                // Cancelled by the caller, says nothing about the endpoint
+                circuitBreaker.releaseProbe();
+                if (failure != null) {
+                    throw failure;
+                }
+                return response;
+            }
+
+            if (failure == null && !isRetryable(response.code())) {
+                circuitBreaker.recordSuccess();
+                return response;
+            }
+
+            circuitBreaker.recordFailure();
+
+            // Give up after max retries, or if the next delay would go over the retry budget
+            delayInMillis = nextDelayInMillis(delayInMillis);
+            totalDelayInMillis += delayInMillis;
+            if (retry >= maxRetries || totalDelayInMillis > maxTotalDelayInMillis) {
+                if (failure != null) {
+                    throw failure;
+                }
+
+                // Let the caller handle the last error response
+                return response;
+            }
+
+            if (response != null) {
+                response.close();
+            }
+
+            Log.w(TAG, "intercept - Request to " + endpoint + " failed, retry " + (retry + 1) +
+                    " in " + delayInMillis + " ms. " + (failure != null ? failure : "HTTP " + response.code()));
+            waitForRetry(chain, delayInMillis);
+        }
+    }
+
+    /**
+     * Method to get state of the circuit breaker of an endpoint
+     *
+     * @param url - URL of the endpoint
+     * @return CircuitBreaker state, STATE_CLOSED if there has been no request
+     */
+    int getCircuitState(final HttpUrl url) {
+        final CircuitBreaker circuitBreaker = circuitBreakers.get(getEndpoint(url));
+        return circuitBreaker == null ? CircuitBreaker.STATE_CLOSED : circuitBreaker.getState();
+    }
+
+    /**
+     * Helper method to get the next retry delay with decorrelated
+     * jitter: random between base delay and 3 times the previous
+     * delay, capped at max delay
+     *
+     * @param previousDelayInMillis - Previous delay
+     * @return Next delay in milliseconds
+     */
+    long nextDelayInMillis(final long previousDelayInMillis) {
+        final long upperBound = Math.min(maxDelayInMillis, previousDelayInMillis * 3);
+        if (upperBound <= baseDelayInMillis) {
+            return baseDelayInMillis;
+        }
+
+        return baseDelayInMillis + (long) (random.nextDouble() * (upperBound - baseDelayInMillis));
+    }
+
+    /**
+     * Helper method to get the circuit breaker of an
+     * endpoint, creating it if needed
+     *
+     * @param endpoint - Endpoint
+     * @return CircuitBreaker
+     */
+    private CircuitBreaker getCircuitBreaker(final String endpoint) {
+        final CircuitBreaker circuitBreaker = circuitBreakers.get(endpoint);
+        if (circuitBreaker != null) {
+            return circuitBreaker;
+        }
+
+        final CircuitBreaker newCircuitBreaker = new CircuitBreaker(failureThreshold, openDurationInMillis);
+        final CircuitBreaker existingCircuitBreaker = circuitBreakers.putIfAbsent(endpoint, newCircuitBreaker);
+        return existingCircuitBreaker != null ? existingCircuitBreaker : newCircuitBreaker;
+    }
+
+    /**
+     * Helper method to check whether an HTTP code is retried
+     *
+     * @param code - HTTP code
+     * @return true for 5xx and 429
+     */
+    private static boolean isRetryable(final int code) {
+        return code >= HTTP_SERVER_ERROR || code == HTTP_TOO_MANY_REQUESTS;
+    }
+
+    /**
+     * Helper method to get the endpoint of a URL, without
+     * query parameters
+     *
+     * @param url - URL
+     * @return Endpoint
+     */
+    private static String getEndpoint(final HttpUrl url) {
+        return url.newBuilder().query(null).build().toString();
+    }
+
+    /**
+     * Helper method to wait between retries, in steps of
+     * RETRY_WAIT_STEP_IN_MILLIS. Returns early if the call is cancelled
+     *
+     * @param chain - Chain of the call
+     * @param delayInMillis - Delay
+     * @throws InterruptedIOException - If the thread is interrupted
+     */
+    private static void waitForRetry(final Chain chain, final long delayInMillis) throws InterruptedIOException {
+        final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayInMillis);
+        long remainingInMillis = delayInMillis;
+
+        try {
+            while (remainingInMillis > 0 && !chain.call().isCanceled()) {
+                Thread.sleep(Math.min(remainingInMillis, RETRY_WAIT_STEP_IN_MILLIS));
+                remainingInMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Retry was interrupted");
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.twitter.tweathersdk.core;
+
+/**
+ * Running statistics of a series of values - count, mean,
+ * sum of squared differences from the mean (M2), min and max
+ *
+ * Values are added one at a time with Welford's online algorithm, so
+ * statistics are current after every value without a second pass over
+ * the series, and stay accurate for values far from zero, where the
+ * sum of squares minus square of sum formula loses its digits.
+ * Statistics of two series are merged with Chan's parallel formula.
+ *
+ * Instances are immutable, so they can be shared between threads and
+ * swapped with compare-and-set by concurrent producers.
+ */
+
+public final class RunningStatistics {
+    // Statistics of no values
+    public static final RunningStatistics EMPTY =
+            new RunningStatistics(0, 0.0d, 0.0d, Double.NaN, Double.NaN);
+
+    // Number of values
+    private final long count;
+
+    // Mean of the values
+    private final double mean;
+
+    // Sum of squared differences from the mean
+    private final double m2;
+
+    // Min and max of the values, NaN if there are none
+    private final double min;
+    private final double max;
+
+    /**
+     * Constructor
+     *
+     * @param count - Number of values
+     * @param mean - Mean of the values
+     * @param m2 - Sum of squared differences from the mean
+     * @param min - Min of the values
+     * @param max - Max of the values
+     */
+    private RunningStatistics(final long count,
+                              final double mean,
+                              final double m2,
+                              final double min,
+                              final double max) {
+        this.count = count;
+        this.mean = mean;
+        this.m2 = m2;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Create statistics of a series
+     *
+     * @param values - Values
+     * @return RunningStatistics of the values
+     */
+    public static RunningStatistics of(final double... values) {
+        RunningStatistics statistics = EMPTY;
+        for (double value : values) {
+            statistics = statistics.plus(value);
+        }
+
+        return statistics;
+    }
+
+    /**
+     * Method to get statistics with one more value
+     *
+     * @param value - Value to add
+     * @return New RunningStatistics, this one is not changed
+     */
+    public RunningStatistics plus(final double value) {
+        if (count == 0) {
+            return new RunningStatistics(1, value, 0.0d, value, value);
+        }
+
+        final long newCount = count + 1;
+        final double delta = value - mean;
+        final double newMean = mean + delta / newCount;
+
+        return new RunningStatistics(newCount,
+                newMean,
+                m2 + delta * (value - newMean),
+                Math.min(min, value),
+                Math.max(max, value));
+    }
+
+    /**
+     * Method to get statistics of the values of this and
+     * another series together
+     *
+     * @param other - Statistics of the other series
+     * @return New RunningStatistics, neither one is changed
+     */
+    public RunningStatistics merge(final RunningStatistics other) {
+        if (other.count == 0) {
+            return this;
+        }
+
+        if (count == 0) {
+            return other;
+        }
+
+        final long newCount = count + other.count;
+        final double delta = other.mean - mean;
+
+        return new RunningStatistics(newCount,
+                mean + delta * other.count / newCount,
+                m2 + other.m2 + delta * delta * count / newCount * other.count,
+                Math.min(min, other.min),
+                Math.max(max, other.max));
+    }
+
+    /**
+     * Method to get number of values
+     *
+     * @return Count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Method to get mean of the values
+     *
+     * @return Mean, NaN if there are no values
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * Method to get sum of squared differences from the mean
+     *
+     * @return M2, 0 if there are no values
+     */
+    public double getM2() {
+        return m2;
+    }
+
+    /**
+     * Method to get min of the values
+     *
+     * @return Min, NaN if there are no values
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Method to get max of the values
+     *
+     * @return Max, NaN if there are no values
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Method to get sample variance (N - 1)
+     *
+     * @return Variance, 0 for a single value, NaN if there are no values
+     */
+    public double getVariance() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+
+        return count == 1 ? 0.0d : m2 / (count - 1);
+    }
+
+    /**
+     * Method to get sample standard deviation (N - 1), like
+     * StandardDeviationCalculator in the app
+     *
+     * @return Standard deviation, 0 for a single value, NaN if there are no values
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    @Override
+    public String toString() {
+        return "RunningStatistics{count=" + count + ", mean=" + getMean() + ", standardDeviation=" +
+                getStandardDeviation() + ", min=" + min + ", max=" + max + "}";
+    }
+}
@@ -0,0 +1,169 @@
+package com.twitter.tweathersdk.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-flight request coalescing, keyed by endpoint
+ *
+ * The first caller for a key starts a flight and is responsible for
+ * making the upstream call. Callers that arrive while the flight is in
+ * progress attach to it instead of making another call, and all of them
+ * get the same result when the flight is finished. Once finished,
+ * the next caller for that key starts a new flight.
+ *
+ * @param <V> - Type of the result
+ */
+
+final class SingleFlight<V> {
+    /**
+     * Listener that receives the result of a flight
+     *
+     * @param <V> - Type of the result
+     */
+    interface Listener<V> {
+        void onComplete(V value);
+    }
+
+    /**
+     * A flight for one key. Attaching and finishing are guarded
+     * by the flight itself, so a caller can never attach to a flight
+     * after its result has been delivered
+     *
+     * @param <V> - Type of the result
+     */
+    static final class Flight<V> {
+        private final List<Listener<V>> listeners = new ArrayList<>(1);
+        private boolean publishAlways = false;
+        private boolean finished = false;
+
+        /**
+         * Attach a caller to the flight
+         *
+         * @param listener - Listener for the result, can be null
+         * @param publishAlways - true if the caller wants the result published even if unchanged
+         * @return true if attached, false if the flight is already finished
+         */
+        private synchronized boolean attach(final Listener<V> listener, final boolean publishAlways) {
+            if (finished) {
+                return false;
+            }
+
+            if (listener != null) {
+                listeners.add(listener);
+            }
+
+            this.publishAlways |= publishAlways;
+            return true;
+        }
+
+        /**
+         * Mark the flight finished, no caller can attach after this
+         *
+         */
+        private synchronized void finish() {
+            finished = true;
+        }
+
+        /**
+         * Method to check whether any caller of this flight wants
+         * the result published even if it is unchanged
+         *
+         * @return true if result should always be published
+         */
+        synchronized boolean isPublishAlways() {
+            return publishAlways;
+        }
+
+        /**
+         * Deliver the result to every attached listener
+         *
+         * @param value - Result of the flight
+         */
+        void deliver(final V value) {
+            final List<Listener<V>> listenersToNotify;
+            synchronized (this) {
+                listenersToNotify = new ArrayList<>(listeners);
+            }
+
+            for (Listener<V> listener : listenersToNotify) {
+                listener.onComplete(value);
+            }
+        }
+    }
+
+    // Flights in progress keyed by endpoint
+    private final ConcurrentHashMap<String, Flight<V>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Join the flight for a key, starting a new one if there is
+     * no flight in progress
+     *
+     * @param key - Key, typically endpoint URL
+     * @param listener - Listener for the result, can be null
+     * @param publishAlways - true if the caller wants the result published even if unchanged
+     * @return true if a new flight was started and the caller must make the upstream call,
+     * false if the caller was attached to the flight in progress
+     */
+    boolean join(final String key, final Listener<V> listener, final boolean publishAlways) {
+        while (true) {
+            final Flight<V> newFlight = new Flight<>();
+            newFlight.attach(listener, publishAlways);
+
+            final Flight<V> existingFlight = flights.putIfAbsent(key, newFlight);
+            if (existingFlight == null) {
+                return true;
+            }
+
+            if (existingFlight.attach(listener, publishAlways)) {
+                return false;
+            }
+
+            // Existing flight finished while we were attaching, it is about to be removed.
+            // Remove it ourselves (only if it is still the same flight) and try again
+            flights.remove(key, existingFlight);
+        }
+    }
+
+    /**
+     * Finish the flight for a key. After this, callers for the key
+     * start a new flight. The caller is responsible for delivering
+     * the result with Flight.deliver()
+     *
+     * @param key - Key, typically endpoint URL
+     * @return Finished flight, or null if there was no flight in progress
+     */
+    Flight<V> finish(final String key) {
+        final Flight<V> flight = flights.get(key);
+        if (flight == null) {
+            return null;
+        }
+
+        flight.finish();
+        flights.remove(key, flight);
+        return flight;
+    }
+
+    /**
+     * Method to check whether any caller of the flight in progress
+     * for a key wants the result published even if it is unchanged
+     *
+     * @param key - Key, typically endpoint URL
+     * @return true if a flight is in progress and its result should always be published
+     */
+    boolean isPublishAlways(final String key) {
+        final Flight<V> flight = flights.get(key);
+        return flight != null && flight.isPublishAlways();
+    }
+
+    /**
+     * Method to check whether a flight is in progress for a key
+     *
+     * @param key - Key, typically endpoint URL
+     * @return true if a flight is in progress
+     */
+    boolean isInFlight(final String key) {
+        return flights.containsKey(key);
+    }
+}
@@ -0,0 +1,773 @@
+package com.twitter.tweathersdk.core;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration for TweatherSdk
+ *
+ * Use TweatherConfig.Builder to create an instance, and pass it
+ * to TweatherSdk.configure() before making the first request.
+ * All values have sensible defaults, so the SDK works without
+ * being configured at all (there is just no HTTP disk cache or
+ * snapshot).
+ */
+
+public final class TweatherConfig {
+    // Default Base URL
+    static final String DEFAULT_BASE_URL = "http://twitter-code-challenge.s3-website-us-east-1.amazonaws.com/";
+
+    // Default HTTP cache size - Weather responses are tiny, 2 MB is plenty
+    static final long DEFAULT_HTTP_CACHE_SIZE_IN_BYTES = 2 * 1024 * 1024;
+
+    // Default max stale - How old a cached response can be when served offline
+    static final long DEFAULT_MAX_STALE_IN_SECONDS = TimeUnit.DAYS.toSeconds(1);
+
+    // Default freshness TTL of weather data cached in memory
+    static final long DEFAULT_FRESHNESS_TTL_IN_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    // Default current weather endpoint
+    static final String DEFAULT_CURRENT_WEATHER_ENDPOINT = "current.json";
+
+    // Default forecast horizon and endpoint - Twitter Weather API has 5 days
+    static final int DEFAULT_FORECAST_DAYS = 5;
+    static final String DEFAULT_FORECAST_ENDPOINT_TEMPLATE = "future_%d.json";
+
+    // Default max requests in flight, in total (same as OkHttp default) and per host,
+    // one slot per day of the default forecast and one for current weather
+    static final int DEFAULT_MAX_REQUESTS = 64;
+    static final int DEFAULT_MAX_REQUESTS_PER_HOST = DEFAULT_FORECAST_DAYS + 1;
+
+    // Default max forecast requests in flight per fan-out - Every day
+    // of the default forecast in one round trip
+    static final int DEFAULT_FORECAST_CONCURRENCY = DEFAULT_FORECAST_DAYS;
+
+    // Latency SLO mode is disabled by default - No batch deadline, no hedged requests
+    static final long DEFAULT_BATCH_DEADLINE_IN_MILLIS = 0;
+    static final double DEFAULT_HEDGE_PERCENTILE = 0;
+
+    // Default retry policy - Bounded retries with decorrelated jitter, and at
+    // most 1 second of backoff per call, as a waiting call keeps its Dispatcher
+    // thread and its slot of max requests per host
+    static final int DEFAULT_MAX_RETRIES = 2;
+    static final long DEFAULT_RETRY_BASE_DELAY_IN_MILLIS = 200;
+    static final long DEFAULT_RETRY_MAX_DELAY_IN_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    static final long DEFAULT_RETRY_MAX_TOTAL_DELAY_IN_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    // Default circuit breaker - Open after 5 consecutive failures, probe after 30 seconds
+    static final int DEFAULT_CIRCUIT_FAILURE_THRESHOLD = 5;
+    static final long DEFAULT_CIRCUIT_OPEN_DURATION_IN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    // Default bulk requests - Requests in flight, cached locations, and
+    // coordinate grid of 0.01 degrees (about 1 km)
+    static final int DEFAULT_BULK_CONCURRENCY = 4;
+    static final int DEFAULT_LOCATION_CACHE_SIZE = 1024;
+    static final double DEFAULT_LOCATION_PRECISION_IN_DEGREES = 0.01;
+
+    // Default number of recent call traces kept
+    static final int DEFAULT_CALL_TRACE_CAPACITY = 64;
+
+    private final String baseUrl;
+    private final File httpCacheDirectory;
+    private final long httpCacheSizeInBytes;
+    private final long maxStaleInSeconds;
+    private final long freshnessTtlInMillis;
+    private final int forecastDays;
+    private final String forecastEndpointTemplate;
+    private final int forecastConcurrency;
+    private final int maxRequests;
+    private final int maxRequestsPerHost;
+    private final long batchDeadlineInMillis;
+    private final double hedgePercentile;
+    private final int maxRetries;
+    private final long retryBaseDelayInMillis;
+    private final long retryMaxDelayInMillis;
+    private final long retryMaxTotalDelayInMillis;
+    private final int circuitFailureThreshold;
+    private final long circuitOpenDurationInMillis;
+    private final WeatherSource weatherSource;
+    private final int bulkConcurrency;
+    private final int locationCacheSize;
+    private final double locationPrecisionInDegrees;
+    private final File snapshotFile;
+    private final MetricsRecorder metricsRecorder;
+    private final int callTraceCapacity;
+
+    /**
+     * Private constructor - Use Builder
+     *
+     * @param builder - Builder with configuration values
+     */
+    private TweatherConfig(final Builder builder) {
+        this.baseUrl = builder.baseUrl;
+        this.httpCacheDirectory = builder.httpCacheDirectory;
+        this.httpCacheSizeInBytes = builder.httpCacheSizeInBytes;
+        this.maxStaleInSeconds = builder.maxStaleInSeconds;
+        this.freshnessTtlInMillis = builder.freshnessTtlInMillis;
+        this.forecastDays = builder.forecastDays;
+        this.forecastEndpointTemplate = builder.forecastEndpointTemplate;
+        this.forecastConcurrency = builder.forecastConcurrency;
+        this.maxRequests = builder.maxRequests;
+        this.maxRequestsPerHost = builder.maxRequestsPerHost;
+        this.batchDeadlineInMillis = builder.batchDeadlineInMillis;
+        this.hedgePercentile = builder.hedgePercentile;
+        this.maxRetries = builder.maxRetries;
+        this.retryBaseDelayInMillis = builder.retryBaseDelayInMillis;
+        this.retryMaxDelayInMillis = builder.retryMaxDelayInMillis;
+        this.retryMaxTotalDelayInMillis = builder.retryMaxTotalDelayInMillis;
+        this.circuitFailureThreshold = builder.circuitFailureThreshold;
+        this.circuitOpenDurationInMillis = builder.circuitOpenDurationInMillis;
+        this.weatherSource = builder.weatherSource;
+        this.bulkConcurrency = builder.bulkConcurrency;
+        this.locationCacheSize = builder.locationCacheSize;
+        this.locationPrecisionInDegrees = builder.locationPrecisionInDegrees;
+        this.snapshotFile = builder.snapshotFile;
+        this.metricsRecorder = builder.metricsRecorder;
+        this.callTraceCapacity = builder.callTraceCapacity;
+    }
+
+    /**
+     * Method to get the default configuration
+     *
+     * @return TweatherConfig with default values
+     */
+    static TweatherConfig defaultConfig() {
+        return new Builder().build();
+    }
+
+    /**
+     * Method to get Base URL of the weather API
+     *
+     * @return Base URL, always ending with a "/"
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Method to get the directory for HTTP disk cache
+     *
+     * @return Cache directory, or null if HTTP disk cache is disabled
+     */
+    public File getHttpCacheDirectory() {
+        return httpCacheDirectory;
+    }
+
+    /**
+     * Method to get max size of the HTTP disk cache
+     *
+     * @return Max size in bytes
+     */
+    public long getHttpCacheSizeInBytes() {
+        return httpCacheSizeInBytes;
+    }
+
+    /**
+     * Method to get max stale for cached responses
+     * that are served when network is not available
+     *
+     * @return Max stale in seconds, 0 if stale responses are never served
+     */
+    public long getMaxStaleInSeconds() {
+        return maxStaleInSeconds;
+    }
+
+    /**
+     * Method to get how long weather data cached in
+     * memory is fresh. Stale data is still served, but
+     * it is revalidated in background
+     *
+     * @return Freshness TTL in milliseconds
+     */
+    public long getFreshnessTtlInMillis() {
+        return freshnessTtlInMillis;
+    }
+
+    /**
+     * Method to get forecast horizon
+     *
+     * @return Number of days of future weather data
+     */
+    public int getForecastDays() {
+        return forecastDays;
+    }
+
+    /**
+     * Method to get forecast endpoint template, relative to
+     * Base URL, where %d is the day
+     *
+     * @return Forecast endpoint template
+     */
+    public String getForecastEndpointTemplate() {
+        return forecastEndpointTemplate;
+    }
+
+    /**
+     * Method to get max number of forecast requests in flight
+     * for one fan-out. This is always less than max requests per
+     * host, so a fan-out never takes every connection to the host
+     * and current weather requests are not starved
+     *
+     * @return Max forecast requests in flight per fan-out
+     */
+    public int getForecastConcurrency() {
+        return Math.max(1, Math.min(forecastConcurrency, maxRequestsPerHost - 1));
+    }
+
+    /**
+     * Method to get max number of requests in flight
+     *
+     * @return Max requests in flight
+     */
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    /**
+     * Method to get max number of requests in flight per host
+     *
+     * @return Max requests in flight per host
+     */
+    public int getMaxRequestsPerHost() {
+        return maxRequestsPerHost;
+    }
+
+    /**
+     * Method to get overall deadline of a forecast fan-out.
+     * Days that are not received by the deadline are timed out
+     *
+     * @return Batch deadline in milliseconds, 0 if there is no deadline
+     */
+    public long getBatchDeadlineInMillis() {
+        return batchDeadlineInMillis;
+    }
+
+    /**
+     * Method to get latency percentile after which a hedged
+     * duplicate of a forecast request is fired
+     *
+     * @return Hedge percentile, 0 if requests are never hedged
+     */
+    public double getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    /**
+     * Method to get max number of retries of a failed request
+     *
+     * @return Max retries, 0 if requests are never retried
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Method to get base delay between retries
+     *
+     * @return Base retry delay in milliseconds
+     */
+    public long getRetryBaseDelayInMillis() {
+        return retryBaseDelayInMillis;
+    }
+
+    /**
+     * Method to get max delay between retries
+     *
+     * @return Max retry delay in milliseconds
+     */
+    public long getRetryMaxDelayInMillis() {
+        return retryMaxDelayInMillis;
+    }
+
+    /**
+     * Method to get max total delay between retries of one call
+     *
+     * @return Max total retry delay in milliseconds
+     */
+    public long getRetryMaxTotalDelayInMillis() {
+        return retryMaxTotalDelayInMillis;
+    }
+
+    /**
+     * Method to get number of consecutive failures that open
+     * the circuit breaker of an endpoint
+     *
+     * @return Failure threshold
+     */
+    public int getCircuitFailureThreshold() {
+        return circuitFailureThreshold;
+    }
+
+    /**
+     * Method to get how long the circuit breaker of an endpoint
+     * stays open before a probe request is let through
+     *
+     * @return Open duration in milliseconds
+     */
+    public long getCircuitOpenDurationInMillis() {
+        return circuitOpenDurationInMillis;
+    }
+
+    /**
+     * Method to get the source the SDK gets weather data from
+     *
+     * @return WeatherSource, or null for the Twitter Weather API at Base URL
+     */
+    public WeatherSource getWeatherSource() {
+        return weatherSource;
+    }
+
+    /**
+     * Method to get max number of requests in flight for one
+     * bulk request. This is never more than max requests in flight
+     *
+     * @return Max bulk requests in flight
+     */
+    public int getBulkConcurrency() {
+        return Math.max(1, Math.min(bulkConcurrency, maxRequests));
+    }
+
+    /**
+     * Method to get max number of locations whose weather data
+     * is cached in memory for bulk requests
+     *
+     * @return Max cached locations
+     */
+    public int getLocationCacheSize() {
+        return locationCacheSize;
+    }
+
+    /**
+     * Method to get grid size that coordinates of bulk requests
+     * are snapped to, so nearby coordinates are fetched once
+     *
+     * @return Precision in degrees, 0 if coordinates are never snapped
+     */
+    public double getLocationPrecisionInDegrees() {
+        return locationPrecisionInDegrees;
+    }
+
+    /**
+     * Method to get the file where last known weather data
+     * is persisted
+     *
+     * @return Snapshot file, or null if snapshot is disabled
+     */
+    public File getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    /**
+     * Method to get the recorder of SDK metrics
+     *
+     * @return MetricsRecorder, TweatherMetrics by default
+     */
+    public MetricsRecorder getMetricsRecorder() {
+        return metricsRecorder;
+    }
+
+    /**
+     * Method to get number of recent call traces kept
+     *
+     * @return Number of traces, 0 if call tracing is disabled
+     */
+    public int getCallTraceCapacity() {
+        return callTraceCapacity;
+    }
+
+    /**
+     * Builder for TweatherConfig
+     *
+     */
+    public static final class Builder {
+        private String baseUrl = DEFAULT_BASE_URL;
+        private File httpCacheDirectory = null;
+        private long httpCacheSizeInBytes = DEFAULT_HTTP_CACHE_SIZE_IN_BYTES;
+        private long maxStaleInSeconds = DEFAULT_MAX_STALE_IN_SECONDS;
+        private long freshnessTtlInMillis = DEFAULT_FRESHNESS_TTL_IN_MILLIS;
+        private int forecastDays = DEFAULT_FORECAST_DAYS;
+        private String forecastEndpointTemplate = DEFAULT_FORECAST_ENDPOINT_TEMPLATE;
+        private int forecastConcurrency = DEFAULT_FORECAST_CONCURRENCY;
+        private int maxRequests = DEFAULT_MAX_REQUESTS;
+        private int maxRequestsPerHost = DEFAULT_MAX_REQUESTS_PER_HOST;
+        private long batchDeadlineInMillis = DEFAULT_BATCH_DEADLINE_IN_MILLIS;
+        private double hedgePercentile = DEFAULT_HEDGE_PERCENTILE;
+        private int maxRetries = DEFAULT_MAX_RETRIES;
+        private long retryBaseDelayInMillis = DEFAULT_RETRY_BASE_DELAY_IN_MILLIS;
+        private long retryMaxDelayInMillis = DEFAULT_RETRY_MAX_DELAY_IN_MILLIS;
+        private long retryMaxTotalDelayInMillis = DEFAULT_RETRY_MAX_TOTAL_DELAY_IN_MILLIS;
+        private int circuitFailureThreshold = DEFAULT_CIRCUIT_FAILURE_THRESHOLD;
+        private long circuitOpenDurationInMillis = DEFAULT_CIRCUIT_OPEN_DURATION_IN_MILLIS;
+        private WeatherSource weatherSource = null;
+        private int bulkConcurrency = DEFAULT_BULK_CONCURRENCY;
+        private int locationCacheSize = DEFAULT_LOCATION_CACHE_SIZE;
+        private double locationPrecisionInDegrees = DEFAULT_LOCATION_PRECISION_IN_DEGREES;
+        private File snapshotFile = null;
+        private MetricsRecorder metricsRecorder = new TweatherMetrics();
+        private int callTraceCapacity = DEFAULT_CALL_TRACE_CAPACITY;
+
+        /**
+         * Set Base URL of the weather API
+         *
+         * @param baseUrl - Base URL
+         * @return Builder
+         * @throws IllegalArgumentException - If baseUrl is null or empty
+         */
+        public Builder baseUrl(final String baseUrl) {
+            if (baseUrl == null || baseUrl.length() == 0) {
+                throw new IllegalArgumentException("Base URL cannot be null or empty");
+            }
+
+            this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+            return this;
+        }
+
+        /**
+         * Enable HTTP disk cache in the given directory. Cached
+         * responses are revalidated with the server (ETag / Last-Modified)
+         * so unchanged data costs a 304 instead of the full body
+         *
+         * @param directory - Cache directory, typically under Context.getCacheDir()
+         * @param maxSizeInBytes - Max size of the cache
+         * @return Builder
+         * @throws IllegalArgumentException - If directory is null or size is not positive
+         */
+        public Builder httpCache(final File directory, final long maxSizeInBytes) {
+            if (directory == null || maxSizeInBytes <= 0) {
+                throw new IllegalArgumentException("Invalid HTTP cache directory or size");
+            }
+
+            this.httpCacheDirectory = directory;
+            this.httpCacheSizeInBytes = maxSizeInBytes;
+            return this;
+        }
+
+        /**
+         * Set how stale a cached response can be when it is
+         * served because network is not available
+         *
+         * @param maxStale - Max stale, 0 to never serve stale responses
+         * @param timeUnit - Unit of maxStale
+         * @return Builder
+         * @throws IllegalArgumentException - If maxStale is negative
+         */
+        public Builder maxStale(final long maxStale, final TimeUnit timeUnit) {
+            if (maxStale < 0) {
+                throw new IllegalArgumentException("Max stale cannot be negative");
+            }
+
+            this.maxStaleInSeconds = timeUnit.toSeconds(maxStale);
+            return this;
+        }
+
+        /**
+         * Set how long weather data cached in memory is fresh.
+         * Within the TTL cached data is served without a network
+         * request; after it, cached data is served and revalidated
+         * in background
+         *
+         * @param freshnessTtl - Freshness TTL, 0 to always revalidate
+         * @param timeUnit - Unit of freshnessTtl
+         * @return Builder
+         * @throws IllegalArgumentException - If freshnessTtl is negative
+         */
+        public Builder freshnessTtl(final long freshnessTtl, final TimeUnit timeUnit) {
+            if (freshnessTtl < 0) {
+                throw new IllegalArgumentException("Freshness TTL cannot be negative");
+            }
+
+            this.freshnessTtlInMillis = timeUnit.toMillis(freshnessTtl);
+            return this;
+        }
+
+        /**
+         * Set forecast horizon and endpoint template. One request is
+         * made per day, to Base URL + template with %d replaced by the day
+         *
+         * @param days - Number of days of future weather data, at least 1
+         * @param endpointTemplate - Endpoint template relative to Base URL, for example "future_%d.json"
+         * @return Builder
+         * @throws IllegalArgumentException - If days is less than 1 or template doesn't have %d
+         */
+        public Builder forecast(final int days, final String endpointTemplate) {
+            if (days < 1 || endpointTemplate == null || !endpointTemplate.contains("%d")) {
+                throw new IllegalArgumentException("Invalid forecast days or endpoint template");
+            }
+
+            this.forecastDays = days;
+            this.forecastEndpointTemplate = endpointTemplate;
+            return this;
+        }
+
+        /**
+         * Set max number of forecast requests in flight for one
+         * fan-out. Remaining days are requested as earlier ones complete.
+         * It is capped at max requests per host - 1, raise that too
+         * for more than 5
+         *
+         * @param concurrency - Max forecast requests in flight, at least 1
+         * @return Builder
+         * @throws IllegalArgumentException - If concurrency is less than 1
+         */
+        public Builder forecastConcurrency(final int concurrency) {
+            if (concurrency < 1) {
+                throw new IllegalArgumentException("Forecast concurrency must be at least 1");
+            }
+
+            this.forecastConcurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * Set max number of requests in flight, in total and
+         * per host
+         *
+         * @param maxRequests - Max requests in flight, at least 1
+         * @param maxRequestsPerHost - Max requests in flight per host, at least 2
+         * @return Builder
+         * @throws IllegalArgumentException - If limits are invalid
+         */
+        public Builder maxRequests(final int maxRequests, final int maxRequestsPerHost) {
+            if (maxRequests < 1 || maxRequestsPerHost < 2 || maxRequestsPerHost > maxRequests) {
+                throw new IllegalArgumentException("Invalid max requests");
+            }
+
+            this.maxRequests = maxRequests;
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        /**
+         * Set overall deadline of a forecast fan-out. Requests
+         * still in flight at the deadline are cancelled, and their
+         * days are reported as timed out (see Forecast.isTimedOut())
+         *
+         * @param deadline - Batch deadline, 0 for no deadline
+         * @param timeUnit - Unit of deadline
+         * @return Builder
+         * @throws IllegalArgumentException - If deadline is negative
+         */
+        public Builder batchDeadline(final long deadline, final TimeUnit timeUnit) {
+            if (deadline < 0) {
+                throw new IllegalArgumentException("Batch deadline cannot be negative");
+            }
+
+            this.batchDeadlineInMillis = timeUnit.toMillis(deadline);
+            return this;
+        }
+
+        /**
+         * Enable hedged forecast requests. When a request takes
+         * longer than the given percentile of recent forecast latencies,
+         * a duplicate request is fired and whichever responds first is
+         * used (see Forecast.isHedged())
+         *
+         * @param percentile - Latency percentile, for example 95, or 0 to disable hedging
+         * @return Builder
+         * @throws IllegalArgumentException - If percentile is not in [0, 100)
+         */
+        public Builder hedgeAtPercentile(final double percentile) {
+            if (percentile < 0 || percentile >= 100) {
+                throw new IllegalArgumentException("Hedge percentile must be in [0, 100)");
+            }
+
+            this.hedgePercentile = percentile;
+            return this;
+        }
+
+        /**
+         * Set retry policy for failed requests. Connection failures,
+         * 5xx and 429 responses are retried; delays between retries
+         * use decorrelated jitter between baseDelay and maxDelay, so
+         * many devices don't retry in lock step
+         *
+         * @param maxRetries - Max retries, 0 to never retry
+         * @param baseDelay - Base delay between retries
+         * @param maxDelay - Max delay between retries
+         * @param timeUnit - Unit of delays
+         * @return Builder
+         * @throws IllegalArgumentException - If values are invalid
+         */
+        public Builder retry(final int maxRetries,
+                             final long baseDelay,
+                             final long maxDelay,
+                             final TimeUnit timeUnit) {
+            if (maxRetries < 0 || baseDelay < 0 || maxDelay < baseDelay) {
+                throw new IllegalArgumentException("Invalid retry policy");
+            }
+
+            this.maxRetries = maxRetries;
+            this.retryBaseDelayInMillis = timeUnit.toMillis(baseDelay);
+            this.retryMaxDelayInMillis = timeUnit.toMillis(maxDelay);
+            return this;
+        }
+
+        /**
+         * Set max total delay between retries of one call. A call
+         * waits for its retry on its OkHttp Dispatcher thread, and keeps
+         * its slot of max requests per host, so other requests to the
+         * host queue behind it. A retry whose delay would go over this
+         * budget is not made, and the last failure is returned
+         *
+         * @param maxTotalDelay - Max total delay between retries of one call
+         * @param timeUnit - Unit of maxTotalDelay
+         * @return Builder
+         * @throws IllegalArgumentException - If maxTotalDelay is negative
+         */
+        public Builder retryMaxTotalDelay(final long maxTotalDelay, final TimeUnit timeUnit) {
+            if (maxTotalDelay < 0) {
+                throw new IllegalArgumentException("Max total retry delay cannot be negative");
+            }
+
+            this.retryMaxTotalDelayInMillis = timeUnit.toMillis(maxTotalDelay);
+            return this;
+        }
+
+        /**
+         * Set circuit breaker policy. After failureThreshold consecutive
+         * failures, requests to an endpoint fail fast with
+         * CircuitOpenException for openDuration, then one probe
+         * request decides whether the circuit closes again
+         *
+         * @param failureThreshold - Consecutive failures that open the circuit, at least 1
+         * @param openDuration - How long the circuit stays open
+         * @param timeUnit - Unit of openDuration
+         * @return Builder
+         * @throws IllegalArgumentException - If values are invalid
+         */
+        public Builder circuitBreaker(final int failureThreshold,
+                                      final long openDuration,
+                                      final TimeUnit timeUnit) {
+            if (failureThreshold < 1 || openDuration < 0) {
+                throw new IllegalArgumentException("Invalid circuit breaker policy");
+            }
+
+            this.circuitFailureThreshold = failureThreshold;
+            this.circuitOpenDurationInMillis = timeUnit.toMillis(openDuration);
+            return this;
+        }
+
+        /**
+         * Set the source the SDK gets weather data from, for example
+         * an HttpWeatherSource for another provider, or a
+         * RacingWeatherSource that races two or more providers. Caching,
+         * request coalescing, hedging and batch deadline all apply on
+         * top of the source. The forecast horizon is still set
+         * by forecast()
+         *
+         * @param weatherSource - WeatherSource, null for the Twitter Weather API at Base URL
+         * @return Builder
+         */
+        public Builder weatherSource(final WeatherSource weatherSource) {
+            this.weatherSource = weatherSource;
+            return this;
+        }
+
+        /**
+         * Set max number of requests in flight for one bulk
+         * request. Remaining locations are requested as earlier ones
+         * complete. Raise max requests (and max requests per host) too
+         * for a high concurrency
+         *
+         * @param concurrency - Max bulk requests in flight, at least 1
+         * @return Builder
+         * @throws IllegalArgumentException - If concurrency is less than 1
+         */
+        public Builder bulkConcurrency(final int concurrency) {
+            if (concurrency < 1) {
+                throw new IllegalArgumentException("Bulk concurrency must be at least 1");
+            }
+
+            this.bulkConcurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * Set cache of bulk requests. Up to maxLocations locations are
+         * cached in memory, least recently used ones are evicted.
+         * Coordinates are snapped to a grid of the given precision, so
+         * coordinates in the same cell are fetched and cached once
+         *
+         * @param maxLocations - Max cached locations, at least 1
+         * @param precisionInDegrees - Grid size in degrees, 0 to never snap coordinates
+         * @return Builder
+         * @throws IllegalArgumentException - If values are invalid
+         */
+        public Builder locationCache(final int maxLocations, final double precisionInDegrees) {
+            if (maxLocations < 1 || !(precisionInDegrees >= 0 && precisionInDegrees <= 1)) {
+                throw new IllegalArgumentException("Invalid location cache size or precision");
+            }
+
+            this.locationCacheSize = maxLocations;
+            this.locationPrecisionInDegrees = precisionInDegrees;
+            return this;
+        }
+
+        /**
+         * Persist last known current and future weather data in the
+         * given file. On a cold start the snapshot is loaded into the
+         * cache on the disk I/O thread when the SDK is created. Restored
+         * data is then published as CurrentWeatherEvent and
+         * FutureWeatherEvent, returned by getCurrentWeatherData() and
+         * getFutureWeatherData(), and revalidated like any other stale data
+         *
+         * @param file - Snapshot file, typically under Context.getFilesDir()
+         * @return Builder
+         * @throws IllegalArgumentException - If file is null
+         */
+        public Builder snapshot(final File file) {
+            if (file == null) {
+                throw new IllegalArgumentException("Snapshot file cannot be null");
+            }
+
+            this.snapshotFile = file;
+            return this;
+        }
+
+        /**
+         * Set recorder of SDK metrics. By default metrics are kept
+         * in memory by a TweatherMetrics, use MetricsRecorder.NONE to
+         * turn them off, or a custom recorder to forward them to
+         * another metrics library
+         *
+         * @param metricsRecorder - MetricsRecorder
+         * @return Builder
+         * @throws IllegalArgumentException - If metricsRecorder is null
+         */
+        public Builder metricsRecorder(final MetricsRecorder metricsRecorder) {
+            if (metricsRecorder == null) {
+                throw new IllegalArgumentException("Metrics recorder cannot be null");
+            }
+
+            this.metricsRecorder = metricsRecorder;
+            return this;
+        }
+
+        /**
+         * Set number of recent HTTP calls whose network phases are
+         * traced (see CallTrace). Traces of a request are attached to
+         * the results published for it
+         *
+         * @param capacity - Number of recent traces kept, 0 to disable call tracing
+         * @return Builder
+         * @throws IllegalArgumentException - If capacity is negative
+         */
+        public Builder callTracing(final int capacity) {
+            if (capacity < 0) {
+                throw new IllegalArgumentException("Call trace capacity cannot be negative");
+            }
+
+            this.callTraceCapacity = capacity;
+            return this;
+        }
+
+        /**
+         * Build the TweatherConfig
+         *
+         * @return TweatherConfig
+         */
+        public TweatherConfig build() {
+            return new TweatherConfig(this);
+        }
+    }
+}
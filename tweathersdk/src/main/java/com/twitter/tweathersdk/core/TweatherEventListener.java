@@ -0,0 +1,17 @@
+package com.twitter.tweathersdk.core;
+
+/**
+ * Listener for one type of event published by the SDK, registered
+ * with TweatherEvents.register() or TweatherEvents.registerOnMainThread()
+ *
+ * @param <T> - Type of the event
+ */
+
+public interface TweatherEventListener<T> {
+    /**
+     * Called when an event of the registered type is published
+     *
+     * @param event - Published event
+     */
+    void onEvent(T event);
+}
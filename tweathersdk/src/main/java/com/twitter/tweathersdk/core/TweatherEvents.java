@@ -0,0 +1,522 @@
+package com.twitter.tweathersdk.core;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Dispatcher of the events the SDK publishes - CurrentWeatherEvent,
+ * FutureWeatherEvent and FutureWeatherProgressEvent
+ *
+ * Listeners are registered for one event type, and an event is
+ * delivered to the listeners of its exact class, so there is no
+ * reflection at registration or delivery, and no instanceof chain in
+ * the listener. The dispatcher is owned by the SDK, not by an Activity,
+ * so a screen unregisters in onStop() and registers again after it is
+ * recreated without losing the decoupling from the SDK.
+ *
+ * Listeners of a type are kept in a copy-on-write array swapped with
+ * compare-and-set, so publishing never takes a lock and never allocates
+ * for listeners called on the publishing thread. Events for main thread
+ * listeners are handed to the main Looper's Handler with one Runnable per
+ * event, or delivered right away if published on the main thread.
+ *
+ * Events published with postSticky() are also kept, the latest one per
+ * type with the time it was published, and replayed to a listener when
+ * it registers with a max age. The SDK publishes its results as sticky
+ * events, so a screen that starts after another one fetched the data
+ * shows it without waiting for a request.
+ */
+
+public final class TweatherEvents {
+    // Log Tag
+    private final static String TAG = TweatherEvents.class.getSimpleName();
+
+    // Empty listeners of a type
+    private static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+
+    // Latest sticky event by event type
+    private final ConcurrentMap<Class<?>, StickyEvent> stickyEventsByType = new ConcurrentHashMap<>();
+
+    // Listeners by event type
+    private final ConcurrentMap<Class<?>, AtomicReference<Subscription[]>> subscriptionsByType =
+            new ConcurrentHashMap<>();
+
+    // Main Looper, null if there is none (JVM unit tests)
+    private final Looper mainLooper;
+
+    // Executor of main thread deliveries, null to deliver on the publishing thread
+    private final Executor mainThreadExecutor;
+
+    /**
+     * Lazy holder for the default dispatcher
+     *
+     */
+    private static final class DefaultHolder {
+        private static final TweatherEvents DEFAULT = new TweatherEvents(Looper.getMainLooper());
+    }
+
+    /**
+     * Registered listener
+     *
+     */
+    private static final class Subscription {
+        // Listener
+        private final TweatherEventListener<Object> listener;
+
+        // true to deliver on the main thread
+        private final boolean onMainThread;
+
+        // false once unregistered, so a pending main thread delivery is dropped
+        private volatile boolean active = true;
+
+        /**
+         * Constructor
+         *
+         * @param listener - Listener
+         * @param onMainThread - true to deliver on the main thread
+         */
+        Subscription(final TweatherEventListener<Object> listener, final boolean onMainThread) {
+            this.listener = listener;
+            this.onMainThread = onMainThread;
+        }
+    }
+
+    /**
+     * Sticky event with the time it was published
+     *
+     */
+    private static final class StickyEvent {
+        // Event
+        private final Object event;
+
+        // System.nanoTime() when the event was published
+        private final long postedAtNanos;
+
+        /**
+         * Constructor
+         *
+         * @param event - Event
+         * @param postedAtNanos - System.nanoTime() when the event was published
+         */
+        StickyEvent(final Object event, final long postedAtNanos) {
+            this.event = event;
+            this.postedAtNanos = postedAtNanos;
+        }
+    }
+
+    /**
+     * Delivery of one event to the main thread listeners of
+     * its type, registered when the event was published
+     *
+     */
+    private static final class MainThreadDelivery implements Runnable {
+        // Event to deliver
+        private final Object event;
+
+        // Listeners of the event type
+        private final Subscription[] subscriptions;
+
+        /**
+         * Constructor
+         *
+         * @param event - Event to deliver
+         * @param subscriptions - Listeners of the event type
+         */
+        MainThreadDelivery(final Object event, final Subscription[] subscriptions) {
+            this.event = event;
+            this.subscriptions = subscriptions;
+        }
+
+        @Override
+        public void run() {
+            for (Subscription subscription : subscriptions) {
+                if (subscription.onMainThread) {
+                    deliver(subscription, event);
+                }
+            }
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param mainLooper - Main Looper, null to deliver on the publishing thread
+     */
+    private TweatherEvents(final Looper mainLooper) {
+        this.mainLooper = mainLooper;
+
+        if (mainLooper != null) {
+            final Handler mainHandler = new Handler(mainLooper);
+            this.mainThreadExecutor = new Executor() {
+                @Override
+                public void execute(Runnable runnable) {
+                    mainHandler.post(runnable);
+                }
+            };
+        }
+        else {
+            this.mainThreadExecutor = null;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param mainThreadExecutor - Executor of main thread deliveries, null
+     *                           to deliver on the publishing thread
+     */
+    TweatherEvents(final Executor mainThreadExecutor) {
+        this.mainLooper = null;
+        this.mainThreadExecutor = mainThreadExecutor;
+    }
+
+    /**
+     * Method to get the dispatcher the SDK publishes its events on
+     *
+     * @return TweatherEvents
+     */
+    public static TweatherEvents getDefault() {
+        return DefaultHolder.DEFAULT;
+    }
+
+    /**
+     * Method to register a listener that is called on the
+     * thread the event is published on, usually an OkHttp Dispatcher
+     * thread, so it should not block
+     *
+     * Registering a listener that is already registered for
+     * the type has no effect.
+     *
+     * @param eventType - Class of the events to listen to
+     * @param listener - Listener
+     * @param <T> - Type of the event
+     * @throws IllegalArgumentException - If event type or listener is null
+     */
+    public <T> void register(final Class<T> eventType, final TweatherEventListener<? super T> listener) {
+        register(eventType, listener, false);
+    }
+
+    /**
+     * Method to register a listener that is called on the
+     * main thread, for listeners that update the UI
+     *
+     * Registering a listener that is already registered for
+     * the type has no effect.
+     *
+     * @param eventType - Class of the events to listen to
+     * @param listener - Listener
+     * @param <T> - Type of the event
+     * @throws IllegalArgumentException - If event type or listener is null
+     */
+    public <T> void registerOnMainThread(final Class<T> eventType, final TweatherEventListener<? super T> listener) {
+        register(eventType, listener, true);
+    }
+
+    /**
+     * Method to register a listener that is called on the
+     * thread the event is published on, and replay the latest sticky
+     * event of the type to it right away
+     *
+     * The replayed event may be of any age; the max age only decides
+     * the result, so the caller knows whether the replay is enough or
+     * it should also request new data.
+     *
+     * @param eventType - Class of the events to listen to
+     * @param listener - Listener
+     * @param maxAge - Max age of a replayed event that doesn't need a refresh
+     * @param unit - TimeUnit of max age
+     * @param <T> - Type of the event
+     * @return true if an event published within max age was replayed
+     * @throws IllegalArgumentException - If event type or listener is null
+     */
+    public <T> boolean register(final Class<T> eventType,
+                                final TweatherEventListener<? super T> listener,
+                                final long maxAge,
+                                final TimeUnit unit) {
+        return replay(eventType, register(eventType, listener, false), unit.toNanos(maxAge));
+    }
+
+    /**
+     * Method to register a listener that is called on the
+     * main thread, and replay the latest sticky event of the type
+     * to it right away, or with the next main thread handoff if
+     * called on another thread
+     *
+     * The replayed event may be of any age; the max age only decides
+     * the result, so the caller knows whether the replay is enough or
+     * it should also request new data.
+     *
+     * @param eventType - Class of the events to listen to
+     * @param listener - Listener
+     * @param maxAge - Max age of a replayed event that doesn't need a refresh
+     * @param unit - TimeUnit of max age
+     * @param <T> - Type of the event
+     * @return true if an event published within max age was replayed
+     * @throws IllegalArgumentException - If event type or listener is null
+     */
+    public <T> boolean registerOnMainThread(final Class<T> eventType,
+                                            final TweatherEventListener<? super T> listener,
+                                            final long maxAge,
+                                            final TimeUnit unit) {
+        return replay(eventType, register(eventType, listener, true), unit.toNanos(maxAge));
+    }
+
+    /**
+     * Method to unregister a listener of an event type. Events
+     * that are published but not yet delivered to the listener on the
+     * main thread are dropped
+     *
+     * @param eventType - Class of the events the listener is registered for
+     * @param listener - Listener
+     */
+    public void unregister(final Class<?> eventType, final TweatherEventListener<?> listener) {
+        if (eventType == null || listener == null) {
+            return;
+        }
+
+        final AtomicReference<Subscription[]> subscriptionsRef = subscriptionsByType.get(eventType);
+        if (subscriptionsRef == null) {
+            return;
+        }
+
+        while (true) {
+            final Subscription[] subscriptions = subscriptionsRef.get();
+            final int index = indexOf(subscriptions, listener);
+            if (index < 0) {
+                return;
+            }
+
+            final Subscription[] newSubscriptions;
+            if (subscriptions.length == 1) {
+                newSubscriptions = NO_SUBSCRIPTIONS;
+            }
+            else {
+                newSubscriptions = new Subscription[subscriptions.length - 1];
+                System.arraycopy(subscriptions, 0, newSubscriptions, 0, index);
+                System.arraycopy(subscriptions, index + 1, newSubscriptions, index,
+                        subscriptions.length - index - 1);
+            }
+
+            if (subscriptionsRef.compareAndSet(subscriptions, newSubscriptions)) {
+                subscriptions[index].active = false;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Method to check whether an event type has listeners, so
+     * a publisher can skip building an event no one listens to
+     *
+     * @param eventType - Class of the events
+     * @return true if at least one listener is registered
+     */
+    public boolean hasListeners(final Class<?> eventType) {
+        final AtomicReference<Subscription[]> subscriptionsRef = subscriptionsByType.get(eventType);
+        return subscriptionsRef != null && subscriptionsRef.get().length > 0;
+    }
+
+    /**
+     * Method to publish an event to the listeners of its class
+     *
+     * A listener that throws is logged, and doesn't stop delivery
+     * to other listeners.
+     *
+     * @param event - Event to publish
+     * @throws IllegalArgumentException - If event is null
+     */
+    public void post(final Object event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event cannot be null");
+        }
+
+        final AtomicReference<Subscription[]> subscriptionsRef = subscriptionsByType.get(event.getClass());
+        if (subscriptionsRef == null) {
+            return;
+        }
+
+        final Subscription[] subscriptions = subscriptionsRef.get();
+        boolean hasMainThreadSubscriptions = false;
+
+        for (Subscription subscription : subscriptions) {
+            if (subscription.onMainThread) {
+                hasMainThreadSubscriptions = true;
+            }
+            else {
+                deliver(subscription, event);
+            }
+        }
+
+        if (hasMainThreadSubscriptions) {
+            final MainThreadDelivery delivery = new MainThreadDelivery(event, subscriptions);
+            if (mainThreadExecutor == null || isMainThread()) {
+                delivery.run();
+            }
+            else {
+                mainThreadExecutor.execute(delivery);
+            }
+        }
+    }
+
+    /**
+     * Method to publish an event to the listeners of its class,
+     * and keep it as the latest sticky event of the type, replayed
+     * to listeners that register later with a max age
+     *
+     * @param event - Event to publish
+     * @throws IllegalArgumentException - If event is null
+     */
+    public void postSticky(final Object event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event cannot be null");
+        }
+
+        stickyEventsByType.put(event.getClass(), new StickyEvent(event, System.nanoTime()));
+        post(event);
+    }
+
+    /**
+     * Method to remove the sticky event of a type, for example
+     * when its data is no longer valid
+     *
+     * @param eventType - Class of the events
+     */
+    public void removeStickyEvent(final Class<?> eventType) {
+        stickyEventsByType.remove(eventType);
+    }
+
+    /**
+     * Helper method to register a listener
+     *
+     * @param eventType - Class of the events to listen to
+     * @param listener - Listener
+     * @param onMainThread - true to deliver on the main thread
+     * @return Subscription of the listener, null if it was already registered
+     */
+    @SuppressWarnings("unchecked")
+    private Subscription register(final Class<?> eventType, final TweatherEventListener<?> listener, final boolean onMainThread) {
+        if (eventType == null || listener == null) {
+            throw new IllegalArgumentException("Event type and listener cannot be null");
+        }
+
+        AtomicReference<Subscription[]> subscriptionsRef = subscriptionsByType.get(eventType);
+        if (subscriptionsRef == null) {
+            final AtomicReference<Subscription[]> newSubscriptionsRef = new AtomicReference<>(NO_SUBSCRIPTIONS);
+            subscriptionsRef = subscriptionsByType.putIfAbsent(eventType, newSubscriptionsRef);
+            if (subscriptionsRef == null) {
+                subscriptionsRef = newSubscriptionsRef;
+            }
+        }
+
+        final Subscription subscription = new Subscription((TweatherEventListener<Object>) listener, onMainThread);
+        while (true) {
+            final Subscription[] subscriptions = subscriptionsRef.get();
+            if (indexOf(subscriptions, listener) >= 0) {
+                return null;
+            }
+
+            final Subscription[] newSubscriptions = new Subscription[subscriptions.length + 1];
+            System.arraycopy(subscriptions, 0, newSubscriptions, 0, subscriptions.length);
+            newSubscriptions[subscriptions.length] = subscription;
+
+            if (subscriptionsRef.compareAndSet(subscriptions, newSubscriptions)) {
+                return subscription;
+            }
+        }
+    }
+
+    /**
+     * Helper method to replay the latest sticky event of a type
+     * to a listener that has just registered
+     *
+     * An event published while the listener registers may be
+     * delivered both by the publisher and by the replay.
+     *
+     * @param eventType - Class of the events
+     * @param subscription - Subscription of the listener, null if it was
+     *                     already registered and has seen the event
+     * @param maxAgeInNanos - Max age of an event that doesn't need a refresh
+     * @return true if the sticky event was published within max age
+     */
+    private boolean replay(final Class<?> eventType,
+                           final Subscription subscription,
+                           final long maxAgeInNanos) {
+        final StickyEvent stickyEvent = stickyEventsByType.get(eventType);
+        if (stickyEvent == null) {
+            return false;
+        }
+
+        if (subscription != null) {
+            if (!subscription.onMainThread) {
+                deliver(subscription, stickyEvent.event);
+            }
+            else {
+                final MainThreadDelivery delivery =
+                        new MainThreadDelivery(stickyEvent.event, new Subscription[] {subscription});
+                if (mainThreadExecutor == null || isMainThread()) {
+                    delivery.run();
+                }
+                else {
+                    mainThreadExecutor.execute(delivery);
+                }
+            }
+        }
+
+        return System.nanoTime() - stickyEvent.postedAtNanos <= maxAgeInNanos;
+    }
+
+    /**
+     * Helper method to check whether the current thread is
+     * the main thread
+     *
+     * @return true if on the main thread
+     */
+    private boolean isMainThread() {
+        return mainLooper != null && Looper.myLooper() == mainLooper;
+    }
+
+    /**
+     * Helper method to find a listener in an array of
+     * registered listeners
+     *
+     * @param subscriptions - Registered listeners
+     * @param listener - Listener to find
+     * @return Index of the listener, -1 if it is not registered
+     */
+    private static int indexOf(final Subscription[] subscriptions, final TweatherEventListener<?> listener) {
+        for (int i = 0; i < subscriptions.length; i++) {
+            if (subscriptions[i].listener == listener) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Helper method to deliver an event to a listener that
+     * is still registered
+     *
+     * @param subscription - Registered listener
+     * @param event - Event to deliver
+     */
+    private static void deliver(final Subscription subscription, final Object event) {
+        if (!subscription.active) {
+            return;
+        }
+
+        try {
+            subscription.listener.onEvent(event);
+        }
+        catch (RuntimeException e) {
+            Log.e(TAG, "deliver - Listener threw an exception. " + e);
+        }
+    }
+}
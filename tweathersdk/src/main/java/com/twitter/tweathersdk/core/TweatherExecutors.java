@@ -0,0 +1,137 @@
+package com.twitter.tweathersdk.core;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executors shared by the SDK
+ *
+ * Network I/O runs on OkHttp's Dispatcher threads. This class has
+ * a small scheduler for timers (timeouts, deadlines etc.), which must
+ * never block, a single disk I/O thread for work such as writing the
+ * snapshot, and creates daemon threads for one-off background work
+ * such as warm-up.
+ */
+
+final class TweatherExecutors {
+    // Name of the scheduler thread
+    private static final String SCHEDULER_THREAD_NAME = "TweatherSdk-Scheduler";
+
+    // Name of the disk I/O thread, and how long it is kept when idle
+    private static final String DISK_IO_THREAD_NAME = "TweatherSdk-DiskIO";
+    private static final long DISK_IO_KEEP_ALIVE_IN_SECONDS = 30;
+
+    /**
+     * Lazy holder for the scheduler, so the thread is only
+     * created when it is first needed
+     *
+     */
+    private static final class SchedulerHolder {
+        private static final ScheduledThreadPoolExecutor SCHEDULER = createScheduler();
+    }
+
+    /**
+     * Lazy holder for the disk I/O executor
+     *
+     */
+    private static final class DiskIoHolder {
+        private static final ExecutorService DISK_IO = createDiskIo();
+    }
+
+    /**
+     * Private constructor - Utility class
+     *
+     */
+    private TweatherExecutors() {
+        // Nothing to do
+    }
+
+    /**
+     * Method to get the shared scheduler
+     *
+     * @return ScheduledExecutorService with a single daemon thread
+     */
+    static ScheduledExecutorService scheduler() {
+        return SchedulerHolder.SCHEDULER;
+    }
+
+    /**
+     * Method to cancel a timer of the shared scheduler and remove
+     * cancelled timers from its queue. Timers are mostly cancelled
+     * before they fire, and ScheduledThreadPoolExecutor keeps them
+     * queued until their delay expires otherwise
+     * (setRemoveOnCancelPolicy needs API 21)
+     *
+     * @param timer - Timer to cancel, may be null
+     */
+    static void cancelTimer(final ScheduledFuture<?> timer) {
+        if (timer != null && timer.cancel(false)) {
+            SchedulerHolder.SCHEDULER.purge();
+        }
+    }
+
+    /**
+     * Method to get the shared disk I/O executor. Tasks run
+     * one at a time, in the order they are submitted
+     *
+     * @return ExecutorService with a single daemon thread
+     */
+    static ExecutorService diskIo() {
+        return DiskIoHolder.DISK_IO;
+    }
+
+    /**
+     * Method to create a daemon thread, so SDK threads never
+     * keep the process alive
+     *
+     * @param runnable - Work of the thread
+     * @param name - Name of the thread
+     * @return Thread, not started
+     */
+    static Thread newDaemonThread(final Runnable runnable, final String name) {
+        final Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Helper method to create the scheduler
+     *
+     * @return ScheduledThreadPoolExecutor
+     */
+    private static ScheduledThreadPoolExecutor createScheduler() {
+        return new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return newDaemonThread(runnable, SCHEDULER_THREAD_NAME);
+            }
+        });
+    }
+
+    /**
+     * Helper method to create the disk I/O executor. Its thread
+     * exits when idle, disk writes are rare
+     *
+     * @return ExecutorService
+     */
+    private static ExecutorService createDiskIo() {
+        final ThreadPoolExecutor diskIo = new ThreadPoolExecutor(1, 1,
+                DISK_IO_KEEP_ALIVE_IN_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        return newDaemonThread(runnable, DISK_IO_THREAD_NAME);
+                    }
+                });
+
+        diskIo.allowCoreThreadTimeOut(true);
+        return diskIo;
+    }
+}
@@ -0,0 +1,394 @@
+package com.twitter.tweathersdk.core;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Result of an asynchronous SDK call that can be composed,
+ * timed out and cancelled
+ *
+ * Note: CompletableFuture would be the natural choice, but it needs
+ * API level 24 and this SDK supports older devices. TweatherFuture covers
+ * the subset we need: listeners, map/flatMap composition, timeouts and
+ * cancellation, on top of the standard Future interface.
+ *
+ * Listeners and transforms run on the thread that completes the
+ * future (typically an OkHttp Dispatcher thread), or on the calling thread
+ * if the future is already complete. They should not block.
+ *
+ * Cancelling a future only detaches that caller; a network request
+ * shared with other callers keeps running for them.
+ *
+ * @param <T> - Type of the result
+ */
+
+public class TweatherFuture<T> implements Future<T> {
+    // Log Tag
+    private final static String TAG = TweatherFuture.class.getSimpleName();
+
+    /**
+     * Listener for the result of a TweatherFuture
+     *
+     * @param <T> - Type of the result
+     */
+    public interface Listener<T> {
+        void onSuccess(T value);
+
+        void onFailure(Throwable error);
+    }
+
+    /**
+     * Transform applied to the result of a TweatherFuture
+     *
+     * @param <T> - Type of the input
+     * @param <R> - Type of the output
+     */
+    public interface Transform<T, R> {
+        R apply(T value) throws Exception;
+    }
+
+    // States
+    private static final int STATE_PENDING = 0;
+    private static final int STATE_SUCCEEDED = 1;
+    private static final int STATE_FAILED = 2;
+    private static final int STATE_CANCELLED = 3;
+
+    // Released when the future is complete
+    private final CountDownLatch doneLatch = new CountDownLatch(1);
+
+    // Guarded by this
+    private int state = STATE_PENDING;
+    private T value;
+    private Throwable error;
+    private List<Listener<? super T>> listeners = new ArrayList<>(1);
+
+    /**
+     * Create a future that is already completed with a value
+     *
+     * @param value - Value
+     * @param <T> - Type of the value
+     * @return Completed TweatherFuture
+     */
+    public static <T> TweatherFuture<T> completed(final T value) {
+        final TweatherFuture<T> future = new TweatherFuture<>();
+        future.complete(value);
+        return future;
+    }
+
+    /**
+     * Create a future that is already failed with an error
+     *
+     * @param error - Error
+     * @param <T> - Type of the value
+     * @return Failed TweatherFuture
+     */
+    public static <T> TweatherFuture<T> failed(final Throwable error) {
+        final TweatherFuture<T> future = new TweatherFuture<>();
+        future.completeExceptionally(error);
+        return future;
+    }
+
+    /**
+     * Complete the future with a value
+     *
+     * @param value - Value, can be null
+     * @return true if this call completed the future, false if it was already complete
+     */
+    public boolean complete(final T value) {
+        final List<Listener<? super T>> listenersToNotify;
+        synchronized (this) {
+            if (state != STATE_PENDING) {
+                return false;
+            }
+
+            this.state = STATE_SUCCEEDED;
+            this.value = value;
+            listenersToNotify = takeListeners();
+        }
+
+        doneLatch.countDown();
+        for (Listener<? super T> listener : listenersToNotify) {
+            notifySuccess(listener, value);
+        }
+
+        return true;
+    }
+
+    /**
+     * Complete the future with an error
+     *
+     * @param error - Error
+     * @return true if this call completed the future, false if it was already complete
+     */
+    public boolean completeExceptionally(final Throwable error) {
+        return fail(STATE_FAILED, error);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return fail(STATE_CANCELLED, new CancellationException("TweatherFuture was cancelled"));
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return state == STATE_CANCELLED;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return state != STATE_PENDING;
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        doneLatch.await();
+        return report();
+    }
+
+    @Override
+    public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (!doneLatch.await(timeout, unit)) {
+            throw new TimeoutException("TweatherFuture timed out");
+        }
+
+        return report();
+    }
+
+    /**
+     * Add a listener for the result. If the future is already
+     * complete, the listener is called right away
+     *
+     * @param listener - Listener
+     * @return this future, for chaining
+     */
+    public TweatherFuture<T> addListener(final Listener<? super T> listener) {
+        final int currentState;
+        synchronized (this) {
+            if (state == STATE_PENDING) {
+                listeners.add(listener);
+                return this;
+            }
+
+            currentState = state;
+        }
+
+        if (currentState == STATE_SUCCEEDED) {
+            notifySuccess(listener, value);
+        }
+        else {
+            notifyFailure(listener, error);
+        }
+
+        return this;
+    }
+
+    /**
+     * Create a future with the result of this future
+     * transformed by the given transform
+     *
+     * @param transform - Transform for the result
+     * @param <R> - Type of the transformed result
+     * @return New TweatherFuture
+     */
+    public <R> TweatherFuture<R> map(final Transform<? super T, ? extends R> transform) {
+        final TweatherFuture<R> mappedFuture = new TweatherFuture<>();
+
+        addListener(new Listener<T>() {
+            @Override
+            public void onSuccess(T value) {
+                try {
+                    mappedFuture.complete(transform.apply(value));
+                }
+                catch (Exception e) {
+                    mappedFuture.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable error) {
+                mappedFuture.completeExceptionally(error);
+            }
+        });
+
+        return mappedFuture;
+    }
+
+    /**
+     * Create a future that completes with the future returned by
+     * the given transform, to chain asynchronous calls
+     *
+     * @param transform - Transform that returns the next asynchronous call
+     * @param <R> - Type of the result of the next call
+     * @return New TweatherFuture
+     */
+    public <R> TweatherFuture<R> flatMap(final Transform<? super T, TweatherFuture<R>> transform) {
+        final TweatherFuture<R> chainedFuture = new TweatherFuture<>();
+
+        addListener(new Listener<T>() {
+            @Override
+            public void onSuccess(T value) {
+                final TweatherFuture<R> nextFuture;
+                try {
+                    nextFuture = transform.apply(value);
+                }
+                catch (Exception e) {
+                    chainedFuture.completeExceptionally(e);
+                    return;
+                }
+
+                nextFuture.addListener(new Listener<R>() {
+                    @Override
+                    public void onSuccess(R nextValue) {
+                        chainedFuture.complete(nextValue);
+                    }
+
+                    @Override
+                    public void onFailure(Throwable nextError) {
+                        chainedFuture.completeExceptionally(nextError);
+                    }
+                });
+            }
+
+            @Override
+            public void onFailure(Throwable error) {
+                chainedFuture.completeExceptionally(error);
+            }
+        });
+
+        return chainedFuture;
+    }
+
+    /**
+     * Create a future with the result of this future, that fails
+     * with TimeoutException if the result is not available in time
+     *
+     * @param timeout - Timeout
+     * @param unit - Unit of timeout
+     * @return New TweatherFuture
+     */
+    public TweatherFuture<T> withTimeout(final long timeout, final TimeUnit unit) {
+        final TweatherFuture<T> timedFuture = new TweatherFuture<>();
+
+        final ScheduledFuture<?> timer = TweatherExecutors.scheduler().schedule(new Runnable() {
+            @Override
+            public void run() {
+                timedFuture.completeExceptionally(new TimeoutException("Timed out after " + unit.toMillis(timeout) + " ms"));
+            }
+        }, timeout, unit);
+
+        addListener(new Listener<T>() {
+            @Override
+            public void onSuccess(T value) {
+                TweatherExecutors.cancelTimer(timer);
+                timedFuture.complete(value);
+            }
+
+            @Override
+            public void onFailure(Throwable error) {
+                TweatherExecutors.cancelTimer(timer);
+                timedFuture.completeExceptionally(error);
+            }
+        });
+
+        return timedFuture;
+    }
+
+    /**
+     * Helper method to fail or cancel the future
+     *
+     * @param failedState - STATE_FAILED or STATE_CANCELLED
+     * @param error - Error
+     * @return true if this call completed the future
+     */
+    private boolean fail(final int failedState, final Throwable error) {
+        final List<Listener<? super T>> listenersToNotify;
+        synchronized (this) {
+            if (state != STATE_PENDING) {
+                return false;
+            }
+
+            this.state = failedState;
+            this.error = error;
+            listenersToNotify = takeListeners();
+        }
+
+        doneLatch.countDown();
+        for (Listener<? super T> listener : listenersToNotify) {
+            notifyFailure(listener, error);
+        }
+
+        return true;
+    }
+
+    /**
+     * Helper method to take the listeners once the future
+     * is complete. Must be called holding the lock
+     *
+     * @return Listeners to notify
+     */
+    private List<Listener<? super T>> takeListeners() {
+        final List<Listener<? super T>> listenersToNotify = listeners;
+        listeners = null;
+        return listenersToNotify;
+    }
+
+    /**
+     * Helper method to get the result of a complete future
+     *
+     * @return Value
+     * @throws ExecutionException - If the future failed
+     * @throws CancellationException - If the future was cancelled
+     */
+    private synchronized T report() throws ExecutionException {
+        if (state == STATE_SUCCEEDED) {
+            return value;
+        }
+
+        if (state == STATE_CANCELLED) {
+            throw (CancellationException) error;
+        }
+
+        throw new ExecutionException(error);
+    }
+
+    /**
+     * Helper method to notify a listener of success, so one
+     * bad listener doesn't break the others
+     *
+     * @param listener - Listener
+     * @param value - Value
+     */
+    private static <T> void notifySuccess(final Listener<? super T> listener, final T value) {
+        try {
+            listener.onSuccess(value);
+        }
+        catch (RuntimeException e) {
+            Log.e(TAG, "notifySuccess - Listener threw an exception. " + e);
+        }
+    }
+
+    /**
+     * Helper method to notify a listener of failure, so one
+     * bad listener doesn't break the others
+     *
+     * @param listener - Listener
+     * @param error - Error
+     */
+    private static <T> void notifyFailure(final Listener<? super T> listener, final Throwable error) {
+        try {
+            listener.onFailure(error);
+        }
+        catch (RuntimeException e) {
+            Log.e(TAG, "notifyFailure - Listener threw an exception. " + e);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.twitter.tweathersdk.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Default MetricsRecorder, that keeps metrics in memory
+ *
+ * Recording is lock-free - atomic counters and AtomicHistograms, one
+ * set per endpoint, created the first time an endpoint is seen. Call
+ * snapshot() to read the metrics, for example to log them or upload
+ * them to a metrics backend. The SDK's recorder is available from
+ * TweatherSdk.getMetricsRecorder().
+ */
+
+public final class TweatherMetrics implements MetricsRecorder {
+    // Metrics per endpoint
+    private final ConcurrentHashMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    // Completion time per fan-out
+    private final ConcurrentHashMap<String, AtomicHistogram> fanOuts = new ConcurrentHashMap<>();
+
+    // Cache lookups
+    private final AtomicLong cacheFresh = new AtomicLong(0);
+    private final AtomicLong cacheStale = new AtomicLong(0);
+    private final AtomicLong cacheMisses = new AtomicLong(0);
+
+    @Override
+    public void requestStarted(final String endpoint) {
+        final EndpointMetrics metrics = getEndpointMetrics(endpoint);
+        metrics.requests.incrementAndGet();
+        metrics.inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void requestFinished(final String endpoint, final long latencyInNanos, final int outcome) {
+        final EndpointMetrics metrics = getEndpointMetrics(endpoint);
+        metrics.inFlight.decrementAndGet();
+
+        if (outcome == REQUEST_CANCELLED) {
+            // Latency of a cancelled request says nothing about the endpoint
+            metrics.cancelled.incrementAndGet();
+            return;
+        }
+
+        if (outcome == REQUEST_FAILED) {
+            metrics.errors.incrementAndGet();
+        }
+
+        metrics.latency.record(latencyInNanos);
+    }
+
+    @Override
+    public void responseDecoded(final String endpoint, final long bytes, final long decodeTimeInNanos) {
+        final EndpointMetrics metrics = getEndpointMetrics(endpoint);
+        metrics.responseBytes.record(bytes);
+        metrics.decodeTime.record(decodeTimeInNanos);
+    }
+
+    @Override
+    public void fanOutCompleted(final String fanOut, final int numberOfRequests, final long durationInNanos) {
+        AtomicHistogram histogram = fanOuts.get(fanOut);
+        if (histogram == null) {
+            final AtomicHistogram newHistogram = new AtomicHistogram();
+            histogram = fanOuts.putIfAbsent(fanOut, newHistogram);
+            if (histogram == null) {
+                histogram = newHistogram;
+            }
+        }
+
+        histogram.record(durationInNanos);
+    }
+
+    @Override
+    public void cacheLookup(final int outcome) {
+        switch (outcome) {
+            case CACHE_FRESH:
+                cacheFresh.incrementAndGet();
+                break;
+            case CACHE_STALE:
+                cacheStale.incrementAndGet();
+                break;
+            default:
+                cacheMisses.incrementAndGet();
+                break;
+        }
+    }
+
+    /**
+     * Method to get a snapshot of the metrics
+     *
+     * @return MetricsSnapshot
+     */
+    public MetricsSnapshot snapshot() {
+        final Map<String, MetricsSnapshot.Endpoint> endpointSnapshots = new LinkedHashMap<>();
+        for (Map.Entry<String, EndpointMetrics> entry : endpoints.entrySet()) {
+            endpointSnapshots.put(entry.getKey(), entry.getValue().snapshot());
+        }
+
+        final Map<String, MetricsSnapshot.Histogram> fanOutSnapshots = new LinkedHashMap<>();
+        for (Map.Entry<String, AtomicHistogram> entry : fanOuts.entrySet()) {
+            fanOutSnapshots.put(entry.getKey(), entry.getValue().snapshot());
+        }
+
+        return new MetricsSnapshot(endpointSnapshots, fanOutSnapshots,
+                cacheFresh.get(), cacheStale.get(), cacheMisses.get());
+    }
+
+    /**
+     * Helper method to get the metrics of an endpoint,
+     * creating them if needed
+     *
+     * @param endpoint - Endpoint
+     * @return EndpointMetrics
+     */
+    private EndpointMetrics getEndpointMetrics(final String endpoint) {
+        final EndpointMetrics metrics = endpoints.get(endpoint);
+        if (metrics != null) {
+            return metrics;
+        }
+
+        final EndpointMetrics newMetrics = new EndpointMetrics();
+        final EndpointMetrics existingMetrics = endpoints.putIfAbsent(endpoint, newMetrics);
+        return existingMetrics != null ? existingMetrics : newMetrics;
+    }
+
+    /**
+     * Metrics of one endpoint
+     *
+     */
+    private static final class EndpointMetrics {
+        // Request counts
+        final AtomicLong requests = new AtomicLong(0);
+        final AtomicLong inFlight = new AtomicLong(0);
+        final AtomicLong errors = new AtomicLong(0);
+        final AtomicLong cancelled = new AtomicLong(0);
+
+        // Histograms
+        final AtomicHistogram latency = new AtomicHistogram();
+        final AtomicHistogram responseBytes = new AtomicHistogram();
+        final AtomicHistogram decodeTime = new AtomicHistogram();
+
+        MetricsSnapshot.Endpoint snapshot() {
+            return new MetricsSnapshot.Endpoint(requests.get(), inFlight.get(), errors.get(), cancelled.get(),
+                    latency.snapshot(), responseBytes.snapshot(), decodeTime.snapshot());
+        }
+    }
+}
@@ -4,18 +4,25 @@ import android.util.Log;
 
 import com.twitter.tweathersdk.core.events.CurrentWeatherEvent;
 import com.twitter.tweathersdk.core.events.FutureWeatherEvent;
+import com.twitter.tweathersdk.core.events.FutureWeatherProgressEvent;
 import com.twitter.tweathersdk.model.WeatherDataPojo;
 
-import org.greenrobot.eventbus.EventBus;
-
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
+import okhttp3.Response;
 
 /**
  * Created by anuj on 3/2/18.
@@ -23,24 +30,25 @@ import okhttp3.Request;
  * This class implements the SDK methods used by
  * an app using this SDK.
  *
- * Note: Design of this SDK is pretty simple and in accordance with the
- * requirements given in the assignment. I didn't go overboard
- * to design it with more flexibility.
- *
- * Example of a flexible design: There can be an interface with the required
- * SDK methods, and we can use multiple weather sources, where each weather
- * source will be a concrete class implementing that interface. That way, we the
- * user of this SDK can select which weather source they want.
- * Also, data model for each source will also implement a common interface, while
- * having different implementation based on the JSON response.
- *
- * ^ Just a thought ^
+ * Weather data comes from a WeatherSource - the Twitter Weather API by
+ * default (HttpWeatherSource), or any source set with
+ * TweatherConfig.Builder.weatherSource(), for example another provider
+ * with its own WeatherDataAdapter, or a RacingWeatherSource that races
+ * two or more providers. Caching, request coalescing, hedging and batch
+ * deadline are all done by the SDK, on top of the source.
  *
- * Note 2: This SDK is based on Pub-Sub or EventBus. That means there
+ * Note: This SDK is based on Pub-Sub. That means there
  * are no callbacks between the app and SDK. All results are delivered
- * via EventBus. The reason for this is if callbacks are used, then
+ * via TweatherEvents. The reason for this is if callbacks are used, then
  * callback passed to the SDK may become null in case Activity in the app
- * is recreated by rotation or configuration changes.
+ * is recreated by rotation or configuration changes. Successful results
+ * are sticky, so a screen that registers after they were published gets
+ * the latest one right away, with no request.
+ *
+ * Note 2: Callers that are not tied to an Activity (background jobs etc.)
+ * can use the typed async API instead, currentWeather() and forecast(),
+ * which return a TweatherFuture that can be composed, timed out and cancelled.
+ * Both APIs share the same cache and in-progress requests.
  */
 
 public class TweatherSdk {
@@ -50,60 +58,61 @@ public class TweatherSdk {
     // Singleton Object
     private static TweatherSdk tweatherSdkInstance = null;
 
-    // Base URL
-    private final static String BASE_URL = "http://twitter-code-challenge.s3-website-us-east-1.amazonaws.com/";
+    // SDK Configuration
+    private static TweatherConfig config = TweatherConfig.defaultConfig();
 
-    // Current Weather Endpoint
-    private final static String CURRENT_WEATHER_ENDPOINT = "current.json";
+    // Name of the warm-up thread
+    private final static String WARM_UP_THREAD_NAME = "TweatherSdk-WarmUp";
 
-    // List of future weather data Requests
-    private static List<Request> futureWeatherRequests;
-    private AtomicInteger numberOfFutureWeatherRequests;
-    private AtomicInteger numberOfFutureWeatherResponse;
+    // Source of weather data
+    private WeatherSource weatherSource;
 
-    // Static initializer for future weather data request list
-    static {
-        futureWeatherRequests = new ArrayList<>();
+    // Recorder of SDK metrics
+    private MetricsRecorder metricsRecorder;
 
-        // Create requests for future weather data endpoints
-        Request oneDayWeatherRequest = new Request.Builder()
-                .url(TweatherSdk.BASE_URL + "future_1.json")
-                .build();
-        Request twoDayWeatherRequest = new Request.Builder()
-                .url(TweatherSdk.BASE_URL + "future_2.json")
-                .build();
-        Request threeDayWeatherRequest = new Request.Builder()
-                .url(TweatherSdk.BASE_URL + "future_3.json")
-                .build();
-        Request fourDayWeatherRequest = new Request.Builder()
-                .url(TweatherSdk.BASE_URL + "future_4.json")
-                .build();
-        Request fiveDayWeatherRequest = new Request.Builder()
-                .url(TweatherSdk.BASE_URL + "future_5.json")
-                .build();
+    // Current weather data Request - Its URL is the cache key
+    private Request currentWeatherRequest;
 
-        futureWeatherRequests.add(oneDayWeatherRequest);
-        futureWeatherRequests.add(twoDayWeatherRequest);
-        futureWeatherRequests.add(threeDayWeatherRequest);
-        futureWeatherRequests.add(fourDayWeatherRequest);
-        futureWeatherRequests.add(fiveDayWeatherRequest);
-    }
+    // Start time of the current weather flight, from System.nanoTime()
+    private volatile long currentWeatherFlightStartNanos;
+
+    // List of future weather data Requests - Their URLs are the cache keys
+    private List<Request> futureWeatherRequests;
+
+    // Generation of the latest future weather batch
+    private final AtomicLong futureWeatherGeneration = new AtomicLong(0);
+
+    // Key of the future weather data flight - All days are fetched together
+    private final static String FUTURE_WEATHER_FLIGHT_KEY = "future_weather";
 
     // Prevent multiple requests for the same endpoint
     // because weather data doesn't change over short periods of time.
-    // This will help avoid unnecessary network calls
-    private AtomicBoolean currentWeatherRequestInProgress = new AtomicBoolean(false);
-    private AtomicBoolean futureWeatherRequestInProgress = new AtomicBoolean(false);
+    // Callers that arrive while a request is in progress are attached
+    // to it and get its result, instead of making another network call
+    private final SingleFlight<WeatherDataPojo> currentWeatherFlight = new SingleFlight<>();
+    private final SingleFlight<Forecast> futureWeatherFlight = new SingleFlight<>();
+
+    // In-memory cache of weather data, keyed by endpoint URL
+    private WeatherCache weatherCache;
+
+    // Snapshot of last known weather data on disk, null if disabled
+    private WeatherSnapshot weatherSnapshot;
+
+    // true while a snapshot write is queued
+    private final AtomicBoolean snapshotWritePending = new AtomicBoolean(false);
+
+    // Bounded cache and requests in progress of bulk requests, keyed by location
+    private LocationWeatherCache locationWeatherCache;
+    private final SingleFlight<WeatherDataPojo> locationWeatherFlight = new SingleFlight<>();
+
+    // Listeners for streaming future weather data
+    private final List<ForecastListener> forecastListeners = new CopyOnWriteArrayList<>();
 
-    // Response List for future weather data
-    //
-    // Note: For the requirements given, it doesn't matter
-    // which order the response objects are in. We just need
-    // to access all response objects
-    //
-    // This will be initialized as a synchronized List for thread
-    // safety
-    private List<WeatherDataPojo> futureResponseList;
+    // Number of recent future weather latencies used for hedged requests
+    private final static int FUTURE_WEATHER_LATENCY_SAMPLES = 100;
+
+    // Recent latencies of future weather requests
+    private final LatencyTracker futureWeatherLatency = new LatencyTracker(FUTURE_WEATHER_LATENCY_SAMPLES);
 
     /**
      * Private constructor for Singleton
@@ -124,6 +133,27 @@ public class TweatherSdk {
         throw new CloneNotSupportedException("Cannot clone a singleton class");
     }
 
+    /**
+     * Method to configure the SDK, for example to enable
+     * HTTP disk cache. This should be called once, before the
+     * first request is made (Application.onCreate is a good place)
+     *
+     * @param tweatherConfig - SDK configuration
+     * @throws IllegalArgumentException - If tweatherConfig is null
+     */
+    public static synchronized void configure(final TweatherConfig tweatherConfig) {
+        if (tweatherConfig == null) {
+            throw new IllegalArgumentException("Config cannot be null");
+        }
+
+        if (tweatherSdkInstance != null || !OkHttpFactory.configure(tweatherConfig)) {
+            Log.w(TAG, "configure - SDK is already in use, configuration is ignored");
+            return;
+        }
+
+        config = tweatherConfig;
+    }
+
     /**
      * Method to get singleton instance of TweatherSdk
      *
@@ -133,141 +163,905 @@ public class TweatherSdk {
         if (tweatherSdkInstance == null) {
             Log.i(TAG, "getTweatherSdkInstance - Creating new instance");
             tweatherSdkInstance = new TweatherSdk();
-            // Better to use a Synchronized List
-            tweatherSdkInstance.futureResponseList =
-                    Collections.synchronizedList(new ArrayList<WeatherDataPojo>());
-            tweatherSdkInstance.numberOfFutureWeatherRequests = new AtomicInteger(0);
-            tweatherSdkInstance.numberOfFutureWeatherResponse = new AtomicInteger(0);
+            tweatherSdkInstance.currentWeatherRequest = new Request.Builder()
+                    .url(config.getBaseUrl() + TweatherConfig.DEFAULT_CURRENT_WEATHER_ENDPOINT)
+                    .build();
+            tweatherSdkInstance.weatherSource = config.getWeatherSource() != null ?
+                    config.getWeatherSource() : HttpWeatherSource.fromConfig(config);
+            tweatherSdkInstance.metricsRecorder = config.getMetricsRecorder();
+            tweatherSdkInstance.futureWeatherRequests = buildFutureWeatherRequests(config);
+            tweatherSdkInstance.weatherCache = new WeatherCache(config.getFreshnessTtlInMillis());
+            tweatherSdkInstance.locationWeatherCache = new LocationWeatherCache(
+                    config.getLocationCacheSize(), config.getFreshnessTtlInMillis());
+
+            if (config.getSnapshotFile() != null) {
+                tweatherSdkInstance.weatherSnapshot = new WeatherSnapshot(config.getSnapshotFile());
+                tweatherSdkInstance.restoreSnapshot();
+            }
         }
 
         return tweatherSdkInstance;
     }
 
+    /**
+     * Method to get the recorder of SDK metrics, as configured
+     * with TweatherConfig.Builder.metricsRecorder(). With the default
+     * TweatherMetrics, cast it to read a snapshot of the metrics
+     *
+     * @return MetricsRecorder
+     */
+    public static synchronized MetricsRecorder getMetricsRecorder() {
+        return config.getMetricsRecorder();
+    }
+
+    /**
+     * Method to get traces of the most recent HTTP calls of
+     * the SDK, for example to export them with
+     * CallTrace.toChromeTrace()
+     *
+     * @return CallTraces ordered by start, empty if call tracing is disabled
+     */
+    public static List<CallTrace> getRecentCallTraces() {
+        final CallTracer callTracer = OkHttpFactory.getCallTracer();
+        return callTracer == null ? Collections.<CallTrace>emptyList() : callTracer.getRecentTraces();
+    }
+
+    /**
+     * Method to warm up the SDK off the main thread, so the first
+     * request doesn't pay for it on the critical path of first paint
+     *
+     * Initializes the SDK instance, OkHttpClient (and its disk cache),
+     * the JSON decoder and the event dispatcher. With preconnect, a HEAD request
+     * to the base URL also opens a pooled connection (DNS, TCP, TLS)
+     * that the first request reuses.
+     *
+     * Call it after configure(), typically from Application.onCreate
+     *
+     * @param preconnect - true to pre-open a connection to the base URL
+     * @return TweatherFuture with warm-up duration in milliseconds
+     */
+    public static TweatherFuture<Long> warmUp(final boolean preconnect) {
+        final TweatherFuture<Long> future = new TweatherFuture<>();
+
+        TweatherExecutors.newDaemonThread(new Runnable() {
+            @Override
+            public void run() {
+                final long startNanos = System.nanoTime();
+
+                try {
+                    getTweatherSdkInstance();
+                    final OkHttpClient httpClient = OkHttpFactory.getOkHttpClient();
+                    WeatherDataDecoder.getGson();
+                    TweatherEvents.getDefault();
+                    Log.d(TAG, "warmUp - Initialized in " + elapsedMillis(startNanos) + " ms");
+
+                    if (preconnect) {
+                        preconnect(httpClient);
+                        Log.d(TAG, "warmUp - Connected in " + elapsedMillis(startNanos) + " ms");
+                    }
+
+                    future.complete(elapsedMillis(startNanos));
+                }
+                catch (RuntimeException e) {
+                    Log.e(TAG, "warmUp - Exception warming up. " + e);
+                    future.completeExceptionally(e);
+                }
+            }
+        }, WARM_UP_THREAD_NAME).start();
+
+        return future;
+    }
+
+    /**
+     * Helper method to open a pooled connection to the base URL.
+     * Failure is not an error, the first request just connects itself
+     *
+     * @param httpClient - OkHttpClient
+     */
+    private static void preconnect(final OkHttpClient httpClient) {
+        final Request request = new Request.Builder()
+                .url(config.getBaseUrl())
+                .head()
+                .build();
+
+        try {
+            final Response response = httpClient.newCall(request).execute();
+
+            // Closing the response returns the connection to the pool
+            response.close();
+        }
+        catch (IOException e) {
+            Log.w(TAG, "preconnect - Unable to connect to " + config.getBaseUrl() + ". " + e);
+        }
+    }
+
+    /**
+     * Helper method to get milliseconds elapsed since a start time
+     *
+     * @param startNanos - Start time from System.nanoTime()
+     * @return Elapsed milliseconds
+     */
+    private static long elapsedMillis(final long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
     /**
      * SDK Method to request current weather data
      *
-     * @return true if the request is successfully made, false otherwise
+     * Result is always published, even if it is same as cached data.
+     * If a request is already in progress, this request is attached
+     * to it and its result is published
+     *
+     * @return true if the request is successfully made or attached
      *
      */
     public boolean requestCurrentWeatherData() {
         Log.d(TAG, "requestCurrentWeatherData called");
+        return fetchCurrentWeatherData(null, true);
+    }
 
-        if (currentWeatherRequestInProgress.get()) {
-            Log.w(TAG, "requestCurrentWeatherData - Another request is already in progress. Abandon this request");
-            return false;
+    /**
+     * SDK Method to get cached current weather data
+     *
+     * Cached data is returned right away, even if it is stale. If
+     * data is stale or not cached, it is revalidated in background and
+     * CurrentWeatherEvent is published only if the data has changed
+     *
+     * @return Cached WeatherDataPojo, or null if nothing is cached yet
+     */
+    public WeatherDataPojo getCurrentWeatherData() {
+        final WeatherCache.Entry entry = weatherCache.get(currentWeatherRequest.url().toString());
+
+        if (!isFresh(entry)) {
+            Log.d(TAG, "getCurrentWeatherData - Cached data is stale or missing, revalidate");
+            fetchCurrentWeatherData(null, false);
         }
 
-        // Set the flag
-        currentWeatherRequestInProgress.set(true);
+        return entry == null ? null : entry.weatherData;
+    }
 
-        final OkHttpClient httpClient = OkHttpFactory.getOkHttpClient();
-        final String url = TweatherSdk.BASE_URL + TweatherSdk.CURRENT_WEATHER_ENDPOINT;
-        final Request currentWeatherRequest = new Request.Builder()
-                .url(url)
-                .build();
+    /**
+     * SDK Method to get current weather data asynchronously
+     *
+     * Fresh cached data completes the future right away. Otherwise
+     * the future completes when the request (or the one already in
+     * progress) is complete, and fails with IOException if it fails.
+     * CurrentWeatherEvent is still published if the data has changed
+     *
+     * @return TweatherFuture of WeatherDataPojo
+     */
+    public TweatherFuture<WeatherDataPojo> currentWeather() {
+        final WeatherCache.Entry entry = weatherCache.get(currentWeatherRequest.url().toString());
+        if (isFresh(entry)) {
+            return TweatherFuture.completed(entry.weatherData);
+        }
 
-        Log.d(TAG, "requestCurrentWeatherData - Getting current weather from: " + url);
+        final TweatherFuture<WeatherDataPojo> future = new TweatherFuture<>();
+        fetchCurrentWeatherData(new SingleFlight.Listener<WeatherDataPojo>() {
+            @Override
+            public void onComplete(WeatherDataPojo weatherData) {
+                if (weatherData != null) {
+                    future.complete(weatherData);
+                }
+                else {
+                    future.completeExceptionally(new IOException("Current weather request failed"));
+                }
+            }
+        }, false);
 
-        // Make a asynchronous request using OkHttpClient. Since async
+        return future;
+    }
+
+    /**
+     * Helper method to fetch current weather data
+     *
+     * @param listener - Listener for the result, can be null
+     * @param publishAlways - true to publish result even if it is same as cached data
+     * @return true if the request is successfully made or attached to the one in progress
+     */
+    private boolean fetchCurrentWeatherData(final SingleFlight.Listener<WeatherDataPojo> listener,
+                                            final boolean publishAlways) {
+        if (!currentWeatherFlight.join(currentWeatherRequest.url().toString(), listener, publishAlways)) {
+            Log.i(TAG, "fetchCurrentWeatherData - Another request is already in progress, attached to it");
+            return true;
+        }
+
+        Log.d(TAG, "fetchCurrentWeatherData - Getting current weather from: " + weatherSource.getName());
+        currentWeatherFlightStartNanos = System.nanoTime();
+
+        // Make a asynchronous request to the weather source. Since async
         // API is used, there is no need to worry about whether requestCurrentWeatherData
         // method is called on main thread
-        CurrentWeatherResponseCallback callback = new CurrentWeatherResponseCallback();
-        httpClient.newCall(currentWeatherRequest).enqueue(callback);
+        final String url = currentWeatherRequest.url().toString();
+        weatherSource.currentWeather().addListener(new TweatherFuture.Listener<WeatherDataPojo>() {
+            @Override
+            public void onSuccess(WeatherDataPojo weatherData) {
+                currentWeatherDataRequestComplete(url, weatherData);
+            }
+
+            @Override
+            public void onFailure(Throwable error) {
+                Log.e(TAG, "fetchCurrentWeatherData - Request failed. " + error);
+                currentWeatherDataRequestComplete(url, null);
+            }
+        });
 
         // Request accepted
         return true;
     }
 
     /**
-     * This method is called by the network response
-     * callback when request for current weather request
-     * is complete
+     * This method is called when request to the weather
+     * source for current weather is complete
      *
+     * @param url - URL of the endpoint
      * @param weatherData - WeatherDataPojo object if request is
      *                    successful, null otherwise
      */
-    void currentWeatherDataRequestComplete(final WeatherDataPojo weatherData) {
+    void currentWeatherDataRequestComplete(final String url, final WeatherDataPojo weatherData) {
         Log.d(TAG, "currentWeatherDataRequestComplete called");
 
-        // Publish the Event
-        EventBus.getDefault().post(new CurrentWeatherEvent(weatherData));
+        final boolean dataChanged = weatherData != null && weatherCache.put(url, weatherData);
+        if (dataChanged) {
+            scheduleSnapshotWrite();
+        }
+
+        // Finish the request in progress, so new callers make a new request
+        final SingleFlight.Flight<WeatherDataPojo> flight = currentWeatherFlight.finish(url);
+
+        // Publish the Event - Successful results are sticky, so they are
+        // replayed to listeners that register later
+        if (dataChanged || (flight != null && flight.isPublishAlways())) {
+            final CurrentWeatherEvent event = new CurrentWeatherEvent(weatherData,
+                    getCallTraces(Collections.singleton(url), currentWeatherFlightStartNanos));
+            if (weatherData != null) {
+                TweatherEvents.getDefault().postSticky(event);
+            }
+            else {
+                TweatherEvents.getDefault().post(event);
+            }
+        }
+        else {
+            Log.d(TAG, "currentWeatherDataRequestComplete - Data has not changed, nothing to publish");
+        }
 
-        // Reset request progress
-        currentWeatherRequestInProgress.set(false);
+        // Deliver the result to attached callers
+        if (flight != null) {
+            flight.deliver(weatherData);
+        }
     }
 
     /**
      * SDK Method to request future weather data.
      *
      * Note: Twitter Weather API only supports future data
-     * for up to 5 days. This method will fire 5 API requests
-     * to get weather data for next 5 days
+     * for up to 5 days. This method will fire one API request
+     * per day of the configured forecast horizon (5 days by default)
+     *
+     * The requests are fired in parallel as one FutureWeatherBatch,
+     * with at most TweatherConfig.getForecastConcurrency() requests in
+     * flight, and the published list is ordered by day. Each day is
+     * also published as FutureWeatherProgressEvent as soon as it is received.
      *
-     * Firing parallel requests to one callback works well here
-     * because we do not need to know which response is for which
-     * object, as we only need it to calculate StandardDeviation
-     * in the code.
+     * Result is always published, even if it is same as cached data.
+     * If a request is already in progress, this request is attached
+     * to it and its result is published
      *
-     * @return true if the request is successfully made, false otherwise
+     * @return true if the request is successfully made or attached
      */
     public boolean requestFutureWeatherData() {
         Log.d(TAG, "requestFutureWeatherData called");
+        return fetchFutureWeatherData(null, true);
+    }
+
+    /**
+     * SDK Method to get cached future weather data
+     *
+     * Cached data is returned right away, even if it is stale. If
+     * data for any day is stale or not cached, it is revalidated in
+     * background and FutureWeatherEvent is published only if the data
+     * has changed
+     *
+     * @return Cached future WeatherDataPojo list ordered by day, or null
+     * if data for any day is not cached yet
+     */
+    public List<WeatherDataPojo> getFutureWeatherData() {
+        final List<WeatherDataPojo> futureWeatherData = new ArrayList<>(futureWeatherRequests.size());
+        boolean revalidate = false;
+
+        for (Request request : futureWeatherRequests) {
+            final WeatherCache.Entry entry = weatherCache.get(request.url().toString());
+            revalidate |= !isFresh(entry);
+            futureWeatherData.add(entry == null ? null : entry.weatherData);
+        }
+
+        if (revalidate) {
+            Log.d(TAG, "getFutureWeatherData - Cached data is stale or missing, revalidate");
+            fetchFutureWeatherData(null, false);
+        }
+
+        return futureWeatherData.contains(null) ? null : futureWeatherData;
+    }
 
-        if (futureWeatherRequestInProgress.get()) {
-            Log.w(TAG, "requestFutureWeatherData - Another request is already in progress. Abandon this request");
-            return false;
+    /**
+     * SDK Method to get future weather data asynchronously
+     *
+     * Fresh cached data completes the future right away. Otherwise
+     * the whole forecast horizon is fetched (or the request already in
+     * progress is joined) and the future completes with the first
+     * numberOfDays days. A day whose request failed has its last cached
+     * data, or null if nothing is cached (see Forecast.isComplete()).
+     * FutureWeatherEvent is still published if the data has changed
+     *
+     * @param numberOfDays - Number of days, 1 to TweatherConfig.getForecastDays()
+     * @return TweatherFuture of Forecast
+     * @throws IllegalArgumentException - If numberOfDays is out of range
+     */
+    public TweatherFuture<Forecast> forecast(final int numberOfDays) {
+        if (numberOfDays < 1 || numberOfDays > futureWeatherRequests.size()) {
+            throw new IllegalArgumentException("Number of days must be between 1 and " + futureWeatherRequests.size());
         }
 
-        // Set the flag
-        futureWeatherRequestInProgress.set(true);
+        final List<WeatherDataPojo> cachedData = new ArrayList<>(numberOfDays);
+        boolean fresh = true;
+        for (int i = 0; i < numberOfDays && fresh; i++) {
+            final WeatherCache.Entry entry = weatherCache.get(futureWeatherRequests.get(i).url().toString());
+            fresh = isFresh(entry);
+            cachedData.add(fresh ? entry.weatherData : null);
+        }
 
-        // Clear the future response collection before starting a new set of future weather
-        // data requests
-        futureResponseList.clear();
+        if (fresh) {
+            return TweatherFuture.completed(new Forecast(cachedData, futureWeatherGeneration.get()));
+        }
 
-        // Clear request and response counters
-        numberOfFutureWeatherRequests.set(0);
-        numberOfFutureWeatherResponse.set(0);
+        final TweatherFuture<Forecast> future = new TweatherFuture<>();
+        fetchFutureWeatherData(new SingleFlight.Listener<Forecast>() {
+            @Override
+            public void onComplete(Forecast forecast) {
+                future.complete(forecast.firstDays(numberOfDays));
+            }
+        }, false);
 
-        final OkHttpClient httpClient = OkHttpFactory.getOkHttpClient();
-        FutureWeatherResponseCallback callback = new FutureWeatherResponseCallback();
+        return future;
+    }
 
-        // Enqueue the requests for future data weather
-        for (Request request : futureWeatherRequests) {
-            numberOfFutureWeatherRequests.incrementAndGet();
-            httpClient.newCall(request).enqueue(callback);
+    /**
+     * SDK Method to get current weather data for many locations,
+     * for example a backend refreshing weather for all its users
+     *
+     * Duplicate locations, and coordinates in the same cell of the
+     * configured grid, are fetched once. Fresh cached locations are
+     * returned without a request; the rest are requested with at most
+     * TweatherConfig.getBulkConcurrency() requests in flight. Results are
+     * streamed as they are received. Nothing is published on TweatherEvents
+     *
+     * @param locations - Locations, coordinates or city names
+     * @return Streaming BulkWeatherResults, one result per unique location
+     * @throws IllegalArgumentException - If locations is null or has a null location
+     */
+    public BulkWeatherResults bulkCurrentWeather(final Collection<WeatherLocation> locations) {
+        if (locations == null) {
+            throw new IllegalArgumentException("Locations cannot be null");
+        }
+
+        return new BulkWeatherFetch(weatherSource, locationWeatherCache, locationWeatherFlight, metricsRecorder, locations,
+                config.getLocationPrecisionInDegrees(), config.getBulkConcurrency()).start();
+    }
+
+    /**
+     * Helper method to fetch future weather data
+     *
+     * @param listener - Listener for the result, can be null
+     * @param publishAlways - true to publish result even if it is same as cached data
+     * @return true if the request is successfully made or attached to the one in progress
+     */
+    private boolean fetchFutureWeatherData(final SingleFlight.Listener<Forecast> listener,
+                                           final boolean publishAlways) {
+        if (!futureWeatherFlight.join(FUTURE_WEATHER_FLIGHT_KEY, listener, publishAlways)) {
+            Log.i(TAG, "fetchFutureWeatherData - Another request is already in progress, attached to it");
+            return true;
+        }
+
+        // Every fan-out is a self-contained batch, so responses of
+        // one batch can never land in another
+        final FutureWeatherBatch batch = new FutureWeatherBatch(
+                futureWeatherGeneration.incrementAndGet(), futureWeatherRequests.size());
+
+        // Latency SLO mode - Days not received by the deadline are timed out
+        if (config.getBatchDeadlineInMillis() > 0) {
+            batch.setDeadlineTimer(TweatherExecutors.scheduler().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    futureWeatherBatchDeadlineExpired(batch);
+                }
+            }, config.getBatchDeadlineInMillis(), TimeUnit.MILLISECONDS));
+        }
+
+        // Enqueue the first window of requests for future data weather. As each
+        // one completes, request for the next day is enqueued
+        final int concurrency = Math.min(config.getForecastConcurrency(), batch.getNumberOfDays());
+        for (int i = 0; i < concurrency; i++) {
+            enqueueNextFutureWeatherRequest(batch);
         }
 
         return true;
     }
 
     /**
-     * This method is called by the network response
-     * callback when request for future weather request
-     * is complete
+     * This method is called when request to the weather
+     * source for future weather of a day is complete
      *
+     * @param batch - Batch the request belongs to
+     * @param dayIndex - Index of the day in the batch, 0 for day 1
+     * @param url - URL of the endpoint
      * @param weatherData - WeatherDataPojo object if request is
      *                    successful, null otherwise
      */
-    void futureWeatherDataRequestComplete(final WeatherDataPojo weatherData) {
-        Log.d(TAG, "futureWeatherDataRequestComplete called");
+    void futureWeatherDataRequestComplete(final FutureWeatherBatch batch,
+                                          final int dayIndex,
+                                          final String url,
+                                          final WeatherDataPojo weatherData) {
+        Log.d(TAG, "futureWeatherDataRequestComplete called for day " + (dayIndex + 1) +
+                " of batch " + batch.getGeneration());
+
+        // A failed call doesn't complete the day while its hedged duplicate
+        // is still in flight, the duplicate may still succeed
+        if (batch.callFinished(dayIndex) > 0 && weatherData == null) {
+            Log.d(TAG, "futureWeatherDataRequestComplete - Call failed, wait for the other call of the day");
+            return;
+        }
+
+        // Late responses of a batch that has been superseded by a newer
+        // one must not overwrite the newer data in cache
+        if (weatherData != null &&
+                batch.getGeneration() == futureWeatherGeneration.get() &&
+                weatherCache.put(url, weatherData)) {
+            batch.markDataChanged();
+        }
+
+        completeFutureWeatherDay(batch, dayIndex, weatherData);
+    }
+
+    /**
+     * This method is called by the deadline timer of a batch.
+     * Calls still in flight are cancelled, and days that have not
+     * been received are completed as timed out
+     *
+     * @param batch - Batch whose deadline has expired
+     */
+    private void futureWeatherBatchDeadlineExpired(final FutureWeatherBatch batch) {
+        if (!batch.expire() || batch.isComplete()) {
+            return;
+        }
+
+        Log.w(TAG, "futureWeatherBatchDeadlineExpired - Deadline of batch " + batch.getGeneration() + " has expired");
+
+        for (int dayIndex = 0; dayIndex < batch.getNumberOfDays(); dayIndex++) {
+            if (!batch.isDayComplete(dayIndex)) {
+                batch.markTimedOut(dayIndex);
+                batch.cancelCalls(dayIndex);
+                completeFutureWeatherDay(batch, dayIndex, null);
+            }
+        }
+    }
+
+    /**
+     * Helper method to complete a day of a batch, and publish
+     * the result when all days of the batch have been completed
+     *
+     * @param batch - Batch the day belongs to
+     * @param dayIndex - Index of the day in the batch, 0 for day 1
+     * @param weatherData - WeatherDataPojo object, null if request failed or timed out
+     */
+    private void completeFutureWeatherDay(final FutureWeatherBatch batch,
+                                          final int dayIndex,
+                                          final WeatherDataPojo weatherData) {
+        // Fire complete event when all responses of the batch have been received,
+        // otherwise keep the fan-out window full
+        final int outcome = batch.complete(dayIndex, weatherData);
+        if (outcome == FutureWeatherBatch.DAY_ALREADY_COMPLETE) {
+            // Loser of a hedged request, or a response after the deadline
+            return;
+        }
+
+        // First response for the day wins, cancel the other call if any
+        batch.cancelCalls(dayIndex);
+
+        if (outcome == FutureWeatherBatch.DAY_COMPLETE) {
+            enqueueNextFutureWeatherRequest(batch);
+        }
+
+        // Stream the day, while the flight is still in progress
+        publishFutureWeatherProgress(batch, dayIndex, weatherData);
+
+        if (outcome != FutureWeatherBatch.BATCH_COMPLETE) {
+            return;
+        }
 
-        // Increment the response counter
-        numberOfFutureWeatherResponse.incrementAndGet();
+        Log.i(TAG, "completeFutureWeatherDay - All requests of batch " + batch.getGeneration() + " have been completed");
+        batch.cancelDeadlineTimer();
+        metricsRecorder.fanOutCompleted(MetricsRecorder.FAN_OUT_FORECAST, batch.getNumberOfDays(), batch.getElapsedNanos());
 
-        // Add the response to the collection
-        futureResponseList.add(weatherData);
+        if (batch.isDataChanged()) {
+            scheduleSnapshotWrite();
+        }
+
+        // Finish the request in progress, so new callers make a new request
+        final SingleFlight.Flight<Forecast> flight = futureWeatherFlight.finish(FUTURE_WEATHER_FLIGHT_KEY);
+        final List<WeatherDataPojo> futureWeatherData;
+
+        final List<String> urls = new ArrayList<>(futureWeatherRequests.size());
+        for (Request request : futureWeatherRequests) {
+            urls.add(request.url().toString());
+        }
+        final List<CallTrace> callTraces = getCallTraces(urls, batch.getStartNanos());
+
+        // Publish the event
+        if (flight != null && flight.isPublishAlways()) {
+            futureWeatherData = batch.snapshot();
+            publishFutureWeather(new FutureWeatherEvent(futureWeatherData, batch.getGeneration(), callTraces,
+                    batch.getTemperatureStatistics()));
+        }
+        else if (batch.isDataChanged()) {
+            // Revalidation - Publish from cache, so a failed request
+            // for one day still has its last known data
+            futureWeatherData = getCachedFutureWeatherData();
+            publishFutureWeather(new FutureWeatherEvent(futureWeatherData, batch.getGeneration(), callTraces,
+                    ForecastProgress.temperatureStatistics(futureWeatherData)));
+        }
+        else {
+            Log.d(TAG, "completeFutureWeatherDay - Data has not changed, nothing to publish");
+            futureWeatherData = getCachedFutureWeatherData();
+        }
 
-        // Reset request progress and fire complete event
-        // when all responses have been received
-        if (numberOfFutureWeatherRequests.get() == numberOfFutureWeatherResponse.get()) {
-            Log.i(TAG, "futureWeatherDataRequestComplete - All requests have been completed");
+        // Deliver the result to attached callers
+        if (flight != null) {
+            flight.deliver(new Forecast(futureWeatherData, batch.getGeneration(),
+                    batch.getHedgedDays(), batch.getTimedOutDays(), callTraces));
+        }
+    }
 
-            // Publish the event
-            EventBus.getDefault().post(new FutureWeatherEvent(futureResponseList));
+    /**
+     * SDK Method to add a listener for streaming future weather
+     * data. The listener gets each day of every future weather
+     * batch as soon as it is received, with running statistics
+     *
+     * @param listener - ForecastListener
+     * @throws IllegalArgumentException - If listener is null
+     */
+    public void addForecastListener(final ForecastListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
 
-            // Reset the progress flag
-            futureWeatherRequestInProgress.set(false);
+        if (!forecastListeners.contains(listener)) {
+            forecastListeners.add(listener);
         }
     }
+
+    /**
+     * SDK Method to remove a listener for streaming future
+     * weather data
+     *
+     * @param listener - ForecastListener
+     */
+    public void removeForecastListener(final ForecastListener listener) {
+        forecastListeners.remove(listener);
+    }
+
+    /**
+     * Helper method to publish FutureWeatherEvent. Complete
+     * future weather data is sticky, so it is replayed to listeners
+     * that register later
+     *
+     * @param event - FutureWeatherEvent
+     */
+    private static void publishFutureWeather(final FutureWeatherEvent event) {
+        final List<WeatherDataPojo> futureWeatherData = event.getFutureWeatherData();
+
+        if (futureWeatherData != null && !futureWeatherData.contains(null)) {
+            TweatherEvents.getDefault().postSticky(event);
+        }
+        else {
+            TweatherEvents.getDefault().post(event);
+        }
+    }
+
+    /**
+     * Helper method to stream a day of a batch to forecast
+     * listeners, and publish FutureWeatherProgressEvent if a caller
+     * of the batch wants the result published and it has listeners
+     *
+     * @param batch - Batch the day belongs to
+     * @param dayIndex - Index of the day, 0 for day 1
+     * @param weatherData - WeatherDataPojo, null if request failed
+     */
+    private void publishFutureWeatherProgress(final FutureWeatherBatch batch,
+                                              final int dayIndex,
+                                              final WeatherDataPojo weatherData) {
+        final boolean publishEvent = futureWeatherFlight.isPublishAlways(FUTURE_WEATHER_FLIGHT_KEY) &&
+                TweatherEvents.getDefault().hasListeners(FutureWeatherProgressEvent.class);
+        if (!publishEvent && forecastListeners.isEmpty()) {
+            return;
+        }
+
+        final ForecastProgress progress = ForecastProgress.fromStatistics(batch.getGeneration(),
+                batch.getNumberOfDays(), batch.getNumberOfDaysCompleted(), batch.getTemperatureStatistics());
+
+        for (ForecastListener listener : forecastListeners) {
+            try {
+                listener.onDayReceived(dayIndex, weatherData, progress);
+            }
+            catch (RuntimeException e) {
+                Log.e(TAG, "publishFutureWeatherProgress - Listener threw an exception. " + e);
+            }
+        }
+
+        if (publishEvent) {
+            TweatherEvents.getDefault().post(new FutureWeatherProgressEvent(dayIndex, weatherData, progress));
+        }
+    }
+
+    /**
+     * Helper method to enqueue request for the next day of
+     * a batch that hasn't been dispatched yet
+     *
+     * @param batch - Batch to enqueue the request for
+     */
+    private void enqueueNextFutureWeatherRequest(final FutureWeatherBatch batch) {
+        final int dayIndex = batch.nextDayIndex();
+        if (dayIndex < 0) {
+            // Every day has been dispatched
+            return;
+        }
+
+        enqueueFutureWeatherRequest(batch, dayIndex, false);
+        scheduleHedgedFutureWeatherRequest(batch, dayIndex);
+    }
+
+    /**
+     * Helper method to enqueue request for a day of a batch
+     *
+     * @param batch - Batch to enqueue the request for
+     * @param dayIndex - Index of the day in the batch, 0 for day 1
+     * @param hedged - true if request is a hedged duplicate
+     */
+    private void enqueueFutureWeatherRequest(final FutureWeatherBatch batch,
+                                             final int dayIndex,
+                                             final boolean hedged) {
+        // Make a asynchronous request to the weather source, with one listener per day
+        final String url = futureWeatherRequests.get(dayIndex).url().toString();
+        final long startNanos = System.nanoTime();
+        final TweatherFuture<WeatherDataPojo> future = weatherSource.futureWeather(dayIndex + 1);
+        batch.callStarted(dayIndex, future, hedged);
+
+        future.addListener(new TweatherFuture.Listener<WeatherDataPojo>() {
+            @Override
+            public void onSuccess(WeatherDataPojo weatherData) {
+                // Only successful requests count for hedging, failures are often instant
+                futureWeatherLatency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                futureWeatherDataRequestComplete(batch, dayIndex, url, weatherData);
+            }
+
+            @Override
+            public void onFailure(Throwable error) {
+                Log.e(TAG, "enqueueFutureWeatherRequest - Request for day " + (dayIndex + 1) + " failed. " + error);
+                futureWeatherDataRequestComplete(batch, dayIndex, url, null);
+            }
+        });
+    }
+
+    /**
+     * Helper method to schedule a hedged duplicate request for a day,
+     * that is fired if the day is not complete by the configured latency
+     * percentile of recent requests
+     *
+     * @param batch - Batch the day belongs to
+     * @param dayIndex - Index of the day in the batch, 0 for day 1
+     */
+    private void scheduleHedgedFutureWeatherRequest(final FutureWeatherBatch batch, final int dayIndex) {
+        if (config.getHedgePercentile() <= 0) {
+            return;
+        }
+
+        final long hedgeDelayInMillis = futureWeatherLatency.percentile(config.getHedgePercentile());
+        if (hedgeDelayInMillis < 0) {
+            // Not enough samples yet
+            return;
+        }
+
+        TweatherExecutors.scheduler().schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (!batch.isDayComplete(dayIndex) && batch.markHedged(dayIndex)) {
+                    Log.i(TAG, "scheduleHedgedFutureWeatherRequest - Day " + (dayIndex + 1) +
+                            " is slower than " + hedgeDelayInMillis + " ms, fire hedged request");
+                    enqueueFutureWeatherRequest(batch, dayIndex, true);
+                }
+            }
+        }, hedgeDelayInMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Helper method to get traces of the calls made for a request.
+     * Traces are matched by URL, so they are only found for sources
+     * that call the SDK's endpoints, such as the default HttpWeatherSource
+     *
+     * @param urls - URLs of the request
+     * @param sinceNanos - Start time of the request
+     * @return CallTraces ordered by start, empty if call tracing is disabled
+     */
+    private static List<CallTrace> getCallTraces(final Collection<String> urls, final long sinceNanos) {
+        final CallTracer callTracer = OkHttpFactory.getCallTracer();
+        return callTracer == null ? Collections.<CallTrace>emptyList() : callTracer.getTraces(urls, sinceNanos);
+    }
+
+    /**
+     * Helper method to check whether a cache entry is fresh,
+     * and record the outcome of the lookup
+     *
+     * @param entry - Cache entry, can be null
+     * @return true if entry is fresh
+     */
+    private boolean isFresh(final WeatherCache.Entry entry) {
+        final boolean fresh = weatherCache.isFresh(entry);
+        metricsRecorder.cacheLookup(fresh ? MetricsRecorder.CACHE_FRESH :
+                entry != null ? MetricsRecorder.CACHE_STALE : MetricsRecorder.CACHE_MISS);
+        return fresh;
+    }
+
+    /**
+     * Helper method to get cached future weather data
+     * ordered by day, without revalidation
+     *
+     * @return Immutable list of cached WeatherDataPojo, null for days that are not cached
+     */
+    private List<WeatherDataPojo> getCachedFutureWeatherData() {
+        final List<WeatherDataPojo> futureWeatherData = new ArrayList<>(futureWeatherRequests.size());
+
+        for (Request request : futureWeatherRequests) {
+            final WeatherCache.Entry entry = weatherCache.get(request.url().toString());
+            futureWeatherData.add(entry == null ? null : entry.weatherData);
+        }
+
+        return Collections.unmodifiableList(futureWeatherData);
+    }
+
+    /**
+     * Helper method to load the snapshot of last known weather
+     * data into the cache on the disk I/O thread, so creating the
+     * SDK never waits for the disk. Entries keep their fetch time, so
+     * old data is served and revalidated as stale. Entries already
+     * fetched from the network are not replaced.
+     *
+     * Snapshot writes are queued on the same thread, so they always
+     * run after the snapshot is loaded
+     *
+     */
+    private void restoreSnapshot() {
+        TweatherExecutors.diskIo().execute(new Runnable() {
+            @Override
+            public void run() {
+                final long startNanos = System.nanoTime();
+                final String currentWeatherKey = currentWeatherRequest.url().toString();
+                WeatherCache.Entry currentWeatherEntry = null;
+                int numberOfRestoredEntries = 0;
+                boolean futureWeatherRestored = false;
+
+                for (Map.Entry<String, WeatherCache.Entry> entry : weatherSnapshot.read().entrySet()) {
+                    if (!weatherCache.restore(entry.getKey(), entry.getValue())) {
+                        continue;
+                    }
+
+                    numberOfRestoredEntries++;
+                    if (currentWeatherKey.equals(entry.getKey())) {
+                        currentWeatherEntry = entry.getValue();
+                    }
+                    else {
+                        futureWeatherRestored = true;
+                    }
+                }
+
+                Log.i(TAG, "restoreSnapshot - Restored " + numberOfRestoredEntries + " entries in " +
+                        elapsedMillis(startNanos) + " ms");
+
+                publishRestoredSnapshot(currentWeatherKey, currentWeatherEntry, futureWeatherRestored);
+            }
+        });
+    }
+
+    /**
+     * Helper method to publish weather data restored from the
+     * snapshot, for listeners that asked for cached data before it
+     * was loaded. Current weather is published unless the network
+     * has replaced it since, and future weather if every day is cached
+     *
+     * @param currentWeatherKey - Cache key of current weather
+     * @param currentWeatherEntry - Restored current weather entry, null if not restored
+     * @param futureWeatherRestored - true if any day of future weather was restored
+     */
+    private void publishRestoredSnapshot(final String currentWeatherKey,
+                                         final WeatherCache.Entry currentWeatherEntry,
+                                         final boolean futureWeatherRestored) {
+        if (currentWeatherEntry != null && weatherCache.get(currentWeatherKey) == currentWeatherEntry) {
+            TweatherEvents.getDefault().postSticky(new CurrentWeatherEvent(currentWeatherEntry.weatherData));
+        }
+
+        if (futureWeatherRestored) {
+            final List<WeatherDataPojo> futureWeatherData = getCachedFutureWeatherData();
+            if (!futureWeatherData.contains(null)) {
+                publishFutureWeather(new FutureWeatherEvent(futureWeatherData, futureWeatherGeneration.get(),
+                        Collections.<CallTrace>emptyList(), ForecastProgress.temperatureStatistics(futureWeatherData)));
+            }
+        }
+    }
+
+    /**
+     * Helper method to write the snapshot on the disk I/O thread,
+     * after cached data has changed. Changes made while a write is
+     * queued are picked up by that write
+     *
+     */
+    private void scheduleSnapshotWrite() {
+        if (weatherSnapshot == null || !snapshotWritePending.compareAndSet(false, true)) {
+            return;
+        }
+
+        TweatherExecutors.diskIo().execute(new Runnable() {
+            @Override
+            public void run() {
+                // Clear the flag first, so a change during the write queues another one
+                snapshotWritePending.set(false);
+
+                final Map<String, WeatherCache.Entry> entries = new LinkedHashMap<>();
+                addCacheEntry(entries, currentWeatherRequest);
+                for (Request request : futureWeatherRequests) {
+                    addCacheEntry(entries, request);
+                }
+
+                try {
+                    weatherSnapshot.write(entries);
+                    Log.d(TAG, "scheduleSnapshotWrite - Wrote " + entries.size() + " entries");
+                }
+                catch (IOException e) {
+                    Log.e(TAG, "scheduleSnapshotWrite - Unable to write snapshot. " + e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Helper method to add the cached entry of a request, if any
+     *
+     * @param entries - Entries keyed by URL
+     * @param request - Request
+     */
+    private void addCacheEntry(final Map<String, WeatherCache.Entry> entries, final Request request) {
+        final String key = request.url().toString();
+        final WeatherCache.Entry entry = weatherCache.get(key);
+
+        if (entry != null) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Helper method to create requests for future weather data
+     * endpoints, one request per day of the forecast horizon
+     *
+     * @param tweatherConfig - SDK configuration
+     * @return List of Requests
+     */
+    private static List<Request> buildFutureWeatherRequests(final TweatherConfig tweatherConfig) {
+        final List<Request> requests = new ArrayList<>(tweatherConfig.getForecastDays());
+
+        for (int day = 1; day <= tweatherConfig.getForecastDays(); day++) {
+            requests.add(new Request.Builder()
+                    .url(tweatherConfig.getBaseUrl() +
+                            String.format(Locale.US, tweatherConfig.getForecastEndpointTemplate(), day))
+                    .build());
+        }
+
+        return requests;
+    }
 }
@@ -0,0 +1,96 @@
+package com.twitter.tweathersdk.core;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+
+import okio.BufferedSource;
+
+/**
+ * Reader that decodes UTF-8 straight from an Okio BufferedSource
+ *
+ * ResponseBody.charStream() wraps the body in an InputStreamReader,
+ * whose decoder allocates an 8 KB byte buffer per response - many times
+ * the size of a weather response. This reader decodes code points from
+ * the source's own segments instead, so it allocates nothing per char.
+ * Malformed input is decoded as U+FFFD, like InputStreamReader.
+ */
+
+final class Utf8SourceReader extends Reader {
+    // Char for malformed input
+    private static final char REPLACEMENT_CHARACTER = '\uFFFD';
+
+    // Source to decode
+    private final BufferedSource source;
+
+    // Low surrogate of a code point that didn't fit in the last read, 0 if none
+    private char pendingLowSurrogate = 0;
+
+    /**
+     * Constructor
+     *
+     * @param source - UTF-8 source, closed with the reader
+     */
+    Utf8SourceReader(final BufferedSource source) {
+        this.source = source;
+    }
+
+    @Override
+    public int read(char[] chars, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+
+        int count = 0;
+        if (pendingLowSurrogate != 0) {
+            chars[offset + count++] = pendingLowSurrogate;
+            pendingLowSurrogate = 0;
+        }
+
+        // Block for the first char only, then return what is buffered
+        while (count < length && (count == 0 ? !source.exhausted() : source.buffer().size() > 0)) {
+            final int codePoint = readCodePoint();
+
+            if (!Character.isSupplementaryCodePoint(codePoint)) {
+                chars[offset + count++] = (char) codePoint;
+            }
+            else {
+                // Surrogate pair. Character.highSurrogate and lowSurrogate need API 19
+                chars[offset + count++] = (char) ((codePoint >>> 10) + 0xD7C0);
+                final char lowSurrogate = (char) ((codePoint & 0x3FF) + 0xDC00);
+                if (count < length) {
+                    chars[offset + count++] = lowSurrogate;
+                }
+                else {
+                    pendingLowSurrogate = lowSurrogate;
+                }
+            }
+        }
+
+        return count == 0 ? -1 : count;
+    }
+
+    /**
+     * Helper method to read the next code point. Okio decodes
+     * malformed bytes as U+FFFD, but throws EOFException for a
+     * sequence cut off by the end of the source
+     *
+     * @return Code point
+     * @throws IOException - If the source cannot be read
+     */
+    private int readCodePoint() throws IOException {
+        try {
+            return source.readUtf8CodePoint();
+        }
+        catch (EOFException e) {
+            // Source is exhausted, what is left is the truncated sequence
+            source.skip(source.buffer().size());
+            return REPLACEMENT_CHARACTER;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+}
@@ -0,0 +1,91 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory cache of WeatherDataPojo objects, keyed by
+ * endpoint URL
+ *
+ * An entry is fresh for the configured TTL after it was fetched.
+ * Stale entries are still returned, so callers can show them
+ * while the SDK revalidates in background (stale-while-revalidate).
+ */
+
+final class WeatherCache {
+    /**
+     * Cached weather data with the time it was fetched
+     *
+     */
+    static final class Entry {
+        final WeatherDataPojo weatherData;
+        final long fetchedAtMillis;
+
+        Entry(final WeatherDataPojo weatherData, final long fetchedAtMillis) {
+            this.weatherData = weatherData;
+            this.fetchedAtMillis = fetchedAtMillis;
+        }
+    }
+
+    // Entries keyed by endpoint URL
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Freshness TTL
+    private final long freshnessTtlInMillis;
+
+    /**
+     * Constructor
+     *
+     * @param freshnessTtlInMillis - How long an entry is fresh after it is fetched
+     */
+    WeatherCache(final long freshnessTtlInMillis) {
+        this.freshnessTtlInMillis = freshnessTtlInMillis;
+    }
+
+    /**
+     * Method to get cached entry for an endpoint
+     *
+     * @param key - Endpoint URL
+     * @return Entry, fresh or stale, null if nothing is cached
+     */
+    Entry get(final String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Method to check whether an entry is still fresh
+     *
+     * @param entry - Cached entry, can be null
+     * @return true if entry is not null and within freshness TTL
+     */
+    boolean isFresh(final Entry entry) {
+        return entry != null &&
+                System.currentTimeMillis() - entry.fetchedAtMillis < freshnessTtlInMillis;
+    }
+
+    /**
+     * Method to restore an entry, for example from a snapshot on
+     * disk, unless there is one already. Restored entries keep
+     * their fetch time, so old data is stale and gets revalidated
+     *
+     * @param key - Endpoint URL
+     * @param entry - Entry to restore
+     * @return true if the entry was restored
+     */
+    boolean restore(final String key, final Entry entry) {
+        return entries.putIfAbsent(key, entry) == null;
+    }
+
+    /**
+     * Method to cache weather data fetched from an endpoint
+     *
+     * @param key - Endpoint URL
+     * @param weatherData - Weather data fetched from the endpoint
+     * @return true if the data is different from what was cached
+     */
+    boolean put(final String key, final WeatherDataPojo weatherData) {
+        final Entry previous = entries.put(key, new Entry(weatherData, System.currentTimeMillis()));
+        return previous == null || !weatherData.equals(previous.weatherData);
+    }
+}
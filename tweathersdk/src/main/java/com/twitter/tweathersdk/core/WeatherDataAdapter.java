@@ -0,0 +1,27 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import java.io.IOException;
+
+import okhttp3.ResponseBody;
+
+/**
+ * Adapter from the response body of a weather provider
+ * into the common model, WeatherDataPojo
+ *
+ * Every HttpWeatherSource has an adapter, so providers with a
+ * different JSON format can be used without changing the SDK.
+ */
+
+public interface WeatherDataAdapter {
+    /**
+     * Adapt a response body into WeatherDataPojo. The caller
+     * closes the body
+     *
+     * @param body - Response body of the provider
+     * @return WeatherDataPojo, or null if body is empty
+     * @throws IOException - If the body cannot be read or is malformed
+     */
+    WeatherDataPojo adapt(ResponseBody body) throws IOException;
+}
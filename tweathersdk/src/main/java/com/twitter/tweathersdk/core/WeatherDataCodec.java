@@ -0,0 +1,381 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.Clouds;
+import com.twitter.tweathersdk.model.Coord;
+import com.twitter.tweathersdk.model.Rain;
+import com.twitter.tweathersdk.model.Weather;
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+import com.twitter.tweathersdk.model.Wind;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary codec for WeatherDataPojo, for disk caches,
+ * snapshots and cross-process delivery
+ *
+ * A record has a fixed layout, so every value is at a fixed offset:
+ *
+ *   0  version (byte)          19 pressure (int)     35 rain 3h (int)
+ *   1  presence bits (short)   23 humidity (int)     39 cloudiness (int)
+ *   3  lon (float)             27 wind speed (float) 43 name length (unsigned short)
+ *   7  lat (float)             31 wind deg (int)     45 name (UTF-8)
+ *   11 temp (double)
+ *
+ * Every nullable field - the nested objects and their boxed values -
+ * has a presence bit, and absent values are written as 0. A record is
+ * 45 bytes plus the name, against about 200 bytes of JSON. Records are
+ * written at the buffer's position in its byte order, and are self
+ * delimiting, so many records can be packed into one buffer.
+ *
+ * Values are put to and read from the ByteBuffer directly, including
+ * the UTF-8 name, without intermediate JSON, Strings or byte arrays.
+ */
+
+public final class WeatherDataCodec {
+    // Version of the record layout, bump when it changes
+    public static final byte VERSION = 1;
+
+    // Size of a record without the name
+    static final int FIXED_SIZE = 45;
+
+    // Max UTF-8 size of the name
+    static final int MAX_NAME_SIZE = 0xFFFF;
+
+    // Presence bits
+    private static final int COORD = 1;
+    private static final int LON = 1 << 1;
+    private static final int LAT = 1 << 2;
+    private static final int WEATHER = 1 << 3;
+    private static final int TEMP = 1 << 4;
+    private static final int PRESSURE = 1 << 5;
+    private static final int HUMIDITY = 1 << 6;
+    private static final int WIND = 1 << 7;
+    private static final int WIND_SPEED = 1 << 8;
+    private static final int WIND_DEG = 1 << 9;
+    private static final int RAIN = 1 << 10;
+    private static final int RAIN_3H = 1 << 11;
+    private static final int CLOUDS = 1 << 12;
+    private static final int CLOUDINESS = 1 << 13;
+    private static final int NAME = 1 << 14;
+
+    /**
+     * Private constructor - Utility class
+     *
+     */
+    private WeatherDataCodec() {
+        // Nothing to do
+    }
+
+    /**
+     * Method to get size of the encoded record
+     *
+     * @param weatherData - WeatherDataPojo
+     * @return Size in bytes
+     * @throws IllegalArgumentException - If the name is longer than 65535 UTF-8 bytes
+     */
+    public static int encodedSize(final WeatherDataPojo weatherData) {
+        final int nameSize = weatherData.getName() == null ? 0 : utf8Size(weatherData.getName());
+        if (nameSize > MAX_NAME_SIZE) {
+            throw new IllegalArgumentException("Name is too long to encode");
+        }
+
+        return FIXED_SIZE + nameSize;
+    }
+
+    /**
+     * Method to encode weather data at the position of the
+     * buffer, and advance the position past the record
+     *
+     * @param weatherData - WeatherDataPojo
+     * @param buffer - Buffer with at least encodedSize() bytes remaining
+     * @throws IllegalArgumentException - If the name is longer than 65535 UTF-8 bytes
+     * @throws java.nio.BufferOverflowException - If the buffer is too small
+     */
+    public static void encode(final WeatherDataPojo weatherData, final ByteBuffer buffer) {
+        final Coord coord = weatherData.getCoord();
+        final Weather weather = weatherData.getWeather();
+        final Wind wind = weatherData.getWind();
+        final Rain rain = weatherData.getRain();
+        final Clouds clouds = weatherData.getClouds();
+        final String name = weatherData.getName();
+
+        final Float lon = coord == null ? null : coord.getLon();
+        final Float lat = coord == null ? null : coord.getLat();
+        final Double temp = weather == null ? null : weather.getTemp();
+        final Integer pressure = weather == null ? null : weather.getPressure();
+        final Integer humidity = weather == null ? null : weather.getHumidity();
+        final Float windSpeed = wind == null ? null : wind.getSpeed();
+        final Integer windDeg = wind == null ? null : wind.getDeg();
+        final Integer rain3h = rain == null ? null : rain.get3h();
+        final Integer cloudiness = clouds == null ? null : clouds.getCloudiness();
+
+        final int nameSize = name == null ? 0 : utf8Size(name);
+        if (nameSize > MAX_NAME_SIZE) {
+            throw new IllegalArgumentException("Name is too long to encode");
+        }
+
+        final int presence = (coord == null ? 0 : COORD) |
+                (lon == null ? 0 : LON) |
+                (lat == null ? 0 : LAT) |
+                (weather == null ? 0 : WEATHER) |
+                (temp == null ? 0 : TEMP) |
+                (pressure == null ? 0 : PRESSURE) |
+                (humidity == null ? 0 : HUMIDITY) |
+                (wind == null ? 0 : WIND) |
+                (windSpeed == null ? 0 : WIND_SPEED) |
+                (windDeg == null ? 0 : WIND_DEG) |
+                (rain == null ? 0 : RAIN) |
+                (rain3h == null ? 0 : RAIN_3H) |
+                (clouds == null ? 0 : CLOUDS) |
+                (cloudiness == null ? 0 : CLOUDINESS) |
+                (name == null ? 0 : NAME);
+
+        buffer.put(VERSION);
+        buffer.putShort((short) presence);
+        buffer.putFloat(lon == null ? 0 : lon);
+        buffer.putFloat(lat == null ? 0 : lat);
+        buffer.putDouble(temp == null ? 0 : temp);
+        buffer.putInt(pressure == null ? 0 : pressure);
+        buffer.putInt(humidity == null ? 0 : humidity);
+        buffer.putFloat(windSpeed == null ? 0 : windSpeed);
+        buffer.putInt(windDeg == null ? 0 : windDeg);
+        buffer.putInt(rain3h == null ? 0 : rain3h);
+        buffer.putInt(cloudiness == null ? 0 : cloudiness);
+        buffer.putShort((short) nameSize);
+
+        if (name != null) {
+            putUtf8(name, buffer);
+        }
+    }
+
+    /**
+     * Method to encode weather data into a new byte array,
+     * for example to put it in a Bundle or Intent
+     *
+     * @param weatherData - WeatherDataPojo
+     * @return Encoded record
+     * @throws IllegalArgumentException - If the name is longer than 65535 UTF-8 bytes
+     */
+    public static byte[] encode(final WeatherDataPojo weatherData) {
+        final byte[] bytes = new byte[encodedSize(weatherData)];
+        encode(weatherData, ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * Method to decode weather data at the position of the
+     * buffer, and advance the position past the record
+     *
+     * @param buffer - Buffer positioned at a record
+     * @return WeatherDataPojo
+     * @throws IOException - If the record is truncated or of another version
+     */
+    public static WeatherDataPojo decode(final ByteBuffer buffer) throws IOException {
+        try {
+            final byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported record version " + version);
+            }
+
+            final int presence = buffer.getShort();
+            final float lon = buffer.getFloat();
+            final float lat = buffer.getFloat();
+            final double temp = buffer.getDouble();
+            final int pressure = buffer.getInt();
+            final int humidity = buffer.getInt();
+            final float windSpeed = buffer.getFloat();
+            final int windDeg = buffer.getInt();
+            final int rain3h = buffer.getInt();
+            final int cloudiness = buffer.getInt();
+            final int nameSize = buffer.getShort() & 0xFFFF;
+
+            final WeatherDataPojo weatherData = new WeatherDataPojo();
+
+            if ((presence & COORD) != 0) {
+                final Coord coord = new Coord();
+                coord.setLon((presence & LON) != 0 ? lon : null);
+                coord.setLat((presence & LAT) != 0 ? lat : null);
+                weatherData.setCoord(coord);
+            }
+
+            if ((presence & WEATHER) != 0) {
+                final Weather weather = new Weather();
+                weather.setTemp((presence & TEMP) != 0 ? temp : null);
+                weather.setPressure((presence & PRESSURE) != 0 ? pressure : null);
+                weather.setHumidity((presence & HUMIDITY) != 0 ? humidity : null);
+                weatherData.setWeather(weather);
+            }
+
+            if ((presence & WIND) != 0) {
+                final Wind wind = new Wind();
+                wind.setSpeed((presence & WIND_SPEED) != 0 ? windSpeed : null);
+                wind.setDeg((presence & WIND_DEG) != 0 ? windDeg : null);
+                weatherData.setWind(wind);
+            }
+
+            if ((presence & RAIN) != 0) {
+                final Rain rain = new Rain();
+                rain.set3h((presence & RAIN_3H) != 0 ? rain3h : null);
+                weatherData.setRain(rain);
+            }
+
+            if ((presence & CLOUDS) != 0) {
+                final Clouds clouds = new Clouds();
+                clouds.setCloudiness((presence & CLOUDINESS) != 0 ? cloudiness : null);
+                weatherData.setClouds(clouds);
+            }
+
+            if ((presence & NAME) != 0) {
+                weatherData.setName(getUtf8(buffer, nameSize));
+            }
+            else if (nameSize != 0) {
+                throw new IOException("Name size without a name");
+            }
+
+            return weatherData;
+        }
+        catch (BufferUnderflowException e) {
+            throw new IOException("Record is truncated", e);
+        }
+    }
+
+    /**
+     * Method to decode weather data from a byte array
+     *
+     * @param bytes - Encoded record
+     * @return WeatherDataPojo
+     * @throws IOException - If the record is truncated or of another version
+     */
+    public static WeatherDataPojo decode(final byte[] bytes) throws IOException {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Helper method to get UTF-8 size of a string
+     *
+     * @param value - String
+     * @return Size in bytes
+     */
+    private static int utf8Size(final String value) {
+        int size = 0;
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+
+            if (c < 0x80) {
+                size += 1;
+            }
+            else if (c < 0x800) {
+                size += 2;
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < value.length() &&
+                    Character.isLowSurrogate(value.charAt(i + 1))) {
+                size += 4;
+                i++;
+            }
+            else {
+                // Unpaired surrogates are encoded as is, like other 3 byte characters
+                size += 3;
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Helper method to put a string as UTF-8
+     *
+     * @param value - String
+     * @param buffer - Buffer
+     */
+    private static void putUtf8(final String value, final ByteBuffer buffer) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            }
+            else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < value.length() &&
+                    Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            }
+            else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    /**
+     * Helper method to get a UTF-8 string
+     *
+     * @param buffer - Buffer positioned at the string
+     * @param size - Size of the string in bytes
+     * @return String
+     * @throws IOException - If the string is not valid UTF-8
+     */
+    private static String getUtf8(final ByteBuffer buffer, final int size) throws IOException {
+        if (size > buffer.remaining()) {
+            throw new IOException("Record is truncated");
+        }
+
+        // A string never has more chars than its UTF-8 bytes
+        final char[] chars = new char[size];
+        final int end = buffer.position() + size;
+        int length = 0;
+
+        while (buffer.position() < end) {
+            final int b = buffer.get() & 0xFF;
+
+            if (b < 0x80) {
+                chars[length++] = (char) b;
+            }
+            else if ((b & 0xE0) == 0xC0 && buffer.position() < end) {
+                chars[length++] = (char) (((b & 0x1F) << 6) | continuation(buffer));
+            }
+            else if ((b & 0xF0) == 0xE0 && buffer.position() + 1 < end) {
+                chars[length++] = (char) (((b & 0x0F) << 12) | (continuation(buffer) << 6) | continuation(buffer));
+            }
+            else if ((b & 0xF8) == 0xF0 && buffer.position() + 2 < end) {
+                final int codePoint = ((b & 0x07) << 18) | (continuation(buffer) << 12) |
+                        (continuation(buffer) << 6) | continuation(buffer);
+                if (!Character.isSupplementaryCodePoint(codePoint)) {
+                    throw new IOException("Invalid UTF-8 name");
+                }
+                // Surrogate pair, Character.toChars is available on every API level
+                length += Character.toChars(codePoint, chars, length);
+            }
+            else {
+                throw new IOException("Invalid UTF-8 name");
+            }
+        }
+
+        return new String(chars, 0, length);
+    }
+
+    /**
+     * Helper method to get the bits of a UTF-8 continuation byte
+     *
+     * @param buffer - Buffer
+     * @return 6 bits of the byte
+     * @throws IOException - If it is not a continuation byte
+     */
+    private static int continuation(final ByteBuffer buffer) throws IOException {
+        final int b = buffer.get() & 0xFF;
+        if ((b & 0xC0) != 0x80) {
+            throw new IOException("Invalid UTF-8 name");
+        }
+
+        return b & 0x3F;
+    }
+}
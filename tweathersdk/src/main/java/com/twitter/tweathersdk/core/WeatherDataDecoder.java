@@ -0,0 +1,129 @@
+package com.twitter.tweathersdk.core;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.twitter.tweathersdk.model.Stag;
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+
+/**
+ * Decodes weather API response bodies into WeatherDataPojo
+ *
+ * Gson and its TypeAdapters are thread safe, so a single instance
+ * is shared by every response callback instead of creating a new
+ * Gson object per response. The body is streamed from the OkHttp
+ * (Okio) source straight into the JsonReader, so the JSON text is
+ * never materialized as an intermediate String.
+ *
+ * TypeAdapters for the model classes are generated at compile time
+ * by Stag (see @UseStag on the model classes), so decoding doesn't use
+ * reflection for field access or @SerializedName lookup.
+ */
+
+final class WeatherDataDecoder {
+    // Shared Gson instance with the generated model TypeAdapters
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapterFactory(new Stag.Factory())
+            .create();
+
+    // Cached adapter, so Gson doesn't have to look it up per response
+    private static final TypeAdapter<WeatherDataPojo> WEATHER_DATA_ADAPTER =
+            GSON.getAdapter(WeatherDataPojo.class);
+
+    // Charset of JSON
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Private constructor - Utility class
+     *
+     */
+    private WeatherDataDecoder() {
+        // Nothing to do
+    }
+
+    /**
+     * Method to get the shared Gson instance
+     *
+     * @return Gson - Shared Gson object
+     */
+    static Gson getGson() {
+        return GSON;
+    }
+
+    /**
+     * Method to encode WeatherDataPojo as JSON, in the same
+     * format as the weather API
+     *
+     * @param weatherData - WeatherDataPojo to encode
+     * @return JSON
+     */
+    static String toJson(final WeatherDataPojo weatherData) {
+        return WEATHER_DATA_ADAPTER.toJson(weatherData);
+    }
+
+    /**
+     * Method to decode JSON into WeatherDataPojo
+     *
+     * @param json - JSON to decode
+     * @return WeatherDataPojo object, or null if JSON is "null"
+     * @throws IOException - If the JSON is malformed
+     */
+    static WeatherDataPojo fromJson(final String json) throws IOException {
+        try {
+            return WEATHER_DATA_ADAPTER.fromJson(json);
+        }
+        catch (RuntimeException e) {
+            throw new IOException("Unable to decode weather data", e);
+        }
+    }
+
+    /**
+     * Method to decode a response body into WeatherDataPojo
+     *
+     * The body is always closed, even if decoding fails
+     *
+     * @param body - Response body to decode
+     * @return WeatherDataPojo object, or null if body is empty
+     * @throws IOException - If the body cannot be read or is malformed
+     */
+    static WeatherDataPojo decode(final ResponseBody body) throws IOException {
+        if (body == null) {
+            return null;
+        }
+
+        try {
+            final JsonReader jsonReader = new JsonReader(reader(body));
+            return WEATHER_DATA_ADAPTER.read(jsonReader);
+        }
+        catch (RuntimeException e) {
+            // Gson reports malformed JSON as JsonSyntaxException etc.
+            throw new IOException("Unable to decode weather data", e);
+        }
+        finally {
+            body.close();
+        }
+    }
+
+    /**
+     * Helper method to get a Reader of a response body. UTF-8
+     * bodies, which JSON bodies are, are decoded by Utf8SourceReader
+     * without the 8 KB buffer of charStream()
+     *
+     * @param body - Response body
+     * @return Reader of the body
+     */
+    private static Reader reader(final ResponseBody body) {
+        final MediaType contentType = body.contentType();
+        final Charset charset = contentType != null ? contentType.charset(UTF_8) : UTF_8;
+
+        return UTF_8.equals(charset) ? new Utf8SourceReader(body.source()) : body.charStream();
+    }
+}
@@ -0,0 +1,186 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.Coord;
+
+import java.util.Locale;
+
+/**
+ * A location to get weather data for - either coordinates
+ * or a city name
+ *
+ * Every location has a key, used to cache and de-duplicate it.
+ * normalize() snaps coordinates to a grid and lower-cases city names,
+ * so nearby coordinates and differently spelled city names share a key.
+ */
+
+public final class WeatherLocation {
+    // Latitude and longitude, only for coordinates
+    private final double latitude;
+    private final double longitude;
+
+    // City name, null for coordinates
+    private final String cityName;
+
+    // Cache and de-duplication key
+    private final String key;
+
+    /**
+     * Private constructor - Use of()
+     *
+     * @param latitude - Latitude
+     * @param longitude - Longitude
+     * @param cityName - City name, null for coordinates
+     */
+    private WeatherLocation(final double latitude, final double longitude, final String cityName) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.cityName = cityName;
+        this.key = cityName != null ?
+                "q:" + cityName :
+                String.format(Locale.US, "ll:%.6f,%.6f", latitude, longitude);
+    }
+
+    /**
+     * Method to create a location from coordinates
+     *
+     * @param latitude - Latitude in degrees, in [-90, 90]
+     * @param longitude - Longitude in degrees, in [-180, 180]
+     * @return WeatherLocation
+     * @throws IllegalArgumentException - If coordinates are out of range
+     */
+    public static WeatherLocation of(final double latitude, final double longitude) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Invalid coordinates " + latitude + ", " + longitude);
+        }
+
+        return new WeatherLocation(latitude, longitude, null);
+    }
+
+    /**
+     * Method to create a location from a Coord of the model
+     *
+     * @param coord - Coord
+     * @return WeatherLocation
+     * @throws IllegalArgumentException - If coord or its values are null, or out of range
+     */
+    public static WeatherLocation of(final Coord coord) {
+        if (coord == null || coord.getLat() == null || coord.getLon() == null) {
+            throw new IllegalArgumentException("Coord cannot be null");
+        }
+
+        return of(coord.getLat(), coord.getLon());
+    }
+
+    /**
+     * Method to create a location from a city name, for
+     * example "London" or "London,uk"
+     *
+     * @param cityName - City name
+     * @return WeatherLocation
+     * @throws IllegalArgumentException - If city name is null or blank
+     */
+    public static WeatherLocation of(final String cityName) {
+        if (cityName == null || cityName.trim().length() == 0) {
+            throw new IllegalArgumentException("City name cannot be null or empty");
+        }
+
+        return new WeatherLocation(0, 0, cityName.trim());
+    }
+
+    /**
+     * Method to check whether this is a city name
+     *
+     * @return true for a city name, false for coordinates
+     */
+    public boolean isCity() {
+        return cityName != null;
+    }
+
+    /**
+     * Method to get latitude
+     *
+     * @return Latitude in degrees, 0 for a city name
+     */
+    public double getLatitude() {
+        return latitude;
+    }
+
+    /**
+     * Method to get longitude
+     *
+     * @return Longitude in degrees, 0 for a city name
+     */
+    public double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Method to get city name
+     *
+     * @return City name, null for coordinates
+     */
+    public String getCityName() {
+        return cityName;
+    }
+
+    /**
+     * Method to get cache and de-duplication key
+     *
+     * @return Key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Method to get the normalized location. Coordinates are
+     * snapped to a grid of the given precision, and city names are
+     * lower-cased with runs of whitespace collapsed
+     *
+     * @param precisionInDegrees - Grid size in degrees, 0 to keep coordinates as is
+     * @return Normalized WeatherLocation
+     */
+    WeatherLocation normalize(final double precisionInDegrees) {
+        if (cityName != null) {
+            final String normalizedName = cityName.toLowerCase(Locale.US).replaceAll("\\s+", " ");
+            return normalizedName.equals(cityName) ? this : new WeatherLocation(0, 0, normalizedName);
+        }
+
+        if (precisionInDegrees <= 0) {
+            return this;
+        }
+
+        return new WeatherLocation(snap(latitude, precisionInDegrees, 90),
+                snap(longitude, precisionInDegrees, 180), null);
+    }
+
+    /**
+     * Helper method to snap a coordinate to a grid
+     *
+     * @param value - Coordinate
+     * @param precisionInDegrees - Grid size
+     * @param limit - Max absolute value of the coordinate
+     * @return Snapped coordinate
+     */
+    private static double snap(final double value, final double precisionInDegrees, final double limit) {
+        final double snapped = Math.round(value / precisionInDegrees) * precisionInDegrees;
+
+        // Adding 0.0 turns -0.0 into 0.0, so both have the same key
+        return Math.max(-limit, Math.min(limit, snapped)) + 0.0;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other == this || (other instanceof WeatherLocation && key.equals(((WeatherLocation) other).key));
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
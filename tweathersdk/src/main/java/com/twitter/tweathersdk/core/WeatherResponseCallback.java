@@ -0,0 +1,146 @@
+package com.twitter.tweathersdk.core;
+
+import android.util.Log;
+
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import java.io.IOException;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * Callback that is invoked for a weather endpoint
+ * response of an HttpWeatherSource
+ *
+ * The response body is adapted into the common model by the
+ * source's WeatherDataAdapter, and the result completes the future
+ * returned by the source. The bytes read by the adapter and the time
+ * it takes are recorded by the MetricsRecorder.
+ *
+ */
+class WeatherResponseCallback implements Callback {
+    // Log Tag
+    private final static String TAG = WeatherResponseCallback.class.getSimpleName();
+
+    // Future to complete with the result
+    private final TweatherFuture<WeatherDataPojo> future;
+
+    // Adapter for the response body
+    private final WeatherDataAdapter adapter;
+
+    // Metrics recorder, and endpoint the metrics are recorded for
+    private final MetricsRecorder metricsRecorder;
+    private final String endpoint;
+
+    /**
+     * Constructor
+     *
+     * @param future - Future to complete with the result
+     * @param adapter - Adapter for the response body
+     * @param metricsRecorder - Metrics recorder
+     * @param endpoint - Endpoint, for metrics
+     */
+    WeatherResponseCallback(final TweatherFuture<WeatherDataPojo> future,
+                            final WeatherDataAdapter adapter,
+                            final MetricsRecorder metricsRecorder,
+                            final String endpoint) {
+        this.future = future;
+        this.adapter = adapter;
+        this.metricsRecorder = metricsRecorder;
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * onFailure is called when network request fails
+     *
+     * @param call - Request that was originally made
+     * @param e - Exception
+     */
+    @Override
+    public void onFailure(Call call, IOException e) {
+        Log.e(TAG, "onFailure with exception " + e);
+        future.completeExceptionally(e);
+    }
+
+    /**
+     * onResponse is called when network response is successfully
+     * fetched
+     *
+     * @param call - Request that was originally made
+     * @param response - Response from the API
+     * @throws IOException
+     */
+    @Override
+    public void onResponse(Call call, Response response) throws IOException {
+        WeatherDataPojo weatherData = null;
+        Exception failure = null;
+
+        try {
+            if (!response.isSuccessful()) {
+                Log.e(TAG, "onResponse - Response is not successful.");
+                failure = new IOException("Unexpected HTTP " + response.code() + " from " + call.request().url());
+            } else {
+                Log.d(TAG, "onResponse - Get WeatherDataPojo from response body");
+                // Stream the body straight into the model, no intermediate String
+                weatherData = adapt(response.body());
+            }
+        }
+        catch (Exception e) {
+            Log.e(TAG, "onResponse - Exception getting response. " + e);
+            failure = e;
+        }
+        finally {
+            // Close before completing, so the call has ended (and its
+            // CallTrace is complete) when the result is delivered
+            response.close();
+        }
+
+        if (failure != null) {
+            future.completeExceptionally(failure);
+        }
+        else {
+            future.complete(weatherData);
+        }
+    }
+
+    /**
+     * Helper method to adapt a response body, and record its
+     * size and decode time
+     *
+     * @param body - Response body
+     * @return WeatherDataPojo
+     * @throws IOException - If the body cannot be read or is malformed
+     */
+    private WeatherDataPojo adapt(final ResponseBody body) throws IOException {
+        if (body == null || metricsRecorder == MetricsRecorder.NONE) {
+            return adapter.adapt(body);
+        }
+
+        // Count bytes as the adapter reads them, Content-Length is
+        // missing for chunked responses
+        final long[] bytesRead = new long[1];
+        final ForwardingSource countingSource = new ForwardingSource(body.source()) {
+            @Override
+            public long read(Buffer sink, long byteCount) throws IOException {
+                final long read = super.read(sink, byteCount);
+                if (read > 0) {
+                    bytesRead[0] += read;
+                }
+                return read;
+            }
+        };
+
+        final long startNanos = System.nanoTime();
+        final WeatherDataPojo weatherData = adapter.adapt(
+                ResponseBody.create(body.contentType(), body.contentLength(), Okio.buffer(countingSource)));
+        metricsRecorder.responseDecoded(endpoint, bytesRead[0], System.nanoTime() - startNanos);
+
+        return weatherData;
+    }
+}
@@ -0,0 +1,256 @@
+package com.twitter.tweathersdk.core;
+
+import android.util.Log;
+
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Last known weather data persisted on disk, so a cold start
+ * can show data right away instead of waiting for the network
+ *
+ * The snapshot is a copy of WeatherCache entries - keys, fetch times
+ * and weather data - in a small binary file:
+ *
+ *   Header:  magic (int), version (int), payload length (int), payload CRC32 (long)
+ *   Payload: number of entries (int), then per entry
+ *            fetched at millis (long), key length (int), key (UTF-8),
+ *            data (WeatherDataCodec record)
+ *
+ * It is written atomically - to a temporary file that is synced and
+ * then renamed over the snapshot - so a crash never leaves a half
+ * written snapshot. It is read through a memory mapped file, and the
+ * CRC32 guards against anything else that can go wrong on disk. A
+ * snapshot that is missing, corrupt or of another version is ignored.
+ */
+
+final class WeatherSnapshot {
+    // Log Tag
+    private final static String TAG = WeatherSnapshot.class.getSimpleName();
+
+    // Magic number - "TWSN"
+    static final int MAGIC = 0x54574E53;
+
+    // Format version, bump when the format changes
+    static final int VERSION = 2;
+
+    // Header size - magic, version, payload length and CRC32
+    static final int HEADER_SIZE = 4 + 4 + 4 + 8;
+
+    // Max snapshot size - Weather data is tiny, anything bigger is corrupt
+    private static final int MAX_SIZE_IN_BYTES = 1024 * 1024;
+
+    // Suffix of the temporary file
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+    // Charset of keys
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // Snapshot file
+    private final File file;
+
+    /**
+     * Constructor
+     *
+     * @param file - Snapshot file
+     */
+    WeatherSnapshot(final File file) {
+        this.file = file;
+    }
+
+    /**
+     * Method to read the snapshot
+     *
+     * @return Entries keyed by cache key, empty if there is no valid snapshot
+     */
+    Map<String, WeatherCache.Entry> read() {
+        if (!file.isFile()) {
+            return Collections.emptyMap();
+        }
+
+        RandomAccessFile randomAccessFile = null;
+        try {
+            randomAccessFile = new RandomAccessFile(file, "r");
+            final FileChannel channel = randomAccessFile.getChannel();
+            final long size = channel.size();
+
+            if (size < HEADER_SIZE || size > MAX_SIZE_IN_BYTES) {
+                Log.w(TAG, "read - Snapshot has invalid size " + size);
+                return Collections.emptyMap();
+            }
+
+            return parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+        catch (IOException | RuntimeException e) {
+            // RuntimeException covers BufferUnderflowException etc. of a corrupt snapshot
+            Log.w(TAG, "read - Unable to read snapshot. " + e);
+            return Collections.emptyMap();
+        }
+        finally {
+            closeQuietly(randomAccessFile);
+        }
+    }
+
+    /**
+     * Method to write the snapshot atomically, replacing
+     * the previous one
+     *
+     * @param entries - Entries keyed by cache key
+     * @throws IOException - If the snapshot cannot be written
+     */
+    void write(final Map<String, WeatherCache.Entry> entries) throws IOException {
+        final byte[] payload = encodePayload(entries);
+        final CRC32 crc32 = new CRC32();
+        crc32.update(payload, 0, payload.length);
+
+        final ByteBuffer bytes = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        bytes.putInt(MAGIC);
+        bytes.putInt(VERSION);
+        bytes.putInt(payload.length);
+        bytes.putLong(crc32.getValue());
+        bytes.put(payload);
+
+        final File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create directory " + directory);
+        }
+
+        // Write and sync a temporary file, then rename it over the snapshot
+        final File temporaryFile = new File(file.getPath() + TEMPORARY_FILE_SUFFIX);
+        final FileOutputStream fileOutput = new FileOutputStream(temporaryFile);
+        try {
+            fileOutput.write(bytes.array());
+            fileOutput.getFD().sync();
+        }
+        finally {
+            fileOutput.close();
+        }
+
+        if (!temporaryFile.renameTo(file)) {
+            temporaryFile.delete();
+            throw new IOException("Unable to rename " + temporaryFile + " to " + file);
+        }
+    }
+
+    /**
+     * Helper method to parse a snapshot
+     *
+     * @param buffer - Snapshot bytes
+     * @return Entries keyed by cache key, empty if snapshot is invalid
+     * @throws IOException - If weather data is malformed
+     */
+    private static Map<String, WeatherCache.Entry> parse(final ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            Log.w(TAG, "parse - Snapshot has another format or version");
+            return Collections.emptyMap();
+        }
+
+        final int payloadLength = buffer.getInt();
+        final long expectedCrc32 = buffer.getLong();
+        if (payloadLength != buffer.remaining()) {
+            Log.w(TAG, "parse - Snapshot is truncated");
+            return Collections.emptyMap();
+        }
+
+        final byte[] payload = new byte[payloadLength];
+        buffer.get(payload);
+
+        final CRC32 crc32 = new CRC32();
+        crc32.update(payload, 0, payload.length);
+        if (crc32.getValue() != expectedCrc32) {
+            Log.w(TAG, "parse - Snapshot is corrupt");
+            return Collections.emptyMap();
+        }
+
+        final ByteBuffer payloadBuffer = ByteBuffer.wrap(payload);
+        final int numberOfEntries = payloadBuffer.getInt();
+        final Map<String, WeatherCache.Entry> entries = new LinkedHashMap<>();
+
+        for (int i = 0; i < numberOfEntries; i++) {
+            final long fetchedAtMillis = payloadBuffer.getLong();
+            final String key = readString(payloadBuffer);
+            final WeatherDataPojo weatherData = WeatherDataCodec.decode(payloadBuffer);
+            entries.put(key, new WeatherCache.Entry(weatherData, fetchedAtMillis));
+        }
+
+        return entries;
+    }
+
+    /**
+     * Helper method to encode the payload of a snapshot
+     *
+     * @param entries - Entries keyed by cache key
+     * @return Payload bytes
+     */
+    private static byte[] encodePayload(final Map<String, WeatherCache.Entry> entries) {
+        // Size the payload up front, so it is encoded into a single array
+        final byte[][] keys = new byte[entries.size()][];
+        int size = 4;
+        int i = 0;
+        for (Map.Entry<String, WeatherCache.Entry> entry : entries.entrySet()) {
+            keys[i] = entry.getKey().getBytes(UTF_8);
+            size += 8 + 4 + keys[i].length + WeatherDataCodec.encodedSize(entry.getValue().weatherData);
+            i++;
+        }
+
+        final byte[] payload = new byte[size];
+        final ByteBuffer buffer = ByteBuffer.wrap(payload);
+        buffer.putInt(entries.size());
+
+        i = 0;
+        for (WeatherCache.Entry entry : entries.values()) {
+            buffer.putLong(entry.fetchedAtMillis);
+            buffer.putInt(keys[i].length);
+            buffer.put(keys[i]);
+            WeatherDataCodec.encode(entry.weatherData, buffer);
+            i++;
+        }
+
+        return payload;
+    }
+
+    /**
+     * Helper method to read a length prefixed UTF-8 string
+     *
+     * @param buffer - ByteBuffer
+     * @return String
+     * @throws IOException - If the length is invalid
+     */
+    private static String readString(final ByteBuffer buffer) throws IOException {
+        final int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Invalid string length " + length);
+        }
+
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Helper method to close a file, ignoring errors
+     *
+     * @param randomAccessFile - File to close, can be null
+     */
+    private static void closeQuietly(final RandomAccessFile randomAccessFile) {
+        if (randomAccessFile != null) {
+            try {
+                randomAccessFile.close();
+            }
+            catch (IOException e) {
+                // Nothing to do
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+/**
+ * A source of weather data, for example one weather provider
+ *
+ * TweatherSdk gets all its data from one WeatherSource (see
+ * TweatherConfig.Builder.weatherSource()), and takes care of caching,
+ * request coalescing and publishing on top of it. HttpWeatherSource is
+ * a source backed by an HTTP API, and RacingWeatherSource races two or
+ * more sources.
+ *
+ * Cancelling a returned future should cancel the underlying request.
+ */
+
+public interface WeatherSource {
+    /**
+     * Method to get name of the source, used in logs
+     *
+     * @return Name
+     */
+    String getName();
+
+    /**
+     * Fetch current weather data
+     *
+     * @return TweatherFuture of WeatherDataPojo, failed if the request fails
+     */
+    TweatherFuture<WeatherDataPojo> currentWeather();
+
+    /**
+     * Fetch current weather data for a location
+     *
+     * @param location - WeatherLocation
+     * @return TweatherFuture of WeatherDataPojo, failed if the request fails
+     */
+    TweatherFuture<WeatherDataPojo> currentWeather(WeatherLocation location);
+
+    /**
+     * Fetch future weather data for a day
+     *
+     * @param day - Day, 1 for tomorrow
+     * @return TweatherFuture of WeatherDataPojo, failed if the request fails
+     */
+    TweatherFuture<WeatherDataPojo> futureWeather(int day);
+}
@@ -1,11 +1,15 @@
 package com.twitter.tweathersdk.core.events;
 
+import com.twitter.tweathersdk.core.CallTrace;
 import com.twitter.tweathersdk.model.WeatherDataPojo;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Created by anuj on 3/2/18.
  *
- * Event that is sent by EventBus in response
+ * Event that is published on TweatherEvents in response
  * to Current Weather API request
  *
  */
@@ -14,13 +18,27 @@ public class CurrentWeatherEvent {
     // Current WeatherDataPojo
     private WeatherDataPojo currentWeatherData;
 
+    // Traces of the HTTP calls made for this data
+    private List<CallTrace> callTraces;
+
     /**
      * Constructor
      *
      * @param weatherData - WeatherDataPojo object
      */
     public CurrentWeatherEvent(final WeatherDataPojo weatherData) {
+        this(weatherData, Collections.<CallTrace>emptyList());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param weatherData - WeatherDataPojo object
+     * @param callTraces - Traces of the HTTP calls made for this data
+     */
+    public CurrentWeatherEvent(final WeatherDataPojo weatherData, final List<CallTrace> callTraces) {
         this.currentWeatherData = weatherData;
+        this.callTraces = Collections.unmodifiableList(callTraces);
     }
 
     /**
@@ -31,4 +49,15 @@ public class CurrentWeatherEvent {
     public WeatherDataPojo getCurrentWeatherData() {
         return this.currentWeatherData;
     }
+
+    /**
+     * Method to get traces of the HTTP calls made for this
+     * data, including retries
+     *
+     * @return Immutable list of CallTrace ordered by start, empty if
+     * call tracing is disabled or data is from cache
+     */
+    public List<CallTrace> getCallTraces() {
+        return this.callTraces;
+    }
 }
@@ -1,27 +1,82 @@
 package com.twitter.tweathersdk.core.events;
 
+import com.twitter.tweathersdk.core.CallTrace;
+import com.twitter.tweathersdk.core.RunningStatistics;
 import com.twitter.tweathersdk.model.WeatherDataPojo;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Created by anuj on 3/3/18.
  *
- * Event that is sent by EventBus in response
+ * Event that is published on TweatherEvents in response
  * to Future Weather API request
+ *
+ * Future weather data is an immutable list ordered by day
  */
 
 public class FutureWeatherEvent {
     // Future WeatherDataPojo
     private List<WeatherDataPojo> futureWeatherData;
 
+    // Generation of the request batch - Later batches have a higher generation
+    private long generation;
+
+    // Traces of the HTTP calls made by the request batch
+    private List<CallTrace> callTraces;
+
+    // Running statistics of temperature of the days with a temperature
+    private RunningStatistics temperatureStatistics;
+
     /**
      * Constructor
      *
      * @param weatherData - List<WeatherDataPojo>
      */
     public FutureWeatherEvent(final List<WeatherDataPojo> weatherData) {
+        this(weatherData, 0);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param weatherData - List<WeatherDataPojo>
+     * @param generation - Generation of the request batch
+     */
+    public FutureWeatherEvent(final List<WeatherDataPojo> weatherData, final long generation) {
+        this(weatherData, generation, Collections.<CallTrace>emptyList());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param weatherData - List<WeatherDataPojo>
+     * @param generation - Generation of the request batch
+     * @param callTraces - Traces of the HTTP calls made by the request batch
+     */
+    public FutureWeatherEvent(final List<WeatherDataPojo> weatherData,
+                              final long generation,
+                              final List<CallTrace> callTraces) {
+        this(weatherData, generation, callTraces, RunningStatistics.EMPTY);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param weatherData - List<WeatherDataPojo>
+     * @param generation - Generation of the request batch
+     * @param callTraces - Traces of the HTTP calls made by the request batch
+     * @param temperatureStatistics - Running statistics of temperature of weather data
+     */
+    public FutureWeatherEvent(final List<WeatherDataPojo> weatherData,
+                              final long generation,
+                              final List<CallTrace> callTraces,
+                              final RunningStatistics temperatureStatistics) {
         this.futureWeatherData = weatherData;
+        this.generation = generation;
+        this.callTraces = Collections.unmodifiableList(callTraces);
+        this.temperatureStatistics = temperatureStatistics;
     }
 
     /**
@@ -32,4 +87,39 @@ public class FutureWeatherEvent {
     public List<WeatherDataPojo> getFutureWeatherData() {
         return this.futureWeatherData;
     }
+
+    /**
+     * Method to get generation of the request batch that
+     * produced this data
+     *
+     * @return Generation
+     */
+    public long getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * Method to get traces of the HTTP calls made by the
+     * request batch, including hedged requests and retries.
+     * Export them with CallTrace.toChromeTrace() to see the
+     * fan-out as a timeline
+     *
+     * @return Immutable list of CallTrace ordered by start, empty if
+     * call tracing is disabled
+     */
+    public List<CallTrace> getCallTraces() {
+        return this.callTraces;
+    }
+
+    /**
+     * Method to get running statistics of temperature, which
+     * the SDK updates as each day is received, so standard deviation
+     * doesn't need another pass over the data
+     *
+     * @return RunningStatistics of the days with a temperature, empty if
+     * the publisher didn't compute them
+     */
+    public RunningStatistics getTemperatureStatistics() {
+        return this.temperatureStatistics;
+    }
 }
@@ -0,0 +1,64 @@
+package com.twitter.tweathersdk.core.events;
+
+import com.twitter.tweathersdk.core.ForecastProgress;
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+/**
+ * Event that is published on TweatherEvents for each day of a
+ * Future Weather API request, as soon as it is received
+ *
+ * FutureWeatherEvent is still sent when all days are received
+ */
+
+public class FutureWeatherProgressEvent {
+    // Index of the day, 0 for day 1
+    private int dayIndex;
+
+    // WeatherDataPojo of the day
+    private WeatherDataPojo weatherData;
+
+    // Progress of the request batch
+    private ForecastProgress progress;
+
+    /**
+     * Constructor
+     *
+     * @param dayIndex - Index of the day, 0 for day 1
+     * @param weatherData - WeatherDataPojo, null if request for the day failed
+     * @param progress - Progress of the request batch
+     */
+    public FutureWeatherProgressEvent(final int dayIndex,
+                                      final WeatherDataPojo weatherData,
+                                      final ForecastProgress progress) {
+        this.dayIndex = dayIndex;
+        this.weatherData = weatherData;
+        this.progress = progress;
+    }
+
+    /**
+     * Method to get index of the day
+     *
+     * @return Index of the day, 0 for day 1
+     */
+    public int getDayIndex() {
+        return this.dayIndex;
+    }
+
+    /**
+     * Method to get POJO for weather data of the day
+     *
+     * @return WeatherDataPojo, null if request for the day failed
+     */
+    public WeatherDataPojo getWeatherData() {
+        return this.weatherData;
+    }
+
+    /**
+     * Method to get progress of the request batch
+     *
+     * @return ForecastProgress
+     */
+    public ForecastProgress getProgress() {
+        return this.progress;
+    }
+}
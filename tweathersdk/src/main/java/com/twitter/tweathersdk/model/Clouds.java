@@ -11,7 +11,9 @@ import android.os.Parcelable;
 import android.os.Parcelable.Creator;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
 
+@UseStag
 public class Clouds implements Parcelable {
     @SerializedName("cloudiness")
     @Expose
@@ -44,6 +46,25 @@ public class Clouds implements Parcelable {
         this.cloudiness = cloudiness;
     }
 
+    @Override
+    public boolean equals(Object other) {
+        if (other == this) {
+            return true;
+        }
+        if (!(other instanceof Clouds)) {
+            return false;
+        }
+        Clouds that = (Clouds) other;
+        return (cloudiness == null ? that.cloudiness == null : cloudiness.equals(that.cloudiness));
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        result = 31 * result + (cloudiness == null ? 0 : cloudiness.hashCode());
+        return result;
+    }
+
     public void writeToParcel(Parcel dest, int flags) {
         dest.writeValue(cloudiness);
     }
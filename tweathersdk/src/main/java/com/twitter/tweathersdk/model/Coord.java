@@ -11,7 +11,9 @@ import android.os.Parcelable;
 import android.os.Parcelable.Creator;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
 
+@UseStag
 public class Coord implements Parcelable {
     @SerializedName("lon")
     @Expose
@@ -56,6 +58,27 @@ public class Coord implements Parcelable {
         this.lat = lat;
     }
 
+    @Override
+    public boolean equals(Object other) {
+        if (other == this) {
+            return true;
+        }
+        if (!(other instanceof Coord)) {
+            return false;
+        }
+        Coord that = (Coord) other;
+        return (lon == null ? that.lon == null : lon.equals(that.lon)) &&
+                (lat == null ? that.lat == null : lat.equals(that.lat));
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        result = 31 * result + (lon == null ? 0 : lon.hashCode());
+        result = 31 * result + (lat == null ? 0 : lat.hashCode());
+        return result;
+    }
+
     public void writeToParcel(Parcel dest, int flags) {
         dest.writeValue(lon);
         dest.writeValue(lat);
@@ -10,11 +10,15 @@ import android.os.Parcelable;
 import android.os.Parcelable.Creator;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
 
+@UseStag
 public class Rain implements Parcelable {
     @SerializedName("3h")
     @Expose
-    private Integer _3h;
+    // Package private so the generated Stag adapter can access it directly,
+    // Stag cannot derive get3h/set3h accessor names from "_3h"
+    Integer _3h;
     public final static Creator<Rain> CREATOR = new Creator<Rain>() {
         @SuppressWarnings({
             "unchecked"
@@ -43,6 +47,25 @@ public class Rain implements Parcelable {
         this._3h = _3h;
     }
 
+    @Override
+    public boolean equals(Object other) {
+        if (other == this) {
+            return true;
+        }
+        if (!(other instanceof Rain)) {
+            return false;
+        }
+        Rain that = (Rain) other;
+        return (_3h == null ? that._3h == null : _3h.equals(that._3h));
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        result = 31 * result + (_3h == null ? 0 : _3h.hashCode());
+        return result;
+    }
+
     public void writeToParcel(Parcel dest, int flags) {
         dest.writeValue(_3h);
     }
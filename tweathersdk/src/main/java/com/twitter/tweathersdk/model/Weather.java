@@ -11,7 +11,9 @@ import android.os.Parcelable;
 import android.os.Parcelable.Creator;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
 
+@UseStag
 public class Weather implements Parcelable {
     @SerializedName("temp")
     @Expose
@@ -68,6 +70,29 @@ public class Weather implements Parcelable {
         this.humidity = humidity;
     }
 
+    @Override
+    public boolean equals(Object other) {
+        if (other == this) {
+            return true;
+        }
+        if (!(other instanceof Weather)) {
+            return false;
+        }
+        Weather that = (Weather) other;
+        return (temp == null ? that.temp == null : temp.equals(that.temp)) &&
+                (pressure == null ? that.pressure == null : pressure.equals(that.pressure)) &&
+                (humidity == null ? that.humidity == null : humidity.equals(that.humidity));
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        result = 31 * result + (temp == null ? 0 : temp.hashCode());
+        result = 31 * result + (pressure == null ? 0 : pressure.hashCode());
+        result = 31 * result + (humidity == null ? 0 : humidity.hashCode());
+        return result;
+    }
+
     public void writeToParcel(Parcel dest, int flags) {
         dest.writeValue(temp);
         dest.writeValue(pressure);
@@ -11,7 +11,9 @@ import android.os.Parcelable;
 import android.os.Parcelable.Creator;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
 
+@UseStag
 public class WeatherDataPojo implements Parcelable {
     @SerializedName("coord")
     @Expose
@@ -104,6 +106,35 @@ public class WeatherDataPojo implements Parcelable {
         this.name = name;
     }
 
+    @Override
+    public boolean equals(Object other) {
+        if (other == this) {
+            return true;
+        }
+        if (!(other instanceof WeatherDataPojo)) {
+            return false;
+        }
+        WeatherDataPojo that = (WeatherDataPojo) other;
+        return (coord == null ? that.coord == null : coord.equals(that.coord)) &&
+                (weather == null ? that.weather == null : weather.equals(that.weather)) &&
+                (wind == null ? that.wind == null : wind.equals(that.wind)) &&
+                (rain == null ? that.rain == null : rain.equals(that.rain)) &&
+                (clouds == null ? that.clouds == null : clouds.equals(that.clouds)) &&
+                (name == null ? that.name == null : name.equals(that.name));
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        result = 31 * result + (coord == null ? 0 : coord.hashCode());
+        result = 31 * result + (weather == null ? 0 : weather.hashCode());
+        result = 31 * result + (wind == null ? 0 : wind.hashCode());
+        result = 31 * result + (rain == null ? 0 : rain.hashCode());
+        result = 31 * result + (clouds == null ? 0 : clouds.hashCode());
+        result = 31 * result + (name == null ? 0 : name.hashCode());
+        return result;
+    }
+
     public void writeToParcel(Parcel dest, int flags) {
         dest.writeValue(coord);
         dest.writeValue(weather);
@@ -11,7 +11,9 @@ import android.os.Parcelable;
 import android.os.Parcelable.Creator;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
 
+@UseStag
 public class Wind implements Parcelable {
     @SerializedName("speed")
     @Expose
@@ -57,6 +59,27 @@ public class Wind implements Parcelable {
         this.deg = deg;
     }
 
+    @Override
+    public boolean equals(Object other) {
+        if (other == this) {
+            return true;
+        }
+        if (!(other instanceof Wind)) {
+            return false;
+        }
+        Wind that = (Wind) other;
+        return (speed == null ? that.speed == null : speed.equals(that.speed)) &&
+                (deg == null ? that.deg == null : deg.equals(that.deg));
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        result = 31 * result + (speed == null ? 0 : speed.hashCode());
+        result = 31 * result + (deg == null ? 0 : deg.hashCode());
+        return result;
+    }
+
     public void writeToParcel(Parcel dest, int flags) {
         dest.writeValue(speed);
         dest.writeValue(deg);
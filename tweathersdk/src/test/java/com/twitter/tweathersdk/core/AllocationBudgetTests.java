@@ -0,0 +1,124 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.Weather;
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+import com.twitter.tweathersdk.testing.AllocationMeter;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Allocation regression tests for SDK hot paths. Each test fails when
+ * a path allocates more bytes per operation than its budget in
+ * allocation-budgets.properties
+ *
+ * When a change needs more memory on one of these paths, raise its
+ * budget in the same change, so the cost is reviewed.
+ *
+ */
+
+public class AllocationBudgetTests {
+    // JSON Media Type
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue("Allocated bytes are not counted by this JVM", AllocationMeter.isSupported());
+    }
+
+    /**
+     * Test case to verify allocations of decoding a current
+     * weather response body
+     *
+     */
+    @Test
+    public void testDecodeCurrentWeatherResponse() throws Exception {
+        final byte[] responseBytes = WeatherDataDecoderTests.resourceBody("current.json").bytes();
+
+        final long bytesPerOperation = AllocationMeter.bytesPerOperation(new AllocationMeter.Operation() {
+            @Override
+            public void run() throws Exception {
+                WeatherDataDecoder.decode(ResponseBody.create(JSON, responseBytes));
+            }
+        });
+
+        assertWithinBudget("decode.currentWeather", bytesPerOperation);
+    }
+
+    /**
+     * Test case to verify allocations of a complete 5 day
+     * forecast batch, from fan-out to the published event
+     *
+     * The weather source completes requests right away, so the
+     * whole batch completes on the test thread, where allocations
+     * are counted
+     *
+     */
+    @Test
+    public void testForecastBatchCompletion() throws Exception {
+        final WeatherDataPojo weatherData = new WeatherDataPojo();
+        final Weather weather = new Weather();
+        weather.setTemp(14.77);
+        weatherData.setWeather(weather);
+
+        TweatherSdk.configure(new TweatherConfig.Builder()
+                .weatherSource(new WeatherSource() {
+                    @Override
+                    public String getName() {
+                        return "allocation";
+                    }
+
+                    @Override
+                    public TweatherFuture<WeatherDataPojo> currentWeather() {
+                        return TweatherFuture.completed(weatherData);
+                    }
+
+                    @Override
+                    public TweatherFuture<WeatherDataPojo> currentWeather(WeatherLocation location) {
+                        return TweatherFuture.completed(weatherData);
+                    }
+
+                    @Override
+                    public TweatherFuture<WeatherDataPojo> futureWeather(int day) {
+                        return TweatherFuture.completed(weatherData);
+                    }
+                })
+                .freshnessTtl(0, TimeUnit.MILLISECONDS)
+                .callTracing(0)
+                .build());
+        final TweatherSdk tweatherSdk = TweatherSdk.getTweatherSdkInstance();
+
+        final long bytesPerOperation = AllocationMeter.bytesPerOperation(new AllocationMeter.Operation() {
+            @Override
+            public void run() {
+                tweatherSdk.requestFutureWeatherData();
+            }
+        });
+
+        assertThat(tweatherSdk.getFutureWeatherData()).hasSize(TweatherConfig.DEFAULT_FORECAST_DAYS);
+        assertWithinBudget("forecast.batchCompletion", bytesPerOperation);
+    }
+
+    /**
+     * Helper method to check allocations of a path against
+     * its budget
+     *
+     * @param name - Name of the path in the budgets file
+     * @param bytesPerOperation - Measured bytes per operation
+     */
+    private static void assertWithinBudget(final String name, final long bytesPerOperation) throws Exception {
+        final long budget = AllocationMeter.budget(name);
+        assertThat(bytesPerOperation)
+                .overridingErrorMessage("%s allocates %d bytes/op, over its budget of %d bytes/op",
+                        name, bytesPerOperation, budget)
+                .isLessThanOrEqualTo(budget);
+    }
+}
@@ -0,0 +1,336 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.Weather;
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Unit tests for bulk weather requests - BulkWeatherFetch,
+ * BulkWeatherResults, WeatherLocation and LocationWeatherCache
+ *
+ */
+
+public class BulkWeatherFetchTests {
+    // Grid size used by the tests
+    private static final double PRECISION = 0.01;
+
+    /**
+     * Test case to verify that duplicate locations, nearby
+     * coordinates and differently spelled city names are
+     * fetched once
+     *
+     */
+    @Test
+    public void testDeduplication() throws InterruptedException {
+        final ManualWeatherSource source = new ManualWeatherSource();
+        final BulkWeatherResults results = newFetch(source, newCache(), Arrays.asList(
+                WeatherLocation.of(37.7749, -122.4194),
+                WeatherLocation.of(37.7738, -122.4190),
+                WeatherLocation.of("San  Francisco"),
+                WeatherLocation.of("san francisco"),
+                WeatherLocation.of(37.7749, -122.4194)), 10).start();
+
+        assertThat(results.getNumberOfRequestedLocations()).isEqualTo(5);
+        assertThat(results.getNumberOfLocations()).isEqualTo(2);
+        assertThat(source.requests.keySet()).containsOnly("ll:37.770000,-122.420000", "q:san francisco");
+
+        source.completeAll(14.77);
+        final LocationWeather first = results.next();
+        final LocationWeather second = results.next();
+
+        assertThat(first.getRequestedLocations().size() + second.getRequestedLocations().size()).isEqualTo(5);
+        assertThat(first.isSuccessful() && second.isSuccessful()).isTrue();
+        assertThat(results.hasNext()).isFalse();
+    }
+
+    /**
+     * Test case to verify that no more than the max number of
+     * requests are in flight, and the window is kept full as
+     * requests complete
+     *
+     */
+    @Test
+    public void testBoundedConcurrency() throws InterruptedException {
+        final ManualWeatherSource source = new ManualWeatherSource();
+        final BulkWeatherResults results = newFetch(source, newCache(), grid(10), 3).start();
+
+        assertThat(source.requests).hasSize(3);
+
+        source.complete("ll:0.100000,0.000000", 10.0);
+        assertThat(source.requests).hasSize(4);
+        assertThat(results.getNumberOfResultsReceived()).isEqualTo(1);
+
+        source.fail("ll:0.000000,0.000000");
+        assertThat(source.requests).hasSize(5);
+
+        // Results are streamed in the order they are received
+        assertThat(results.next().getWeatherData().getWeather().getTemp()).isEqualTo(10.0);
+        assertThat(results.next().isSuccessful()).isFalse();
+        assertThat(results.poll(10, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    /**
+     * Test case to verify that fresh cached locations are served
+     * without a request, and failed requests fall back to stale data
+     *
+     */
+    @Test
+    public void testCachedLocations() throws InterruptedException {
+        final LocationWeatherCache freshCache = newCache();
+        freshCache.put("ll:0.000000,0.000000", weatherData(20.0));
+
+        final ManualWeatherSource source = new ManualWeatherSource();
+        final BulkWeatherResults results = newFetch(source, freshCache, grid(2), 1).start();
+
+        final LocationWeather cached = results.next();
+        assertThat(cached.isFromCache()).isTrue();
+        assertThat(source.requests.keySet()).containsOnly("ll:0.100000,0.000000");
+
+        final LocationWeatherCache staleCache = new LocationWeatherCache(100, 0);
+        staleCache.put("ll:0.000000,0.000000", weatherData(20.0));
+
+        final ManualWeatherSource failingSource = new ManualWeatherSource();
+        final BulkWeatherResults staleResults = newFetch(failingSource, staleCache, grid(1), 1).start();
+        failingSource.fail("ll:0.000000,0.000000");
+
+        final LocationWeather stale = staleResults.next();
+        assertThat(stale.isFromCache()).isTrue();
+        assertThat(stale.getWeatherData().getWeather().getTemp()).isEqualTo(20.0);
+    }
+
+    /**
+     * Test case to verify that a location requested by two bulk
+     * requests at the same time is fetched once
+     *
+     */
+    @Test
+    public void testConcurrentBulkRequestsShareRequests() throws InterruptedException {
+        final ManualWeatherSource source = new ManualWeatherSource();
+        final LocationWeatherCache cache = newCache();
+        final SingleFlight<WeatherDataPojo> flights = new SingleFlight<>();
+
+        final BulkWeatherResults first = new BulkWeatherFetch(source, cache, flights, MetricsRecorder.NONE, grid(1), PRECISION, 1).start();
+        final BulkWeatherResults second = new BulkWeatherFetch(source, cache, flights, MetricsRecorder.NONE, grid(1), PRECISION, 1).start();
+
+        assertThat(source.numberOfRequests).isEqualTo(1);
+        source.completeAll(12.0);
+
+        assertThat(first.next().getWeatherData()).isSameAs(second.next().getWeatherData());
+    }
+
+    /**
+     * Test case to verify that a source that answers right away
+     * doesn't grow the stack with the number of locations
+     *
+     */
+    @Test
+    public void testSynchronousSource() throws InterruptedException {
+        final WeatherDataPojo weatherData = weatherData(5.0);
+        final ManualWeatherSource source = new ManualWeatherSource() {
+            @Override
+            public TweatherFuture<WeatherDataPojo> currentWeather(WeatherLocation location) {
+                numberOfRequests++;
+                return TweatherFuture.completed(weatherData);
+            }
+        };
+
+        final BulkWeatherResults results = newFetch(source, new LocationWeatherCache(100, 0), grid(20000), 4).start();
+
+        assertThat(results.getNumberOfResultsReceived()).isEqualTo(20000);
+        assertThat(source.numberOfRequests).isEqualTo(20000);
+
+        int consumed = 0;
+        while (results.hasNext()) {
+            results.next();
+            consumed++;
+        }
+        assertThat(consumed).isEqualTo(20000);
+    }
+
+    /**
+     * Test case to verify that cancelling stops dispatching and
+     * wakes up waiting consumers
+     *
+     */
+    @Test
+    public void testCancel() throws InterruptedException {
+        final ManualWeatherSource source = new ManualWeatherSource();
+        final BulkWeatherResults results = newFetch(source, newCache(), grid(10), 2).start();
+
+        results.cancel();
+        source.completeAll(1.0);
+
+        assertThat(source.requests).hasSize(2);
+        assertThat(results.hasNext()).isFalse();
+
+        try {
+            results.next();
+            throw new AssertionError("next should have thrown");
+        }
+        catch (CancellationException e) {
+            assertThat(results.isCancelled()).isTrue();
+        }
+    }
+
+    /**
+     * Test case to verify that the location cache is bounded
+     * and evicts least recently used entries
+     *
+     */
+    @Test
+    public void testLocationCacheIsBounded() {
+        final LocationWeatherCache cache = new LocationWeatherCache(LocationWeatherCache.NUMBER_OF_SHARDS * 4,
+                TimeUnit.MINUTES.toMillis(10));
+
+        for (int i = 0; i < 10000; i++) {
+            cache.put("ll:" + i, weatherData(i));
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(LocationWeatherCache.NUMBER_OF_SHARDS * 4);
+        assertThat(cache.get("ll:9999").weatherData.getWeather().getTemp()).isEqualTo(9999.0);
+        assertThat(cache.get("ll:0")).isNull();
+        assertThat(cache.isFresh(cache.get("ll:9999"))).isTrue();
+    }
+
+    /**
+     * Test case to verify location validation and keys
+     *
+     */
+    @Test
+    public void testWeatherLocation() {
+        assertThat(WeatherLocation.of(-0.001, 0.001).normalize(PRECISION).getKey()).isEqualTo("ll:0.000000,0.000000");
+        assertThat(WeatherLocation.of(89.999, 179.999).normalize(PRECISION).getKey()).isEqualTo("ll:90.000000,180.000000");
+        assertThat(WeatherLocation.of(" London,UK ").getCityName()).isEqualTo("London,UK");
+        assertThat(WeatherLocation.of("London,UK").normalize(PRECISION)).isEqualTo(WeatherLocation.of("london,uk"));
+
+        final Set<WeatherLocation> invalid = new HashSet<>();
+        for (double[] coordinates : new double[][] {{91, 0}, {0, -181}, {Double.NaN, 0}}) {
+            try {
+                invalid.add(WeatherLocation.of(coordinates[0], coordinates[1]));
+            }
+            catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+        assertThat(invalid).isEmpty();
+    }
+
+    /**
+     * Helper method to create a fetch with its own flights
+     *
+     * @param source - WeatherSource
+     * @param cache - LocationWeatherCache
+     * @param locations - Requested locations
+     * @param concurrency - Max requests in flight
+     * @return BulkWeatherFetch
+     */
+    private static BulkWeatherFetch newFetch(final WeatherSource source,
+                                             final LocationWeatherCache cache,
+                                             final Collection<WeatherLocation> locations,
+                                             final int concurrency) {
+        return new BulkWeatherFetch(source, cache, new SingleFlight<WeatherDataPojo>(), MetricsRecorder.NONE,
+                locations, PRECISION, concurrency);
+    }
+
+    /**
+     * Helper method to create a cache with a 10 minute TTL
+     *
+     * @return LocationWeatherCache
+     */
+    private static LocationWeatherCache newCache() {
+        return new LocationWeatherCache(1000, TimeUnit.MINUTES.toMillis(10));
+    }
+
+    /**
+     * Helper method to create distinct locations, 0.1 degree apart
+     *
+     * @param numberOfLocations - Number of locations
+     * @return List of WeatherLocation
+     */
+    private static List<WeatherLocation> grid(final int numberOfLocations) {
+        final List<WeatherLocation> locations = new ArrayList<>(numberOfLocations);
+        for (int i = 0; i < numberOfLocations; i++) {
+            locations.add(WeatherLocation.of((i % 900) * 0.1, (i / 900) * 0.1));
+        }
+
+        return locations;
+    }
+
+    /**
+     * Helper method to create weather data with
+     * a temperature
+     *
+     * @param temperature - Temperature
+     * @return WeatherDataPojo
+     */
+    private static WeatherDataPojo weatherData(final double temperature) {
+        final Weather weather = new Weather();
+        weather.setTemp(temperature);
+
+        final WeatherDataPojo weatherData = new WeatherDataPojo();
+        weatherData.setWeather(weather);
+        return weatherData;
+    }
+
+    /**
+     * WeatherSource whose requests are completed by the test
+     *
+     */
+    private static class ManualWeatherSource implements WeatherSource {
+        // Requests in flight, keyed by location key
+        final Map<String, TweatherFuture<WeatherDataPojo>> requests = new LinkedHashMap<>();
+        int numberOfRequests = 0;
+
+        @Override
+        public String getName() {
+            return "manual";
+        }
+
+        @Override
+        public TweatherFuture<WeatherDataPojo> currentWeather() {
+            return TweatherFuture.failed(new IOException("Not supported"));
+        }
+
+        @Override
+        public TweatherFuture<WeatherDataPojo> currentWeather(WeatherLocation location) {
+            numberOfRequests++;
+            final TweatherFuture<WeatherDataPojo> future = new TweatherFuture<>();
+            requests.put(location.getKey(), future);
+            return future;
+        }
+
+        @Override
+        public TweatherFuture<WeatherDataPojo> futureWeather(int day) {
+            return TweatherFuture.failed(new IOException("Not supported"));
+        }
+
+        void complete(final String key, final double temperature) {
+            requests.get(key).complete(weatherData(temperature));
+        }
+
+        void fail(final String key) {
+            requests.get(key).completeExceptionally(new IOException("Test"));
+        }
+
+        void completeAll(final double temperature) {
+            for (TweatherFuture<WeatherDataPojo> future : new ArrayList<>(requests.values())) {
+                future.complete(weatherData(temperature));
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.twitter.tweathersdk.core;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Unit tests for CallTracer and CallTrace classes
+ *
+ */
+
+public class CallTracerTests {
+    // Response body used by the tests
+    private static final String BODY = "{\"weather\":{\"temp\":14.77}}";
+
+    private MockWebServer server;
+    private CallTracer tracer;
+    private HttpWeatherSource source;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+
+        tracer = new CallTracer(4);
+        final TweatherConfig config = new TweatherConfig.Builder()
+                .retry(0, 1, 1, TimeUnit.MILLISECONDS)
+                .build();
+        final OkHttpClient httpClient = OkHttpFactory.newOkHttpClient(config, tracer);
+
+        source = new HttpWeatherSource("test", server.url("/").toString(), "current.json",
+                "future_%d.json", HttpWeatherSource.TWEATHER_ADAPTER, httpClient, MetricsRecorder.NONE);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * Test case to verify that a call is traced through every
+     * network phase, and has ended when its result is delivered
+     *
+     */
+    @Test
+    public void testPhases() throws Exception {
+        server.enqueue(new MockResponse().setBody(BODY).setBodyDelay(50, TimeUnit.MILLISECONDS));
+
+        final long startNanos = System.nanoTime();
+        source.futureWeather(1).get(5, TimeUnit.SECONDS);
+
+        final List<CallTrace> traces = tracer.getTraces(
+                Collections.singleton(server.url("/future_1.json").toString()), startNanos);
+        assertThat(traces).hasSize(1);
+
+        final CallTrace trace = traces.get(0);
+        assertThat(trace.getMethod()).isEqualTo("GET");
+        assertThat(trace.isFailed()).isFalse();
+        assertThat(trace.getDurationNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+
+        final List<String> phaseNames = new ArrayList<>();
+        for (CallTrace.Phase phase : trace.getPhases()) {
+            phaseNames.add(phase.getName());
+            assertThat(phase.getDurationNanos()).isGreaterThanOrEqualTo(0);
+        }
+        assertThat(phaseNames).containsSubsequence(CallTrace.PHASE_CONNECT, CallTrace.PHASE_REQUEST_HEADERS,
+                CallTrace.PHASE_TIME_TO_FIRST_BYTE, CallTrace.PHASE_RESPONSE_HEADERS, CallTrace.PHASE_RESPONSE_BODY);
+        assertThat(trace.getPhaseDurationNanos(CallTrace.PHASE_TLS)).isEqualTo(-1);
+
+        // Only calls started since a time are matched
+        assertThat(tracer.getTraces(null, System.nanoTime())).isEmpty();
+    }
+
+    /**
+     * Test case to verify that a failed call is traced as
+     * failed, and that only the most recent calls are kept
+     *
+     */
+    @Test
+    public void testFailedCallsAndCapacity() throws Exception {
+        for (int day = 1; day <= 6; day++) {
+            server.enqueue(new MockResponse().setBody(BODY));
+            source.futureWeather(day).get(5, TimeUnit.SECONDS);
+        }
+
+        final List<CallTrace> recentTraces = tracer.getRecentTraces();
+        assertThat(recentTraces).hasSize(4);
+        assertThat(recentTraces.get(0).getUrl()).endsWith("/future_3.json");
+        assertThat(recentTraces.get(3).getUrl()).endsWith("/future_6.json");
+
+        server.shutdown();
+        try {
+            source.currentWeather().get(5, TimeUnit.SECONDS);
+            throw new AssertionError("get should have thrown");
+        }
+        catch (ExecutionException e) {
+            // Expected
+        }
+
+        final List<CallTrace> failedTraces = tracer.getTraces(
+                Collections.singleton(server.url("/current.json").toString()), Long.MIN_VALUE);
+        assertThat(failedTraces).hasSize(1);
+        assertThat(failedTraces.get(0).isFailed()).isTrue();
+        assertThat(failedTraces.get(0).getDurationNanos()).isGreaterThanOrEqualTo(0);
+    }
+
+    /**
+     * Test case to verify the Chrome trace event JSON of
+     * traces, one row per call
+     *
+     */
+    @Test
+    public void testChromeTrace() {
+        final CallTrace first = new CallTrace("GET", "http://localhost/future_1.json", 1000000L);
+        first.begin(CallTrace.PHASE_TIME_TO_FIRST_BYTE, 1500000L);
+        first.end(CallTrace.PHASE_TIME_TO_FIRST_BYTE, 3000000L);
+        first.finish(4000000L, null);
+
+        final CallTrace second = new CallTrace("GET", "http://localhost/future_2.json", 2000000L);
+        second.begin(CallTrace.PHASE_CONNECT, 2000000L);
+        second.finish(2500000L, "java.io.IOException: Canceled");
+
+        final JsonObject json = new JsonParser().parse(CallTrace.toChromeTrace(Arrays.asList(first, second)))
+                .getAsJsonObject();
+        final JsonArray events = json.getAsJsonArray("traceEvents");
+
+        final List<JsonObject> completeEvents = new ArrayList<>();
+        for (JsonElement event : events) {
+            if ("X".equals(event.getAsJsonObject().get("ph").getAsString())) {
+                completeEvents.add(event.getAsJsonObject());
+            }
+        }
+        assertThat(events.size()).isEqualTo(6);
+        assertThat(completeEvents).hasSize(4);
+
+        final JsonObject firstCall = completeEvents.get(0);
+        assertThat(firstCall.get("name").getAsString()).isEqualTo("GET http://localhost/future_1.json");
+        assertThat(firstCall.get("ts").getAsDouble()).isEqualTo(0.0);
+        assertThat(firstCall.get("dur").getAsDouble()).isEqualTo(3000.0);
+        assertThat(firstCall.get("tid").getAsInt()).isEqualTo(1);
+
+        final JsonObject timeToFirstByte = completeEvents.get(1);
+        assertThat(timeToFirstByte.get("name").getAsString()).isEqualTo(CallTrace.PHASE_TIME_TO_FIRST_BYTE);
+        assertThat(timeToFirstByte.get("ts").getAsDouble()).isEqualTo(500.0);
+        assertThat(timeToFirstByte.get("dur").getAsDouble()).isEqualTo(1500.0);
+
+        final JsonObject secondCall = completeEvents.get(2);
+        assertThat(secondCall.get("tid").getAsInt()).isEqualTo(2);
+        assertThat(secondCall.getAsJsonObject("args").get("failure").getAsString()).contains("Canceled");
+
+        // Open phases end with the call
+        assertThat(completeEvents.get(3).get("dur").getAsDouble()).isEqualTo(500.0);
+    }
+}
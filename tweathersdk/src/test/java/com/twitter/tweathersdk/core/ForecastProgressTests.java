@@ -0,0 +1,87 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.Weather;
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.within;
+
+/**
+ * Basic unit tests for ForecastProgress class
+ *
+ */
+
+public class ForecastProgressTests {
+    /**
+     * Test case to verify running statistics of a
+     * partial batch, with pending and failed days skipped
+     *
+     */
+    @Test
+    public void testPartialStatistics() {
+        final ForecastProgress progress = ForecastProgress.fromSnapshot(7,
+                Arrays.asList(weatherData(10.0d), null, weatherData(14.0d), weatherData(null), null), 4);
+
+        assertThat(progress.getGeneration()).isEqualTo(7);
+        assertThat(progress.getNumberOfDays()).isEqualTo(5);
+        assertThat(progress.getNumberOfDaysReceived()).isEqualTo(4);
+        assertThat(progress.isComplete()).isFalse();
+        assertThat(progress.getNumberOfTemperatures()).isEqualTo(2);
+        assertThat(progress.getMeanTemperature()).isCloseTo(12.0d, within(0.0001d));
+        assertThat(progress.getTemperatureStandardDeviation()).isCloseTo(2.8284d, within(0.0001d));
+    }
+
+    /**
+     * Test case to verify statistics of a complete batch match
+     * the sample standard deviation of every day
+     *
+     */
+    @Test
+    public void testCompleteStatistics() {
+        final ForecastProgress progress = ForecastProgress.fromSnapshot(1,
+                Arrays.asList(weatherData(2.0d), weatherData(4.0d), weatherData(4.0d),
+                        weatherData(4.0d), weatherData(5.0d)), 5);
+
+        assertThat(progress.isComplete()).isTrue();
+        assertThat(progress.getMeanTemperature()).isCloseTo(3.8d, within(0.0001d));
+        assertThat(progress.getTemperatureStandardDeviation()).isCloseTo(1.0954d, within(0.0001d));
+    }
+
+    /**
+     * Test case to verify statistics of a single day and of
+     * no day at all
+     *
+     */
+    @Test
+    public void testEdgeCases() {
+        final ForecastProgress single = ForecastProgress.fromSnapshot(1,
+                Arrays.asList(weatherData(21.5d), null), 1);
+        assertThat(single.getTemperatureStandardDeviation()).isEqualTo(0.0d);
+
+        final ForecastProgress none = ForecastProgress.fromSnapshot(1,
+                Collections.<WeatherDataPojo>singletonList(null), 1);
+        assertThat(none.getNumberOfTemperatures()).isEqualTo(0);
+        assertThat(none.getMeanTemperature()).isNull();
+        assertThat(none.getTemperatureStandardDeviation()).isNull();
+    }
+
+    /**
+     * Helper method to create weather data with a temperature
+     *
+     * @param temperature - Temperature, can be null
+     * @return WeatherDataPojo
+     */
+    private static WeatherDataPojo weatherData(final Double temperature) {
+        final Weather weather = new Weather();
+        weather.setTemp(temperature);
+
+        final WeatherDataPojo weatherData = new WeatherDataPojo();
+        weatherData.setWeather(weather);
+        return weatherData;
+    }
+}
@@ -0,0 +1,239 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.Weather;
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.within;
+
+/**
+ * Basic unit tests for FutureWeatherBatch class
+ *
+ */
+
+public class FutureWeatherBatchTests {
+    /**
+     * Test case to verify that results are ordered by day
+     * regardless of the order they arrive in
+     *
+     */
+    @Test
+    public void testResultsOrderedByDay() {
+        final FutureWeatherBatch batch = new FutureWeatherBatch(1, 3);
+
+        assertThat(batch.complete(2, weatherData("day 3"))).isEqualTo(FutureWeatherBatch.DAY_COMPLETE);
+        assertThat(batch.complete(0, weatherData("day 1"))).isEqualTo(FutureWeatherBatch.DAY_COMPLETE);
+        assertThat(batch.isComplete()).isFalse();
+        assertThat(batch.complete(1, weatherData("day 2"))).isEqualTo(FutureWeatherBatch.BATCH_COMPLETE);
+        assertThat(batch.isComplete()).isTrue();
+
+        final List<WeatherDataPojo> snapshot = batch.snapshot();
+        assertThat(snapshot).hasSize(3);
+        assertThat(snapshot.get(0).getName()).isEqualTo("day 1");
+        assertThat(snapshot.get(1).getName()).isEqualTo("day 2");
+        assertThat(snapshot.get(2).getName()).isEqualTo("day 3");
+    }
+
+    /**
+     * Test case to verify that every day is handed out
+     * for dispatch exactly once, in order
+     *
+     */
+    @Test
+    public void testDispatchOrder() {
+        final FutureWeatherBatch batch = new FutureWeatherBatch(1, 3);
+
+        assertThat(batch.nextDayIndex()).isEqualTo(0);
+        assertThat(batch.nextDayIndex()).isEqualTo(1);
+        assertThat(batch.nextDayIndex()).isEqualTo(2);
+        assertThat(batch.nextDayIndex()).isEqualTo(-1);
+        assertThat(batch.nextDayIndex()).isEqualTo(-1);
+    }
+
+    /**
+     * Test case to verify that a day can only be completed
+     * once, and the first result wins
+     *
+     */
+    @Test
+    public void testDayCompletedOnlyOnce() {
+        final FutureWeatherBatch batch = new FutureWeatherBatch(1, 2);
+
+        assertThat(batch.complete(0, weatherData("first"))).isEqualTo(FutureWeatherBatch.DAY_COMPLETE);
+        assertThat(batch.complete(0, weatherData("second"))).isEqualTo(FutureWeatherBatch.DAY_ALREADY_COMPLETE);
+        assertThat(batch.isComplete()).isFalse();
+        assertThat(batch.snapshot().get(0).getName()).isEqualTo("first");
+    }
+
+    /**
+     * Test case to verify that a failed day is completed
+     * with null
+     *
+     */
+    @Test
+    public void testFailedDay() {
+        final FutureWeatherBatch batch = new FutureWeatherBatch(1, 2);
+
+        batch.complete(0, null);
+        assertThat(batch.complete(1, weatherData("day 2"))).isEqualTo(FutureWeatherBatch.BATCH_COMPLETE);
+        assertThat(batch.snapshot().get(0)).isNull();
+    }
+
+    /**
+     * Test case to verify that the published snapshot
+     * cannot be modified
+     *
+     */
+    @Test (expected = UnsupportedOperationException.class)
+    public void testSnapshotIsImmutable() {
+        final FutureWeatherBatch batch = new FutureWeatherBatch(1, 1);
+        batch.complete(0, weatherData("day 1"));
+
+        batch.snapshot().add(weatherData("day 2"));
+    }
+
+    /**
+     * Test case to verify that exactly one thread completes the
+     * batch when days are completed concurrently, several times each,
+     * and that it sees temperature statistics of every day
+     *
+     */
+    @Test
+    public void testConcurrentCompletion() throws InterruptedException {
+        final int numberOfDays = 365;
+        final int completionsPerDay = 4;
+        final FutureWeatherBatch batch = new FutureWeatherBatch(1, numberOfDays);
+        final ExecutorService executorService = Executors.newFixedThreadPool(8);
+        final CountDownLatch doneLatch = new CountDownLatch(numberOfDays * completionsPerDay);
+        final AtomicInteger numberOfBatchCompletions = new AtomicInteger(0);
+        final AtomicLong temperaturesAtBatchCompletion = new AtomicLong(0);
+
+        for (int i = 0; i < completionsPerDay; i++) {
+            for (int day = 0; day < numberOfDays; day++) {
+                final int dayIndex = day;
+                executorService.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (batch.complete(dayIndex, weatherData("day " + (dayIndex + 1), (double) dayIndex)) ==
+                                FutureWeatherBatch.BATCH_COMPLETE) {
+                            numberOfBatchCompletions.incrementAndGet();
+                            temperaturesAtBatchCompletion.set(batch.getTemperatureStatistics().getCount());
+                        }
+                        doneLatch.countDown();
+                    }
+                });
+            }
+        }
+
+        assertThat(doneLatch.await(10, TimeUnit.SECONDS)).isTrue();
+        executorService.shutdown();
+
+        assertThat(numberOfBatchCompletions.get()).isEqualTo(1);
+        assertThat(batch.snapshot()).doesNotContainNull();
+        assertThat(batch.snapshot().get(numberOfDays - 1).getName()).isEqualTo("day " + numberOfDays);
+
+        // Each day is counted once, whichever completion won
+        assertThat(temperaturesAtBatchCompletion.get()).isEqualTo(numberOfDays);
+        assertThat(batch.getTemperatureStatistics().getMean()).isCloseTo((numberOfDays - 1) / 2.0d, within(1e-9));
+        assertThat(batch.getTemperatureStatistics().getMax()).isEqualTo(numberOfDays - 1);
+    }
+
+    /**
+     * Test case to verify that temperature statistics skip
+     * failed days and days without a temperature
+     *
+     */
+    @Test
+    public void testTemperatureStatistics() {
+        final FutureWeatherBatch batch = new FutureWeatherBatch(1, 4);
+        assertThat(batch.getTemperatureStatistics().getCount()).isEqualTo(0);
+
+        batch.complete(0, weatherData("day 1", 10.0d));
+        batch.complete(1, null);
+        batch.complete(2, weatherData("day 3"));
+        batch.complete(3, weatherData("day 4", 14.0d));
+
+        final RunningStatistics statistics = batch.getTemperatureStatistics();
+        assertThat(statistics.getCount()).isEqualTo(2);
+        assertThat(statistics.getMean()).isEqualTo(12.0d);
+        assertThat(statistics.getStandardDeviation()).isCloseTo(2.8284d, within(0.0001d));
+    }
+
+    /**
+     * Test case to verify hedged and timed out flags, and
+     * that an expired batch doesn't dispatch more days
+     *
+     */
+    @Test
+    public void testHedgedAndTimedOutDays() {
+        final FutureWeatherBatch batch = new FutureWeatherBatch(1, 3);
+
+        assertThat(batch.nextDayIndex()).isEqualTo(0);
+        assertThat(batch.markHedged(0)).isTrue();
+        assertThat(batch.markHedged(0)).isFalse();
+
+        assertThat(batch.expire()).isTrue();
+        assertThat(batch.expire()).isFalse();
+        assertThat(batch.nextDayIndex()).isEqualTo(-1);
+
+        batch.markTimedOut(2);
+        assertThat(batch.getHedgedDays()).containsExactly(true, false, false);
+        assertThat(batch.getTimedOutDays()).containsExactly(false, false, true);
+    }
+
+    /**
+     * Test case to verify that calls for a day are counted
+     * until they finish
+     *
+     */
+    @Test
+    public void testCallsInFlight() {
+        final FutureWeatherBatch batch = new FutureWeatherBatch(1, 1);
+
+        batch.callStarted(0, null, false);
+        batch.callStarted(0, null, true);
+        assertThat(batch.callFinished(0)).isEqualTo(1);
+        assertThat(batch.callFinished(0)).isEqualTo(0);
+
+        // Cancelling with no calls is a no-op
+        batch.cancelCalls(0);
+    }
+
+    /**
+     * Helper method to create weather data with a name
+     *
+     * @param name - Name
+     * @return WeatherDataPojo
+     */
+    private static WeatherDataPojo weatherData(final String name) {
+        final WeatherDataPojo weatherData = new WeatherDataPojo();
+        weatherData.setName(name);
+        return weatherData;
+    }
+
+    /**
+     * Helper method to create weather data with a name
+     * and temperature
+     *
+     * @param name - Name
+     * @param temperature - Temperature
+     * @return WeatherDataPojo
+     */
+    private static WeatherDataPojo weatherData(final String name, final double temperature) {
+        final WeatherDataPojo weatherData = weatherData(name);
+        final Weather weather = new Weather();
+        weather.setTemp(temperature);
+        weatherData.setWeather(weather);
+        return weatherData;
+    }
+}
@@ -0,0 +1,68 @@
+package com.twitter.tweathersdk.core;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Basic unit tests for LatencyTracker class
+ *
+ */
+
+public class LatencyTrackerTests {
+    /**
+     * Test case to verify that no percentile is reported
+     * until there are enough samples
+     *
+     */
+    @Test
+    public void testNotEnoughSamples() {
+        final LatencyTracker latencyTracker = new LatencyTracker(100);
+
+        for (int i = 1; i < LatencyTracker.MIN_SAMPLES; i++) {
+            latencyTracker.record(i);
+        }
+
+        assertThat(latencyTracker.percentile(95)).isEqualTo(-1);
+
+        latencyTracker.record(LatencyTracker.MIN_SAMPLES);
+        assertThat(latencyTracker.percentile(95)).isEqualTo(LatencyTracker.MIN_SAMPLES);
+    }
+
+    /**
+     * Test case to verify nearest rank percentiles
+     *
+     */
+    @Test
+    public void testPercentiles() {
+        final LatencyTracker latencyTracker = new LatencyTracker(100);
+
+        // Record 1..100 out of order
+        for (int i = 100; i >= 1; i--) {
+            latencyTracker.record(i);
+        }
+
+        assertThat(latencyTracker.percentile(50)).isEqualTo(50);
+        assertThat(latencyTracker.percentile(95)).isEqualTo(95);
+        assertThat(latencyTracker.percentile(99.9)).isEqualTo(100);
+    }
+
+    /**
+     * Test case to verify that only recent samples are kept
+     *
+     */
+    @Test
+    public void testOldSamplesAreDropped() {
+        final LatencyTracker latencyTracker = new LatencyTracker(LatencyTracker.MIN_SAMPLES);
+
+        for (int i = 0; i < LatencyTracker.MIN_SAMPLES; i++) {
+            latencyTracker.record(5000);
+        }
+
+        for (int i = 0; i < LatencyTracker.MIN_SAMPLES; i++) {
+            latencyTracker.record(20);
+        }
+
+        assertThat(latencyTracker.percentile(99)).isEqualTo(20);
+    }
+}
@@ -0,0 +1,205 @@
+package com.twitter.tweathersdk.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Unit tests for HTTP disk cache configured by OkHttpFactory,
+ * driven by a local MockWebServer
+ *
+ */
+
+public class OkHttpFactoryTests {
+    // Response body used by the tests
+    private static final String BODY = "{\"weather\":{\"temp\":14.77}}";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private OkHttpClient httpClient;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+
+        final TweatherConfig config = new TweatherConfig.Builder()
+                .baseUrl(server.url("/").toString())
+                .httpCache(temporaryFolder.newFolder("http-cache"), 1024 * 1024)
+                .maxStale(1, TimeUnit.HOURS)
+                .build();
+        httpClient = OkHttpFactory.newOkHttpClient(config);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+        httpClient.cache().close();
+    }
+
+    /**
+     * Test case to verify that a cached response is revalidated
+     * with its ETag, and a 304 returns the cached body
+     *
+     */
+    @Test
+    public void testConditionalRevalidationWithETag() throws IOException, InterruptedException {
+        server.enqueue(new MockResponse()
+                .setHeader("ETag", "\"v1\"")
+                .setHeader("Cache-Control", "no-cache")
+                .setBody(BODY));
+        server.enqueue(new MockResponse()
+                .setResponseCode(304));
+
+        assertThat(fetch("current.json").body().string()).isEqualTo(BODY);
+
+        final Response revalidatedResponse = fetch("current.json");
+        assertThat(revalidatedResponse.body().string()).isEqualTo(BODY);
+        assertThat(revalidatedResponse.networkResponse().code()).isEqualTo(304);
+        assertThat(revalidatedResponse.cacheResponse()).isNotNull();
+
+        server.takeRequest();
+        final RecordedRequest conditionalRequest = server.takeRequest();
+        assertThat(conditionalRequest.getHeader("If-None-Match")).isEqualTo("\"v1\"");
+    }
+
+    /**
+     * Test case to verify that a cached response is revalidated
+     * with its Last-Modified date
+     *
+     */
+    @Test
+    public void testConditionalRevalidationWithLastModified() throws IOException, InterruptedException {
+        final String lastModified = "Fri, 02 Mar 2018 10:00:00 GMT";
+        server.enqueue(new MockResponse()
+                .setHeader("Last-Modified", lastModified)
+                .setHeader("Cache-Control", "no-cache")
+                .setBody(BODY));
+        server.enqueue(new MockResponse()
+                .setResponseCode(304));
+
+        assertThat(fetch("future_1.json").body().string()).isEqualTo(BODY);
+        assertThat(fetch("future_1.json").body().string()).isEqualTo(BODY);
+
+        server.takeRequest();
+        assertThat(server.takeRequest().getHeader("If-Modified-Since")).isEqualTo(lastModified);
+    }
+
+    /**
+     * Test case to verify that a stale cached response is served
+     * when the server cannot be reached
+     *
+     */
+    @Test
+    public void testStaleResponseServedWhenOffline() throws IOException {
+        server.enqueue(new MockResponse()
+                .setHeader("ETag", "\"v1\"")
+                .setHeader("Cache-Control", "max-age=0")
+                .setBody(BODY));
+
+        assertThat(fetch("current.json").body().string()).isEqualTo(BODY);
+
+        // Go offline
+        server.shutdown();
+
+        final Response offlineResponse = fetch("current.json");
+        assertThat(offlineResponse.body().string()).isEqualTo(BODY);
+        assertThat(offlineResponse.networkResponse()).isNull();
+    }
+
+    /**
+     * Test case to verify that network exception is thrown
+     * when offline and there is nothing in the cache
+     *
+     */
+    @Test (expected = IOException.class)
+    public void testOfflineWithoutCachedResponse() throws IOException {
+        server.shutdown();
+        fetch("current.json");
+    }
+
+    /**
+     * Test case to verify that with the default config every day
+     * of the default forecast is in flight at once, so the fan-out
+     * takes a single round trip
+     *
+     */
+    @Test
+    public void testDefaultConfigSendsEveryForecastDayAtOnce() throws InterruptedException, IOException {
+        final TweatherConfig config = new TweatherConfig.Builder()
+                .baseUrl(server.url("/").toString())
+                .build();
+        assertThat(config.getForecastConcurrency()).isGreaterThanOrEqualTo(TweatherConfig.DEFAULT_FORECAST_DAYS);
+
+        // Hold every response until all days have reached the server
+        final CountDownLatch requestsReceived = new CountDownLatch(TweatherConfig.DEFAULT_FORECAST_DAYS);
+        final CountDownLatch responsesSent = new CountDownLatch(TweatherConfig.DEFAULT_FORECAST_DAYS);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                requestsReceived.countDown();
+                requestsReceived.await(5, TimeUnit.SECONDS);
+                return new MockResponse().setBody(BODY);
+            }
+        });
+
+        final OkHttpClient defaultHttpClient = OkHttpFactory.newOkHttpClient(config);
+        for (int day = 1; day <= config.getForecastConcurrency(); day++) {
+            final Request request = new Request.Builder()
+                    .url(server.url("/" + String.format(TweatherConfig.DEFAULT_FORECAST_ENDPOINT_TEMPLATE, day)))
+                    .build();
+            defaultHttpClient.newCall(request).enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    responsesSent.countDown();
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) throws IOException {
+                    response.close();
+                    responsesSent.countDown();
+                }
+            });
+        }
+
+        assertThat(requestsReceived.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(responsesSent.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(defaultHttpClient.dispatcher().getMaxRequestsPerHost())
+                .isGreaterThan(TweatherConfig.DEFAULT_FORECAST_DAYS);
+    }
+
+    /**
+     * Helper method to execute a GET request against
+     * the mock server
+     *
+     * @param path - Path of the endpoint
+     * @return Response
+     * @throws IOException - If request fails
+     */
+    private Response fetch(final String path) throws IOException {
+        final Request request = new Request.Builder()
+                .url(server.url("/" + path))
+                .build();
+        return httpClient.newCall(request).execute();
+    }
+}
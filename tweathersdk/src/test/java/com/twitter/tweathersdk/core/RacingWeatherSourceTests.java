@@ -0,0 +1,319 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.Weather;
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.within;
+
+/**
+ * Unit tests for RacingWeatherSource class, with HttpWeatherSource
+ * sources backed by local MockWebServers
+ *
+ */
+
+public class RacingWeatherSourceTests {
+    // Response bodies used by the tests
+    private static final String FAST_BODY = "{\"weather\":{\"temp\":14.77}}";
+    private static final String SLOW_BODY = "{\"weather\":{\"temp\":20.5}}";
+
+    private MockWebServer fastServer;
+    private MockWebServer slowServer;
+    private OkHttpClient httpClient;
+
+    @Before
+    public void setUp() throws IOException {
+        fastServer = new MockWebServer();
+        fastServer.start();
+        slowServer = new MockWebServer();
+        slowServer.start();
+        httpClient = new OkHttpClient();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        fastServer.shutdown();
+        slowServer.shutdown();
+    }
+
+    /**
+     * Test case to verify that HttpWeatherSource adapts the
+     * response body of the endpoint for a day
+     *
+     */
+    @Test
+    public void testHttpWeatherSource() throws Exception {
+        fastServer.enqueue(new MockResponse().setBody(FAST_BODY));
+
+        final WeatherDataPojo weatherData = newSource("fast", fastServer).futureWeather(3).get(5, TimeUnit.SECONDS);
+
+        assertThat(weatherData.getWeather().getTemp()).isCloseTo(14.77, within(0.001));
+        assertThat(fastServer.takeRequest().getPath()).isEqualTo("/future_3.json");
+    }
+
+    /**
+     * Test case to verify that HttpWeatherSource fails on
+     * an error response
+     *
+     */
+    @Test
+    public void testHttpWeatherSourceError() throws Exception {
+        fastServer.enqueue(new MockResponse().setResponseCode(404));
+
+        try {
+            newSource("fast", fastServer).currentWeather().get(5, TimeUnit.SECONDS);
+            throw new AssertionError("Request should have failed");
+        }
+        catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(IOException.class);
+        }
+    }
+
+    /**
+     * Test case to verify that the fastest source wins the
+     * race and the slower request is cancelled
+     *
+     */
+    @Test
+    public void testFastestSourceWins() throws Exception {
+        slowServer.enqueue(new MockResponse().setBody(SLOW_BODY).setBodyDelay(2, TimeUnit.SECONDS));
+        fastServer.enqueue(new MockResponse().setBody(FAST_BODY));
+
+        final RacingWeatherSource source = new RacingWeatherSource(
+                newSource("slow", slowServer), newSource("fast", fastServer));
+        final long startNanos = System.nanoTime();
+        final WeatherDataPojo weatherData = source.currentWeather().get(5, TimeUnit.SECONDS);
+
+        assertThat(weatherData.getWeather().getTemp()).isCloseTo(14.77, within(0.001));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)).isLessThan(1500);
+        assertThat(slowServer.getRequestCount()).isEqualTo(1);
+        assertThat(fastServer.getRequestCount()).isEqualTo(1);
+
+        // Winner is ranked first once the slow loser has been cancelled
+        Thread.sleep(100);
+        assertThat(source.rankSources().get(0)).isEqualTo(1);
+    }
+
+    /**
+     * Test case to verify that the next source is tried when
+     * a raced source fails
+     *
+     */
+    @Test
+    public void testFallbackToNextSource() throws Exception {
+        fastServer.enqueue(new MockResponse().setBody(FAST_BODY));
+
+        final FakeWeatherSource failing = new FakeWeatherSource("failing");
+        final FakeWeatherSource pending = new FakeWeatherSource("pending");
+        final RacingWeatherSource source = new RacingWeatherSource(
+                Arrays.<WeatherSource>asList(failing, pending, newSource("fast", fastServer)), 2);
+
+        final TweatherFuture<WeatherDataPojo> result = source.futureWeather(1);
+        assertThat(fastServer.getRequestCount()).isEqualTo(0);
+
+        // Third source is started only when one of the raced sources fails
+        failing.futures.get(0).completeExceptionally(new IOException("Test"));
+        final WeatherDataPojo weatherData = result.get(5, TimeUnit.SECONDS);
+
+        assertThat(weatherData.getWeather().getTemp()).isCloseTo(14.77, within(0.001));
+        assertThat(awaitCancelled(pending.futures.get(0))).isTrue();
+
+        // Failed source is now ranked last
+        assertThat(source.rankSources().get(2)).isEqualTo(0);
+    }
+
+    /**
+     * Test case to verify that invalid data doesn't win
+     * the race, and the race fails when every source fails
+     *
+     */
+    @Test
+    public void testEverySourceFails() throws Exception {
+        final FakeWeatherSource first = new FakeWeatherSource("first");
+        final FakeWeatherSource second = new FakeWeatherSource("second");
+        final TweatherFuture<WeatherDataPojo> result = new RacingWeatherSource(first, second).currentWeather();
+
+        first.futures.get(0).complete(null);
+        assertThat(result.isDone()).isFalse();
+
+        second.futures.get(0).completeExceptionally(new IOException("Test"));
+        assertThat(result.isDone()).isTrue();
+
+        try {
+            result.get();
+            throw new AssertionError("Race should have failed");
+        }
+        catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(IOException.class);
+        }
+    }
+
+    /**
+     * Test case to verify that sources that fail right away
+     * are replaced, without racing more than race width sources
+     *
+     */
+    @Test
+    public void testRaceWidthWithImmediateFailures() {
+        final FakeWeatherSource failing = new FakeWeatherSource("failing", true);
+        final FakeWeatherSource alsoFailing = new FakeWeatherSource("alsoFailing", true);
+        final FakeWeatherSource first = new FakeWeatherSource("first");
+        final FakeWeatherSource second = new FakeWeatherSource("second");
+        final FakeWeatherSource third = new FakeWeatherSource("third");
+        final RacingWeatherSource source = new RacingWeatherSource(
+                Arrays.<WeatherSource>asList(failing, alsoFailing, first, second, third), 2);
+
+        final TweatherFuture<WeatherDataPojo> result = source.currentWeather();
+
+        assertThat(result.isDone()).isFalse();
+        assertThat(first.futures).hasSize(1);
+        assertThat(second.futures).hasSize(1);
+        assertThat(third.futures).isEmpty();
+    }
+
+    /**
+     * Test case to verify that a cancelled loser doesn't lower
+     * the latency of a slow source
+     *
+     */
+    @Test
+    public void testLoserLatencyIsLowerBound() {
+        final FakeWeatherSource slow = new FakeWeatherSource("slow");
+        final FakeWeatherSource fast = new FakeWeatherSource("fast");
+        final RacingWeatherSource source = new RacingWeatherSource(slow, fast);
+
+        // Slow source fails the first race, and gets the failure penalty
+        source.currentWeather();
+        slow.futures.get(0).completeExceptionally(new IOException("Test"));
+        fast.futures.get(0).complete(validWeatherData());
+        final long slowLatencyInNanos = source.getLatencyInNanos(0);
+        assertThat(slowLatencyInNanos).isGreaterThan(source.getLatencyInNanos(1));
+
+        // Slow source loses the next race right away
+        final TweatherFuture<WeatherDataPojo> result = source.currentWeather();
+        fast.futures.get(1).complete(validWeatherData());
+
+        assertThat(result.isDone()).isTrue();
+        assertThat(slow.futures.get(1).isCancelled()).isTrue();
+        assertThat(source.getLatencyInNanos(0)).isEqualTo(slowLatencyInNanos);
+    }
+
+    /**
+     * Test case to verify that cancelling the result cancels
+     * every request in flight
+     *
+     */
+    @Test
+    public void testCancelResult() {
+        final FakeWeatherSource first = new FakeWeatherSource("first");
+        final FakeWeatherSource second = new FakeWeatherSource("second");
+        final TweatherFuture<WeatherDataPojo> result = new RacingWeatherSource(first, second).futureWeather(2);
+
+        assertThat(result.cancel(true)).isTrue();
+        assertThat(first.futures.get(0).isCancelled()).isTrue();
+        assertThat(second.futures.get(0).isCancelled()).isTrue();
+    }
+
+    /**
+     * Helper method to wait until a future is cancelled. Losers are
+     * cancelled right after the result is completed, on the winner's thread
+     *
+     * @param future - Future to wait for
+     * @return true if future was cancelled within a second
+     */
+    private static boolean awaitCancelled(final TweatherFuture<?> future) throws InterruptedException {
+        for (int i = 0; i < 100 && !future.isCancelled(); i++) {
+            Thread.sleep(10);
+        }
+
+        return future.isCancelled();
+    }
+
+    /**
+     * Helper method to create weather data with a temperature
+     *
+     * @return WeatherDataPojo
+     */
+    private static WeatherDataPojo validWeatherData() {
+        final Weather weather = new Weather();
+        weather.setTemp(14.77);
+        final WeatherDataPojo weatherData = new WeatherDataPojo();
+        weatherData.setWeather(weather);
+        return weatherData;
+    }
+
+    /**
+     * Helper method to create an HttpWeatherSource for a server
+     *
+     * @param name - Name of the source
+     * @param server - MockWebServer
+     * @return HttpWeatherSource
+     */
+    private HttpWeatherSource newSource(final String name, final MockWebServer server) {
+        return new HttpWeatherSource(name, server.url("/").toString(), "current.json",
+                "future_%d.json", HttpWeatherSource.TWEATHER_ADAPTER, httpClient, MetricsRecorder.NONE);
+    }
+
+    /**
+     * WeatherSource whose futures are completed by the test
+     *
+     */
+    private static final class FakeWeatherSource implements WeatherSource {
+        private final String name;
+        private final boolean failImmediately;
+        private final List<TweatherFuture<WeatherDataPojo>> futures = new ArrayList<>();
+
+        private FakeWeatherSource(final String name) {
+            this(name, false);
+        }
+
+        private FakeWeatherSource(final String name, final boolean failImmediately) {
+            this.name = name;
+            this.failImmediately = failImmediately;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public TweatherFuture<WeatherDataPojo> currentWeather() {
+            return newFuture();
+        }
+
+        @Override
+        public TweatherFuture<WeatherDataPojo> currentWeather(WeatherLocation location) {
+            return newFuture();
+        }
+
+        @Override
+        public TweatherFuture<WeatherDataPojo> futureWeather(int day) {
+            return newFuture();
+        }
+
+        private TweatherFuture<WeatherDataPojo> newFuture() {
+            final TweatherFuture<WeatherDataPojo> future = new TweatherFuture<>();
+            futures.add(future);
+            if (failImmediately) {
+                future.completeExceptionally(new IOException("Test"));
+            }
+            return future;
+        }
+    }
+}
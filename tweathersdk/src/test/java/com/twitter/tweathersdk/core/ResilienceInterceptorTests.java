@@ -0,0 +1,276 @@
+package com.twitter.tweathersdk.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Unit tests for ResilienceInterceptor class, driven by
+ * a flaky local MockWebServer
+ *
+ */
+
+public class ResilienceInterceptorTests {
+    // Response body used by the tests
+    private static final String BODY = "{\"weather\":{\"temp\":14.77}}";
+
+    private MockWebServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * Test case to verify that 5xx responses and connection
+     * failures are retried until the request succeeds
+     *
+     */
+    @Test
+    public void testRetryUntilSuccess() throws IOException {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+        server.enqueue(new MockResponse().setBody(BODY));
+
+        final OkHttpClient httpClient = newOkHttpClient(new ResilienceInterceptor(newConfig(2, 5)));
+        final Response response = execute(httpClient);
+
+        assertThat(response.code()).isEqualTo(200);
+        assertThat(response.body().string()).isEqualTo(BODY);
+        assertThat(server.getRequestCount()).isEqualTo(3);
+    }
+
+    /**
+     * Test case to verify that retries are bounded and the last
+     * error response is returned
+     *
+     */
+    @Test
+    public void testRetriesAreBounded() throws IOException {
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(new MockResponse().setResponseCode(500));
+        }
+
+        final OkHttpClient httpClient = newOkHttpClient(new ResilienceInterceptor(newConfig(2, 5)));
+        final Response response = execute(httpClient);
+
+        assertThat(response.code()).isEqualTo(500);
+        assertThat(server.getRequestCount()).isEqualTo(3);
+        response.close();
+    }
+
+    /**
+     * Test case to verify that a call stops retrying when the
+     * next delay would go over its retry budget, so it doesn't keep
+     * its Dispatcher thread and per host slot for long
+     *
+     */
+    @Test
+    public void testRetryBudgetIsBounded() throws IOException {
+        for (int i = 0; i < 6; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+        }
+
+        final TweatherConfig config = new TweatherConfig.Builder()
+                .baseUrl(server.url("/").toString())
+                .retry(5, 40, 40, TimeUnit.MILLISECONDS)
+                .retryMaxTotalDelay(100, TimeUnit.MILLISECONDS)
+                .build();
+        final OkHttpClient httpClient = newOkHttpClient(new ResilienceInterceptor(config));
+        final long startNanos = System.nanoTime();
+        final Response response = execute(httpClient);
+
+        // Delays of 40 ms, a third one would make 120 ms
+        assertThat(response.code()).isEqualTo(503);
+        assertThat(server.getRequestCount()).isEqualTo(3);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)).isLessThan(1000L);
+        response.close();
+    }
+
+    /**
+     * Test case to verify that client errors are not retried
+     *
+     */
+    @Test
+    public void testClientErrorIsNotRetried() throws IOException {
+        server.enqueue(new MockResponse().setResponseCode(404));
+        server.enqueue(new MockResponse().setBody(BODY));
+
+        final OkHttpClient httpClient = newOkHttpClient(new ResilienceInterceptor(newConfig(2, 5)));
+        final Response response = execute(httpClient);
+
+        assertThat(response.code()).isEqualTo(404);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+        response.close();
+    }
+
+    /**
+     * Test case to verify that the circuit opens after consecutive
+     * failures, fails fast while open, and closes after a successful probe
+     *
+     */
+    @Test
+    public void testCircuitBreaker() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+        }
+        server.enqueue(new MockResponse().setBody(BODY));
+
+        final ResilienceInterceptor interceptor = new ResilienceInterceptor(newConfig(0, 3));
+        final OkHttpClient httpClient = newOkHttpClient(interceptor);
+
+        for (int i = 0; i < 3; i++) {
+            execute(httpClient).close();
+        }
+
+        assertThat(interceptor.getCircuitState(server.url("/current.json"))).isEqualTo(CircuitBreaker.STATE_OPEN);
+
+        try {
+            execute(httpClient);
+            throw new AssertionError("Expected the circuit to be open");
+        }
+        catch (CircuitOpenException e) {
+            // Failed fast, without a request
+            assertThat(server.getRequestCount()).isEqualTo(3);
+        }
+
+        // Other endpoints are not affected
+        assertThat(interceptor.getCircuitState(server.url("/future_1.json"))).isEqualTo(CircuitBreaker.STATE_CLOSED);
+
+        // Probe after open duration closes the circuit
+        Thread.sleep(150);
+        final Response response = execute(httpClient);
+        assertThat(response.code()).isEqualTo(200);
+        response.close();
+        assertThat(interceptor.getCircuitState(server.url("/current.json"))).isEqualTo(CircuitBreaker.STATE_CLOSED);
+    }
+
+    /**
+     * Test case to verify that a call cancelled while waiting
+     * to retry ends without waiting out its delay, and is not retried
+     *
+     */
+    @Test
+    public void testCancelDuringRetryDelay() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody(BODY));
+
+        final TweatherConfig config = new TweatherConfig.Builder()
+                .baseUrl(server.url("/").toString())
+                .retry(2, 10, 10, TimeUnit.SECONDS)
+                .retryMaxTotalDelay(1, TimeUnit.MINUTES)
+                .build();
+        final OkHttpClient httpClient = newOkHttpClient(new ResilienceInterceptor(config));
+        final Call call = httpClient.newCall(new Request.Builder().url(server.url("/current.json")).build());
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<IOException> failure = new AtomicReference<>();
+
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                failure.set(e);
+                done.countDown();
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                response.close();
+                done.countDown();
+            }
+        });
+
+        // First attempt failed, the call is now waiting to retry
+        assertThat(server.takeRequest(5, TimeUnit.SECONDS)).isNotNull();
+        Thread.sleep(100);
+        final long cancelNanos = System.nanoTime();
+        call.cancel();
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - cancelNanos)).isLessThan(1000L);
+        assertThat(failure.get()).isNotNull();
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    /**
+     * Test case to verify that retry delays use decorrelated
+     * jitter within the configured bounds
+     *
+     */
+    @Test
+    public void testDecorrelatedJitter() {
+        final TweatherConfig config = new TweatherConfig.Builder()
+                .retry(5, 100, 1000, TimeUnit.MILLISECONDS)
+                .build();
+        final ResilienceInterceptor interceptor = new ResilienceInterceptor(config, new Random(42));
+
+        long delayInMillis = 100;
+        for (int i = 0; i < 100; i++) {
+            final long nextDelayInMillis = interceptor.nextDelayInMillis(delayInMillis);
+            assertThat(nextDelayInMillis).isBetween(100L, Math.min(1000L, delayInMillis * 3));
+            delayInMillis = nextDelayInMillis;
+        }
+    }
+
+    /**
+     * Helper method to create a config for the tests, with short
+     * retry delays and a short open duration
+     *
+     * @param maxRetries - Max retries
+     * @param failureThreshold - Consecutive failures that open the circuit
+     * @return TweatherConfig
+     */
+    private TweatherConfig newConfig(final int maxRetries, final int failureThreshold) {
+        return new TweatherConfig.Builder()
+                .baseUrl(server.url("/").toString())
+                .retry(maxRetries, 1, 5, TimeUnit.MILLISECONDS)
+                .circuitBreaker(failureThreshold, 100, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Helper method to create an OkHttpClient with the interceptor
+     *
+     * @param interceptor - ResilienceInterceptor
+     * @return OkHttpClient
+     */
+    private static OkHttpClient newOkHttpClient(final ResilienceInterceptor interceptor) {
+        return new OkHttpClient.Builder()
+                .retryOnConnectionFailure(false)
+                .addInterceptor(interceptor)
+                .build();
+    }
+
+    /**
+     * Helper method to request current weather endpoint
+     *
+     * @param httpClient - OkHttpClient
+     * @return Response
+     * @throws IOException - If request fails
+     */
+    private Response execute(final OkHttpClient httpClient) throws IOException {
+        return httpClient.newCall(new Request.Builder().url(server.url("/current.json")).build()).execute();
+    }
+}
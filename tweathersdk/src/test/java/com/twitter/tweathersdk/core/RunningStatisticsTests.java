@@ -0,0 +1,101 @@
+package com.twitter.tweathersdk.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.within;
+
+/**
+ * Basic unit tests for RunningStatistics class
+ *
+ */
+
+public class RunningStatisticsTests {
+    /**
+     * Test case to verify statistics of a series added
+     * one value at a time
+     *
+     */
+    @Test
+    public void testStatistics() {
+        final RunningStatistics statistics = RunningStatistics.of(2.0d, 4.0d, 4.0d, 4.0d, 5.0d, 5.0d, 7.0d, 9.0d);
+
+        assertThat(statistics.getCount()).isEqualTo(8);
+        assertThat(statistics.getMean()).isEqualTo(5.0d);
+        assertThat(statistics.getM2()).isCloseTo(32.0d, within(1e-12));
+        assertThat(statistics.getVariance()).isCloseTo(32.0d / 7, within(1e-12));
+        assertThat(statistics.getStandardDeviation()).isCloseTo(Math.sqrt(32.0d / 7), within(1e-12));
+        assertThat(statistics.getMin()).isEqualTo(2.0d);
+        assertThat(statistics.getMax()).isEqualTo(9.0d);
+    }
+
+    /**
+     * Test case to verify statistics of no value and
+     * of a single value
+     *
+     */
+    @Test
+    public void testEdgeCases() {
+        assertThat(RunningStatistics.EMPTY.getCount()).isEqualTo(0);
+        assertThat(RunningStatistics.EMPTY.getMean()).isNaN();
+        assertThat(RunningStatistics.EMPTY.getStandardDeviation()).isNaN();
+        assertThat(RunningStatistics.EMPTY.getMin()).isNaN();
+
+        final RunningStatistics single = RunningStatistics.EMPTY.plus(-3.5d);
+        assertThat(single.getMean()).isEqualTo(-3.5d);
+        assertThat(single.getStandardDeviation()).isEqualTo(0.0d);
+        assertThat(single.getMin()).isEqualTo(-3.5d);
+        assertThat(single.getMax()).isEqualTo(-3.5d);
+
+        // Instances are not changed
+        assertThat(RunningStatistics.EMPTY.getCount()).isEqualTo(0);
+        assertThat(single.plus(1.0d).getCount()).isEqualTo(2);
+        assertThat(single.getCount()).isEqualTo(1);
+    }
+
+    /**
+     * Test case to verify that merging statistics of two parts
+     * of a series gives the statistics of the whole series, for
+     * every split point
+     *
+     */
+    @Test
+    public void testMerge() {
+        final Random random = new Random(42);
+        final double[] values = new double[50];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 60.0d + random.nextGaussian() * 15.0d;
+        }
+
+        final RunningStatistics whole = RunningStatistics.of(values);
+
+        for (int split = 0; split <= values.length; split++) {
+            final RunningStatistics merged = RunningStatistics.of(Arrays.copyOfRange(values, 0, split))
+                    .merge(RunningStatistics.of(Arrays.copyOfRange(values, split, values.length)));
+
+            assertThat(merged.getCount()).isEqualTo(whole.getCount());
+            assertThat(merged.getMean()).isCloseTo(whole.getMean(), within(1e-12));
+            assertThat(merged.getStandardDeviation()).isCloseTo(whole.getStandardDeviation(), within(1e-12));
+            assertThat(merged.getMin()).isEqualTo(whole.getMin());
+            assertThat(merged.getMax()).isEqualTo(whole.getMax());
+        }
+    }
+
+    /**
+     * Test case to verify accuracy for values far from zero,
+     * where subtracting the square of the sum from the sum of
+     * squares cancels out every significant digit
+     *
+     */
+    @Test
+    public void testLargeOffset() {
+        final double offset = 1e9;
+        final RunningStatistics statistics = RunningStatistics.of(offset + 4, offset + 7, offset + 13, offset + 16);
+
+        assertThat(statistics.getMean()).isEqualTo(offset + 10);
+        assertThat(statistics.getVariance()).isCloseTo(30.0d, within(1e-6));
+    }
+}
@@ -0,0 +1,166 @@
+package com.twitter.tweathersdk.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Unit and load tests for SingleFlight class
+ *
+ */
+
+public class SingleFlightTests {
+    // Number of concurrent callers in the load test
+    private static final int NUMBER_OF_CALLERS = 64;
+
+    private MockWebServer server;
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        executorService = Executors.newFixedThreadPool(NUMBER_OF_CALLERS);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        executorService.shutdownNow();
+        server.shutdown();
+    }
+
+    /**
+     * Test case to verify that callers attached to a flight
+     * get its result, and a new flight starts after it is finished
+     *
+     */
+    @Test
+    public void testJoinAndFinish() {
+        final SingleFlight<String> singleFlight = new SingleFlight<>();
+        final RecordingListener firstListener = new RecordingListener();
+        final RecordingListener secondListener = new RecordingListener();
+
+        assertThat(singleFlight.join("current", firstListener, false)).isTrue();
+        assertThat(singleFlight.join("current", secondListener, true)).isFalse();
+        assertThat(singleFlight.isInFlight("current")).isTrue();
+
+        final SingleFlight.Flight<String> flight = singleFlight.finish("current");
+        assertThat(flight.isPublishAlways()).isTrue();
+        flight.deliver("result");
+
+        assertThat(firstListener.result).isEqualTo("result");
+        assertThat(secondListener.result).isEqualTo("result");
+        assertThat(singleFlight.isInFlight("current")).isFalse();
+        assertThat(singleFlight.finish("current")).isNull();
+
+        // Next caller starts a new flight
+        assertThat(singleFlight.join("current", null, false)).isTrue();
+    }
+
+    /**
+     * Test case to verify that flights for different keys
+     * are independent
+     *
+     */
+    @Test
+    public void testIndependentKeys() {
+        final SingleFlight<String> singleFlight = new SingleFlight<>();
+
+        assertThat(singleFlight.join("current", null, false)).isTrue();
+        assertThat(singleFlight.join("future", null, false)).isTrue();
+        assertThat(singleFlight.finish("current")).isNotNull();
+        assertThat(singleFlight.isInFlight("future")).isTrue();
+    }
+
+    /**
+     * Load test to verify that N concurrent callers result in
+     * exactly one upstream call, and every caller gets the result
+     *
+     */
+    @Test
+    public void testOneUpstreamCallForConcurrentCallers() throws InterruptedException {
+        server.enqueue(new MockResponse()
+                .setBody("{\"name\":\"San Francisco\"}")
+                .setBodyDelay(200, TimeUnit.MILLISECONDS));
+        server.enqueue(new MockResponse()
+                .setBody("{\"name\":\"Unexpected second call\"}"));
+
+        final OkHttpClient httpClient = OkHttpFactory.newOkHttpClient(TweatherConfig.defaultConfig());
+        final SingleFlight<String> singleFlight = new SingleFlight<>();
+        final String key = server.url("/current.json").toString();
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch doneLatch = new CountDownLatch(NUMBER_OF_CALLERS);
+        final AtomicInteger numberOfResults = new AtomicInteger(0);
+
+        final SingleFlight.Listener<String> listener = new SingleFlight.Listener<String>() {
+            @Override
+            public void onComplete(String value) {
+                if ("{\"name\":\"San Francisco\"}".equals(value)) {
+                    numberOfResults.incrementAndGet();
+                }
+                doneLatch.countDown();
+            }
+        };
+
+        for (int i = 0; i < NUMBER_OF_CALLERS; i++) {
+            executorService.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                    }
+                    catch (InterruptedException e) {
+                        return;
+                    }
+
+                    if (singleFlight.join(key, listener, false)) {
+                        String body = null;
+                        try {
+                            final Response response = httpClient.newCall(new Request.Builder().url(key).build()).execute();
+                            body = response.body().string();
+                        }
+                        catch (IOException e) {
+                            // Body stays null
+                        }
+
+                        singleFlight.finish(key).deliver(body);
+                    }
+                }
+            });
+        }
+
+        startLatch.countDown();
+
+        assertThat(doneLatch.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(server.getRequestCount()).isEqualTo(1);
+        assertThat(numberOfResults.get()).isEqualTo(NUMBER_OF_CALLERS);
+    }
+
+    /**
+     * Listener that records the result it received
+     *
+     */
+    private static class RecordingListener implements SingleFlight.Listener<String> {
+        private String result;
+
+        @Override
+        public void onComplete(String value) {
+            result = value;
+        }
+    }
+}
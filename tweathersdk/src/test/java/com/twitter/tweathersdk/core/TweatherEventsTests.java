@@ -0,0 +1,278 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.core.events.CurrentWeatherEvent;
+import com.twitter.tweathersdk.core.events.FutureWeatherEvent;
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Unit tests for TweatherEvents class
+ *
+ */
+
+public class TweatherEventsTests {
+    // Number of threads registering listeners in the concurrency test
+    private static final int NUMBER_OF_THREADS = 8;
+
+    // Listeners registered by each thread in the concurrency test
+    private static final int LISTENERS_PER_THREAD = 100;
+
+    /**
+     * Test case to verify that events are delivered to the
+     * listeners of their type only, once per listener
+     *
+     */
+    @Test
+    public void testTypedDelivery() {
+        final TweatherEvents events = new TweatherEvents((Executor) null);
+        final RecordingListener<CurrentWeatherEvent> currentWeatherListener = new RecordingListener<>();
+        final RecordingListener<FutureWeatherEvent> futureWeatherListener = new RecordingListener<>();
+
+        events.register(CurrentWeatherEvent.class, currentWeatherListener);
+        events.register(CurrentWeatherEvent.class, currentWeatherListener);
+        events.register(FutureWeatherEvent.class, futureWeatherListener);
+        assertThat(events.hasListeners(CurrentWeatherEvent.class)).isTrue();
+
+        final CurrentWeatherEvent currentWeatherEvent = new CurrentWeatherEvent(new WeatherDataPojo());
+        events.post(currentWeatherEvent);
+
+        assertThat(currentWeatherListener.events).containsExactly(currentWeatherEvent);
+        assertThat(futureWeatherListener.events).isEmpty();
+
+        // Unregistered listener gets no more events
+        events.unregister(CurrentWeatherEvent.class, currentWeatherListener);
+        events.post(new CurrentWeatherEvent(new WeatherDataPojo()));
+
+        assertThat(currentWeatherListener.events).hasSize(1);
+        assertThat(events.hasListeners(CurrentWeatherEvent.class)).isFalse();
+
+        // Events without listeners are dropped
+        events.post(new Object());
+    }
+
+    /**
+     * Test case to verify that events for main thread listeners
+     * are handed off with one task per event, and dropped if the
+     * listener is unregistered before the task runs
+     *
+     */
+    @Test
+    public void testMainThreadHandoff() {
+        final List<Runnable> mainThreadTasks = new ArrayList<>();
+        final TweatherEvents events = new TweatherEvents(new Executor() {
+            @Override
+            public void execute(Runnable runnable) {
+                mainThreadTasks.add(runnable);
+            }
+        });
+
+        final RecordingListener<FutureWeatherEvent> postingThreadListener = new RecordingListener<>();
+        final RecordingListener<FutureWeatherEvent> firstMainThreadListener = new RecordingListener<>();
+        final RecordingListener<FutureWeatherEvent> secondMainThreadListener = new RecordingListener<>();
+        events.register(FutureWeatherEvent.class, postingThreadListener);
+        events.registerOnMainThread(FutureWeatherEvent.class, firstMainThreadListener);
+        events.registerOnMainThread(FutureWeatherEvent.class, secondMainThreadListener);
+
+        final FutureWeatherEvent event = new FutureWeatherEvent(Collections.<WeatherDataPojo>emptyList());
+        events.post(event);
+
+        assertThat(postingThreadListener.events).containsExactly(event);
+        assertThat(firstMainThreadListener.events).isEmpty();
+        assertThat(mainThreadTasks).hasSize(1);
+
+        // Listener unregistered before the handoff runs, like a stopped Activity
+        events.unregister(FutureWeatherEvent.class, secondMainThreadListener);
+        mainThreadTasks.get(0).run();
+
+        assertThat(firstMainThreadListener.events).containsExactly(event);
+        assertThat(secondMainThreadListener.events).isEmpty();
+    }
+
+    /**
+     * Test case to verify that a listener that throws doesn't
+     * stop delivery to other listeners, and invalid arguments
+     * are rejected
+     *
+     */
+    @Test
+    public void testListenerException() {
+        final TweatherEvents events = new TweatherEvents((Executor) null);
+        final RecordingListener<CurrentWeatherEvent> listener = new RecordingListener<>();
+
+        events.register(CurrentWeatherEvent.class, new TweatherEventListener<CurrentWeatherEvent>() {
+            @Override
+            public void onEvent(CurrentWeatherEvent event) {
+                throw new IllegalStateException("Listener failure");
+            }
+        });
+        events.registerOnMainThread(CurrentWeatherEvent.class, listener);
+        events.post(new CurrentWeatherEvent(new WeatherDataPojo()));
+
+        assertThat(listener.events).hasSize(1);
+
+        try {
+            events.post(null);
+            throw new AssertionError("Null event should be rejected");
+        }
+        catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        try {
+            events.register(CurrentWeatherEvent.class, null);
+            throw new AssertionError("Null listener should be rejected");
+        }
+        catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * Test case to verify that the latest sticky event is replayed
+     * to new listeners, and max age tells whether it is recent
+     *
+     */
+    @Test
+    public void testStickyReplay() throws Exception {
+        final TweatherEvents events = new TweatherEvents((Executor) null);
+        final RecordingListener<CurrentWeatherEvent> firstListener = new RecordingListener<>();
+        final RecordingListener<CurrentWeatherEvent> secondListener = new RecordingListener<>();
+        final RecordingListener<CurrentWeatherEvent> thirdListener = new RecordingListener<>();
+
+        // Nothing to replay yet
+        assertThat(events.register(CurrentWeatherEvent.class, firstListener, 1, TimeUnit.MINUTES)).isFalse();
+        assertThat(firstListener.events).isEmpty();
+
+        final CurrentWeatherEvent stickyEvent = new CurrentWeatherEvent(new WeatherDataPojo());
+        events.postSticky(stickyEvent);
+        events.post(new CurrentWeatherEvent(null));
+        assertThat(firstListener.events).hasSize(2);
+
+        // Latest sticky event is replayed, plain events are not kept
+        assertThat(events.registerOnMainThread(CurrentWeatherEvent.class, secondListener, 1, TimeUnit.MINUTES))
+                .isTrue();
+        assertThat(secondListener.events).containsExactly(stickyEvent);
+
+        // Old event is still replayed, but needs a refresh
+        Thread.sleep(5);
+        assertThat(events.register(CurrentWeatherEvent.class, thirdListener, 1, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(thirdListener.events).containsExactly(stickyEvent);
+
+        // Listener that is already registered doesn't get it again
+        assertThat(events.register(CurrentWeatherEvent.class, firstListener, 1, TimeUnit.MINUTES)).isTrue();
+        assertThat(firstListener.events).hasSize(2);
+
+        events.removeStickyEvent(CurrentWeatherEvent.class);
+        assertThat(events.register(CurrentWeatherEvent.class, new RecordingListener<CurrentWeatherEvent>(),
+                1, TimeUnit.MINUTES)).isFalse();
+    }
+
+    /**
+     * Test case to verify that a sticky event is replayed to a
+     * main thread listener with a main thread handoff
+     *
+     */
+    @Test
+    public void testStickyReplayOnMainThread() {
+        final List<Runnable> mainThreadTasks = new ArrayList<>();
+        final TweatherEvents events = new TweatherEvents(new Executor() {
+            @Override
+            public void execute(Runnable runnable) {
+                mainThreadTasks.add(runnable);
+            }
+        });
+        final RecordingListener<FutureWeatherEvent> listener = new RecordingListener<>();
+
+        final FutureWeatherEvent stickyEvent = new FutureWeatherEvent(Collections.<WeatherDataPojo>emptyList());
+        events.postSticky(stickyEvent);
+
+        assertThat(events.registerOnMainThread(FutureWeatherEvent.class, listener, 1, TimeUnit.MINUTES)).isTrue();
+        assertThat(listener.events).isEmpty();
+        assertThat(mainThreadTasks).hasSize(1);
+
+        mainThreadTasks.get(0).run();
+        assertThat(listener.events).containsExactly(stickyEvent);
+    }
+
+    /**
+     * Load test to verify that no registration is lost when
+     * many threads register and unregister listeners of one type
+     * while events are published
+     *
+     */
+    @Test
+    public void testConcurrentRegistration() throws Exception {
+        final TweatherEvents events = new TweatherEvents((Executor) null);
+        final CyclicBarrier barrier = new CyclicBarrier(NUMBER_OF_THREADS);
+        final CountDownLatch done = new CountDownLatch(NUMBER_OF_THREADS);
+        final List<RecordingListener<CurrentWeatherEvent>> keptListeners =
+                Collections.synchronizedList(new ArrayList<RecordingListener<CurrentWeatherEvent>>());
+
+        for (int i = 0; i < NUMBER_OF_THREADS; i++) {
+            TweatherExecutors.newDaemonThread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        barrier.await();
+
+                        for (int j = 0; j < LISTENERS_PER_THREAD; j++) {
+                            final RecordingListener<CurrentWeatherEvent> keptListener = new RecordingListener<>();
+                            final RecordingListener<CurrentWeatherEvent> removedListener = new RecordingListener<>();
+                            events.register(CurrentWeatherEvent.class, keptListener);
+                            events.register(CurrentWeatherEvent.class, removedListener);
+                            events.post(new CurrentWeatherEvent(null));
+                            events.unregister(CurrentWeatherEvent.class, removedListener);
+                            keptListeners.add(keptListener);
+                        }
+                    }
+                    catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    finally {
+                        done.countDown();
+                    }
+                }
+            }, "TweatherEventsTests-" + i).start();
+        }
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+
+        final CurrentWeatherEvent event = new CurrentWeatherEvent(null);
+        events.post(event);
+
+        assertThat(keptListeners).hasSize(NUMBER_OF_THREADS * LISTENERS_PER_THREAD);
+        for (RecordingListener<CurrentWeatherEvent> listener : keptListeners) {
+            assertThat(listener.events).contains(event);
+        }
+
+        for (RecordingListener<CurrentWeatherEvent> listener : keptListeners) {
+            events.unregister(CurrentWeatherEvent.class, listener);
+        }
+        assertThat(events.hasListeners(CurrentWeatherEvent.class)).isFalse();
+    }
+
+    /**
+     * Listener that records the events it receives
+     *
+     */
+    private static final class RecordingListener<T> implements TweatherEventListener<T> {
+        // Received events
+        private final List<T> events = Collections.synchronizedList(new ArrayList<T>());
+
+        @Override
+        public void onEvent(T event) {
+            events.add(event);
+        }
+    }
+}
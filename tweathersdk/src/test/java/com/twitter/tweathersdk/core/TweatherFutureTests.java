@@ -0,0 +1,167 @@
+package com.twitter.tweathersdk.core;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Basic unit tests for TweatherFuture class
+ *
+ */
+
+public class TweatherFutureTests {
+    /**
+     * Test case to verify that a future can only be completed once
+     * and listeners get the result, even if added later
+     *
+     */
+    @Test
+    public void testCompleteOnce() throws Exception {
+        final TweatherFuture<String> future = new TweatherFuture<>();
+        final RecordingListener<String> earlyListener = new RecordingListener<>();
+        future.addListener(earlyListener);
+
+        assertThat(future.isDone()).isFalse();
+        assertThat(future.complete("first")).isTrue();
+        assertThat(future.complete("second")).isFalse();
+        assertThat(future.completeExceptionally(new IOException())).isFalse();
+
+        final RecordingListener<String> lateListener = new RecordingListener<>();
+        future.addListener(lateListener);
+
+        assertThat(future.get()).isEqualTo("first");
+        assertThat(earlyListener.value).isEqualTo("first");
+        assertThat(lateListener.value).isEqualTo("first");
+    }
+
+    /**
+     * Test case to verify that map and flatMap compose results
+     * and pass failures through
+     *
+     */
+    @Test
+    public void testComposition() throws Exception {
+        final TweatherFuture<String> future = new TweatherFuture<>();
+        final TweatherFuture<Integer> composed = future
+                .map(new TweatherFuture.Transform<String, Integer>() {
+                    @Override
+                    public Integer apply(String value) {
+                        return value.length();
+                    }
+                })
+                .flatMap(new TweatherFuture.Transform<Integer, TweatherFuture<Integer>>() {
+                    @Override
+                    public TweatherFuture<Integer> apply(Integer value) {
+                        return TweatherFuture.completed(value * 2);
+                    }
+                });
+
+        future.complete("weather");
+        assertThat(composed.get(1, TimeUnit.SECONDS)).isEqualTo(14);
+
+        final TweatherFuture<Integer> failed = TweatherFuture.<String>failed(new IOException("offline"))
+                .map(new TweatherFuture.Transform<String, Integer>() {
+                    @Override
+                    public Integer apply(String value) {
+                        return value.length();
+                    }
+                });
+
+        final RecordingListener<Integer> listener = new RecordingListener<>();
+        failed.addListener(listener);
+        assertThat(listener.error).isInstanceOf(IOException.class);
+    }
+
+    /**
+     * Test case to verify that a transform that throws fails
+     * the composed future
+     *
+     */
+    @Test (expected = ExecutionException.class)
+    public void testTransformFailure() throws Exception {
+        TweatherFuture.completed("weather")
+                .map(new TweatherFuture.Transform<String, Integer>() {
+                    @Override
+                    public Integer apply(String value) throws Exception {
+                        throw new IOException("Bad data");
+                    }
+                })
+                .get();
+    }
+
+    /**
+     * Test case to verify that withTimeout fails the future if
+     * the result is not available in time
+     *
+     */
+    @Test
+    public void testTimeout() throws Exception {
+        final TweatherFuture<String> future = new TweatherFuture<>();
+        final TweatherFuture<String> timedFuture = future.withTimeout(50, TimeUnit.MILLISECONDS);
+
+        try {
+            timedFuture.get(5, TimeUnit.SECONDS);
+            throw new AssertionError("Expected a timeout");
+        }
+        catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(TimeoutException.class);
+        }
+
+        // Original future is not affected
+        assertThat(future.isDone()).isFalse();
+
+        // Result in time is passed through
+        final TweatherFuture<String> fastFuture = TweatherFuture.completed("weather");
+        assertThat(fastFuture.withTimeout(1, TimeUnit.SECONDS).get()).isEqualTo("weather");
+    }
+
+    /**
+     * Test case to verify that a cancelled future notifies
+     * listeners and ignores a later result
+     *
+     */
+    @Test
+    public void testCancel() throws Exception {
+        final TweatherFuture<String> future = new TweatherFuture<>();
+        final RecordingListener<String> listener = new RecordingListener<>();
+        future.addListener(listener);
+
+        assertThat(future.cancel(true)).isTrue();
+        assertThat(future.isCancelled()).isTrue();
+        assertThat(future.complete("late")).isFalse();
+        assertThat(listener.error).isInstanceOf(CancellationException.class);
+
+        try {
+            future.get();
+            throw new AssertionError("Expected a cancellation");
+        }
+        catch (CancellationException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * Listener that records the result it received
+     *
+     */
+    private static class RecordingListener<T> implements TweatherFuture.Listener<T> {
+        private T value;
+        private Throwable error;
+
+        @Override
+        public void onSuccess(T value) {
+            this.value = value;
+        }
+
+        @Override
+        public void onFailure(Throwable error) {
+            this.error = error;
+        }
+    }
+}
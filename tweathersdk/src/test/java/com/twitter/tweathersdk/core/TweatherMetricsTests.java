@@ -0,0 +1,270 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.Weather;
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.within;
+
+/**
+ * Unit tests for TweatherMetrics and AtomicHistogram classes, and
+ * the metrics recorded by HttpWeatherSource and BulkWeatherFetch
+ *
+ */
+
+public class TweatherMetricsTests {
+    // Response body used by the tests
+    private static final String BODY = "{\"weather\":{\"temp\":14.77},\"name\":\"San Francisco\"}";
+
+    private MockWebServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * Test case to verify histogram count, mean, max and
+     * percentiles are within the bucket precision
+     *
+     */
+    @Test
+    public void testHistogram() {
+        final AtomicHistogram histogram = new AtomicHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        histogram.record(-5);
+
+        final MetricsSnapshot.Histogram snapshot = histogram.snapshot();
+        assertThat(snapshot.getCount()).isEqualTo(1001);
+        assertThat(snapshot.getMax()).isEqualTo(1000);
+        assertThat(snapshot.getMean()).isCloseTo(500.0, within(1.0));
+        assertThat(snapshot.getPercentile(0)).isEqualTo(0);
+        assertThat((double) snapshot.getPercentile(50)).isCloseTo(500.0, within(500 * 0.125));
+        assertThat((double) snapshot.getPercentile(99)).isCloseTo(990.0, within(990 * 0.125));
+        assertThat(snapshot.getPercentile(100)).isEqualTo(1000);
+
+        assertThat(new AtomicHistogram().snapshot().getPercentile(99)).isEqualTo(0);
+    }
+
+    /**
+     * Test case to verify that every value falls in a bucket
+     * whose bounds are within 12.5% of it
+     *
+     */
+    @Test
+    public void testHistogramBuckets() {
+        final Random random = new Random(42);
+        final List<Long> values = new ArrayList<>(Arrays.asList(0L, 7L, 8L, 15L, 16L, 1023L, 1024L, Long.MAX_VALUE));
+        for (int i = 0; i < 10000; i++) {
+            values.add((random.nextLong() >>> 1) >>> random.nextInt(63));
+        }
+
+        for (long value : values) {
+            final int index = AtomicHistogram.bucketIndex(value);
+            final long lowerBound = index == 0 ? 0 : AtomicHistogram.bucketUpperBound(index - 1) + 1;
+
+            assertThat(index).isBetween(0, AtomicHistogram.NUMBER_OF_BUCKETS - 1);
+            assertThat(value).isBetween(lowerBound, AtomicHistogram.bucketUpperBound(index));
+            assertThat((double) (AtomicHistogram.bucketUpperBound(index) - lowerBound)).isLessThanOrEqualTo(value * 0.125);
+        }
+    }
+
+    /**
+     * Test case to verify that nothing is lost when many
+     * threads record at the same time
+     *
+     */
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        final TweatherMetrics metrics = new TweatherMetrics();
+        final int numberOfThreads = 4;
+        final int requestsPerThread = 10000;
+        final List<Thread> threads = new ArrayList<>(numberOfThreads);
+
+        for (int i = 0; i < numberOfThreads; i++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < requestsPerThread; j++) {
+                        metrics.requestStarted("endpoint");
+                        metrics.requestFinished("endpoint", j, j % 10 == 0 ?
+                                MetricsRecorder.REQUEST_FAILED : MetricsRecorder.REQUEST_SUCCEEDED);
+                        metrics.cacheLookup(MetricsRecorder.CACHE_MISS);
+                    }
+                }
+            }));
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        final MetricsSnapshot snapshot = metrics.snapshot();
+        final MetricsSnapshot.Endpoint endpoint = snapshot.getEndpoints().get("endpoint");
+        assertThat(endpoint.getRequests()).isEqualTo(numberOfThreads * requestsPerThread);
+        assertThat(endpoint.getInFlight()).isEqualTo(0);
+        assertThat(endpoint.getErrors()).isEqualTo(numberOfThreads * requestsPerThread / 10);
+        assertThat(endpoint.getLatency().getCount()).isEqualTo(numberOfThreads * requestsPerThread);
+        assertThat(endpoint.getLatency().getMax()).isEqualTo(requestsPerThread - 1);
+        assertThat(snapshot.getCacheMisses()).isEqualTo(numberOfThreads * requestsPerThread);
+    }
+
+    /**
+     * Test case to verify the metrics HttpWeatherSource records
+     * for successful, failed and cancelled requests
+     *
+     */
+    @Test
+    public void testHttpWeatherSourceMetrics() throws Exception {
+        final TweatherMetrics metrics = new TweatherMetrics();
+        final HttpWeatherSource source = new HttpWeatherSource("test", server.url("/").toString(), "current.json",
+                "future_%d.json", HttpWeatherSource.TWEATHER_ADAPTER, new OkHttpClient(), metrics);
+
+        server.enqueue(new MockResponse().setBody(BODY));
+        server.enqueue(new MockResponse().setChunkedBody(BODY, 8));
+        server.enqueue(new MockResponse().setResponseCode(500));
+
+        source.currentWeather(WeatherLocation.of(37.77, -122.42)).get(5, TimeUnit.SECONDS);
+        source.currentWeather(WeatherLocation.of("London")).get(5, TimeUnit.SECONDS);
+        try {
+            source.futureWeather(1).get(5, TimeUnit.SECONDS);
+            throw new AssertionError("get should have thrown");
+        }
+        catch (ExecutionException e) {
+            // Expected
+        }
+
+        // No response, cancelled while in flight
+        source.futureWeather(2).cancel(true);
+
+        final String currentEndpoint = server.url("/current.json").toString();
+        final String futureEndpoint = server.url("/future_1.json").toString();
+        awaitNoneInFlight(metrics, currentEndpoint);
+        awaitNoneInFlight(metrics, futureEndpoint);
+
+        final MetricsSnapshot snapshot = metrics.snapshot();
+        final MetricsSnapshot.Endpoint current = snapshot.getEndpoints().get(currentEndpoint);
+        assertThat(current.getRequests()).isEqualTo(2);
+        assertThat(current.getErrors()).isEqualTo(0);
+        assertThat(current.getLatency().getCount()).isEqualTo(2);
+        assertThat(current.getResponseBytes().getCount()).isEqualTo(2);
+        assertThat(current.getResponseBytes().getMax()).isEqualTo(BODY.length());
+        assertThat(current.getResponseBytes().getSum()).isEqualTo(2 * BODY.length());
+        assertThat(current.getDecodeTime().getCount()).isEqualTo(2);
+
+        final MetricsSnapshot.Endpoint future = snapshot.getEndpoints().get(futureEndpoint);
+        assertThat(future.getErrors()).isEqualTo(1);
+        assertThat(future.getResponseBytes().getCount()).isEqualTo(0);
+
+        awaitNoneInFlight(metrics, server.url("/future_2.json").toString());
+        final MetricsSnapshot.Endpoint cancelled = metrics.snapshot().getEndpoints().get(server.url("/future_2.json").toString());
+        assertThat(cancelled.getCancelled()).isEqualTo(1);
+        assertThat(cancelled.getLatency().getCount()).isEqualTo(0);
+    }
+
+    /**
+     * Test case to verify the cache outcomes and fan-out time
+     * BulkWeatherFetch records
+     *
+     */
+    @Test
+    public void testBulkMetrics() throws InterruptedException {
+        final TweatherMetrics metrics = new TweatherMetrics();
+        final LocationWeatherCache cache = new LocationWeatherCache(100, TimeUnit.MINUTES.toMillis(10));
+        cache.put(WeatherLocation.of("London").normalize(0.01).getKey(), weatherData());
+
+        final WeatherSource source = new WeatherSource() {
+            @Override
+            public String getName() {
+                return "test";
+            }
+
+            @Override
+            public TweatherFuture<WeatherDataPojo> currentWeather() {
+                return TweatherFuture.completed(weatherData());
+            }
+
+            @Override
+            public TweatherFuture<WeatherDataPojo> currentWeather(WeatherLocation location) {
+                return TweatherFuture.completed(weatherData());
+            }
+
+            @Override
+            public TweatherFuture<WeatherDataPojo> futureWeather(int day) {
+                return TweatherFuture.completed(weatherData());
+            }
+        };
+
+        final BulkWeatherResults results = new BulkWeatherFetch(source, cache, new SingleFlight<WeatherDataPojo>(),
+                metrics, Arrays.asList(WeatherLocation.of("London"), WeatherLocation.of("Paris"),
+                WeatherLocation.of("Rome")), 0.01, 2).start();
+
+        assertThat(results.getNumberOfResultsReceived()).isEqualTo(3);
+
+        final MetricsSnapshot snapshot = metrics.snapshot();
+        assertThat(snapshot.getCacheFresh()).isEqualTo(1);
+        assertThat(snapshot.getCacheMisses()).isEqualTo(2);
+        assertThat(snapshot.getFanOuts().get(MetricsRecorder.FAN_OUT_BULK).getCount()).isEqualTo(1);
+    }
+
+    /**
+     * Helper method to wait until an endpoint has no request
+     * in flight. Requests are finished on OkHttp threads, right
+     * after the future is completed
+     *
+     * @param metrics - TweatherMetrics
+     * @param endpoint - Endpoint
+     */
+    private static void awaitNoneInFlight(final TweatherMetrics metrics, final String endpoint) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            final MetricsSnapshot.Endpoint snapshot = metrics.snapshot().getEndpoints().get(endpoint);
+            if (snapshot != null && snapshot.getInFlight() == 0) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+
+        throw new AssertionError("Requests to " + endpoint + " are still in flight");
+    }
+
+    /**
+     * Helper method to create weather data
+     *
+     * @return WeatherDataPojo
+     */
+    private static WeatherDataPojo weatherData() {
+        final Weather weather = new Weather();
+        weather.setTemp(10.0);
+
+        final WeatherDataPojo weatherData = new WeatherDataPojo();
+        weatherData.setWeather(weather);
+        return weatherData;
+    }
+}
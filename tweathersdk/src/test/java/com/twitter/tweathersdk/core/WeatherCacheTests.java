@@ -0,0 +1,83 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.Weather;
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Basic unit tests for WeatherCache class
+ *
+ */
+
+public class WeatherCacheTests {
+    // Endpoint used as cache key
+    private static final String KEY = "http://localhost/current.json";
+
+    /**
+     * Test case to verify that nothing is returned
+     * for an endpoint that is not cached
+     *
+     */
+    @Test
+    public void testMissingEntry() {
+        final WeatherCache weatherCache = new WeatherCache(TimeUnit.MINUTES.toMillis(10));
+
+        assertThat(weatherCache.get(KEY)).isNull();
+        assertThat(weatherCache.isFresh(weatherCache.get(KEY))).isFalse();
+    }
+
+    /**
+     * Test case to verify freshness of an entry within
+     * and after the TTL
+     *
+     */
+    @Test
+    public void testFreshness() {
+        final WeatherCache freshCache = new WeatherCache(TimeUnit.MINUTES.toMillis(10));
+        freshCache.put(KEY, weatherData(14.77d));
+        assertThat(freshCache.isFresh(freshCache.get(KEY))).isTrue();
+
+        final WeatherCache staleCache = new WeatherCache(0);
+        staleCache.put(KEY, weatherData(14.77d));
+        assertThat(staleCache.isFresh(staleCache.get(KEY))).isFalse();
+
+        // Stale data is still served
+        assertThat(staleCache.get(KEY).weatherData.getWeather().getTemp()).isEqualTo(14.77d);
+    }
+
+    /**
+     * Test case to verify that put reports whether
+     * cached data has changed
+     *
+     */
+    @Test
+    public void testChangeDetection() {
+        final WeatherCache weatherCache = new WeatherCache(TimeUnit.MINUTES.toMillis(10));
+
+        assertThat(weatherCache.put(KEY, weatherData(14.77d))).isTrue();
+        assertThat(weatherCache.put(KEY, weatherData(14.77d))).isFalse();
+        assertThat(weatherCache.put(KEY, weatherData(15.01d))).isTrue();
+    }
+
+    /**
+     * Helper method to create weather data with
+     * a temperature
+     *
+     * @param temperature - Temperature
+     * @return WeatherDataPojo
+     */
+    private static WeatherDataPojo weatherData(final double temperature) {
+        final Weather weather = new Weather();
+        weather.setTemp(temperature);
+
+        final WeatherDataPojo weatherData = new WeatherDataPojo();
+        weatherData.setWeather(weather);
+        weatherData.setName("San Francisco");
+        return weatherData;
+    }
+}
@@ -0,0 +1,175 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.Clouds;
+import com.twitter.tweathersdk.model.Coord;
+import com.twitter.tweathersdk.model.Rain;
+import com.twitter.tweathersdk.model.Weather;
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+import com.twitter.tweathersdk.model.Wind;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Unit tests for WeatherDataCodec class
+ *
+ */
+
+public class WeatherDataCodecTests {
+    /**
+     * Test case to verify that weather data with every field
+     * set is decoded as it was encoded, and is smaller than JSON
+     *
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        final WeatherDataPojo weatherData = fullWeatherData("San Francisco");
+        final byte[] bytes = WeatherDataCodec.encode(weatherData);
+
+        assertThat(bytes.length).isEqualTo(WeatherDataCodec.encodedSize(weatherData));
+        assertThat(WeatherDataCodec.decode(bytes)).isEqualTo(weatherData);
+
+        final int jsonSize = WeatherDataDecoder.toJson(weatherData).getBytes(Charset.forName("UTF-8")).length;
+        assertThat(bytes.length).isLessThan(jsonSize / 2);
+    }
+
+    /**
+     * Test case to verify that null objects and null fields
+     * are decoded as null, not as 0
+     *
+     */
+    @Test
+    public void testNullFields() throws IOException {
+        final WeatherDataPojo empty = new WeatherDataPojo();
+        final WeatherDataPojo decodedEmpty = WeatherDataCodec.decode(WeatherDataCodec.encode(empty));
+        assertThat(decodedEmpty).isEqualTo(empty);
+        assertThat(decodedEmpty.getCoord()).isNull();
+        assertThat(decodedEmpty.getName()).isNull();
+
+        final WeatherDataPojo partial = new WeatherDataPojo();
+        final Weather weather = new Weather();
+        weather.setTemp(0.0d);
+        partial.setWeather(weather);
+        partial.setRain(new Rain());
+        partial.setName("");
+
+        final WeatherDataPojo decodedPartial = WeatherDataCodec.decode(WeatherDataCodec.encode(partial));
+        assertThat(decodedPartial).isEqualTo(partial);
+        assertThat(decodedPartial.getWeather().getTemp()).isEqualTo(0.0d);
+        assertThat(decodedPartial.getWeather().getPressure()).isNull();
+        assertThat(decodedPartial.getRain()).isNotNull();
+        assertThat(decodedPartial.getRain().get3h()).isNull();
+        assertThat(decodedPartial.getName()).isEmpty();
+    }
+
+    /**
+     * Test case to verify that names are encoded as UTF-8,
+     * including characters outside the BMP
+     *
+     */
+    @Test
+    public void testUtf8Names() throws IOException {
+        for (String name : Arrays.asList("Z\u00fcrich", "\u6771\u4eac", "Rain \ud83c\udf27")) {
+            final WeatherDataPojo weatherData = fullWeatherData(name);
+            final byte[] bytes = WeatherDataCodec.encode(weatherData);
+
+            assertThat(bytes.length).isEqualTo(WeatherDataCodec.FIXED_SIZE + name.getBytes(Charset.forName("UTF-8")).length);
+            assertThat(Arrays.copyOfRange(bytes, WeatherDataCodec.FIXED_SIZE, bytes.length))
+                    .isEqualTo(name.getBytes(Charset.forName("UTF-8")));
+            assertThat(WeatherDataCodec.decode(bytes).getName()).isEqualTo(name);
+        }
+    }
+
+    /**
+     * Test case to verify that records are packed back to back
+     * in one buffer, in the byte order of the buffer
+     *
+     */
+    @Test
+    public void testPackedRecords() throws IOException {
+        final WeatherDataPojo first = fullWeatherData("London");
+        final WeatherDataPojo second = new WeatherDataPojo();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(WeatherDataCodec.encodedSize(first) +
+                WeatherDataCodec.encodedSize(second)).order(ByteOrder.LITTLE_ENDIAN);
+
+        WeatherDataCodec.encode(first, buffer);
+        WeatherDataCodec.encode(second, buffer);
+        assertThat(buffer.hasRemaining()).isFalse();
+
+        buffer.flip();
+        assertThat(WeatherDataCodec.decode(buffer)).isEqualTo(first);
+        assertThat(WeatherDataCodec.decode(buffer)).isEqualTo(second);
+        assertThat(buffer.hasRemaining()).isFalse();
+    }
+
+    /**
+     * Test case to verify that records of another version,
+     * truncated records and invalid names are rejected
+     *
+     */
+    @Test
+    public void testInvalidRecords() {
+        final byte[] bytes = WeatherDataCodec.encode(fullWeatherData("Paris"));
+
+        final byte[] otherVersion = bytes.clone();
+        otherVersion[0] = WeatherDataCodec.VERSION + 1;
+
+        final byte[] invalidName = bytes.clone();
+        invalidName[WeatherDataCodec.FIXED_SIZE] = (byte) 0x80;
+
+        for (byte[] invalid : Arrays.asList(otherVersion, invalidName, Arrays.copyOf(bytes, bytes.length - 1),
+                Arrays.copyOf(bytes, 10), new byte[0])) {
+            try {
+                WeatherDataCodec.decode(invalid);
+                throw new AssertionError("decode should have thrown");
+            }
+            catch (IOException e) {
+                // Expected
+            }
+        }
+    }
+
+    /**
+     * Helper method to create weather data with every
+     * field set
+     *
+     * @param name - Name of the place
+     * @return WeatherDataPojo
+     */
+    private static WeatherDataPojo fullWeatherData(final String name) {
+        final Coord coord = new Coord();
+        coord.setLon(-122.42f);
+        coord.setLat(37.77f);
+
+        final Weather weather = new Weather();
+        weather.setTemp(14.77d);
+        weather.setPressure(1007);
+        weather.setHumidity(85);
+
+        final Wind wind = new Wind();
+        wind.setSpeed(0.51f);
+        wind.setDeg(284);
+
+        final Rain rain = new Rain();
+        rain.set3h(1);
+
+        final Clouds clouds = new Clouds();
+        clouds.setCloudiness(65);
+
+        final WeatherDataPojo weatherData = new WeatherDataPojo();
+        weatherData.setCoord(coord);
+        weatherData.setWeather(weather);
+        weatherData.setWind(wind);
+        weatherData.setRain(rain);
+        weatherData.setClouds(clouds);
+        weatherData.setName(name);
+        return weatherData;
+    }
+}
@@ -0,0 +1,203 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.Rain;
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+import com.twitter.tweathersdk.model.WeatherDataPojo$TypeAdapter;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.within;
+
+/**
+ * Basic unit tests for WeatherDataDecoder class
+ *
+ */
+
+public class WeatherDataDecoderTests {
+    // JSON Media Type
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+    /**
+     * Helper method to create a response body from a
+     * test resource
+     *
+     * @param resourceName - Name of the resource
+     * @return ResponseBody backed by the resource
+     * @throws IOException - If resource cannot be read
+     */
+    static ResponseBody resourceBody(final String resourceName) throws IOException {
+        final InputStream inputStream = WeatherDataDecoderTests.class.getClassLoader().getResourceAsStream(resourceName);
+        final Buffer buffer = new Buffer();
+        try {
+            buffer.readFrom(inputStream);
+        }
+        finally {
+            inputStream.close();
+        }
+
+        return ResponseBody.create(JSON, buffer.size(), buffer);
+    }
+
+    /**
+     * Test case to verify that the whole model graph
+     * is decoded from a current weather response
+     *
+     */
+    @Test
+    public void testDecodeCurrentWeather() throws IOException {
+        final WeatherDataPojo weatherData = WeatherDataDecoder.decode(resourceBody("current.json"));
+
+        assertThat(weatherData.getName()).isEqualTo("San Francisco");
+        assertThat(weatherData.getCoord().getLon()).isEqualTo(-122.42f, within(0.001f));
+        assertThat(weatherData.getCoord().getLat()).isEqualTo(37.77f, within(0.001f));
+        assertThat(weatherData.getWeather().getTemp()).isEqualTo(14.77d, within(0.001d));
+        assertThat(weatherData.getWeather().getPressure()).isEqualTo(1007);
+        assertThat(weatherData.getWeather().getHumidity()).isEqualTo(85);
+        assertThat(weatherData.getWind().getSpeed()).isEqualTo(0.51f, within(0.001f));
+        assertThat(weatherData.getWind().getDeg()).isEqualTo(284);
+        assertThat(weatherData.getRain().get3h()).isEqualTo(1);
+        assertThat(weatherData.getClouds().getCloudiness()).isEqualTo(65);
+    }
+
+    /**
+     * Test case to verify that the shared Gson uses the
+     * generated (reflection free) adapters
+     *
+     */
+    @Test
+    public void testGeneratedAdaptersAreRegistered() {
+        assertThat(WeatherDataDecoder.getGson().getAdapter(WeatherDataPojo.class))
+                .isInstanceOf(WeatherDataPojo$TypeAdapter.class);
+        assertThat(WeatherDataDecoder.getGson().getAdapter(Rain.class).getClass().getName())
+                .isEqualTo("com.twitter.tweathersdk.model.Rain$TypeAdapter");
+    }
+
+    /**
+     * Test case to verify that a null body decodes
+     * to null
+     *
+     */
+    @Test
+    public void testDecodeNullBody() throws IOException {
+        assertThat(WeatherDataDecoder.decode(null)).isNull();
+    }
+
+    /**
+     * Test case to verify that a malformed body results
+     * in IOException
+     *
+     */
+    @Test (expected = IOException.class)
+    public void testDecodeMalformedBody() throws IOException {
+        WeatherDataDecoder.decode(ResponseBody.create(JSON, "{\"weather\": {\"temp\": "));
+    }
+
+    /**
+     * Test case to verify that Utf8SourceReader decodes
+     * multi-byte and supplementary chars, even when a surrogate
+     * pair is split across reads, and malformed bytes as U+FFFD
+     *
+     */
+    @Test
+    public void testUtf8SourceReader() throws IOException {
+        final String text = "S\u00E3o Paulo \u2600 \uD83C\uDF27";
+        final Buffer source = new Buffer().writeUtf8(text).writeByte(0xFF);
+        final Utf8SourceReader reader = new Utf8SourceReader(source);
+
+        final StringBuilder decoded = new StringBuilder();
+        final char[] chars = new char[3];
+        int count;
+        while ((count = reader.read(chars, 0, chars.length)) != -1) {
+            decoded.append(chars, 0, count);
+        }
+        reader.close();
+
+        assertThat(decoded.toString()).isEqualTo(text + "\uFFFD");
+    }
+
+    /**
+     * Test case to verify that a 4 byte code point read into
+     * a 1 char buffer is returned as a surrogate pair, one char
+     * per read
+     *
+     */
+    @Test
+    public void testUtf8SourceReaderSurrogateSplit() throws IOException {
+        final Utf8SourceReader reader = new Utf8SourceReader(new Buffer().writeUtf8("\uD83C\uDF27"));
+        final char[] chars = new char[1];
+
+        assertThat(reader.read(chars, 0, 1)).isEqualTo(1);
+        assertThat(chars[0]).isEqualTo('\uD83C');
+        assertThat(reader.read(chars, 0, 1)).isEqualTo(1);
+        assertThat(chars[0]).isEqualTo('\uDF27');
+        assertThat(reader.read(chars, 0, 1)).isEqualTo(-1);
+        reader.close();
+    }
+
+    /**
+     * Test case to verify that malformed bytes are decoded as
+     * U+FFFD, like InputStreamReader, including a sequence cut
+     * off by the end of the body
+     *
+     */
+    @Test
+    public void testUtf8SourceReaderMalformed() throws IOException {
+        final byte[][] malformedInputs = {
+                {(byte) 0xFF},
+                {(byte) 0xC3, 0x28},
+                {0x41, (byte) 0x80, 0x42},
+                {0x41, (byte) 0xE2, (byte) 0x98},
+                {0x41, (byte) 0xF0, (byte) 0x9F, (byte) 0x8C},
+        };
+
+        for (byte[] input : malformedInputs) {
+            final String expected = readAll(new InputStreamReader(new ByteArrayInputStream(input), "UTF-8"));
+            assertThat(expected).contains("\uFFFD");
+            assertThat(readAll(new Utf8SourceReader(new Buffer().write(input)))).isEqualTo(expected);
+        }
+    }
+
+    /**
+     * Helper method to read a reader to the end, one char
+     * at a time
+     *
+     * @param reader - Reader, closed at the end
+     * @return Chars read
+     * @throws IOException - If reader cannot be read
+     */
+    private static String readAll(final Reader reader) throws IOException {
+        final StringBuilder chars = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1) {
+            chars.append((char) c);
+        }
+        reader.close();
+
+        return chars.toString();
+    }
+
+    /**
+     * Test case to verify that a body with a declared
+     * charset other than UTF-8 is decoded with that charset
+     *
+     */
+    @Test
+    public void testDecodeLatin1Body() throws IOException {
+        final byte[] json = "{\"name\":\"S\u00E3o Paulo\"}".getBytes("ISO-8859-1");
+        final WeatherDataPojo weatherData = WeatherDataDecoder.decode(
+                ResponseBody.create(MediaType.parse("application/json; charset=iso-8859-1"), json));
+
+        assertThat(weatherData.getName()).isEqualTo("S\u00E3o Paulo");
+    }
+}
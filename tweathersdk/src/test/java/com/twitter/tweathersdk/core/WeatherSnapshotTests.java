@@ -0,0 +1,159 @@
+package com.twitter.tweathersdk.core;
+
+import com.twitter.tweathersdk.model.Weather;
+import com.twitter.tweathersdk.model.WeatherDataPojo;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Unit tests for WeatherSnapshot class
+ *
+ */
+
+public class WeatherSnapshotTests {
+    // Cache keys used by the tests
+    private static final String CURRENT_KEY = "http://localhost/current.json";
+    private static final String FUTURE_KEY = "http://localhost/future_1.json";
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Test case to verify that entries written to a snapshot
+     * are read back with their fetch times
+     *
+     */
+    @Test
+    public void testWriteAndRead() throws IOException {
+        final File file = new File(temporaryFolder.getRoot(), "snapshots/weather.bin");
+        final WeatherSnapshot snapshot = new WeatherSnapshot(file);
+
+        final Map<String, WeatherCache.Entry> entries = new LinkedHashMap<>();
+        entries.put(CURRENT_KEY, new WeatherCache.Entry(weatherData(14.77d, "San Francisco"), 1000L));
+        entries.put(FUTURE_KEY, new WeatherCache.Entry(weatherData(-3.5d, "Z\u00fcrich"), 2000L));
+        snapshot.write(entries);
+
+        final Map<String, WeatherCache.Entry> readEntries = snapshot.read();
+        assertThat(readEntries.keySet()).containsExactly(CURRENT_KEY, FUTURE_KEY);
+        assertThat(readEntries.get(CURRENT_KEY).weatherData).isEqualTo(entries.get(CURRENT_KEY).weatherData);
+        assertThat(readEntries.get(CURRENT_KEY).fetchedAtMillis).isEqualTo(1000L);
+        assertThat(readEntries.get(FUTURE_KEY).weatherData.getName()).isEqualTo("Z\u00fcrich");
+
+        // No temporary file is left behind
+        assertThat(file.getParentFile().list()).containsExactly("weather.bin");
+    }
+
+    /**
+     * Test case to verify that a new snapshot replaces
+     * the previous one
+     *
+     */
+    @Test
+    public void testOverwrite() throws IOException {
+        final WeatherSnapshot snapshot = new WeatherSnapshot(temporaryFolder.newFile("weather.bin"));
+
+        snapshot.write(singleEntry(10.0d));
+        snapshot.write(singleEntry(20.0d));
+
+        assertThat(snapshot.read().get(CURRENT_KEY).weatherData.getWeather().getTemp()).isEqualTo(20.0d);
+    }
+
+    /**
+     * Test case to verify that a missing, empty, truncated or
+     * corrupt snapshot is ignored
+     *
+     */
+    @Test
+    public void testInvalidSnapshotIsIgnored() throws IOException {
+        assertThat(new WeatherSnapshot(new File(temporaryFolder.getRoot(), "missing.bin")).read()).isEmpty();
+        assertThat(new WeatherSnapshot(temporaryFolder.newFile("empty.bin")).read()).isEmpty();
+
+        final File file = temporaryFolder.newFile("weather.bin");
+        final WeatherSnapshot snapshot = new WeatherSnapshot(file);
+        snapshot.write(singleEntry(10.0d));
+
+        // Flip a byte of the payload
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.seek(WeatherSnapshot.HEADER_SIZE + 10);
+            final int value = randomAccessFile.read();
+            randomAccessFile.seek(WeatherSnapshot.HEADER_SIZE + 10);
+            randomAccessFile.write(value ^ 0xFF);
+        }
+        finally {
+            randomAccessFile.close();
+        }
+        assertThat(snapshot.read()).isEmpty();
+
+        // Truncate it
+        snapshot.write(singleEntry(10.0d));
+        final RandomAccessFile truncatedFile = new RandomAccessFile(file, "rw");
+        try {
+            truncatedFile.setLength(truncatedFile.length() - 1);
+        }
+        finally {
+            truncatedFile.close();
+        }
+        assertThat(snapshot.read()).isEmpty();
+    }
+
+    /**
+     * Test case to verify that restored entries don't replace
+     * fresher data and are stale once their TTL has passed
+     *
+     */
+    @Test
+    public void testRestoreIntoCache() {
+        final WeatherCache weatherCache = new WeatherCache(TimeUnit.MINUTES.toMillis(10));
+        final long anHourAgo = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1);
+
+        assertThat(weatherCache.restore(CURRENT_KEY, new WeatherCache.Entry(weatherData(10.0d, null), anHourAgo))).isTrue();
+        assertThat(weatherCache.isFresh(weatherCache.get(CURRENT_KEY))).isFalse();
+
+        weatherCache.put(FUTURE_KEY, weatherData(20.0d, null));
+        assertThat(weatherCache.restore(FUTURE_KEY, new WeatherCache.Entry(weatherData(10.0d, null), anHourAgo))).isFalse();
+        assertThat(weatherCache.get(FUTURE_KEY).weatherData.getWeather().getTemp()).isEqualTo(20.0d);
+    }
+
+    /**
+     * Helper method to create entries with one current
+     * weather entry
+     *
+     * @param temperature - Temperature
+     * @return Entries
+     */
+    private static Map<String, WeatherCache.Entry> singleEntry(final double temperature) {
+        final Map<String, WeatherCache.Entry> entries = new LinkedHashMap<>();
+        entries.put(CURRENT_KEY, new WeatherCache.Entry(weatherData(temperature, null), System.currentTimeMillis()));
+        return entries;
+    }
+
+    /**
+     * Helper method to create weather data with
+     * a temperature and name
+     *
+     * @param temperature - Temperature
+     * @param name - Name of the place, can be null
+     * @return WeatherDataPojo
+     */
+    private static WeatherDataPojo weatherData(final double temperature, final String name) {
+        final Weather weather = new Weather();
+        weather.setTemp(temperature);
+
+        final WeatherDataPojo weatherData = new WeatherDataPojo();
+        weatherData.setWeather(weather);
+        weatherData.setName(name);
+        return weatherData;
+    }
+}